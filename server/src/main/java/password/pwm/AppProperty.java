@@ -51,7 +51,12 @@ public enum AppProperty
     BACKUP_CONFIG_COUNT                             ( "backup.config.count" ),
     BACKUP_LOCALDB_COUNT                            ( "backup.localdb.count" ),
     CACHE_ENABLE                                    ( "cache.enable" ),
+    CACHE_LOCALDB_ENABLE                            ( "cache.localdb.enable" ),
+    CACHE_LOCALDB_MAX_ITEMS                         ( "cache.localdb.maxItems" ),
+    CACHE_MEMORY_LOAD_WAIT_MS                       ( "cache.memory.loadWaitMS" ),
+    CACHE_MEMORY_MAX_BYTES                          ( "cache.memory.maxBytes" ),
     CACHE_MEMORY_MAX_ITEMS                          ( "cache.memory.maxItems" ),
+    CACHE_MEMORY_REFRESH_AHEAD_MS                   ( "cache.memory.refreshAheadMS" ),
     CACHE_PWRULECHECK_LIFETIME_MS                   ( "cache.pwRuleCheckLifetimeMS" ),
     CACHE_FORM_UNIQUE_VALUE_LIFETIME_MS             ( "cache.uniqueFormValueLifetimeMS" ),
     CLIENT_ACTIVITY_MAX_EPS_RATE                    ( "client.ajax.activityMaxEpsRate" ),
@@ -79,6 +84,8 @@ public enum AppProperty
     CONFIG_GUIDE_IDLE_TIMEOUT                       ( "configGuide.idleTimeoutSeconds" ),
     CONFIG_MANAGER_ZIPDEBUG_MAXLOGBYTES             ( "configManager.zipDebug.maxLogBytes" ),
     CONFIG_MANAGER_ZIPDEBUG_MAXLOGSECONDS           ( "configManager.zipDebug.maxLogSeconds" ),
+    CLUSTER_DB_CACHE_INVALIDATION_MAX_AGE_SECONDS   ( "cluster.db.cacheInvalidationMaxAgeSeconds" ),
+    CLUSTER_DB_CACHE_INVALIDATION_POLL_SECONDS      ( "cluster.db.cacheInvalidationPollSeconds" ),
     CLUSTER_DB_ENABLE                               ( "cluster.db.enable" ),
     CLUSTER_DB_HEARTBEAT_SECONDS                    ( "cluster.db.heartbeatSeconds" ),
     CLUSTER_DB_NODE_TIMEOUT_SECONDS                 ( "cluster.db.nodeTimeoutSeconds" ),
@@ -179,7 +186,14 @@ public enum AppProperty
     LOCALDB_LOGWRITER_BUFFER_SIZE                   ( "localdb.logWriter.bufferSize" ),
     LOCALDB_LOGWRITER_MAX_BUFFER_WAIT_MS            ( "localdb.logWriter.maxBufferWaitMs" ),
     LOCALDB_LOGWRITER_MAX_TRIM_SIZE                 ( "localdb.logWriter.maxTrimSize" ),
+    LOCALDB_LOGWRITER_OVERFLOW_POLICY               ( "localdb.logWriter.overflowPolicy" ),
+    LOCALDB_LOGWRITER_OVERFLOW_SAMPLE_RATE          ( "localdb.logWriter.overflowSampleRate" ),
+    LOCALDB_LOGWRITER_TEXT_INDEX_ENABLE             ( "localdb.logWriter.textIndex.enable" ),
     LOCALDB_RELOAD_WHEN_APP_RESTARTED               ( "localdb.reloadWhenAppRestarted" ),
+    LOCALDB_STORED_QUEUE_GROUP_COMMIT_ENABLE        ( "localdb.storedQueue.groupCommit.enable" ),
+    LOCALDB_STORED_QUEUE_GROUP_COMMIT_DURABILITY    ( "localdb.storedQueue.groupCommit.durability" ),
+    LOCALDB_STORED_QUEUE_GROUP_COMMIT_FLUSH_INTERVAL_MS ( "localdb.storedQueue.groupCommit.flushIntervalMs" ),
+    LOCALDB_STORED_QUEUE_GROUP_COMMIT_MAX_BATCH_SIZE ( "localdb.storedQueue.groupCommit.maxBatchSize" ),
     MACRO_RANDOM_CHAR_MAX_LENGTH                    ( "macro.randomChar.maxLength" ),
     MACRO_LDAP_ATTR_CHAR_MAX_LENGTH                 ( "macro.ldapAttr.maxLength" ),
 
@@ -194,11 +208,14 @@ public enum AppProperty
     INTRUDER_DELAY_PER_COUNT_MS                     ( "intruder.delayPerCountMS" ),
     INTRUDER_DELAY_MAX_JITTER_MS                    ( "intruder.delayMaxJitterMS" ),
     INTRUDER_STORAGE_HASH_ALGORITHM                 ( "intruder.storageHashAlgorithm" ),
+    HEALTHCHECK_CYCLE_TIMEOUT                       ( "healthCheck.cycleTimeoutSeconds" ),
     HEALTHCHECK_ENABLED                             ( "healthCheck.enabled" ),
     HEALTHCHECK_NOMINAL_CHECK_INTERVAL              ( "healthCheck.nominalCheckIntervalSeconds" ),
     HEALTHCHECK_MIN_CHECK_INTERVAL                  ( "healthCheck.minimumCheckIntervalSeconds" ),
     HEALTHCHECK_MAX_RECORD_AGE                      ( "healthCheck.maximumRecordAgeSeconds" ),
     HEALTHCHECK_MAX_FORCE_WAIT                      ( "healthCheck.maximumForceCheckWaitSeconds" ),
+    HEALTHCHECK_MAX_THREADS                         ( "healthCheck.maximumThreads" ),
+    HEALTHCHECK_SUPPLIER_TIMEOUT                    ( "healthCheck.supplierTimeoutSeconds" ),
     HEALTH_SUPPORT_BUNDLE_WRITE_INTERVAL_SECONDS    ( "health.supportBundle.file.writeIntervalSeconds" ),
     HEALTH_SUPPORT_BUNDLE_FILE_WRITE_COUNT          ( "health.supportBundle.file.writeRetentionCount" ),
     HEALTH_DISK_MIN_FREE_WARNING                    ( "health.disk.minFreeWarning" ),
@@ -220,6 +237,9 @@ public enum AppProperty
     LDAP_CACHE_CANONICAL_SECONDS                    ( "ldap.cache.canonical.seconds" ),
     LDAP_CACHE_USER_GUID_ENABLE                     ( "ldap.cache.userGuid.enable" ),
     LDAP_CACHE_USER_GUID_SECONDS                    ( "ldap.cache.userGuid.seconds" ),
+    LDAP_CACHE_USER_ATTRIBUTES_ENABLE               ( "ldap.cache.userAttributes.enable" ),
+    LDAP_CACHE_USER_ATTRIBUTES_MS                   ( "ldap.cache.userAttributes.lifetimeMS" ),
+    LDAP_CACHE_USER_ATTRIBUTES_PREFETCH             ( "ldap.cache.userAttributes.prefetch" ),
     LDAP_CHAI_SETTINGS                              ( "ldap.chaiSettings" ),
     LDAP_PROXY_CONNECTION_PER_PROFILE               ( "ldap.proxy.connectionsPerProfile" ),
     LDAP_PROXY_MAX_CONNECTIONS                      ( "ldap.proxy.maxConnections" ),
@@ -235,6 +255,10 @@ public enum AppProperty
     LDAP_PASSWORD_CHANGE_HELPDESK_ENABLE            ( "ldap.password.change.helpdesk.enable" ),
     LDAP_GUID_PATTERN                               ( "ldap.guid.pattern" ),
     LDAP_BROWSER_MAX_ENTRIES                        ( "ldap.browser.maxEntries" ),
+    LDAP_SEARCH_CACHE_ENABLE                        ( "ldap.search.cache.enable" ),
+    LDAP_SEARCH_CACHE_MAX_SIZE                      ( "ldap.search.cache.maxSize" ),
+    LDAP_SEARCH_CACHE_NEGATIVE_LIFETIME_MS          ( "ldap.search.cache.negativeLifetimeMS" ),
+    LDAP_SEARCH_CACHE_POSITIVE_LIFETIME_MS          ( "ldap.search.cache.positiveLifetimeMS" ),
     LDAP_SEARCH_PAGING_ENABLE                       ( "ldap.search.paging.enable" ),
     LDAP_SEARCH_PAGING_SIZE                         ( "ldap.search.paging.size" ),
     LDAP_SEARCH_PARALLEL_ENABLE                     ( "ldap.search.parallel.enable" ),
@@ -291,6 +315,7 @@ public enum AppProperty
     PASSWORD_STRENGTH_THRESHOLD_WEAK                ( "password.strength.threshold.weak" ),
     PASSWORD_STRENGTH_THRESHOLD_VERY_WEAK           ( "password.strength.threshold.veryWeak" ),
     PASSWORD_RULE_WORDLIST_FAIL_WHEN_CLOSED         ( "password.rule.wordlist.failWhenClosed" ),
+    PASSWORD_RULE_COMPILED_POLICY_MAX_AGE_MS        ( "password.rule.compiledPolicy.maxAgeMS" ),
     PHOTO_CLIENT_CACHE_SECONDS                      ( "photo.clientCacheTimeSeconds" ),
     PHOTO_INTERNAL_HTTP_PROXY_ENABLE                ( "photo.internalHttpProxy.enable" ),
     PWNOTIFY_BATCH_COUNT                            ( "pwNotify.batch.count" ),
@@ -310,6 +335,7 @@ public enum AppProperty
     QUEUE_EMAIL_RETRY_TIMEOUT_MS                    ( "queue.email.retryTimeoutMs" ),
     QUEUE_EMAIL_MAX_COUNT                           ( "queue.email.maxCount" ),
     QUEUE_EMAIL_MAX_THREADS                         ( "queue.email.maxThreads" ),
+    QUEUE_EMAIL_WORKER_THREADS                      ( "queue.email.workerThreads" ),
     QUEUE_EMAIL_MAX_ITEMS_PER_CONNECTION            ( "queue.email.maxItemsPerConnection" ),
     QUEUE_EMAIL_MAX_SECONDS_PER_CONNECTION          ( "queue.email.maxSecondsPerConnection" ),
     QUEUE_SMS_RETRY_TIMEOUT_MS                      ( "queue.sms.retryTimeoutMs" ),
@@ -322,7 +348,11 @@ public enum AppProperty
     RECAPTCHA_VALIDATE_URL                          ( "recaptcha.validateUrl" ),
     REPORTING_LDAP_SEARCH_TIMEOUT_MS                ( "reporting.ldap.searchTimeoutMs" ),
     REPORTING_LDAP_SEARCH_THREADS                   ( "reporting.ldap.searchThreads" ),
+    REPORTING_LDAP_BULK_ATTRIBUTES_ENABLE           ( "reporting.ldap.bulkAttributes.enable" ),
     REPORTING_MAX_REPORT_AGE_SECONDS                ( "reporting.maxReportAgeSeconds" ),
+    REPORTING_INCREMENTAL_ENABLE                    ( "reporting.incremental.enable" ),
+    REPORTING_INCREMENTAL_FULL_REFRESH_SECONDS      ( "reporting.incremental.fullRefreshIntervalSeconds" ),
+    REPORTING_INCREMENTAL_OVERLAP_SECONDS           ( "reporting.incremental.overlapSeconds" ),
     SECURITY_STRIP_INLINE_JAVASCRIPT                ( "security.html.stripInlineJavascript" ),
     SECURITY_HTTP_FORCE_REQUEST_SEQUENCING          ( "security.http.forceRequestSequencing" ),
     SECURITY_HTTP_STRIP_HEADER_REGEX                ( "security.http.stripHeaderRegex" ),
@@ -375,9 +405,13 @@ public enum AppProperty
 
     /** Regular expression to be used for matching URLs to be shortened by the URL Shortening Service Class. */
     URL_SHORTNER_URL_REGEX                          ( "urlshortener.url.regex" ),
+    WORDLIST_BLOOM_FILTER_ENABLE                    ( "wordlist.bloomFilter.enable" ),
+    WORDLIST_BLOOM_FILTER_FALSE_POSITIVE_RATE       ( "wordlist.bloomFilter.falsePositiveRate" ),
+    WORDLIST_BLOOM_FILTER_MAX_BYTES                 ( "wordlist.bloomFilter.maxBytes" ),
     WORDLIST_BUILTIN_PATH                           ( "wordlist.builtin.path" ),
     WORDLIST_CHAR_LENGTH_MAX                        ( "wordlist.maxCharLength" ),
     WORDLIST_CHAR_LENGTH_MIN                        ( "wordlist.minCharLength" ),
+    WORDLIST_BUCKET_TYPE                            ( "wordlist.bucketType" ),
     WORDLIST_BUCKET_CHECK_WARNING_TIMEOUT_MS        ( "wordlist.bucketCheckLogWarningTimeoutMs" ),
     WORDLIST_WARMUP_COUNT                           ( "wordlist.warmup.count" ),
     WORDLIST_IMPORT_AUTO_IMPORT_RECHECK_SECONDS     ( "wordlist.import.autoImportRecheckSeconds" ),
@@ -389,6 +423,8 @@ public enum AppProperty
     WORDLIST_IMPORT_LINE_COMMENTS                   ( "wordlist.import.lineComments" ),
     WORDLIST_IMPORT_PAUSE_DURATION_MS               ( "wordlist.import.pauseDurationMs" ),
     WORDLIST_IMPORT_PAUSE_FREQUENCY_MS              ( "wordlist.import.pauseFrequencyMs" ),
+    WORDLIST_IMPORT_WORKER_THREADS                  ( "wordlist.import.workerThreads" ),
+    WORDLIST_MAPPED_SORT_BUFFER_ENTRIES             ( "wordlist.mapped.sortBufferEntries" ),
     WORDLIST_INSPECTOR_FREQUENCY_SECONDS            ( "wordlist.inspector.frequencySeconds" ),
     WORDLIST_TEST_MODE                              ( "wordlist.testMode" ),
     WORDLIST_BUCKET_CHECK_TIME_WARNING_MS           ( "wordlist.bucket.checkTimeWarningMs" ),
@@ -63,6 +63,18 @@ public class DomainID implements Comparable<DomainID>, Serializable
         return new DomainID( domainID );
     }
 
+    /**
+     * Parse a value previously produced by {@link #stringValue()}, including the system domain id.
+     */
+    public static DomainID fromStringValue( final String domainID )
+    {
+        if ( SYSTEM_ID.equals( domainID ) )
+        {
+            return SYSTEM_DOMAIN_ID;
+        }
+        return create( domainID );
+    }
+
     public boolean inScope( final PwmSettingScope scope )
     {
         switch ( scope )
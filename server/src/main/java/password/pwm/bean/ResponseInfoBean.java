@@ -26,6 +26,7 @@ import password.pwm.config.option.DataStorageMethod;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 
@@ -104,4 +105,21 @@ public class ResponseInfoBean implements Serializable
     {
         return formatType;
     }
+
+    /**
+     * @return a copy of this bean with its own response maps and timestamp, the challenge keys are shared.
+     */
+    public ResponseInfoBean copy( )
+    {
+        final ResponseInfoBean copy = new ResponseInfoBean(
+                crMap == null ? null : new LinkedHashMap<>( crMap ),
+                helpdeskCrMap == null ? null : new LinkedHashMap<>( helpdeskCrMap ),
+                locale,
+                minRandoms,
+                csIdentifier,
+                dataStorageMethod,
+                formatType );
+        copy.timestamp = timestamp;
+        return copy;
+    }
 }
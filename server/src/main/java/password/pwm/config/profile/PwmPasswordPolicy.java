@@ -39,6 +39,7 @@ import password.pwm.util.java.LazySupplier;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.json.JsonFactory;
 import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.password.CompiledPasswordPolicy;
 import password.pwm.util.password.PasswordRuleReaderHelper;
 
 import java.io.Serializable;
@@ -72,6 +73,7 @@ public class PwmPasswordPolicy implements Profile, Serializable
 
     private final transient Supplier<List<HealthRecord>> healthChecker = new LazySupplier<>( () -> doHealthChecks( this ) );
     private final transient ChaiPasswordPolicy chaiPasswordPolicy;
+    private transient volatile CompiledPasswordPolicy compiledPolicy;
 
     private final DomainID domainID;
     private final Map<String, String> policyMap;
@@ -249,6 +251,19 @@ public class PwmPasswordPolicy implements Profile, Serializable
         return new PasswordRuleReaderHelper( this );
     }
 
+    /**
+     * @return the most recently compiled form of this policy, if any.  See {@link CompiledPasswordPolicy}.
+     */
+    public Optional<CompiledPasswordPolicy> readCompiledPolicy( )
+    {
+        return Optional.ofNullable( compiledPolicy );
+    }
+
+    public void storeCompiledPolicy( final CompiledPasswordPolicy compiledPolicy )
+    {
+        this.compiledPolicy = compiledPolicy;
+    }
+
     public String getValue( final PwmPasswordRule rule )
     {
         return policyMap.get( rule.getKey() );
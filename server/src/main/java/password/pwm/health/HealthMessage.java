@@ -30,6 +30,7 @@ public enum HealthMessage
 {
 
     NoData( HealthStatus.CAUTION, HealthTopic.Application ),
+    HealthCheck_Timeout( HealthStatus.CAUTION, HealthTopic.Application ),
     LDAP_No_Connection( HealthStatus.WARN, HealthTopic.LDAP ),
     LDAP_Ad_History_Asn_Missing( HealthStatus.WARN, HealthTopic.LDAP ),
     LDAP_AD_Unsecure( HealthStatus.WARN, HealthTopic.LDAP ),
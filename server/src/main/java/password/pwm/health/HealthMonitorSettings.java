@@ -38,6 +38,9 @@ class HealthMonitorSettings implements Serializable
     private TimeDuration maximumRecordAge;
     private TimeDuration maximumForceCheckWait;
     private TimeDuration threadDumpInterval;
+    private TimeDuration supplierTimeout;
+    private TimeDuration cycleTimeout;
+    private int maximumThreads;
 
     static HealthMonitorSettings fromConfiguration( final AppConfig config )
     {
@@ -49,6 +52,9 @@ class HealthMonitorSettings implements Serializable
                 .maximumForceCheckWait( TimeDuration.of( Long.parseLong( config.readAppProperty( AppProperty.HEALTHCHECK_MAX_FORCE_WAIT ) ), TimeDuration.Unit.SECONDS ) )
                 .threadDumpInterval( TimeDuration.of(
                         Long.parseLong( config.readAppProperty( AppProperty.LOGGING_EXTRA_PERIODIC_THREAD_DUMP_INTERVAL ) ), TimeDuration.Unit.SECONDS ) )
+                .supplierTimeout( TimeDuration.of( Long.parseLong( config.readAppProperty( AppProperty.HEALTHCHECK_SUPPLIER_TIMEOUT ) ), TimeDuration.Unit.SECONDS ) )
+                .cycleTimeout( TimeDuration.of( Long.parseLong( config.readAppProperty( AppProperty.HEALTHCHECK_CYCLE_TIMEOUT ) ), TimeDuration.Unit.SECONDS ) )
+                .maximumThreads( Integer.parseInt( config.readAppProperty( AppProperty.HEALTHCHECK_MAX_THREADS ) ) )
                 .build();
     }
 }
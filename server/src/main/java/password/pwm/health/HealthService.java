@@ -48,18 +48,29 @@ import java.io.Serializable;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.nio.file.Files;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.zip.ZipOutputStream;
@@ -78,11 +89,13 @@ public class HealthService extends AbstractPwmService implements PwmService
 
 
     private ExecutorService executorService;
+    private ExecutorService checkExecutorService;
     private ExecutorService supportZipWriterService;
     private HealthMonitorSettings settings;
 
     private final Map<HealthMonitorFlag, Serializable> healthProperties = new ConcurrentHashMap<>();
     private final AtomicInteger healthCheckCount = new AtomicInteger( 0 );
+    private final Map<String, TimeDuration> supplierDurations = new ConcurrentHashMap<>();
 
     private final StatisticCounterBundle<CounterStatKey> counterStats = new StatisticCounterBundle<>( CounterStatKey.class );
     private final StatisticAverageBundle<AverageStatKey> averageStats = new StatisticAverageBundle<>( AverageStatKey.class );
@@ -92,6 +105,7 @@ public class HealthService extends AbstractPwmService implements PwmService
     enum CounterStatKey
     {
         checks,
+        supplierTimeouts,
     }
 
     enum AverageStatKey
@@ -124,6 +138,7 @@ public class HealthService extends AbstractPwmService implements PwmService
 
         executorService = PwmScheduler.makeBackgroundExecutor( pwmApplication, this.getClass() );
         supportZipWriterService = PwmScheduler.makeBackgroundExecutor( pwmApplication, this.getClass() );
+        checkExecutorService = makeCheckExecutorService( pwmApplication, settings );
         scheduleNextZipOutput();
 
         if ( settings.getThreadDumpInterval().as( TimeDuration.Unit.SECONDS ) > 0 )
@@ -134,6 +149,22 @@ public class HealthService extends AbstractPwmService implements PwmService
         return STATUS.OPEN;
     }
 
+    private static ExecutorService makeCheckExecutorService( final PwmApplication pwmApplication, final HealthMonitorSettings settings )
+    {
+        final int threads = Math.max( 1, settings.getMaximumThreads() );
+        final ThreadFactory threadFactory = PwmScheduler.makePwmThreadFactory( PwmScheduler.makeThreadName( pwmApplication, HealthService.class ) + "-check-", true );
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                1,
+                TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(),
+                threadFactory
+        );
+        executor.allowCoreThreadTimeOut( true );
+        return executor;
+    }
+
     public Instant getLastHealthCheckTime( )
     {
         if ( status() != STATUS.OPEN )
@@ -197,6 +228,10 @@ public class HealthService extends AbstractPwmService implements PwmService
         {
             supportZipWriterService.shutdown();
         }
+        if ( checkExecutorService != null )
+        {
+            checkExecutorService.shutdownNow();
+        }
         healthData = emptyHealthData();
         setStatus( STATUS.CLOSED );
     }
@@ -223,64 +258,234 @@ public class HealthService extends AbstractPwmService implements PwmService
 
         final Instant startTime = Instant.now();
         LOGGER.trace( () -> "beginning health check execution #" + counter  );
-        final List<HealthRecord> tempResults = new ArrayList<>();
 
-        for ( final Supplier<List<HealthRecord>> loopSupplier : gatherSuppliers( getPwmApplication(), getSessionLabel() ) )
+        final List<HealthRecord> tempResults = executeJobs(
+                checkExecutorService,
+                gatherJobs( getPwmApplication(), getSessionLabel() ),
+                settings.getSupplierTimeout(),
+                settings.getCycleTimeout() );
+
+        healthData = new HealthData( Collections.unmodifiableSet( new TreeSet<>( tempResults ) ), Instant.now() );
+        LOGGER.trace( () -> "completed health check execution #" + counter, () -> TimeDuration.fromCurrent( startTime ) );
+    }
+
+    /**
+     * Run a cycle of checks.  All checks are started before any result is collected, and each check may run for
+     * {@code supplierTimeout} measured from when it starts, so checks queued behind slow checks keep their full
+     * allowance.  The cycle as a whole ends after {@code cycleTimeout}; checks still queued at that point are
+     * cancelled without a record, as they have not failed.
+     */
+    List<HealthRecord> executeJobs(
+            final ExecutorService executor,
+            final List<HealthCheckJob> jobs,
+            final TimeDuration supplierTimeout,
+            final TimeDuration cycleTimeout
+    )
+    {
+        final Instant cycleDeadline = Instant.now().plus( cycleTimeout.asDuration() );
+        final CompletionService<List<HealthRecord>> completionService = new ExecutorCompletionService<>( executor );
+
+        final Map<Future<List<HealthRecord>>, HealthCheckTask> pendingTasks = new HashMap<>();
+        for ( final HealthCheckJob job : jobs )
         {
+            final HealthCheckTask task = new HealthCheckTask( job );
             try
             {
-                final List<HealthRecord> loopResults = loopSupplier.get();
-                if ( loopResults != null )
+                pendingTasks.put( completionService.submit( task ), task );
+            }
+            catch ( final RejectedExecutionException e )
+            {
+                if ( status() == STATUS.OPEN )
                 {
-                    tempResults.addAll( loopResults );
+                    LOGGER.warn( () -> "unable to start health check " + job.getName() + ": " + e.getMessage() );
                 }
             }
-            catch ( final Exception e )
+        }
+
+        final List<HealthRecord> results = new ArrayList<>();
+        try
+        {
+            while ( !pendingTasks.isEmpty() )
             {
-                if ( status() == STATUS.OPEN )
+                final Instant now = Instant.now();
+                if ( !now.isBefore( cycleDeadline ) )
                 {
-                    LOGGER.warn( () -> "unexpected error during healthCheck: " + e.getMessage(), e );
+                    break;
+                }
+
+                // a check that starts after this pass has a deadline later than now plus the supplier timeout
+                Instant nextDeadline = now.plus( supplierTimeout.asDuration() );
+                for ( final Iterator<Map.Entry<Future<List<HealthRecord>>, HealthCheckTask>> iterator = pendingTasks.entrySet().iterator(); iterator.hasNext(); )
+                {
+                    final Map.Entry<Future<List<HealthRecord>>, HealthCheckTask> entry = iterator.next();
+                    final Instant startTime = entry.getValue().getStartTime();
+                    if ( startTime != null )
+                    {
+                        final Instant taskDeadline = startTime.plus( supplierTimeout.asDuration() );
+                        if ( !now.isBefore( taskDeadline ) )
+                        {
+                            results.addAll( cancelTask( entry.getKey(), entry.getValue(), supplierTimeout ) );
+                            iterator.remove();
+                        }
+                        else if ( taskDeadline.isBefore( nextDeadline ) )
+                        {
+                            nextDeadline = taskDeadline;
+                        }
+                    }
+                }
+
+                if ( cycleDeadline.isBefore( nextDeadline ) )
+                {
+                    nextDeadline = cycleDeadline;
+                }
+
+                final long waitMs = Math.max( 1, Duration.between( now, nextDeadline ).toMillis() );
+                final Future<List<HealthRecord>> completedFuture = completionService.poll( waitMs, TimeUnit.MILLISECONDS );
+                if ( completedFuture != null )
+                {
+                    final HealthCheckTask task = pendingTasks.remove( completedFuture );
+                    if ( task != null )
+                    {
+                        results.addAll( readResults( completedFuture, task ) );
+                    }
                 }
             }
         }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
 
-        healthData = new HealthData( Collections.unmodifiableSet( new TreeSet<>( tempResults ) ), Instant.now() );
-        LOGGER.trace( () -> "completed health check execution #" + counter, () -> TimeDuration.fromCurrent( startTime ) );
+        for ( final Map.Entry<Future<List<HealthRecord>>, HealthCheckTask> entry : pendingTasks.entrySet() )
+        {
+            final HealthCheckTask task = entry.getValue();
+            results.addAll( cancelTask( entry.getKey(), task, task.getStartTime() == null ? TimeDuration.ZERO : TimeDuration.fromCurrent( task.getStartTime() ) ) );
+        }
+
+        return results;
+    }
+
+    private List<HealthRecord> readResults( final Future<List<HealthRecord>> future, final HealthCheckTask task )
+    {
+        try
+        {
+            final List<HealthRecord> results = future.get();
+            return results == null ? Collections.emptyList() : results;
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        }
+        catch ( final ExecutionException e )
+        {
+            if ( status() == STATUS.OPEN )
+            {
+                final Throwable cause = e.getCause() == null ? e : e.getCause();
+                LOGGER.warn( () -> "unexpected error during healthCheck " + task.getJob().getName() + ": " + cause.getMessage(), cause );
+            }
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Cancel a check that has run too long or is still pending when the cycle ends.  A check that completed in the
+     * meantime returns its results, a check that never started returns nothing.
+     */
+    private List<HealthRecord> cancelTask( final Future<List<HealthRecord>> future, final HealthCheckTask task, final TimeDuration runTime )
+    {
+        if ( !future.cancel( true ) )
+        {
+            return readResults( future, task );
+        }
+
+        if ( task.getStartTime() == null )
+        {
+            LOGGER.debug( () -> "health check " + task.getJob().getName() + " was not started before the check cycle ended" );
+            return Collections.emptyList();
+        }
+
+        counterStats.increment( CounterStatKey.supplierTimeouts );
+        supplierDurations.put( task.getJob().getName(), runTime );
+        LOGGER.debug( () -> "health check " + task.getJob().getName() + " did not complete within " + runTime.asCompactString() );
+        return Collections.singletonList( HealthRecord.forMessage(
+                task.getJob().getDomainID(),
+                HealthMessage.HealthCheck_Timeout,
+                task.getJob().getName(),
+                runTime.asCompactString() ) );
     }
 
-    private static List<Supplier<List<HealthRecord>>> gatherSuppliers(
+    private static List<HealthCheckJob> gatherJobs(
             final PwmApplication pwmApplication,
             final SessionLabel sessionLabel
     )
     {
-        final List<Supplier<List<HealthRecord>>> suppliers = new ArrayList<>();
+        final List<HealthCheckJob> jobs = new ArrayList<>();
 
         for ( final Map.Entry<DomainID, List<PwmService>> domainIDListEntry : pwmApplication.getAppAndDomainPwmServices().entrySet() )
         {
+            final DomainID domainID = domainIDListEntry.getKey();
             for ( final PwmService service : domainIDListEntry.getValue() )
             {
-                try
-                {
-                    final List<HealthRecord> loopResults = service.healthCheck();
-                    if ( loopResults != null )
-                    {
-                        final Supplier<List<HealthRecord>> wrappedSupplier = () -> loopResults;
-                        suppliers.add( wrappedSupplier );
-                    }
-                }
-                catch ( final Exception e )
-                {
-                    LOGGER.warn( () -> "unexpected error during healthCheck: " + e.getMessage(), e );
-                }
+                final String name = domainID.stringValue() + "-" + service.getClass().getSimpleName();
+                jobs.add( new HealthCheckJob( name, domainID, service::healthCheck ) );
             }
         }
 
         for ( final HealthSupplier supplier : HEALTH_SUPPLIERS )
         {
-            suppliers.addAll( supplier.jobs( new HealthSupplier.HealthSupplierRequest( pwmApplication, sessionLabel ) ) );
+            final List<Supplier<List<HealthRecord>>> supplierJobs = supplier.jobs( new HealthSupplier.HealthSupplierRequest( pwmApplication, sessionLabel ) );
+            for ( int i = 0; i < supplierJobs.size(); i++ )
+            {
+                final String name = supplier.getClass().getSimpleName() + ( supplierJobs.size() > 1 ? "-" + i : "" );
+                jobs.add( new HealthCheckJob( name, DomainID.systemId(), supplierJobs.get( i ) ) );
+            }
         }
 
-        return Collections.unmodifiableList( suppliers );
+        return Collections.unmodifiableList( jobs );
+    }
+
+    @Value
+    static class HealthCheckJob
+    {
+        private final String name;
+        private final DomainID domainID;
+        private final Supplier<List<HealthRecord>> supplier;
+    }
+
+    private class HealthCheckTask implements Callable<List<HealthRecord>>
+    {
+        private final HealthCheckJob job;
+        private volatile Instant startTime;
+
+        HealthCheckTask( final HealthCheckJob job )
+        {
+            this.job = job;
+        }
+
+        @Override
+        public List<HealthRecord> call()
+        {
+            startTime = Instant.now();
+            try
+            {
+                return job.getSupplier().get();
+            }
+            finally
+            {
+                supplierDurations.put( job.getName(), TimeDuration.fromCurrent( startTime ) );
+            }
+        }
+
+        HealthCheckJob getJob()
+        {
+            return job;
+        }
+
+        Instant getStartTime()
+        {
+            return startTime;
+        }
     }
 
     @Override
@@ -289,6 +494,7 @@ public class HealthService extends AbstractPwmService implements PwmService
         final Map<String, String> debugData = new HashMap<>();
         debugData.putAll( averageStats.debugStats() );
         debugData.putAll( counterStats.debugStats() );
+        supplierDurations.forEach( ( name, duration ) -> debugData.put( "supplierDuration." + name, duration.asCompactString() ) );
         return ServiceInfoBean.builder()
                 .debugProperties( Collections.unmodifiableMap( debugData ) )
                 .build();
@@ -173,6 +173,7 @@ public class PwmSession implements Serializable
             );
         }
 
+        UserInfoFactory.prefetchAttributes( pwmRequest.getPwmApplication(), userInfo );
         setUserInfo( userInfo );
     }
 
@@ -181,6 +181,7 @@ class NewUserUtils
         {
             // create the ldap entry
             chaiProvider.createEntry( newUserDN, createObjectClasses, createAttributes );
+            pwmDomain.getUserSearchEngine().clearSearchResultCache();
 
             NewUserUtils.LOGGER.info( pwmRequest, () -> "created user entry: " + newUserDN );
         }
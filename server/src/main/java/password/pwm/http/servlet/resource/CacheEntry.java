@@ -20,23 +20,66 @@
 
 package password.pwm.http.servlet.resource;
 
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.Value;
-import password.pwm.http.bean.ImmutableByteArray;
 
-import java.io.Serializable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 
+/**
+ * A cached resource response in one {@link ResourceEncoding}.  The entity is held in a read-only direct buffer, so
+ * the cache lives outside the java heap.  Writing to a servlet output stream still copies each chunk through a
+ * small heap buffer.
+ */
 @Value
-final class CacheEntry implements Serializable
+final class CacheEntry
 {
-    private final ImmutableByteArray entity;
+    /**
+     * Marker for an encoding that is not available for a resource, for example brotli without a precompressed file.
+     */
+    static final CacheEntry UNAVAILABLE = new CacheEntry( ByteBuffer.allocate( 0 ), Collections.emptyMap(), "" );
+
+    @Getter( AccessLevel.NONE )
+    private final ByteBuffer entity;
     private final Map<String, String> headerStrings;
+    private final String etag;
 
-    CacheEntry( final ImmutableByteArray entity, final Map<String, String> headerStrings )
+    CacheEntry( final ByteBuffer entity, final Map<String, String> headerStrings, final String etag )
     {
-        this.entity = Objects.requireNonNull( entity );
+        this.entity = Objects.requireNonNull( entity ).asReadOnlyBuffer();
         this.headerStrings = headerStrings == null ? Collections.emptyMap() : Map.copyOf( headerStrings );
+        this.etag = Objects.requireNonNull( etag );
+    }
+
+    static CacheEntry forBytes( final byte[] entity, final Map<String, String> headerStrings, final String etag )
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect( entity.length );
+        buffer.put( entity );
+        buffer.flip();
+        return new CacheEntry( buffer, headerStrings, etag );
+    }
+
+    int size()
+    {
+        return entity.capacity();
+    }
+
+    void writeTo( final OutputStream outputStream )
+            throws IOException
+    {
+        // each writer uses its own view of the shared buffer
+        final ByteBuffer view = entity.duplicate();
+        final WritableByteChannel channel = Channels.newChannel( outputStream );
+        while ( view.hasRemaining() )
+        {
+            channel.write( view );
+        }
     }
 }
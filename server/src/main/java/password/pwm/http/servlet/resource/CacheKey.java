@@ -30,12 +30,13 @@ import java.util.Objects;
 final class CacheKey implements Serializable
 {
     private final String fileName;
-    private final boolean acceptsGzip;
+    private final ResourceEncoding encoding;
     private final Instant fileModificationTimestamp;
 
-    static CacheKey createCacheKey( final FileResource file, final boolean acceptsGzip )
+    static CacheKey createCacheKey( final FileResource file, final ResourceEncoding encoding )
     {
         Objects.requireNonNull( file );
-        return new CacheKey( file.getName(), acceptsGzip, file.lastModified() );
+        Objects.requireNonNull( encoding );
+        return new CacheKey( file.getName(), encoding, file.lastModified() );
     }
 }
@@ -22,7 +22,9 @@ package password.pwm.http.servlet.resource;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.Optional;
 
 interface FileResource
 {
@@ -33,4 +35,12 @@ interface FileResource
     Instant lastModified( );
 
     String getName( );
+
+    /**
+     * @return the file system path of the resource, if it is a plain file.
+     */
+    default Optional<Path> getFilePath( )
+    {
+        return Optional.empty();
+    }
 }
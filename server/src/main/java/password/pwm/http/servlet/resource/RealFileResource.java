@@ -24,7 +24,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.Optional;
 
 class RealFileResource implements FileResource
 {
@@ -58,4 +60,10 @@ class RealFileResource implements FileResource
     {
         return realFile.getAbsolutePath();
     }
+
+    @Override
+    public Optional<Path> getFilePath( )
+    {
+        return Optional.of( realFile.toPath() );
+    }
 }
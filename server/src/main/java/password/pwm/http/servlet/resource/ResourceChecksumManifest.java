@@ -0,0 +1,166 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.servlet.resource;
+
+import lombok.Value;
+import password.pwm.PwmConstants;
+import password.pwm.util.java.FileSystemUtility;
+import password.pwm.util.json.JsonFactory;
+import password.pwm.util.logging.PwmLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Checksums of resource files used to calculate the resource path nonce, persisted between restarts.
+ *
+ * <p>A file's checksum is keyed by its path and reused as long as the file's size and modification time are unchanged,
+ * so only new or modified files are read when the nonce is calculated again.  Entries for files that are no longer
+ * checked are dropped when the manifest is stored.</p>
+ */
+class ResourceChecksumManifest
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( ResourceChecksumManifest.class );
+
+    private static final String MANIFEST_VERSION = "1";
+
+    private final Map<String, ManifestEntry> previousEntries;
+    private final Map<String, ManifestEntry> currentEntries = new TreeMap<>();
+    private int reusedCount;
+    private int calculatedCount;
+
+    @Value
+    static class ManifestEntry
+    {
+        private final long size;
+        private final long modified;
+        private final long checksum;
+    }
+
+    @Value
+    private static class StoredManifest
+    {
+        private final String version;
+        private final Map<String, ManifestEntry> entries;
+    }
+
+    private ResourceChecksumManifest( final Map<String, ManifestEntry> previousEntries )
+    {
+        this.previousEntries = previousEntries;
+    }
+
+    static ResourceChecksumManifest empty()
+    {
+        return new ResourceChecksumManifest( Collections.emptyMap() );
+    }
+
+    /**
+     * Read a previously stored manifest.  A missing, unreadable or outdated manifest results in an empty manifest.
+     */
+    static ResourceChecksumManifest load( final File manifestFile )
+    {
+        if ( manifestFile == null || !manifestFile.exists() )
+        {
+            return empty();
+        }
+
+        try
+        {
+            final String json = Files.readString( manifestFile.toPath(), PwmConstants.DEFAULT_CHARSET );
+            final StoredManifest storedManifest = JsonFactory.get().deserialize( json, StoredManifest.class );
+            if ( storedManifest != null
+                    && MANIFEST_VERSION.equals( storedManifest.getVersion() )
+                    && storedManifest.getEntries() != null )
+            {
+                return new ResourceChecksumManifest( new HashMap<>( storedManifest.getEntries() ) );
+            }
+        }
+        catch ( final Exception e )
+        {
+            LOGGER.debug( () -> "ignoring unreadable resource checksum manifest '" + manifestFile.getAbsolutePath() + "', error: " + e.getMessage() );
+        }
+
+        return empty();
+    }
+
+    /**
+     * @return the checksum of {@code file}, read from the manifest if the file is unchanged, otherwise calculated
+     *     from the file contents.
+     */
+    long checksum( final File file )
+            throws IOException
+    {
+        final String key = file.getAbsolutePath();
+        final long size = file.length();
+        final long modified = file.lastModified();
+
+        final ManifestEntry previousEntry = previousEntries.get( key );
+        if ( previousEntry != null && previousEntry.getSize() == size && previousEntry.getModified() == modified )
+        {
+            reusedCount++;
+            currentEntries.put( key, previousEntry );
+            return previousEntry.getChecksum();
+        }
+
+        calculatedCount++;
+        final ManifestEntry newEntry = new ManifestEntry( size, modified, FileSystemUtility.crc32( file ) );
+        currentEntries.put( key, newEntry );
+        return newEntry.getChecksum();
+    }
+
+    /**
+     * Write the entries used since this manifest was loaded to {@code manifestFile}, if they differ from the stored entries.
+     */
+    void store( final File manifestFile )
+            throws IOException
+    {
+        if ( Objects.equals( previousEntries, currentEntries ) && manifestFile.exists() )
+        {
+            return;
+        }
+
+        final String json = JsonFactory.get().serialize( new StoredManifest( MANIFEST_VERSION, currentEntries ) );
+
+        // write to a temporary file first so a concurrent reader never sees a partially written manifest
+        final Path manifestPath = manifestFile.toPath();
+        final Path tempPath = manifestPath.resolveSibling( manifestPath.getFileName() + ".tmp" );
+        Files.writeString( tempPath, json, PwmConstants.DEFAULT_CHARSET );
+        Files.move( tempPath, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    int getReusedCount()
+    {
+        return reusedCount;
+    }
+
+    int getCalculatedCount()
+    {
+        return calculatedCount;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.servlet.resource;
+
+/**
+ * Content encodings a resource response can be served with, in order of preference.
+ */
+enum ResourceEncoding
+{
+    /**
+     * Brotli.  Only served from a precompressed file next to the resource (for example {@code main.js.br}) since
+     * there is no brotli encoder on the class path.
+     */
+    Brotli( "br", ".br", ResourceServletService.CountingStat.brotliResponses, ResourceServletService.CountingStat.brotliCacheHits ),
+
+    /**
+     * Gzip.  Served from a precompressed file next to the resource when present, otherwise compressed once at the
+     * maximum compression level and cached.
+     */
+    Gzip( "gzip", ".gz", ResourceServletService.CountingStat.gzipResponses, ResourceServletService.CountingStat.gzipCacheHits ),
+
+    Identity( "identity", null, ResourceServletService.CountingStat.identityResponses, ResourceServletService.CountingStat.identityCacheHits ),;
+
+    private final String headerValue;
+    private final String fileSuffix;
+    private final ResourceServletService.CountingStat responseStat;
+    private final ResourceServletService.CountingStat cacheHitStat;
+
+    ResourceEncoding(
+            final String headerValue,
+            final String fileSuffix,
+            final ResourceServletService.CountingStat responseStat,
+            final ResourceServletService.CountingStat cacheHitStat
+    )
+    {
+        this.headerValue = headerValue;
+        this.fileSuffix = fileSuffix;
+        this.responseStat = responseStat;
+        this.cacheHitStat = cacheHitStat;
+    }
+
+    String getHeaderValue()
+    {
+        return headerValue;
+    }
+
+    String getFileSuffix()
+    {
+        return fileSuffix;
+    }
+
+    boolean isCompressed()
+    {
+        return this != Identity;
+    }
+
+    ResourceServletService.CountingStat getResponseStat()
+    {
+        return responseStat;
+    }
+
+    ResourceServletService.CountingStat getCacheHitStat()
+    {
+        return cacheHitStat;
+    }
+}
@@ -22,6 +22,7 @@ package password.pwm.http.servlet.resource;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import lombok.Value;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.webjars.WebJarAssetLocator;
 import password.pwm.config.DomainConfig;
 import password.pwm.config.PwmSetting;
@@ -39,8 +40,9 @@ import javax.servlet.http.HttpServletRequest;
 import java.io.File;
 import java.io.InputStream;
 import java.time.Instant;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -136,7 +138,17 @@ class ResourceFileRequest
     boolean allowsCompression()
             throws PwmUnrecoverableException
     {
-        // If content type is text, then determine whether GZIP content encoding is supported by
+        return acceptedEncodings().contains( ResourceEncoding.Gzip );
+    }
+
+    /**
+     * @return the encodings acceptable to the client for the requested resource, in order of preference.  Always ends
+     *     with {@link ResourceEncoding#Identity}.
+     */
+    List<ResourceEncoding> acceptedEncodings()
+            throws PwmUnrecoverableException
+    {
+        // If content type is text, then determine which content encodings are supported by
         // the browser and expand content type with the one and right character encoding.
         if ( resourceServletConfiguration.isEnableGzip() )
         {
@@ -147,10 +159,44 @@ class ResourceFileRequest
                         httpServletRequest,
                         domainConfig.getAppConfig() );
                 final String acceptEncoding = pwmHttpRequestWrapper.readHeaderValueAsString( HttpHeader.AcceptEncoding );
-                return acceptEncoding != null && accepts( acceptEncoding, "gzip" );
+                if ( acceptEncoding != null )
+                {
+                    final List<ResourceEncoding> encodings = new ArrayList<>();
+                    for ( final ResourceEncoding encoding : ResourceEncoding.values() )
+                    {
+                        if ( encoding.isCompressed() && acceptsEncoding( acceptEncoding, encoding.getHeaderValue() ) )
+                        {
+                            encodings.add( encoding );
+                        }
+                    }
+                    encodings.add( ResourceEncoding.Identity );
+                    return Collections.unmodifiableList( encodings );
+                }
             }
         }
-        return false;
+        return Collections.singletonList( ResourceEncoding.Identity );
+    }
+
+    /**
+     * Resolve a file holding the requested resource already compressed with {@code encoding}, such as
+     * {@code main.js.gz} for {@code main.js}.  A precompressed file older than the resource is ignored.
+     */
+    Optional<FileResource> getPrecompressedFileResource( final ResourceEncoding encoding )
+            throws PwmUnrecoverableException
+    {
+        if ( fileResource.isEmpty() || encoding.getFileSuffix() == null )
+        {
+            return Optional.empty();
+        }
+
+        final Optional<FileResource> precompressedResource = resolveRequestedResource(
+                domainConfig,
+                httpServletRequest.getServletContext(),
+                getRequestURI() + encoding.getFileSuffix(),
+                resourceServletConfiguration );
+
+        final Instant resourceModified = fileResource.get().lastModified();
+        return precompressedResource.filter( precompressed -> !precompressed.lastModified().isBefore( resourceModified ) );
     }
 
     private String stripNonceFromURI(
@@ -472,18 +518,36 @@ class ResourceFileRequest
 
 
     /**
-     * Returns true if the given accept header accepts the given value.
-     *
-     * @param acceptHeader The accept header.
-     * @param toAccept     The value to be accepted.
-     * @return True if the given accept header accepts the given value.
+     * @param acceptEncodingHeader value of an {@code Accept-Encoding} header, such as {@code gzip;q=0.8, br}
+     * @param encoding content coding name
+     * @return true if the header accepts the coding, either by name or by wildcard, with a non-zero quality.
      */
-    private static boolean accepts( final String acceptHeader, final String toAccept )
+    static boolean acceptsEncoding( final String acceptEncodingHeader, final String encoding )
     {
-        final String[] acceptValues = acceptHeader.split( "\\s*(,|;)\\s*" );
-        Arrays.sort( acceptValues );
-        return Arrays.binarySearch( acceptValues, toAccept ) > -1
-                || Arrays.binarySearch( acceptValues, toAccept.replaceAll( "/.*$", "/*" ) ) > -1
-                || Arrays.binarySearch( acceptValues, "*/*" ) > -1;
+        boolean wildcardAccepted = false;
+        for ( final String coding : acceptEncodingHeader.split( "," ) )
+        {
+            final String[] parameters = coding.split( ";" );
+            final String name = parameters[0].trim();
+            double quality = 1;
+            for ( int i = 1; i < parameters.length; i++ )
+            {
+                final String parameter = parameters[i].trim();
+                if ( parameter.startsWith( "q=" ) )
+                {
+                    quality = NumberUtils.toDouble( parameter.substring( 2 ).trim(), 0 );
+                }
+            }
+
+            if ( name.equalsIgnoreCase( encoding ) )
+            {
+                return quality > 0;
+            }
+            if ( "*".equals( name ) )
+            {
+                wildcardAccepted = quality > 0;
+            }
+        }
+        return wildcardAccepted;
     }
 }
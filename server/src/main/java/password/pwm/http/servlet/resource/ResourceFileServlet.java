@@ -21,6 +21,7 @@
 package password.pwm.http.servlet.resource;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import lombok.Value;
 import password.pwm.PwmConstants;
 import password.pwm.PwmDomain;
 import password.pwm.error.ErrorInformation;
@@ -29,13 +30,14 @@ import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.http.HttpHeader;
 import password.pwm.http.HttpMethod;
 import password.pwm.http.PwmRequest;
-import password.pwm.http.bean.ImmutableByteArray;
 import password.pwm.http.servlet.PwmServlet;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsClient;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.secure.PwmHashAlgorithm;
+import password.pwm.util.secure.SecureEngine;
 
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -47,11 +49,18 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 
 @WebServlet(
@@ -126,42 +135,60 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
 
         // Get content type by file name and set default GZIP support and content disposition.
         final String contentType = resourceFileRequest.getReturnContentType();
-        final boolean acceptsGzip = resourceFileRequest.allowsCompression();
+        final List<ResourceEncoding> acceptedEncodings = resourceFileRequest.acceptedEncodings();
+        final boolean acceptsGzip = acceptedEncodings.contains( ResourceEncoding.Gzip );
 
         final HttpServletResponse response = pwmRequest.getPwmResponse().getHttpServletResponse();
 
-        if ( respondWithNotModified( pwmRequest, resourceConfiguration ) )
-        {
-            return;
-        }
-
-        // Initialize response.
-        addExpirationHeaders( resourceConfiguration, response );
-        response.setHeader(  HttpHeader.ETag.getHttpName(), resourceConfiguration.getNonceValue() );
-        response.setContentType( contentType );
-
         try
         {
-            boolean fromCache = false;
-            String debugText;
+            final CachedResponse cachedResponse;
             try
             {
-                fromCache = handleCacheableResponse( resourceFileRequest, response, resourceService.getCacheMap() );
-                debugText = makeDebugText( fromCache, acceptsGzip, false );
+                cachedResponse = readCachedResponse( resourceFileRequest, file, acceptedEncodings, resourceService );
             }
             catch ( final UncacheableResourceException e )
             {
+                if ( respondWithNotModified( pwmRequest, resourceConfiguration, resourceConfiguration.getNonceValue() ) )
+                {
+                    return;
+                }
+
+                addExpirationHeaders( resourceConfiguration, response );
+                response.setHeader( HttpHeader.ETag.getHttpName(), resourceConfiguration.getNonceValue() );
+                response.setContentType( contentType );
                 handleUncachedResponse( response, file, acceptsGzip );
-                debugText = makeDebugText( fromCache, acceptsGzip, true );
+
+                final ResourceEncoding encoding = acceptsGzip ? ResourceEncoding.Gzip : ResourceEncoding.Identity;
+                pwmRequest.debugHttpRequestToLog( makeDebugText( false, encoding, true ), () -> TimeDuration.fromCurrent( pwmRequest.getRequestStartTime() ) );
+                updateStats( pwmDomain, resourceService, startTime, false, encoding, file.length() );
+                return;
+            }
+
+            final CacheEntry cacheEntry = cachedResponse.getCacheEntry();
+            if ( respondWithNotModified( pwmRequest, resourceConfiguration, cacheEntry.getEtag() ) )
+            {
+                return;
             }
 
-            pwmRequest.debugHttpRequestToLog( debugText, () -> TimeDuration.fromCurrent( pwmRequest.getRequestStartTime() ) );
+            // Initialize response.
+            addExpirationHeaders( resourceConfiguration, response );
+            response.setHeader( HttpHeader.ETag.getHttpName(), cacheEntry.getEtag() );
+            response.setContentType( contentType );
+            for ( final Map.Entry<String, String> entry : cacheEntry.getHeaderStrings().entrySet() )
+            {
+                response.setHeader( entry.getKey(), entry.getValue() );
+            }
 
-            StatisticsClient.incrementStat( pwmDomain, Statistic.HTTP_RESOURCE_REQUESTS );
-            resourceService.getAverageStats().update( ResourceServletService.AverageStat.cacheHitRatio, fromCache ? 1 : 0 );
-            resourceService.getAverageStats().update( ResourceServletService.AverageStat.avgResponseTimeMS, TimeDuration.fromCurrent( startTime ) );
-            resourceService.getCountingStats().increment( ResourceServletService.CountingStat.requestsServed );
-            resourceService.getCountingStats().increment( ResourceServletService.CountingStat.bytesServed, file.length() );
+            try ( OutputStream responseOutputStream = response.getOutputStream() )
+            {
+                cacheEntry.writeTo( responseOutputStream );
+            }
+
+            pwmRequest.debugHttpRequestToLog(
+                    makeDebugText( cachedResponse.isFromCache(), cachedResponse.getEncoding(), false ),
+                    () -> TimeDuration.fromCurrent( pwmRequest.getRequestStartTime() ) );
+            updateStats( pwmDomain, resourceService, startTime, cachedResponse.isFromCache(), cachedResponse.getEncoding(), cacheEntry.size() );
         }
         catch ( final Exception e )
         {
@@ -178,6 +205,27 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
         }
     }
 
+    private static void updateStats(
+            final PwmDomain pwmDomain,
+            final ResourceServletService resourceService,
+            final Instant startTime,
+            final boolean fromCache,
+            final ResourceEncoding encoding,
+            final long bytesServed
+    )
+    {
+        StatisticsClient.incrementStat( pwmDomain, Statistic.HTTP_RESOURCE_REQUESTS );
+        resourceService.getAverageStats().update( ResourceServletService.AverageStat.cacheHitRatio, fromCache ? 1 : 0 );
+        resourceService.getAverageStats().update( ResourceServletService.AverageStat.avgResponseTimeMS, TimeDuration.fromCurrent( startTime ) );
+        resourceService.getCountingStats().increment( ResourceServletService.CountingStat.requestsServed );
+        resourceService.getCountingStats().increment( ResourceServletService.CountingStat.bytesServed, bytesServed );
+        resourceService.getCountingStats().increment( encoding.getResponseStat() );
+        if ( fromCache )
+        {
+            resourceService.getCountingStats().increment( encoding.getCacheHitStat() );
+        }
+    }
+
     private Optional<FileResource> doResolve(
             final ResourceServletService resourceService,
             final ResourceFileRequest resourceFileRequest,
@@ -224,104 +272,144 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
         return Optional.empty();
     }
 
-    private String makeDebugText( final boolean fromCache, final boolean acceptsGzip, final boolean uncacheable )
+    private static String makeDebugText( final boolean fromCache, final ResourceEncoding encoding, final boolean uncacheable )
     {
-        if ( uncacheable )
+        final StringBuilder debugText = new StringBuilder();
+        debugText.append( '(' );
+        debugText.append( uncacheable ? "uncacheable" : fromCache ? "cached" : "not cached" );
+        if ( encoding.isCompressed() )
         {
-            final StringBuilder debugText = new StringBuilder();
-            debugText.append( "(uncacheable" );
-            if ( acceptsGzip )
-            {
-                debugText.append( ", gzip" );
-            }
-            debugText.append( ')' );
-            return debugText.toString();
+            debugText.append( ", " ).append( encoding.getHeaderValue() );
         }
+        debugText.append( ')' );
+        return debugText.toString();
+    }
 
-        if ( fromCache || acceptsGzip )
-        {
-            final StringBuilder debugText = new StringBuilder();
-            debugText.append( '(' );
-            if ( fromCache )
-            {
-                debugText.append( "cached" );
-            }
-            if ( fromCache && acceptsGzip )
-            {
-                debugText.append( ", " );
-            }
-            if ( acceptsGzip )
-            {
-                debugText.append( "gzip" );
-            }
-            debugText.append( ')' );
-            return debugText.toString();
-        }
-        else
-        {
-            return "(not cached)";
-        }
+    @Value
+    private static class CachedResponse
+    {
+        private final CacheEntry cacheEntry;
+        private final ResourceEncoding encoding;
+        private final boolean fromCache;
     }
 
-    private boolean handleCacheableResponse(
+    /**
+     * Find the cached response for the most preferred encoding accepted by the client, creating and caching it if
+     * needed.  Each encoding of a resource is cached separately, and an encoding that can not be produced for the
+     * resource is remembered as {@link CacheEntry#UNAVAILABLE}.
+     */
+    private static CachedResponse readCachedResponse(
             final ResourceFileRequest resourceFileRequest,
-            final HttpServletResponse response,
-            final Cache<CacheKey, CacheEntry> responseCache
+            final FileResource file,
+            final List<ResourceEncoding> acceptedEncodings,
+            final ResourceServletService resourceService
     )
             throws UncacheableResourceException, IOException, PwmUnrecoverableException
     {
-        final FileResource file = resourceFileRequest.getRequestedFileResource().orElseThrow();
-
         if ( file.length() > resourceFileRequest.getResourceServletConfiguration().getMaxCacheBytes() )
         {
             throw new UncacheableResourceException( "file to large to cache" );
         }
 
-        boolean fromCache = false;
-        final CacheKey cacheKey = CacheKey.createCacheKey( file, resourceFileRequest.allowsCompression() );
-        CacheEntry cacheEntry = responseCache.getIfPresent( cacheKey );
-        if ( cacheEntry == null )
+        final Cache<CacheKey, CacheEntry> responseCache = resourceService.getCacheMap();
+        for ( final ResourceEncoding encoding : acceptedEncodings )
         {
-            final Map<String, String> headers = new HashMap<>();
-            final ByteArrayOutputStream tempOutputStream = new ByteArrayOutputStream();
-
-            try ( InputStream input = file.getInputStream() )
+            final CacheKey cacheKey = CacheKey.createCacheKey( file, encoding );
+            final CacheEntry existingEntry = responseCache.getIfPresent( cacheKey );
+            if ( existingEntry != null )
             {
-                if ( resourceFileRequest.allowsCompression() )
+                if ( existingEntry != CacheEntry.UNAVAILABLE )
                 {
-                    try ( GZIPOutputStream gzipOutputStream = new GZIPOutputStream( tempOutputStream ) )
-                    {
-                        headers.put( HttpHeader.ContentEncoding.getHttpName(), "gzip" );
-                        JavaHelper.copy( input, gzipOutputStream );
-                    }
+                    return new CachedResponse( existingEntry, encoding, true );
                 }
-                else
+            }
+            else
+            {
+                final Optional<CacheEntry> newEntry = makeCacheEntry( resourceFileRequest, file, encoding );
+                responseCache.put( cacheKey, newEntry.orElse( CacheEntry.UNAVAILABLE ) );
+                if ( newEntry.isPresent() )
                 {
-                    JavaHelper.copy( input, tempOutputStream );
+                    return new CachedResponse( newEntry.get(), encoding, false );
                 }
             }
+        }
+
+        throw new UncacheableResourceException( "no acceptable encoding available" );
+    }
 
-            final ImmutableByteArray entity = ImmutableByteArray.of( tempOutputStream.toByteArray() );
-            headers.put( HttpHeader.ContentLength.getHttpName(), String.valueOf( entity.size() ) );
-            cacheEntry = new CacheEntry( entity, headers );
+    private static Optional<CacheEntry> makeCacheEntry(
+            final ResourceFileRequest resourceFileRequest,
+            final FileResource file,
+            final ResourceEncoding encoding
+    )
+            throws IOException, PwmUnrecoverableException
+    {
+        final Optional<FileResource> precompressedFile = resourceFileRequest.getPrecompressedFileResource( encoding );
+
+        final byte[] entity;
+        if ( precompressedFile.isPresent() )
+        {
+            entity = readBytes( precompressedFile.get() );
+        }
+        else if ( encoding == ResourceEncoding.Gzip )
+        {
+            final ByteArrayOutputStream tempOutputStream = new ByteArrayOutputStream();
+            try (
+                    InputStream input = file.getInputStream();
+                    GZIPOutputStream gzipOutputStream = new MaxCompressionGZIPOutputStream( tempOutputStream )
+            )
+            {
+                JavaHelper.copy( input, gzipOutputStream );
+            }
+            entity = tempOutputStream.toByteArray();
+        }
+        else if ( encoding == ResourceEncoding.Identity )
+        {
+            entity = readBytes( file );
         }
         else
         {
-            fromCache = true;
+            return Optional.empty();
         }
 
-        responseCache.put( cacheKey, cacheEntry );
-        for ( final String key : cacheEntry.getHeaderStrings().keySet() )
+        final Map<String, String> headers = new HashMap<>();
+        if ( encoding.isCompressed() )
         {
-            response.setHeader( key, cacheEntry.getHeaderStrings().get( key ) );
+            headers.put( HttpHeader.ContentEncoding.getHttpName(), encoding.getHeaderValue() );
         }
+        headers.put( HttpHeader.ContentLength.getHttpName(), String.valueOf( entity.length ) );
 
-        try ( OutputStream responseOutputStream = response.getOutputStream() )
+        return Optional.of( CacheEntry.forBytes( entity, headers, makeStrongETag( entity, encoding ) ) );
+    }
+
+    private static byte[] readBytes( final FileResource file )
+            throws IOException
+    {
+        try ( InputStream input = file.getInputStream() )
         {
-            JavaHelper.copy( cacheEntry.getEntity().newByteArrayInputStream(), responseOutputStream );
+            return input.readAllBytes();
         }
+    }
 
-        return fromCache;
+    /**
+     * Strong entity tags are derived from the bytes of each representation, so every encoding of a resource has its
+     * own tag and the tag only changes when the content changes.
+     */
+    private static String makeStrongETag( final byte[] entity, final ResourceEncoding encoding )
+            throws PwmUnrecoverableException
+    {
+        final String hash = entity.length == 0 ? "0" : SecureEngine.hash( entity, PwmHashAlgorithm.SHA256 );
+        return '"' + hash.substring( 0, Math.min( hash.length(), 32 ) ) + '-' + encoding.getHeaderValue() + '"';
+    }
+
+    private static class MaxCompressionGZIPOutputStream extends GZIPOutputStream
+    {
+        MaxCompressionGZIPOutputStream( final OutputStream outputStream )
+                throws IOException
+        {
+            super( outputStream );
+            def.setLevel( Deflater.BEST_COMPRESSION );
+        }
     }
 
     private static void handleUncachedResponse(
@@ -331,6 +419,17 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
     )
             throws IOException
     {
+        final Optional<Path> filePath = file.getFilePath();
+        if ( !acceptsGzip && filePath.isPresent() )
+        {
+            response.setHeader( HttpHeader.ContentLength.getHttpName(), String.valueOf( file.length() ) );
+            try ( OutputStream output = response.getOutputStream() )
+            {
+                transferFile( filePath.get(), output );
+            }
+            return;
+        }
+
         try (
                 OutputStream output = new BufferedOutputStream( response.getOutputStream() );
                 InputStream input = new BufferedInputStream( file.getInputStream() )
@@ -355,6 +454,25 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
 
     }
 
+    /**
+     * Stream a file without reading it fully into memory.  The servlet output stream is not a file channel, so
+     * {@link FileChannel#transferTo} copies through a heap buffer rather than transferring directly.
+     */
+    private static void transferFile( final Path path, final OutputStream output )
+            throws IOException
+    {
+        try ( FileChannel fileChannel = FileChannel.open( path, StandardOpenOption.READ ) )
+        {
+            final WritableByteChannel outputChannel = Channels.newChannel( output );
+            final long size = fileChannel.size();
+            long position = 0;
+            while ( position < size )
+            {
+                position += fileChannel.transferTo( position, size - position, outputChannel );
+            }
+        }
+    }
+
     private void addExpirationHeaders( final ResourceServletConfiguration resourceServletConfiguration, final HttpServletResponse httpResponse )
     {
         httpResponse.setDateHeader( "Expires", System.currentTimeMillis() + ( resourceServletConfiguration.getCacheExpireSeconds() * 1000 ) );
@@ -362,17 +480,23 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
         httpResponse.setHeader( "Vary", "Accept-Encoding" );
     }
 
-    private boolean respondWithNotModified( final PwmRequest pwmRequest, final ResourceServletConfiguration resourceConfiguration )
+    private boolean respondWithNotModified(
+            final PwmRequest pwmRequest,
+            final ResourceServletConfiguration resourceConfiguration,
+            final String eTagValue
+    )
     {
-        final String eTagValue = resourceConfiguration.getNonceValue();
         final HttpServletResponse response = pwmRequest.getPwmResponse().getHttpServletResponse();
 
         final String ifNoneMatchValue = pwmRequest.readHeaderValueAsString( HttpHeader.If_None_Match );
-        if ( ifNoneMatchValue != null && ifNoneMatchValue.equals( eTagValue ) )
+        if ( ifNoneMatchValue != null && eTagMatches( ifNoneMatchValue, eTagValue ) )
         {
             // reply back with etag.
             response.reset();
             response.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+            addExpirationHeaders( resourceConfiguration, response );
+            response.setHeader( HttpHeader.ETag.getHttpName(), eTagValue );
+            pwmRequest.getPwmDomain().getResourceServletService().getCountingStats().increment( ResourceServletService.CountingStat.notModifiedResponses );
             try
             {
                 pwmRequest.debugHttpRequestToLog( "returning HTTP 304 status", null );
@@ -386,4 +510,17 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
 
         return false;
     }
+
+    static boolean eTagMatches( final String ifNoneMatchValue, final String eTagValue )
+    {
+        for ( final String value : ifNoneMatchValue.split( "," ) )
+        {
+            final String trimmedValue = value.trim();
+            if ( "*".equals( trimmedValue ) || trimmedValue.equals( eTagValue ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -34,7 +34,6 @@ import password.pwm.health.HealthRecord;
 import password.pwm.http.PwmRequest;
 import password.pwm.svc.AbstractPwmService;
 import password.pwm.svc.PwmService;
-import password.pwm.util.java.FileSystemUtility;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.Percent;
 import password.pwm.util.java.StatisticAverageBundle;
@@ -46,17 +45,22 @@ import password.pwm.util.secure.ChecksumOutputStream;
 import javax.servlet.ServletContext;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -66,7 +70,8 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
 
     private ResourceServletConfiguration resourceServletConfiguration;
     private Cache<CacheKey, CacheEntry> cache;
-    private String resourceNonce = "";
+    private volatile String resourceNonce = "";
+    private Future<?> nonceFuture;
 
     private PwmDomain pwmDomain;
 
@@ -84,6 +89,13 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
         requestsServed,
         requestsNotFound,
         bytesServed,
+        notModifiedResponses,
+        identityResponses,
+        gzipResponses,
+        brotliResponses,
+        identityCacheHits,
+        gzipCacheHits,
+        brotliCacheHits,
     }
 
     public String getResourceNonce( )
@@ -112,9 +124,9 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
         long cacheByteCount = 0;
         for ( final CacheEntry cacheEntry : cacheCopy.values() )
         {
-            if ( cacheEntry != null && cacheEntry.getEntity() != null )
+            if ( cacheEntry != null )
             {
-                cacheByteCount += cacheEntry.getEntity().size();
+                cacheByteCount += cacheEntry.size();
             }
         }
         return cacheByteCount;
@@ -160,6 +172,18 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
             return STATUS.CLOSED;
         }
 
+        // the nonce is calculated in the background so the domain can open without waiting on resource checksums.  Until
+        // then the runtime nonce is used, it is unique per application start so stale browser cache entries are never used.
+        resourceNonce = makeProvisionalNonce();
+        nonceFuture = pwmApplication.getPwmScheduler().immediateExecuteRunnableInNewThread(
+                this::calculateResourceNonce,
+                "resource nonce calculator for " + domainID.stringValue() );
+
+        return STATUS.OPEN;
+    }
+
+    private void calculateResourceNonce()
+    {
         try
         {
             final Instant start = Instant.now();
@@ -168,17 +192,18 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
         }
         catch ( final Exception e )
         {
-            LOGGER.error( getSessionLabel(), () -> "error during nonce generation, will remain closed; error: " + e.getMessage() );
-            return STATUS.CLOSED;
+            LOGGER.error( getSessionLabel(), () -> "error during nonce generation, will continue to use runtime nonce; error: " + e.getMessage() );
         }
-
-        return STATUS.OPEN;
     }
 
     @Override
     public void close( )
     {
         setStatus( STATUS.CLOSED );
+        if ( nonceFuture != null )
+        {
+            nonceFuture.cancel( true );
+        }
     }
 
     @Override
@@ -193,6 +218,7 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
         final Map<String, String> debugInfo = new HashMap<>();
         debugInfo.putAll( averageStats.debugStats() );
         debugInfo.putAll( countingStats.debugStats() );
+        debugInfo.put( "resourceNonce", resourceNonce );
         return ServiceInfoBean.builder()
                 .debugProperties( debugInfo )
                 .build();
@@ -213,13 +239,68 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
         }
 
         final Instant startTime = Instant.now();
-        final String nonce = checksumAllResources( pwmDomain );
-        LOGGER.debug( getSessionLabel(), () -> "completed generation of nonce '" + nonce + "'", () ->  TimeDuration.fromCurrent( startTime ) );
+        final Optional<File> manifestFile = checksumManifestFile();
+        final ResourceChecksumManifest manifest = manifestFile.map( ResourceChecksumManifest::load ).orElseGet( ResourceChecksumManifest::empty );
+        final String nonce = checksumAllResources( pwmDomain, manifest );
+        LOGGER.debug( getSessionLabel(), () -> "completed generation of nonce '" + nonce + "', " + manifest.getReusedCount()
+                + " unchanged files, " + manifest.getCalculatedCount() + " files read", () ->  TimeDuration.fromCurrent( startTime ) );
+
+        if ( manifestFile.isPresent() )
+        {
+            try
+            {
+                manifest.store( manifestFile.get() );
+            }
+            catch ( final IOException e )
+            {
+                LOGGER.debug( getSessionLabel(), () -> "unable to store resource checksum manifest: " + e.getMessage() );
+            }
+        }
+
+        return makeNonceValue( nonce );
+    }
+
+    private String makeProvisionalNonce( )
+    {
+        final boolean enablePathNonce = Boolean.parseBoolean( pwmDomain.getConfig().readAppProperty( AppProperty.HTTP_RESOURCES_ENABLE_PATH_NONCE ) );
+        if ( !enablePathNonce )
+        {
+            return "";
+        }
+
+        return makeNonceValue( pwmDomain.getPwmApplication().getRuntimeNonce() );
+    }
 
+    private String makeNonceValue( final String nonce )
+    {
         final String noncePrefix = pwmDomain.getConfig().readAppProperty( AppProperty.HTTP_RESOURCES_NONCE_PATH_PREFIX );
         return "/" + noncePrefix + nonce;
     }
 
+    private Optional<File> checksumManifestFile( )
+    {
+        final Optional<File> manifestFile = checksumManifestFile( pwmDomain.getPwmApplication(), pwmDomain.getDomainID() );
+        if ( manifestFile.isEmpty() )
+        {
+            LOGGER.trace( getSessionLabel(), () -> "resource checksum manifest will not be stored: application path unavailable" );
+        }
+        return manifestFile;
+    }
+
+    /**
+     * The manifest is kept in the application path rather than the temp directory, which is cleared at every
+     * application start, so that unchanged resource files are not re-read after a restart.
+     */
+    static Optional<File> checksumManifestFile( final PwmApplication pwmApplication, final DomainID domainID )
+    {
+        final File applicationPath = pwmApplication.getPwmEnvironment().getApplicationPath();
+        if ( applicationPath == null || !applicationPath.exists() )
+        {
+            return Optional.empty();
+        }
+        return Optional.of( new File( applicationPath, "resource-checksums-" + domainID.stringValue() + ".json" ) );
+    }
+
     public boolean checkIfThemeExists( final PwmRequest pwmRequest, final String themeName )
             throws PwmUnrecoverableException
     {
@@ -266,12 +347,12 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
         return false;
     }
 
-    private String checksumAllResources( final PwmDomain pwmDomain )
+    private String checksumAllResources( final PwmDomain pwmDomain, final ResourceChecksumManifest manifest )
             throws IOException
     {
         try ( ChecksumOutputStream checksumStream = new ChecksumOutputStream( new NullOutputStream() ) )
         {
-            checksumResourceFilePath( pwmDomain, checksumStream );
+            checksumResourceFilePath( pwmDomain, manifest, checksumStream );
 
             for ( final FileResource fileResource : getResourceServletConfiguration().getCustomFileBundle().values() )
             {
@@ -287,7 +368,7 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
                     for ( Enumeration<? extends ZipEntry> zipEnum = zipFile.entries(); zipEnum.hasMoreElements(); )
                     {
                         final ZipEntry entry = zipEnum.nextElement();
-                        JavaHelper.copy( zipFile.getInputStream( entry ), checksumStream );
+                        checksumZipEntry( zipFile, entry, checksumStream );
                     }
                 }
             }
@@ -295,7 +376,29 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
         }
     }
 
-    private static void checksumResourceFilePath( final PwmDomain pwmDomain, final ChecksumOutputStream checksumStream )
+    private static void checksumZipEntry( final ZipFile zipFile, final ZipEntry entry, final ChecksumOutputStream checksumStream )
+            throws IOException
+    {
+        // zip files store the crc of each entry, so the entry content only needs to be read when it is missing
+        if ( entry.getCrc() != -1 )
+        {
+            checksumStream.write( entry.getName().getBytes( PwmConstants.DEFAULT_CHARSET ) );
+            checksumStream.write( JavaHelper.longToBytes( entry.getCrc() ) );
+        }
+        else if ( !entry.isDirectory() )
+        {
+            try ( InputStream inputStream = zipFile.getInputStream( entry ) )
+            {
+                JavaHelper.copy( inputStream, checksumStream );
+            }
+        }
+    }
+
+    private static void checksumResourceFilePath(
+            final PwmDomain pwmDomain,
+            final ResourceChecksumManifest manifest,
+            final ChecksumOutputStream checksumStream
+    )
     {
         if ( pwmDomain.getPwmApplication().getPwmEnvironment().getContextManager() != null )
         {
@@ -310,15 +413,9 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
                         final File resourcePath = new File( basePath.getAbsolutePath() + File.separator + "public" + File.separator + "resources" );
                         if ( resourcePath.exists() )
                         {
-                            final Iterator<FileSystemUtility.FileSummaryInformation> iter =
-                                    FileSystemUtility.readFileInformation( Collections.singletonList( resourcePath ) );
+                            for ( final File file : listResourceFiles( resourcePath ) )
                             {
-                                while ( iter.hasNext()  )
-                                {
-                                    final FileSystemUtility.FileSummaryInformation fileSummaryInformation = iter.next();
-                                    checksumStream.write( JavaHelper.longToBytes( fileSummaryInformation.getChecksum() ) );
-                                }
-
+                                checksumStream.write( JavaHelper.longToBytes( manifest.checksum( file ) ) );
                             }
                         }
                     }
@@ -330,4 +427,17 @@ public class ResourceServletService extends AbstractPwmService implements PwmSer
             }
         }
     }
+
+    private static List<File> listResourceFiles( final File resourcePath )
+            throws IOException
+    {
+        try ( Stream<Path> pathStream = Files.walk( resourcePath.toPath() ) )
+        {
+            return pathStream
+                    .filter( Files::isRegularFile )
+                    .sorted()
+                    .map( Path::toFile )
+                    .collect( Collectors.toList() );
+        }
+    }
 }
@@ -368,6 +368,8 @@ public class UpdateProfileUtil
         LOGGER.info( sessionLabel, () -> "updating profile for " + userInfo.getUserIdentity() );
 
         LdapOperationsHelper.writeFormValuesToLdap( theUser, formMap, macroRequest, false );
+        pwmDomain.getCacheService().invalidateUser( userInfo.getUserIdentity() );
+        pwmDomain.getUserSearchEngine().clearSearchResultCache();
 
         postUpdateActionsAndEmail( pwmDomain, sessionLabel, locale, userInfo.getUserIdentity(), updateProfileProfile );
 
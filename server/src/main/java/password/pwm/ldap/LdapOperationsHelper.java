@@ -1013,6 +1013,7 @@ public class LdapOperationsHelper
             {
                 final ChaiUser user = pwmDomain.getProxiedChaiUser( sessionLabel, userIdentity );
                 user.writeStringAttribute( languageAttr, languageCodeValue );
+                pwmDomain.getCacheService().invalidateUser( userIdentity );
                 LOGGER.debug( sessionLabel, () -> "wrote current browser session language value '" + languageCodeValue + "' to user attribute " + languageAttr );
             }
             catch ( final ChaiException e )
@@ -0,0 +1,363 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import password.pwm.bean.PasswordStatus;
+import password.pwm.bean.ResponseInfoBean;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.profile.ChallengeProfile;
+import password.pwm.config.profile.ProfileDefinition;
+import password.pwm.config.profile.PwmPasswordPolicy;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.svc.otp.OTPUserRecord;
+import password.pwm.util.java.LazySupplier;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link UserInfo} wrapper that memoizes each method of the wrapped instance in its own lazy field.  Replaces
+ * the use of a {@link password.pwm.util.java.CachingProxyWrapper} for user info, avoiding the reflective invocation
+ * and argument hashing on every call.  Failed calls are not memoized.
+ */
+class MemoizedUserInfo implements UserInfo
+{
+    private final UserInfo delegate;
+
+    private final LazySupplier.CheckedSupplier<Map<String, String>, PwmUnrecoverableException> cachedPasswordRuleAttributes
+            = LazySupplier.checked( () -> delegate().getCachedPasswordRuleAttributes() );
+    private final LazySupplier.CheckedSupplier<Map<String, String>, PwmUnrecoverableException> cachedAttributeValues
+            = LazySupplier.checked( () -> delegate().getCachedAttributeValues() );
+    private final LazySupplier.CheckedSupplier<Instant, PwmUnrecoverableException> lastLdapLoginTime
+            = LazySupplier.checked( () -> delegate().getLastLdapLoginTime() );
+    private final LazySupplier.CheckedSupplier<String, PwmUnrecoverableException> language
+            = LazySupplier.checked( () -> delegate().getLanguage() );
+    private final LazySupplier.CheckedSupplier<ChallengeProfile, PwmUnrecoverableException> challengeProfile
+            = LazySupplier.checked( () -> delegate().getChallengeProfile() );
+    private final LazySupplier.CheckedSupplier<PwmPasswordPolicy, PwmUnrecoverableException> passwordPolicy
+            = LazySupplier.checked( () -> delegate().getPasswordPolicy() );
+    private final LazySupplier.CheckedSupplier<Instant, PwmUnrecoverableException> passwordExpirationTime
+            = LazySupplier.checked( () -> delegate().getPasswordExpirationTime() );
+    private final LazySupplier.CheckedSupplier<String, PwmUnrecoverableException> username
+            = LazySupplier.checked( () -> delegate().getUsername() );
+    private final LazySupplier.CheckedSupplier<PasswordStatus, PwmUnrecoverableException> passwordStatus
+            = LazySupplier.checked( () -> delegate().getPasswordStatus() );
+    private final LazySupplier.CheckedSupplier<Boolean, PwmUnrecoverableException> requiresNewPassword
+            = LazySupplier.checked( () -> delegate().isRequiresNewPassword() );
+    private final LazySupplier.CheckedSupplier<Boolean, PwmUnrecoverableException> requiresResponseConfig
+            = LazySupplier.checked( () -> delegate().isRequiresResponseConfig() );
+    private final LazySupplier.CheckedSupplier<Boolean, PwmUnrecoverableException> requiresOtpConfig
+            = LazySupplier.checked( () -> delegate().isRequiresOtpConfig() );
+    private final LazySupplier.CheckedSupplier<Boolean, PwmUnrecoverableException> requiresUpdateProfile
+            = LazySupplier.checked( () -> delegate().isRequiresUpdateProfile() );
+    private final LazySupplier.CheckedSupplier<Boolean, PwmUnrecoverableException> requiresInteraction
+            = LazySupplier.checked( () -> delegate().isRequiresInteraction() );
+    private final LazySupplier.CheckedSupplier<Boolean, PwmUnrecoverableException> accountEnabled
+            = LazySupplier.checked( () -> delegate().isAccountEnabled() );
+    private final LazySupplier.CheckedSupplier<Boolean, PwmUnrecoverableException> accountExpired
+            = LazySupplier.checked( () -> delegate().isAccountExpired() );
+    private final LazySupplier.CheckedSupplier<Boolean, PwmUnrecoverableException> passwordLocked
+            = LazySupplier.checked( () -> delegate().isPasswordLocked() );
+    private final LazySupplier.CheckedSupplier<Boolean, PwmUnrecoverableException> withinPasswordMinimumLifetime
+            = LazySupplier.checked( () -> delegate().isWithinPasswordMinimumLifetime() );
+    private final LazySupplier.CheckedSupplier<Instant, PwmUnrecoverableException> passwordLastModifiedTime
+            = LazySupplier.checked( () -> delegate().getPasswordLastModifiedTime() );
+    private final LazySupplier.CheckedSupplier<String, PwmUnrecoverableException> userEmailAddress
+            = LazySupplier.checked( () -> delegate().getUserEmailAddress() );
+    private final LazySupplier.CheckedSupplier<String, PwmUnrecoverableException> userEmailAddress2
+            = LazySupplier.checked( () -> delegate().getUserEmailAddress2() );
+    private final LazySupplier.CheckedSupplier<String, PwmUnrecoverableException> userEmailAddress3
+            = LazySupplier.checked( () -> delegate().getUserEmailAddress3() );
+    private final LazySupplier.CheckedSupplier<String, PwmUnrecoverableException> userSmsNumber
+            = LazySupplier.checked( () -> delegate().getUserSmsNumber() );
+    private final LazySupplier.CheckedSupplier<String, PwmUnrecoverableException> userSmsNumber2
+            = LazySupplier.checked( () -> delegate().getUserSmsNumber2() );
+    private final LazySupplier.CheckedSupplier<String, PwmUnrecoverableException> userSmsNumber3
+            = LazySupplier.checked( () -> delegate().getUserSmsNumber3() );
+    private final LazySupplier.CheckedSupplier<String, PwmUnrecoverableException> userGuid
+            = LazySupplier.checked( () -> delegate().getUserGuid() );
+    private final LazySupplier.CheckedSupplier<ResponseInfoBean, PwmUnrecoverableException> responseInfoBean
+            = LazySupplier.checked( () -> delegate().getResponseInfoBean() );
+    private final LazySupplier.CheckedSupplier<OTPUserRecord, PwmUnrecoverableException> otpUserRecord
+            = LazySupplier.checked( () -> delegate().getOtpUserRecord() );
+    private final LazySupplier.CheckedSupplier<Instant, PwmUnrecoverableException> accountExpirationTime
+            = LazySupplier.checked( () -> delegate().getAccountExpirationTime() );
+    private final LazySupplier.CheckedSupplier<Map<ProfileDefinition, String>, PwmUnrecoverableException> profileIDs
+            = LazySupplier.checked( () -> delegate().getProfileIDs() );
+    private final LazySupplier.CheckedSupplier<Instant, PwmUnrecoverableException> passwordExpirationNoticeSendTime
+            = LazySupplier.checked( () -> delegate().getPasswordExpirationNoticeSendTime() );
+
+    private final Map<String, Optional<byte[]>> binaryAttributes = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Instant>> dateAttributes = new ConcurrentHashMap<>();
+
+    MemoizedUserInfo( final UserInfo delegate )
+    {
+        this.delegate = delegate;
+    }
+
+    private UserInfo delegate()
+    {
+        return delegate;
+    }
+
+    @Override
+    public Map<String, String> getCachedPasswordRuleAttributes() throws PwmUnrecoverableException
+    {
+        return cachedPasswordRuleAttributes.call();
+    }
+
+    @Override
+    public Map<String, String> getCachedAttributeValues() throws PwmUnrecoverableException
+    {
+        return cachedAttributeValues.call();
+    }
+
+    @Override
+    public Instant getLastLdapLoginTime() throws PwmUnrecoverableException
+    {
+        return lastLdapLoginTime.call();
+    }
+
+    @Override
+    public String getLanguage() throws PwmUnrecoverableException
+    {
+        return language.call();
+    }
+
+    @Override
+    public ChallengeProfile getChallengeProfile() throws PwmUnrecoverableException
+    {
+        return challengeProfile.call();
+    }
+
+    @Override
+    public PwmPasswordPolicy getPasswordPolicy() throws PwmUnrecoverableException
+    {
+        return passwordPolicy.call();
+    }
+
+    @Override
+    public UserIdentity getUserIdentity()
+    {
+        return delegate.getUserIdentity();
+    }
+
+    @Override
+    public Instant getPasswordExpirationTime() throws PwmUnrecoverableException
+    {
+        return passwordExpirationTime.call();
+    }
+
+    @Override
+    public String getUsername() throws PwmUnrecoverableException
+    {
+        return username.call();
+    }
+
+    @Override
+    public PasswordStatus getPasswordStatus() throws PwmUnrecoverableException
+    {
+        return passwordStatus.call();
+    }
+
+    @Override
+    public boolean isRequiresNewPassword() throws PwmUnrecoverableException
+    {
+        return requiresNewPassword.call();
+    }
+
+    @Override
+    public boolean isRequiresResponseConfig() throws PwmUnrecoverableException
+    {
+        return requiresResponseConfig.call();
+    }
+
+    @Override
+    public boolean isRequiresOtpConfig() throws PwmUnrecoverableException
+    {
+        return requiresOtpConfig.call();
+    }
+
+    @Override
+    public boolean isRequiresUpdateProfile() throws PwmUnrecoverableException
+    {
+        return requiresUpdateProfile.call();
+    }
+
+    @Override
+    public boolean isRequiresInteraction() throws PwmUnrecoverableException
+    {
+        return requiresInteraction.call();
+    }
+
+    @Override
+    public boolean isAccountEnabled() throws PwmUnrecoverableException
+    {
+        return accountEnabled.call();
+    }
+
+    @Override
+    public boolean isAccountExpired() throws PwmUnrecoverableException
+    {
+        return accountExpired.call();
+    }
+
+    @Override
+    public boolean isPasswordLocked() throws PwmUnrecoverableException
+    {
+        return passwordLocked.call();
+    }
+
+    @Override
+    public boolean isWithinPasswordMinimumLifetime() throws PwmUnrecoverableException
+    {
+        return withinPasswordMinimumLifetime.call();
+    }
+
+    @Override
+    public Instant getPasswordLastModifiedTime() throws PwmUnrecoverableException
+    {
+        return passwordLastModifiedTime.call();
+    }
+
+    @Override
+    public String getUserEmailAddress() throws PwmUnrecoverableException
+    {
+        return userEmailAddress.call();
+    }
+
+    @Override
+    public String getUserEmailAddress2() throws PwmUnrecoverableException
+    {
+        return userEmailAddress2.call();
+    }
+
+    @Override
+    public String getUserEmailAddress3() throws PwmUnrecoverableException
+    {
+        return userEmailAddress3.call();
+    }
+
+    @Override
+    public String getUserSmsNumber() throws PwmUnrecoverableException
+    {
+        return userSmsNumber.call();
+    }
+
+    @Override
+    public String getUserSmsNumber2() throws PwmUnrecoverableException
+    {
+        return userSmsNumber2.call();
+    }
+
+    @Override
+    public String getUserSmsNumber3() throws PwmUnrecoverableException
+    {
+        return userSmsNumber3.call();
+    }
+
+    @Override
+    public String getUserGuid() throws PwmUnrecoverableException
+    {
+        return userGuid.call();
+    }
+
+    @Override
+    public ResponseInfoBean getResponseInfoBean() throws PwmUnrecoverableException
+    {
+        return responseInfoBean.call();
+    }
+
+    @Override
+    public OTPUserRecord getOtpUserRecord() throws PwmUnrecoverableException
+    {
+        return otpUserRecord.call();
+    }
+
+    @Override
+    public Instant getAccountExpirationTime() throws PwmUnrecoverableException
+    {
+        return accountExpirationTime.call();
+    }
+
+    @Override
+    public Map<ProfileDefinition, String> getProfileIDs() throws PwmUnrecoverableException
+    {
+        return profileIDs.call();
+    }
+
+    @Override
+    public String readStringAttribute( final String attribute ) throws PwmUnrecoverableException
+    {
+        // string attribute values are already cached by the delegate
+        return delegate.readStringAttribute( attribute );
+    }
+
+    @Override
+    public byte[] readBinaryAttribute( final String attribute ) throws PwmUnrecoverableException
+    {
+        final Optional<byte[]> cachedValue = binaryAttributes.get( attribute );
+        if ( cachedValue != null )
+        {
+            return cachedValue.orElse( null );
+        }
+
+        final byte[] value = delegate.readBinaryAttribute( attribute );
+        binaryAttributes.put( attribute, Optional.ofNullable( value ) );
+        return value;
+    }
+
+    @Override
+    public Instant readDateAttribute( final String attribute ) throws PwmUnrecoverableException
+    {
+        final Optional<Instant> cachedValue = dateAttributes.get( attribute );
+        if ( cachedValue != null )
+        {
+            return cachedValue.orElse( null );
+        }
+
+        final Instant value = delegate.readDateAttribute( attribute );
+        dateAttributes.put( attribute, Optional.ofNullable( value ) );
+        return value;
+    }
+
+    @Override
+    public List<String> readMultiStringAttribute( final String attribute ) throws PwmUnrecoverableException
+    {
+        return delegate.readMultiStringAttribute( attribute );
+    }
+
+    @Override
+    public Map<String, String> readStringAttributes( final Collection<String> attributes ) throws PwmUnrecoverableException
+    {
+        return delegate.readStringAttributes( attributes );
+    }
+
+    @Override
+    public Instant getPasswordExpirationNoticeSendTime() throws PwmUnrecoverableException
+    {
+        return passwordExpirationNoticeSendTime.call();
+    }
+}
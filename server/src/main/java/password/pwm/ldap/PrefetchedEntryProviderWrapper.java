@@ -0,0 +1,181 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import com.novell.ldapchai.ChaiEntryFactory;
+import com.novell.ldapchai.provider.ChaiProvider;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Wraps a {@link ChaiProvider} so that single valued attribute reads of one entry are answered from values already
+ * read in bulk, typically by a subtree search.  Only single valued reads of the entry DN where every requested attribute
+ * was part of the bulk read are answered locally, all other operations, including multi valued searches, are passed to
+ * the wrapped provider.  Entries created
+ * through {@link ChaiProvider#getEntryFactory()} are bound to the wrapper so vendor specific reads made by chai are
+ * also served from the prefetched values.
+ */
+class PrefetchedEntryProviderWrapper
+{
+    private PrefetchedEntryProviderWrapper()
+    {
+    }
+
+    /**
+     * @param chaiProvider provider to wrap
+     * @param entryDN DN of the prefetched entry
+     * @param prefetchedAttributes names of all attributes requested by the bulk read, including those without a value
+     * @param prefetchedValues values returned by the bulk read, keyed by attribute name
+     * @return a provider answering reads of {@code prefetchedAttributes} of {@code entryDN} locally.
+     */
+    static ChaiProvider wrap(
+            final ChaiProvider chaiProvider,
+            final String entryDN,
+            final Collection<String> prefetchedAttributes,
+            final Map<String, String> prefetchedValues
+    )
+    {
+        final Set<String> attributeNames = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        attributeNames.addAll( prefetchedAttributes );
+
+        final Map<String, String> values = new TreeMap<>( String.CASE_INSENSITIVE_ORDER );
+        prefetchedValues.forEach( ( key, value ) ->
+        {
+            if ( key != null && value != null )
+            {
+                values.put( key, value );
+            }
+        } );
+
+        return ( ChaiProvider ) Proxy.newProxyInstance(
+                ChaiProvider.class.getClassLoader(),
+                new Class<?>[]
+                        {
+                                ChaiProvider.class,
+                        },
+                new PrefetchedInvocationHandler( chaiProvider, entryDN, attributeNames, values ) );
+    }
+
+    private static class PrefetchedInvocationHandler implements InvocationHandler
+    {
+        private final ChaiProvider innerProvider;
+        private final String entryDN;
+        private final Set<String> attributeNames;
+        private final Map<String, String> values;
+
+        PrefetchedInvocationHandler(
+                final ChaiProvider innerProvider,
+                final String entryDN,
+                final Set<String> attributeNames,
+                final Map<String, String> values
+        )
+        {
+            this.innerProvider = innerProvider;
+            this.entryDN = entryDN;
+            this.attributeNames = attributeNames;
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke( final Object proxy, final Method method, final Object[] args ) throws Throwable
+        {
+            final String methodName = method.getName();
+            final int argCount = args == null ? 0 : args.length;
+
+            if ( "getEntryFactory".equals( methodName ) && argCount == 0 )
+            {
+                return ChaiEntryFactory.newChaiFactory( ( ChaiProvider ) proxy );
+            }
+
+            if ( argCount > 0 && isPrefetchedEntry( args[0] ) )
+            {
+                if ( "readStringAttribute".equals( methodName )
+                        && argCount == 2
+                        && args[1] instanceof String
+                        && attributeNames.contains( args[1] ) )
+                {
+                    return values.get( args[1] );
+                }
+
+                if ( "readStringAttributes".equals( methodName )
+                        && argCount == 2
+                        && isPrefetchedAttributes( args[1] ) )
+                {
+                    return readValues( ( Collection<?> ) args[1] );
+                }
+            }
+
+            try
+            {
+                return method.invoke( innerProvider, args );
+            }
+            catch ( final InvocationTargetException e )
+            {
+                throw e.getTargetException();
+            }
+        }
+
+        private boolean isPrefetchedEntry( final Object dnArgument )
+        {
+            return dnArgument instanceof String && entryDN.equalsIgnoreCase( ( String ) dnArgument );
+        }
+
+        private boolean isPrefetchedAttributes( final Object attributeArgument )
+        {
+            if ( !( attributeArgument instanceof Collection ) )
+            {
+                return false;
+            }
+
+            for ( final Object attribute : ( Collection<?> ) attributeArgument )
+            {
+                if ( !( attribute instanceof String ) || !attributeNames.contains( attribute ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Map<String, String> readValues( final Collection<?> attributes )
+        {
+            final Map<String, String> returnMap = new HashMap<>();
+            for ( final Object attribute : attributes )
+            {
+                final String value = values.get( attribute );
+                if ( value != null )
+                {
+                    returnMap.put( ( String ) attribute, value );
+                }
+            }
+            return returnMap;
+        }
+    }
+}
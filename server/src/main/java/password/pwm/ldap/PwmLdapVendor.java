@@ -22,6 +22,9 @@ package password.pwm.ldap;
 
 import com.novell.ldapchai.provider.DirectoryVendor;
 
+import java.util.Collections;
+import java.util.List;
+
 public enum PwmLdapVendor
 {
     ACTIVE_DIRECTORY( DirectoryVendor.ACTIVE_DIRECTORY, "MICROSOFT_ACTIVE_DIRECTORY" ),
@@ -40,6 +43,47 @@ public enum PwmLdapVendor
         this.otherNames = otherNames;
     }
 
+    /**
+     * Name of the operational attribute holding the time an entry was last modified, in generalized time syntax.
+     * Active Directory's {@code uSNChanged} is not used because it is local to each domain controller.
+     *
+     * @return attribute name suitable for use in a {@code >=} search filter.
+     */
+    public String getModifyTimestampAttribute( )
+    {
+        return this == ACTIVE_DIRECTORY ? "whenChanged" : "modifyTimestamp";
+    }
+
+    /**
+     * Attributes read by chai when determining password and account status of an entry for this vendor.  Only
+     * attributes returned by a subtree search are included; constructed attributes are left to be read per entry.
+     *
+     * @return attribute names suitable for requesting in a bulk search.
+     */
+    public List<String> getAccountStatusAttributes( )
+    {
+        switch ( this )
+        {
+            case ACTIVE_DIRECTORY:
+                return List.of( "pwdLastSet", "accountExpires", "lastLogonTimestamp", "userAccountControl" );
+
+            case EDIRECTORY:
+                return List.of( "passwordExpirationTime", "loginTime", "loginExpirationTime", "loginDisabled" );
+
+            case OPEN_LDAP:
+                return List.of( "pwdChangedTime" );
+
+            case DIRECTORY_SERVER_389:
+                return List.of( "passwordExpirationTime" );
+
+            case ORACLE_DS:
+                return List.of( "passwordExpirationTime", "pwdChangedTime" );
+
+            default:
+                return Collections.emptyList();
+        }
+    }
+
     public static PwmLdapVendor fromString( final String input )
     {
         if ( input == null )
@@ -0,0 +1,152 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import com.novell.ldapchai.provider.ChaiProvider;
+import com.novell.ldapchai.provider.ChaiSetting;
+import lombok.Value;
+import password.pwm.AppProperty;
+import password.pwm.PwmDomain;
+import password.pwm.bean.UserIdentity;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.svc.cache.CacheKey;
+import password.pwm.svc.cache.CachePolicy;
+import password.pwm.svc.cache.CacheService;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Application wide cache of user entry attribute values, shared across {@link UserInfoReader} instances.  Values
+ * are keyed by user identity (ldap profile and DN), the DN of the bind used to read them, and attribute name.  Writes
+ * made by the application are expected to call {@link CacheService#invalidateUser(UserIdentity)}.
+ */
+public class UserAttributeCache
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( UserAttributeCache.class );
+
+    private final CacheService cacheService;
+    private final UserIdentity userIdentity;
+    private final String bindDN;
+    private final TimeDuration lifetime;
+
+    private UserAttributeCache( final CacheService cacheService, final UserIdentity userIdentity, final String bindDN, final TimeDuration lifetime )
+    {
+        this.cacheService = cacheService;
+        this.userIdentity = userIdentity;
+        this.bindDN = bindDN;
+        this.lifetime = lifetime;
+    }
+
+    static Optional<UserAttributeCache> forUser( final PwmDomain pwmDomain, final UserIdentity userIdentity, final ChaiProvider chaiProvider )
+    {
+        if ( !isEnabled( pwmDomain ) )
+        {
+            return Optional.empty();
+        }
+
+        final long lifetimeMs = Long.parseLong( pwmDomain.getConfig().readAppProperty( AppProperty.LDAP_CACHE_USER_ATTRIBUTES_MS ) );
+        final String bindDN = chaiProvider.getChaiConfiguration().getSetting( ChaiSetting.BIND_DN );
+        return Optional.of( new UserAttributeCache(
+                pwmDomain.getCacheService(),
+                userIdentity,
+                bindDN == null ? "" : bindDN,
+                TimeDuration.of( lifetimeMs, TimeDuration.Unit.MILLISECONDS ) ) );
+    }
+
+    static boolean isEnabled( final PwmDomain pwmDomain )
+    {
+        return Boolean.parseBoolean( pwmDomain.getConfig().readAppProperty( AppProperty.LDAP_CACHE_USER_ATTRIBUTES_ENABLE ) )
+                && Long.parseLong( pwmDomain.getConfig().readAppProperty( AppProperty.LDAP_CACHE_USER_ATTRIBUTES_MS ) ) > 0;
+    }
+
+    /**
+     * Read cached values for the requested attributes.  Attributes without a cached value are not present
+     * in the returned map.
+     *
+     * @param attributes attribute names to read.
+     * @return cached values keyed by requested attribute name.
+     */
+    Map<String, List<String>> read( final Collection<String> attributes )
+    {
+        final Map<String, List<String>> returnMap = new HashMap<>();
+        for ( final String attribute : attributes )
+        {
+            final CachedValues cachedValues = cacheService.get( makeKey( attribute ), CachedValues.class );
+            if ( cachedValues != null )
+            {
+                returnMap.put( attribute, cachedValues.getValues() );
+            }
+        }
+        return returnMap;
+    }
+
+    void store( final Map<String, List<String>> attributeValues )
+    {
+        final CachePolicy cachePolicy = CachePolicy.makePolicyWithExpiration( lifetime );
+        for ( final Map.Entry<String, List<String>> entry : attributeValues.entrySet() )
+        {
+            final List<String> values = entry.getValue() == null ? Collections.emptyList() : entry.getValue();
+            try
+            {
+                cacheService.put( makeKey( entry.getKey() ), cachePolicy, new CachedValues( values ) );
+            }
+            catch ( final PwmUnrecoverableException e )
+            {
+                LOGGER.debug( () -> "unable to cache attribute '" + entry.getKey() + "' for user " + userIdentity.toDisplayString() + ": " + e.getMessage() );
+            }
+        }
+    }
+
+    private CacheKey makeKey( final String attribute )
+    {
+        return CacheKey.newKey( UserAttributeCache.class, userIdentity, bindDN + "|" + attribute.toLowerCase( Locale.ROOT ) );
+    }
+
+    /**
+     * Cached attribute values.  Instances are immutable so the cache service can share them between readers without copying.
+     */
+    @Value
+    public static class CachedValues implements Serializable
+    {
+        private final List<String> values;
+
+        public CachedValues( final List<String> values )
+        {
+            this.values = Collections.unmodifiableList( new ArrayList<>( values ) );
+        }
+
+        public List<String> getValues()
+        {
+            // instances restored from a serialized cache store bypass the constructor
+            return Collections.unmodifiableList( values );
+        }
+    }
+}
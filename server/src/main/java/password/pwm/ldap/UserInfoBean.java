@@ -41,7 +41,7 @@ import java.util.List;
 import java.util.Map;
 
 @Getter
-@Builder
+@Builder( toBuilder = true )
 public class UserInfoBean implements UserInfo
 {
     private final UserIdentity userIdentity;
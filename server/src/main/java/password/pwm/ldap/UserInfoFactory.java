@@ -20,22 +20,46 @@
 
 package password.pwm.ldap;
 
+import com.novell.ldapchai.exception.ChaiException;
 import com.novell.ldapchai.exception.ChaiUnavailableException;
 import com.novell.ldapchai.provider.ChaiProvider;
+import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
+import password.pwm.PwmConstants;
 import password.pwm.PwmDomain;
 import password.pwm.bean.SessionLabel;
 import password.pwm.bean.UserIdentity;
+import password.pwm.config.DomainConfig;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.LdapProfile;
+import password.pwm.config.profile.UpdateProfileProfile;
+import password.pwm.config.value.data.FormConfiguration;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.http.PwmRequestContext;
 import password.pwm.util.PasswordData;
+import password.pwm.util.i18n.LocaleHelper;
+import password.pwm.util.java.StringUtil;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 public class UserInfoFactory
 {
+    private static final List<PwmSetting> PREFETCH_ATTRIBUTE_SETTINGS = List.of(
+            PwmSetting.EMAIL_USER_MAIL_ATTRIBUTE,
+            PwmSetting.EMAIL_USER_MAIL_ATTRIBUTE_2,
+            PwmSetting.EMAIL_USER_MAIL_ATTRIBUTE_3,
+            PwmSetting.SMS_USER_PHONE_ATTRIBUTE,
+            PwmSetting.SMS_USER_PHONE_ATTRIBUTE_2,
+            PwmSetting.SMS_USER_PHONE_ATTRIBUTE_3,
+            PwmSetting.LDAP_ATTRIBUTE_LANGUAGE );
 
     private UserInfoFactory( )
     {
@@ -76,6 +100,65 @@ public class UserInfoFactory
         return newUserInfo( pwmApplication, sessionLabel, ldapLocale, userIdentity, provider, null );
     }
 
+    /**
+     * Create a {@link UserInfo} for an offline user whose attributes were already read by a bulk search.  Reads of
+     * {@code prefetchedAttributes} for the user entry are answered from {@code prefetchedValues}, all other reads go
+     * to the directory.  Attributes in {@code prefetchedAttributes} without a value are treated as not present.
+     */
+    public static UserInfo newUserInfoUsingProxyForOfflineUser(
+            final PwmApplication pwmApplication,
+            final SessionLabel sessionLabel,
+            final UserIdentity userIdentity,
+            final Collection<String> prefetchedAttributes,
+            final Map<String, String> prefetchedValues
+    )
+            throws PwmUnrecoverableException
+    {
+        final PwmDomain pwmDomain = pwmApplication.domains().get( userIdentity.getDomainID() );
+        final ChaiProvider provider = PrefetchedEntryProviderWrapper.wrap(
+                pwmDomain.getProxyChaiProvider( sessionLabel, userIdentity.getLdapProfileID() ),
+                userIdentity.getUserDN(),
+                prefetchedAttributes,
+                prefetchedValues );
+
+        Locale ldapLocale = PwmConstants.DEFAULT_LOCALE;
+        final String languageAttr = userIdentity.getLdapProfile( pwmApplication.getConfig() ).readSettingAsString( PwmSetting.LDAP_ATTRIBUTE_LANGUAGE );
+        if ( StringUtil.notEmpty( languageAttr ) )
+        {
+            try
+            {
+                final String storedValue = provider.readStringAttribute( userIdentity.getUserDN(), languageAttr );
+                if ( StringUtil.notEmpty( storedValue ) )
+                {
+                    ldapLocale = LocaleHelper.parseLocaleString( storedValue );
+                }
+            }
+            catch ( final ChaiException e )
+            {
+                throw PwmUnrecoverableException.fromChaiException( e );
+            }
+        }
+
+        return newUserInfo( pwmApplication, sessionLabel, ldapLocale, userIdentity, provider, null );
+    }
+
+    /**
+     * Single valued attributes read while building a {@link UserInfo} for an offline user of the given profile.
+     * Callers reading many users can request these in their own bulk search and pass the results to
+     * {@link #newUserInfoUsingProxyForOfflineUser(PwmApplication, SessionLabel, UserIdentity, Collection, Map)}.
+     */
+    public static Set<String> offlineUserAttributeNames( final LdapProfile ldapProfile, final PwmLdapVendor ldapVendor )
+    {
+        final Set<String> attributes = new HashSet<>();
+        attributes.add( ldapProfile.getUsernameAttribute() );
+        attributes.add( ldapProfile.readSettingAsString( PwmSetting.EMAIL_USER_MAIL_ATTRIBUTE ) );
+        attributes.add( ldapProfile.readSettingAsString( PwmSetting.LDAP_ATTRIBUTE_LANGUAGE ) );
+        attributes.add( ldapProfile.readSettingAsString( PwmSetting.PASSWORD_LAST_UPDATE_ATTRIBUTE ) );
+        attributes.addAll( ldapVendor.getAccountStatusAttributes() );
+        attributes.removeIf( StringUtil::isEmpty );
+        return Collections.unmodifiableSet( attributes );
+    }
+
     public static UserInfo newUserInfoUsingProxy(
             final PwmRequestContext pwmRequestContext,
             final UserIdentity userIdentity
@@ -152,5 +235,56 @@ public class UserInfoFactory
         return UserInfoReader.create( userIdentity, currentPassword, sessionLabel, userLocale, pwmApplication, provider );
     }
 
+    /**
+     * Read the attributes commonly needed by configured profiles and forms in a single search, so that later
+     * reads are served from the attribute cache rather than each issuing their own search.  Only worthwhile for
+     * long-lived user infos such as the logged in session user; callers opt in by invoking this after creation.
+     */
+    public static void prefetchAttributes(
+            final PwmApplication pwmApplication,
+            final UserInfo userInfo
+    )
+            throws PwmUnrecoverableException
+    {
+        final UserIdentity userIdentity = userInfo.getUserIdentity();
+        final PwmDomain pwmDomain = pwmApplication.domains().get( userIdentity.getDomainID() );
+        if ( !Boolean.parseBoolean( pwmDomain.getConfig().readAppProperty( AppProperty.LDAP_CACHE_USER_ATTRIBUTES_PREFETCH ) )
+                || !UserAttributeCache.isEnabled( pwmDomain ) )
+        {
+            return;
+        }
+
+        final Set<String> attributes = prefetchAttributeNames( pwmDomain.getConfig(), userIdentity.getLdapProfile( pwmApplication.getConfig() ) );
+        if ( !attributes.isEmpty() )
+        {
+            userInfo.readStringAttributes( attributes );
+        }
+    }
+
+    static Set<String> prefetchAttributeNames( final DomainConfig domainConfig, final LdapProfile ldapProfile )
+    {
+        final Set<String> attributes = new HashSet<>();
+        attributes.add( ldapProfile.getUsernameAttribute() );
+        attributes.addAll( ldapProfile.readSettingAsStringArray( PwmSetting.CACHED_USER_ATTRIBUTES ) );
+        for ( final PwmSetting setting : PREFETCH_ATTRIBUTE_SETTINGS )
+        {
+            attributes.add( ldapProfile.readSettingAsString( setting ) );
+        }
+
+        for ( final UpdateProfileProfile updateProfileProfile : domainConfig.getUpdateAttributesProfile().values() )
+        {
+            for ( final FormConfiguration formConfiguration : updateProfileProfile.readSettingAsForm( PwmSetting.UPDATE_PROFILE_FORM ) )
+            {
+                if ( formConfiguration.getType() != FormConfiguration.Type.photo )
+                {
+                    attributes.add( formConfiguration.getName() );
+                }
+            }
+        }
+
+        attributes.removeIf( StringUtil::isEmpty );
+        return Collections.unmodifiableSet( attributes );
+    }
+
 
 }
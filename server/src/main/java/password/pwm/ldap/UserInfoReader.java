@@ -77,6 +77,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class UserInfoReader implements UserInfo
 {
@@ -89,6 +90,7 @@ public class UserInfoReader implements UserInfo
     private final ChaiUser chaiUser;
     private final SessionLabel sessionLabel;
     private final PwmDomain pwmDomain;
+    private final UserAttributeCache userAttributeCache;
 
     /**
      * A reference to this object, but with memorized (cached) method implementations.  In most cases references to 'this'
@@ -114,6 +116,7 @@ public class UserInfoReader implements UserInfo
 
         final ChaiProvider cachingProvider = CachingProxyWrapper.create( ChaiProvider.class, chaiProvider );
         this.chaiUser = cachingProvider.getEntryFactory().newChaiUser( userIdentity.getUserDN() );
+        this.userAttributeCache = UserAttributeCache.forUser( pwmDomain, userIdentity, chaiProvider ).orElse( null );
     }
 
     static UserInfo create(
@@ -130,7 +133,7 @@ public class UserInfoReader implements UserInfo
         LdapOperationsHelper.addConfiguredUserObjectClass( sessionLabel, userIdentity, pwmDomain );
 
         final UserInfoReader userInfo = new UserInfoReader( userIdentity, currentPassword, sessionLabel, locale, pwmApplication, chaiProvider );
-        final UserInfo selfCachedReference = CachingProxyWrapper.create( UserInfo.class, userInfo );
+        final UserInfo selfCachedReference = new MemoizedUserInfo( userInfo );
         userInfo.selfCachedReference = selfCachedReference;
         return selfCachedReference;
     }
@@ -687,7 +690,7 @@ public class UserInfoReader implements UserInfo
         return interestingUserAttributes;
     }
 
-    private final Map<String, List<String>> cacheMap = new HashMap<>();
+    private final Map<String, List<String>> cacheMap = new ConcurrentHashMap<>();
 
     @Override
     public String readStringAttribute(
@@ -781,6 +784,14 @@ public class UserInfoReader implements UserInfo
         final Set<String> uncachedAttributes = new HashSet<>( attributes );
         uncachedAttributes.removeAll( cacheMap.keySet() );
 
+        // check the shared attribute cache before going to ldap
+        if ( !uncachedAttributes.isEmpty() && userAttributeCache != null )
+        {
+            final Map<String, List<String>> sharedValues = userAttributeCache.read( uncachedAttributes );
+            cacheMap.putAll( sharedValues );
+            uncachedAttributes.removeAll( sharedValues.keySet() );
+        }
+
         // read uncached attributes into cache
         if ( !uncachedAttributes.isEmpty() )
         {
@@ -815,18 +826,25 @@ public class UserInfoReader implements UserInfo
             }
 
             final Map<String, List<String>> allAttributeValues = results.values().iterator().next();
+            final Map<String, List<String>> readValues = new HashMap<>( uncachedAttributes.size() );
             for ( final String attribute : uncachedAttributes )
             {
                 final List<String> attributeValues = allAttributeValues.get( attribute );
                 if ( attributeValues == null )
                 {
-                    cacheMap.put( attribute, Collections.emptyList() );
+                    readValues.put( attribute, Collections.emptyList() );
                 }
                 else
                 {
-                    cacheMap.put( attribute, Collections.unmodifiableList( attributeValues ) );
+                    readValues.put( attribute, Collections.unmodifiableList( attributeValues ) );
                 }
             }
+            cacheMap.putAll( readValues );
+
+            if ( userAttributeCache != null )
+            {
+                userAttributeCache.store( readValues );
+            }
         }
 
         // build result data from cache
@@ -396,6 +396,7 @@ public class SessionAuthenticator
                         authenticationResult.getUserPassword()
                 );
             }
+            UserInfoFactory.prefetchAttributes( pwmDomain.getPwmApplication(), userInfoBean );
             pwmSession.setUserInfo( userInfoBean );
         }
 
@@ -39,12 +39,16 @@ import password.pwm.util.logging.PwmLogger;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 public class UserPermissionUtility
@@ -138,25 +142,77 @@ public class UserPermissionUtility
             final TimeDuration maxSearchTime
     )
             throws PwmUnrecoverableException, PwmOperationalException
+    {
+        return discoverMatchingUsers( pwmDomain, userPermissions, sessionLabel, maxResultSize, maxSearchTime, Collections.emptyList() )
+                .keySet()
+                .iterator();
+    }
+
+    /**
+     * Search for users matching the permissions, reading {@code returnAttributes} of each user in the same search.
+     *
+     * @return sorted map of matching users to the values of {@code returnAttributes} present on each entry.
+     */
+    public static SortedMap<UserIdentity, Map<String, String>> discoverMatchingUsers(
+            final PwmDomain pwmDomain,
+            final List<UserPermission> userPermissions,
+            final SessionLabel sessionLabel,
+            final int maxResultSize,
+            final TimeDuration maxSearchTime,
+            final Collection<String> returnAttributes
+    )
+            throws PwmUnrecoverableException, PwmOperationalException
+    {
+        return discoverMatchingUsers( pwmDomain, userPermissions, null, null, sessionLabel, maxResultSize, maxSearchTime, returnAttributes );
+    }
+
+    /**
+     * Search for users matching the permissions and also matching {@code additionalFilter}, reading {@code returnAttributes}
+     * of each user in the same search.  When {@code ldapProfileID} is set, only that profile is searched and permissions
+     * bound to other profiles are skipped.
+     *
+     * @return sorted map of matching users to the values of {@code returnAttributes} present on each entry.
+     */
+    @SuppressWarnings( "checkstyle:ParameterNumber" )
+    public static SortedMap<UserIdentity, Map<String, String>> discoverMatchingUsers(
+            final PwmDomain pwmDomain,
+            final List<UserPermission> userPermissions,
+            final String ldapProfileID,
+            final String additionalFilter,
+            final SessionLabel sessionLabel,
+            final int maxResultSize,
+            final TimeDuration maxSearchTime,
+            final Collection<String> returnAttributes
+    )
+            throws PwmUnrecoverableException, PwmOperationalException
     {
         if ( userPermissions == null )
         {
-            return Collections.emptyIterator();
+            return Collections.emptySortedMap();
         }
 
         final List<UserPermission> sortedPermissions = new ArrayList<>( userPermissions );
         Collections.sort( sortedPermissions );
 
         final UserSearchEngine userSearchEngine = pwmDomain.getUserSearchEngine();
-        final List<UserIdentity> resultSet = new ArrayList<>();
+        final Map<UserIdentity, Map<String, String>> resultSet = new LinkedHashMap<>();
 
         for ( final UserPermission userPermission : sortedPermissions )
         {
             if ( ( maxResultSize ) - resultSet.size() > 0 )
             {
                 final PermissionTypeHelper permissionTypeHelper = userPermission.getType().getPermissionTypeTester();
-                final SearchConfiguration searchConfiguration = permissionTypeHelper.searchConfigurationFromPermission( userPermission )
-                        .toBuilder()
+                final SearchConfiguration permissionSearchConfiguration = permissionTypeHelper.searchConfigurationFromPermission( userPermission );
+                if ( ldapProfileID != null
+                        && permissionSearchConfiguration.getLdapProfile() != null
+                        && !ldapProfileID.equals( permissionSearchConfiguration.getLdapProfile() ) )
+                {
+                    continue;
+                }
+
+                final SearchConfiguration searchConfiguration = permissionSearchConfiguration.toBuilder()
+                        .ldapProfile( ldapProfileID == null ? permissionSearchConfiguration.getLdapProfile() : ldapProfileID )
+                        .additionalFilter( additionalFilter )
                         .searchTimeout( maxSearchTime )
                         .build();
 
@@ -165,11 +221,11 @@ public class UserPermissionUtility
                     final Map<UserIdentity, Map<String, String>> results = userSearchEngine.performMultiUserSearch(
                             searchConfiguration,
                             ( maxResultSize ) - resultSet.size(),
-                            Collections.emptyList(),
+                            returnAttributes,
                             sessionLabel
                     );
 
-                    resultSet.addAll( results.keySet() );
+                    results.forEach( resultSet::putIfAbsent );
                 }
                 catch ( final PwmUnrecoverableException e )
                 {
@@ -179,11 +235,14 @@ public class UserPermissionUtility
             }
         }
 
-        final List<UserIdentity> strippedResults = stripUserMatchesOutsideUserContexts( sessionLabel, pwmDomain.getPwmApplication(), resultSet );
-        return strippedResults.stream()
-                .distinct()
-                .sorted()
-                .iterator();
+        final List<UserIdentity> strippedResults = stripUserMatchesOutsideUserContexts( sessionLabel, pwmDomain.getPwmApplication(), new ArrayList<>( resultSet.keySet() ) );
+        final SortedMap<UserIdentity, Map<String, String>> returnMap = new TreeMap<>();
+        for ( final UserIdentity userIdentity : strippedResults )
+        {
+            final Map<String, String> attributes = resultSet.get( userIdentity );
+            returnMap.put( userIdentity, attributes == null ? Collections.emptyMap() : attributes );
+        }
+        return returnMap;
     }
 
     static Optional<String> profileIdForPermission( final UserPermission userPermission )
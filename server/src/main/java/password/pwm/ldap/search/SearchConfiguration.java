@@ -40,6 +40,12 @@ public class SearchConfiguration implements Serializable
     private String ldapProfile;
     private String username;
     private String groupDN;
+
+    /**
+     * Filter that every result must also match, combined with the filter built from the other parameters.
+     */
+    private String additionalFilter;
+
     private List<String> contexts;
     private Map<FormConfiguration, String> formValues;
     private transient ChaiProvider chaiProvider;
@@ -67,15 +67,19 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 
 public class UserSearchEngine extends AbstractPwmService implements PwmService
@@ -93,12 +97,15 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
         backgroundRejectionJobCounter,
         backgroundCanceledJobCounter,
         backgroundJobTimeoutCounter,
+        streamingSearchCounter,
     }
 
     private PwmDomain pwmDomain;
 
     private ThreadPoolExecutor executor;
 
+    private UserSearchResultCache resultCache;
+
     private final ConditionalTaskExecutor debugOutputTask = ConditionalTaskExecutor.forPeriodicTask(
             this::periodicDebugOutput,
             TimeDuration.of( 1, TimeDuration.Unit.MINUTES )
@@ -120,6 +127,7 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
     {
         this.pwmDomain = pwmApplication.domains().get( domainID );
         this.executor = createExecutor( pwmDomain );
+        this.resultCache = UserSearchResultCache.create( pwmDomain.getConfig() ).orElse( null );
         this.periodicDebugOutput();
 
         return STATUS.OPEN;
@@ -228,6 +236,64 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
             final SessionLabel sessionLabel
     )
             throws PwmUnrecoverableException, PwmOperationalException
+    {
+        final Optional<UserSearchResultCache.CacheKey> cacheKey = resultCache == null
+                ? Optional.empty()
+                : UserSearchResultCache.makeKey( searchConfiguration );
+
+        if ( cacheKey.isPresent() )
+        {
+            final Optional<UserIdentity> cachedIdentity = resultCache.readPositive( cacheKey.get() );
+            if ( cachedIdentity.isPresent() )
+            {
+                LOGGER.trace( sessionLabel, () -> "using cached search result for username '" + searchConfiguration.getUsername()
+                        + "': " + cachedIdentity.get().toDisplayString() );
+                return cachedIdentity.get();
+            }
+
+            if ( resultCache.readNegative( cacheKey.get() ) )
+            {
+                LOGGER.trace( sessionLabel, () -> "using cached not-found search result for username '" + searchConfiguration.getUsername() + "'" );
+                throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_CANT_MATCH_USER, makeNotFoundMessage( searchConfiguration ) ) );
+            }
+
+            resultCache.markMiss();
+        }
+
+        final Optional<UserIdentity> userIdentity = performSingleUserSearchImpl( searchConfiguration, sessionLabel );
+        if ( cacheKey.isPresent() )
+        {
+            if ( userIdentity.isPresent() )
+            {
+                resultCache.storePositive( cacheKey.get(), userIdentity.get() );
+            }
+            else
+            {
+                resultCache.storeNegative( cacheKey.get() );
+            }
+        }
+
+        return userIdentity.orElseThrow( () -> new PwmOperationalException(
+                new ErrorInformation( PwmError.ERROR_CANT_MATCH_USER, makeNotFoundMessage( searchConfiguration ) ) ) );
+    }
+
+    /**
+     * Discard cached single user search results, used when entries are created or modified in a way that
+     * might change which entry a username resolves to.
+     */
+    public void clearSearchResultCache()
+    {
+        if ( resultCache != null )
+        {
+            resultCache.invalidateAll();
+        }
+    }
+
+    private Optional<UserIdentity> performSingleUserSearchImpl(
+            final SearchConfiguration searchConfiguration,
+            final SessionLabel sessionLabel
+    )
+            throws PwmUnrecoverableException, PwmOperationalException
     {
         final Instant startTime = Instant.now();
         final DuplicateMode dupeMode = pwmDomain.getConfig().readSettingAsEnum( PwmSetting.LDAP_DUPLICATE_MODE, DuplicateMode.class );
@@ -236,22 +302,13 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
         final List<UserIdentity> results = searchResults == null ? Collections.emptyList() : new ArrayList<>( searchResults.keySet() );
         if ( results.isEmpty() )
         {
-            final String errorMessage;
-            if ( searchConfiguration.getUsername() != null && searchConfiguration.getUsername().length() > 0 )
-            {
-                errorMessage = "an ldap user for username value '" + searchConfiguration.getUsername() + "' was not found";
-            }
-            else
-            {
-                errorMessage = "an ldap user was not found";
-            }
-            throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_CANT_MATCH_USER, errorMessage ) );
+            return Optional.empty();
         }
         else if ( results.size() == 1 )
         {
             final String userDN = results.get( 0 ).getUserDN();
             LOGGER.debug( sessionLabel, () -> "found userDN: " + userDN + " (" + TimeDuration.compactFromCurrent( startTime ) + ")" );
-            return results.get( 0 );
+            return Optional.of( results.get( 0 ) );
         }
         if ( dupeMode == DuplicateMode.FIRST_PROFILE )
         {
@@ -269,12 +326,21 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
             LOGGER.trace( sessionLabel, () -> "found multiple matches, but will use first match since second match"
                     + " is in a different profile and dupeMode is set to "
                     + DuplicateMode.FIRST_PROFILE );
-            return results.get( 0 );
+            return Optional.of( results.get( 0 ) );
         }
         final String errorMessage = "multiple user matches found";
         throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_CANT_MATCH_USER, errorMessage ) );
     }
 
+    private static String makeNotFoundMessage( final SearchConfiguration searchConfiguration )
+    {
+        if ( searchConfiguration.getUsername() != null && searchConfiguration.getUsername().length() > 0 )
+        {
+            return "an ldap user for username value '" + searchConfiguration.getUsername() + "' was not found";
+        }
+        return "an ldap user was not found";
+    }
+
     public UserSearchResults performMultiUserSearchFromForm(
             final Locale locale,
             final SearchConfiguration searchConfiguration,
@@ -285,21 +351,27 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
             throws PwmUnrecoverableException, PwmOperationalException
     {
         final Map<String, String> attributeHeaderMap = UserSearchResults.fromFormConfiguration( formItem, locale );
-        final Map<UserIdentity, Map<String, String>> searchResults = performMultiUserSearch(
+
+        // results are sorted by UserSearchResults, so they can be collected in job completion order and slower
+        // profiles or contexts are abandoned once enough results have been found.
+        final Map<UserIdentity, Map<String, String>> returnData = new LinkedHashMap<>();
+        boolean resultsExceeded = false;
+        try ( UserSearchResultStream resultStream = streamMultiUserSearch(
                 searchConfiguration,
                 maxResults + 1,
                 attributeHeaderMap.keySet(),
                 sessionLabel
-        );
-        final boolean resultsExceeded = searchResults.size() > maxResults;
-        final Map<UserIdentity, Map<String, String>> returnData = new LinkedHashMap<>( Math.min( maxResults, searchResults.size() ) );
-        for ( final Map.Entry<UserIdentity, Map<String, String>> entry : searchResults.entrySet() )
+        ) )
         {
-            final UserIdentity loopUser = entry.getKey();
-            returnData.put( loopUser, entry.getValue() );
-            if ( returnData.size() >= maxResults )
+            while ( resultStream.hasNext() )
             {
-                break;
+                final Map.Entry<UserIdentity, Map<String, String>> entry = resultStream.next();
+                if ( returnData.size() >= maxResults )
+                {
+                    resultsExceeded = true;
+                    break;
+                }
+                returnData.put( entry.getKey(), entry.getValue() );
             }
         }
         return new UserSearchResults( attributeHeaderMap, returnData, resultsExceeded );
@@ -312,6 +384,95 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
             final SessionLabel sessionLabel
     )
             throws PwmUnrecoverableException, PwmOperationalException
+    {
+        final List<UserSearchJob> searchJobs = makeSearchJobsForProfiles( searchConfiguration, maxResults, returnAttributes, sessionLabel, null );
+        final Map<UserIdentity, Map<String, String>> resultsMap = new LinkedHashMap<>( executeSearchJobs( searchJobs ) );
+        return trimOrderedMap( resultsMap, maxResults );
+    }
+
+    /**
+     * Start a multi-user search, returning a stream that hands over the results of each search job as soon as that
+     * job completes, rather than waiting for all jobs.  Results are in job completion order.  Once {@code maxResults}
+     * results have been delivered, or the stream is closed, outstanding jobs are canceled.
+     *
+     * @param searchConfiguration search parameters
+     * @param maxResults maximum number of results to deliver
+     * @param returnAttributes attributes to return for each result
+     * @param sessionLabel session label for logging
+     * @return a stream of search results, should be closed by the caller.
+     * @throws PwmUnrecoverableException if the search can not be started
+     * @throws PwmOperationalException if the search configuration is invalid
+     */
+    public UserSearchResultStream streamMultiUserSearch(
+            final SearchConfiguration searchConfiguration,
+            final int maxResults,
+            final Collection<String> returnAttributes,
+            final SessionLabel sessionLabel
+    )
+            throws PwmUnrecoverableException, PwmOperationalException
+    {
+        final BlockingQueue<UserSearchJob> completedJobs = new LinkedBlockingQueue<>();
+        final List<UserSearchJob> searchJobs = makeSearchJobsForProfiles( searchConfiguration, maxResults, returnAttributes, sessionLabel, completedJobs::offer );
+        counters.increment( SearchStatistic.streamingSearchCounter );
+
+        if ( !searchJobs.isEmpty() )
+        {
+            debugOutputTask.conditionallyExecuteTask();
+            final UserSearchJobParameters firstParam = searchJobs.get( 0 ).getUserSearchJobParameters();
+            log( PwmLogLevel.DEBUG, sessionLabel, firstParam.getSearchID(), -1, "beginning streaming user search process with "
+                    + searchJobs.size() + " search jobs, filter: " + firstParam.getSearchFilter() );
+        }
+
+        final List<UserSearchJob> localJobs = new ArrayList<>();
+        for ( final UserSearchJob searchJob : searchJobs )
+        {
+            if ( submitToExecutor( searchJob ) )
+            {
+                counters.increment( SearchStatistic.backgroundJobCounter );
+            }
+            else
+            {
+                localJobs.add( searchJob );
+            }
+        }
+
+        final long searchTimeoutMs = searchJobs.stream()
+                .mapToLong( searchJob -> searchJob.getUserSearchJobParameters().getTimeoutMs() )
+                .max()
+                .orElse( 0 );
+        final TimeDuration searchTimeout = TimeDuration.of( searchTimeoutMs, TimeDuration.Unit.MILLISECONDS );
+        return new UserSearchResultStream( this, searchJobs, localJobs, completedJobs, maxResults, searchTimeout );
+    }
+
+    private boolean submitToExecutor( final UserSearchJob searchJob )
+    {
+        final ThreadPoolExecutor executor = this.executor;
+        if ( executor == null )
+        {
+            return false;
+        }
+
+        try
+        {
+            executor.submit( searchJob.getFutureTask() );
+            return true;
+        }
+        catch ( final RejectedExecutionException e )
+        {
+            // executor is full, job will be run in the requesting thread
+            counters.increment( SearchStatistic.backgroundRejectionJobCounter );
+            return false;
+        }
+    }
+
+    private List<UserSearchJob> makeSearchJobsForProfiles(
+            final SearchConfiguration searchConfiguration,
+            final int maxResults,
+            final Collection<String> returnAttributes,
+            final SessionLabel sessionLabel,
+            final Consumer<UserSearchJob> completionListener
+    )
+            throws PwmUnrecoverableException, PwmOperationalException
     {
         final Collection<LdapProfile> ldapProfiles;
         if ( searchConfiguration.getLdapProfile() != null && !searchConfiguration.getLdapProfile().isEmpty() )
@@ -324,7 +485,7 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
             {
                 LOGGER.debug( sessionLabel, () -> "attempt to search for users in unknown ldap profile '"
                         + searchConfiguration.getLdapProfile() + "', skipping search" );
-                return Collections.emptyMap();
+                return Collections.emptyList();
             }
         }
         else
@@ -365,7 +526,8 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
                             returnAttributes,
                             sessionLabel,
                             searchID,
-                            jobIncrementer
+                            jobIncrementer,
+                            completionListener
                     ) );
                 }
                 catch ( final PwmUnrecoverableException e )
@@ -391,11 +553,11 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
             }
         }
 
-        final Map<UserIdentity, Map<String, String>> resultsMap = new LinkedHashMap<>( executeSearchJobs( searchJobs ) );
-        return trimOrderedMap( resultsMap, maxResults );
+        return searchJobs;
     }
 
 
+    @SuppressWarnings( "checkstyle:ParameterNumber" )
     private Collection<UserSearchJob> makeSearchJobs(
             final LdapProfile ldapProfile,
             final SearchConfiguration searchConfiguration,
@@ -403,7 +565,8 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
             final Collection<String> returnAttributes,
             final SessionLabel sessionLabel,
             final int searchID,
-            final AtomicLoopIntIncrementer jobIncrementer
+            final AtomicLoopIntIncrementer jobIncrementer,
+            final Consumer<UserSearchJob> completionListener
     )
             throws PwmUnrecoverableException, PwmOperationalException
     {
@@ -463,7 +626,7 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
                     .searchScope( searchConfiguration.getSearchScope() )
                     .ignoreOperationalErrors( searchConfiguration.isIgnoreOperationalErrors() )
                     .build();
-            final UserSearchJob userSearchJob = new UserSearchJob( pwmDomain, this, userSearchJobParameters );
+            final UserSearchJob userSearchJob = new UserSearchJob( pwmDomain, this, userSearchJobParameters, completionListener );
             returnMap.add( userSearchJob );
         }
 
@@ -512,7 +675,18 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
         {
             searchFilter = inputSearchFilter;
         }
-        return searchFilter;
+
+        if ( StringUtil.isEmpty( searchConfiguration.getAdditionalFilter() ) )
+        {
+            return searchFilter;
+        }
+
+        return "(&" + wrapFilter( searchFilter ) + wrapFilter( searchConfiguration.getAdditionalFilter() ) + ")";
+    }
+
+    private static String wrapFilter( final String filter )
+    {
+        return filter.startsWith( "(" ) ? filter : "(" + filter + ")";
     }
 
 
@@ -651,19 +825,10 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
             boolean submittedToExecutor = false;
 
             // use current thread to execute one (the last in the loop) task.
-            if ( executor != null && iterator.hasNext() )
+            if ( iterator.hasNext() && submitToExecutor( jobInfo ) )
             {
-                try
-                {
-                    executor.submit( jobInfo.getFutureTask() );
-                    submittedToExecutor = true;
-                    counters.increment( SearchStatistic.backgroundJobCounter );
-                }
-                catch ( final RejectedExecutionException e )
-                {
-                    // executor is full, so revert to running locally
-                    counters.increment( SearchStatistic.backgroundRejectionJobCounter );
-                }
+                submittedToExecutor = true;
+                counters.increment( SearchStatistic.backgroundJobCounter );
             }
 
             if ( !submittedToExecutor )
@@ -711,44 +876,73 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
             }
             else
             {
-                try
-                {
-                    results.putAll( jobInfo.getFutureTask().get( ) );
-                }
-                catch ( final InterruptedException e )
-                {
-                    final String errorMsg = "unexpected interruption during search job execution: " + e.getMessage();
-                    log( PwmLogLevel.WARN, params.getSessionLabel(), params.getSearchID(), params.getJobId(), errorMsg );
-                    LOGGER.error( params.getSessionLabel(), () -> errorMsg, e );
-                    throw new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_INTERNAL, errorMsg ) );
-                }
-                catch ( final ExecutionException e )
-                {
-                    final Throwable t = e.getCause();
-                    final ErrorInformation errorInformation;
-                    final String errorMsg = "unexpected error during ldap search ("
-                            + "domain=" + pwmDomain.getDomainID() + " "
-                            + "profile=" + jobInfo.getUserSearchJobParameters().getLdapProfile().getIdentifier() + ")"
-                            + ", error: " + ( t instanceof PwmException ? t.getMessage() : JavaHelper.readHostileExceptionMessage( t ) );
-                    if ( t instanceof PwmException )
-                    {
-                        errorInformation = new ErrorInformation( ( ( PwmException ) t ).getError(), errorMsg );
-                    }
-                    else
-                    {
-                        errorInformation = new ErrorInformation( PwmError.ERROR_LDAP_DATA_ERROR, errorMsg );
-                    }
-                    log( PwmLogLevel.WARN, params.getSessionLabel(), params.getSearchID(), params.getJobId(), "error during user search: " + errorInformation.toDebugStr() );
-                    throw new PwmUnrecoverableException( errorInformation );
-                }
+                results.putAll( readJobResults( jobInfo ) );
             }
         }
         return results;
     }
 
+    Map<UserIdentity, Map<String, String>> readJobResults( final UserSearchJob jobInfo )
+            throws PwmUnrecoverableException
+    {
+        final UserSearchJobParameters params = jobInfo.getUserSearchJobParameters();
+        try
+        {
+            return jobInfo.getFutureTask().get( );
+        }
+        catch ( final InterruptedException e )
+        {
+            final String errorMsg = "unexpected interruption during search job execution: " + e.getMessage();
+            log( PwmLogLevel.WARN, params.getSessionLabel(), params.getSearchID(), params.getJobId(), errorMsg );
+            LOGGER.error( params.getSessionLabel(), () -> errorMsg, e );
+            throw new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_INTERNAL, errorMsg ) );
+        }
+        catch ( final ExecutionException e )
+        {
+            final Throwable t = e.getCause();
+            final ErrorInformation errorInformation;
+            final String errorMsg = "unexpected error during ldap search ("
+                    + "domain=" + pwmDomain.getDomainID() + " "
+                    + "profile=" + params.getLdapProfile().getIdentifier() + ")"
+                    + ", error: " + ( t instanceof PwmException ? t.getMessage() : JavaHelper.readHostileExceptionMessage( t ) );
+            if ( t instanceof PwmException )
+            {
+                errorInformation = new ErrorInformation( ( ( PwmException ) t ).getError(), errorMsg );
+            }
+            else
+            {
+                errorInformation = new ErrorInformation( PwmError.ERROR_LDAP_DATA_ERROR, errorMsg );
+            }
+            log( PwmLogLevel.WARN, params.getSessionLabel(), params.getSearchID(), params.getJobId(), "error during user search: " + errorInformation.toDebugStr() );
+            throw new PwmUnrecoverableException( errorInformation );
+        }
+    }
+
+    void cancelJobs( final Collection<UserSearchJob> userSearchJobs )
+    {
+        for ( final UserSearchJob jobInfo : userSearchJobs )
+        {
+            final FutureTask<Map<UserIdentity, Map<String, String>>> futureTask = jobInfo.getFutureTask();
+            if ( !futureTask.isDone() )
+            {
+                counters.increment( SearchStatistic.backgroundCanceledJobCounter );
+                futureTask.cancel( false );
+            }
+        }
+    }
+
+    void markForegroundJob()
+    {
+        counters.increment( SearchStatistic.foregroundJobCounter );
+    }
+
     private Map<String, String> debugProperties( )
     {
         final Map<String, String> properties = new TreeMap<>( counters.debugStats() );
+        if ( resultCache != null )
+        {
+            resultCache.debugStats().forEach( ( key, value ) -> properties.put( "resultCache-" + key, value ) );
+        }
         properties.put( "jvmThreadCount", Integer.toString( Thread.activeCount() ) );
         if ( executor == null )
         {
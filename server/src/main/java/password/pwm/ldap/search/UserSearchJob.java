@@ -41,6 +41,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
 
 class UserSearchJob implements Callable<Map<UserIdentity, Map<String, String>>>
 {
@@ -50,12 +51,19 @@ class UserSearchJob implements Callable<Map<UserIdentity, Map<String, String>>>
     private final FutureTask<Map<UserIdentity, Map<String, String>>> futureTask;
     private final Instant createTime = Instant.now();
 
-    UserSearchJob( final PwmDomain pwmDomain, final UserSearchEngine userSearchEngine, final UserSearchJobParameters userSearchJobParameters )
+    UserSearchJob(
+            final PwmDomain pwmDomain,
+            final UserSearchEngine userSearchEngine,
+            final UserSearchJobParameters userSearchJobParameters,
+            final Consumer<UserSearchJob> completionListener
+    )
     {
         this.pwmDomain = pwmDomain;
         this.userSearchJobParameters = userSearchJobParameters;
         this.userSearchEngine = userSearchEngine;
-        this.futureTask = new FutureTask<>( this );
+        this.futureTask = completionListener == null
+                ? new FutureTask<>( this )
+                : new NotifyingFutureTask( this, completionListener );
     }
 
     @Override
@@ -149,4 +157,23 @@ class UserSearchJob implements Callable<Map<UserIdentity, Map<String, String>>>
     {
         return futureTask;
     }
+
+    private static class NotifyingFutureTask extends FutureTask<Map<UserIdentity, Map<String, String>>>
+    {
+        private final UserSearchJob userSearchJob;
+        private final Consumer<UserSearchJob> completionListener;
+
+        NotifyingFutureTask( final UserSearchJob userSearchJob, final Consumer<UserSearchJob> completionListener )
+        {
+            super( userSearchJob );
+            this.userSearchJob = userSearchJob;
+            this.completionListener = completionListener;
+        }
+
+        @Override
+        protected void done()
+        {
+            completionListener.accept( userSearchJob );
+        }
+    }
 }
@@ -0,0 +1,213 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Value;
+import password.pwm.AppProperty;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.DomainConfig;
+import password.pwm.util.java.CollectionUtil;
+import password.pwm.util.java.Percent;
+import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.java.TimeDuration;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Short lived cache of single user search results, used to avoid repeating the same username resolution search
+ * for repeated login attempts, retries and lookups.  Both found identities and not-found results are cached, with
+ * separate lifetimes.
+ */
+class UserSearchResultCache
+{
+    private final Cache<CacheKey, UserIdentity> positiveCache;
+    private final Cache<CacheKey, Boolean> negativeCache;
+    private final StatisticCounterBundle<CacheStatistic> counters = new StatisticCounterBundle<>( CacheStatistic.class );
+
+    enum CacheStatistic
+    {
+        positiveHits,
+        negativeHits,
+        misses,
+        invalidations,
+    }
+
+    @Value
+    static class CacheKey
+    {
+        private final String ldapProfile;
+        private final String username;
+        private final String filter;
+        private final String groupDN;
+        private final List<String> contexts;
+        private final SearchConfiguration.SearchScope searchScope;
+        private final boolean enableValueEscaping;
+        private final boolean enableSplitWhitespace;
+        private final boolean enableContextValidation;
+        private final boolean ignoreOperationalErrors;
+        private final Long searchTimeoutMs;
+    }
+
+    private UserSearchResultCache( final int maxSize, final TimeDuration positiveLifetime, final TimeDuration negativeLifetime )
+    {
+        this.positiveCache = positiveLifetime.isZero()
+                ? null
+                : Caffeine.newBuilder().maximumSize( maxSize ).expireAfterWrite( positiveLifetime.asDuration() ).build();
+        this.negativeCache = negativeLifetime.isZero()
+                ? null
+                : Caffeine.newBuilder().maximumSize( maxSize ).expireAfterWrite( negativeLifetime.asDuration() ).build();
+    }
+
+    static Optional<UserSearchResultCache> create( final DomainConfig domainConfig )
+    {
+        if ( !Boolean.parseBoolean( domainConfig.readAppProperty( AppProperty.LDAP_SEARCH_CACHE_ENABLE ) ) )
+        {
+            return Optional.empty();
+        }
+
+        final int maxSize = Integer.parseInt( domainConfig.readAppProperty( AppProperty.LDAP_SEARCH_CACHE_MAX_SIZE ) );
+        final TimeDuration positiveLifetime = TimeDuration.of(
+                Long.parseLong( domainConfig.readAppProperty( AppProperty.LDAP_SEARCH_CACHE_POSITIVE_LIFETIME_MS ) ), TimeDuration.Unit.MILLISECONDS );
+        final TimeDuration negativeLifetime = TimeDuration.of(
+                Long.parseLong( domainConfig.readAppProperty( AppProperty.LDAP_SEARCH_CACHE_NEGATIVE_LIFETIME_MS ) ), TimeDuration.Unit.MILLISECONDS );
+
+        if ( maxSize <= 0 || ( positiveLifetime.isZero() && negativeLifetime.isZero() ) )
+        {
+            return Optional.empty();
+        }
+
+        return Optional.of( new UserSearchResultCache( maxSize, positiveLifetime, negativeLifetime ) );
+    }
+
+    /**
+     * Make a cache key for a search configuration.  Only username searches using the default proxy connection are
+     * cached; other searches return an empty value.
+     *
+     * @param searchConfiguration search configuration for a single user search.
+     * @return a cache key if the search is cacheable.
+     */
+    static Optional<CacheKey> makeKey( final SearchConfiguration searchConfiguration )
+    {
+        if ( StringUtil.isEmpty( searchConfiguration.getUsername() )
+                || searchConfiguration.getChaiProvider() != null
+                || !CollectionUtil.isEmpty( searchConfiguration.getFormValues() ) )
+        {
+            return Optional.empty();
+        }
+
+        return Optional.of( new CacheKey(
+                searchConfiguration.getLdapProfile(),
+                searchConfiguration.getUsername().trim(),
+                searchConfiguration.getFilter(),
+                searchConfiguration.getGroupDN(),
+                searchConfiguration.getContexts() == null ? Collections.emptyList() : List.copyOf( searchConfiguration.getContexts() ),
+                searchConfiguration.getSearchScope(),
+                searchConfiguration.isEnableValueEscaping(),
+                searchConfiguration.isEnableSplitWhitespace(),
+                searchConfiguration.isEnableContextValidation(),
+                searchConfiguration.isIgnoreOperationalErrors(),
+                searchConfiguration.getSearchTimeout() == null ? null : searchConfiguration.getSearchTimeout().asMillis() ) );
+    }
+
+    Optional<UserIdentity> readPositive( final CacheKey cacheKey )
+    {
+        if ( positiveCache != null )
+        {
+            final UserIdentity userIdentity = positiveCache.getIfPresent( cacheKey );
+            if ( userIdentity != null )
+            {
+                counters.increment( CacheStatistic.positiveHits );
+                return Optional.of( userIdentity );
+            }
+        }
+        return Optional.empty();
+    }
+
+    boolean readNegative( final CacheKey cacheKey )
+    {
+        if ( negativeCache != null && negativeCache.getIfPresent( cacheKey ) != null )
+        {
+            counters.increment( CacheStatistic.negativeHits );
+            return true;
+        }
+        return false;
+    }
+
+    void markMiss()
+    {
+        counters.increment( CacheStatistic.misses );
+    }
+
+    void storePositive( final CacheKey cacheKey, final UserIdentity userIdentity )
+    {
+        if ( positiveCache != null )
+        {
+            positiveCache.put( cacheKey, userIdentity );
+        }
+    }
+
+    void storeNegative( final CacheKey cacheKey )
+    {
+        if ( negativeCache != null )
+        {
+            negativeCache.put( cacheKey, Boolean.TRUE );
+        }
+    }
+
+    void invalidateAll()
+    {
+        counters.increment( CacheStatistic.invalidations );
+        if ( positiveCache != null )
+        {
+            positiveCache.invalidateAll();
+        }
+        if ( negativeCache != null )
+        {
+            negativeCache.invalidateAll();
+        }
+    }
+
+    Map<String, String> debugStats()
+    {
+        final Map<String, String> stats = new TreeMap<>( counters.debugStats() );
+        final long positiveHits = counters.get( CacheStatistic.positiveHits );
+        final long negativeHits = counters.get( CacheStatistic.negativeHits );
+        final long total = positiveHits + negativeHits + counters.get( CacheStatistic.misses );
+        stats.put( "positiveHitPercent", ratio( positiveHits, total ) );
+        stats.put( "negativeHitPercent", ratio( negativeHits, total ) );
+        stats.put( "hitPercent", ratio( positiveHits + negativeHits, total ) );
+        stats.put( "positiveSize", String.valueOf( positiveCache == null ? 0 : positiveCache.estimatedSize() ) );
+        stats.put( "negativeSize", String.valueOf( negativeCache == null ? 0 : negativeCache.estimatedSize() ) );
+        return Collections.unmodifiableMap( stats );
+    }
+
+    private static String ratio( final long count, final long total )
+    {
+        return total == 0 ? Percent.ZERO.pretty() : Percent.of( count, total ).pretty( 1 );
+    }
+}
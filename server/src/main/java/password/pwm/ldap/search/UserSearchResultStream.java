@@ -0,0 +1,225 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap.search;
+
+import password.pwm.bean.UserIdentity;
+import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogLevel;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Results of a multi-user search, handed over as each search job completes.  Jobs that could not be submitted
+ * to the search executor are run in the reading thread when no background job results are available.  Waiting
+ * for background jobs is bounded by the search timeout, measured from the start of the search.  Instances
+ * are not thread safe.
+ *
+ * @see UserSearchEngine#streamMultiUserSearch
+ */
+public class UserSearchResultStream implements AutoCloseable
+{
+    private final UserSearchEngine userSearchEngine;
+    private final List<UserSearchJob> searchJobs;
+    private final Deque<UserSearchJob> localJobs;
+    private final BlockingQueue<UserSearchJob> completedJobs;
+    private final int maxResults;
+    private final TimeDuration searchTimeout;
+
+    private final Deque<Map.Entry<UserIdentity, Map<String, String>>> pendingResults = new ArrayDeque<>();
+    private final Set<UserIdentity> deliveredIdentities = new HashSet<>();
+    private final Instant startTime = Instant.now();
+
+    private int finishedJobCount;
+    private boolean closed;
+
+    UserSearchResultStream(
+            final UserSearchEngine userSearchEngine,
+            final List<UserSearchJob> searchJobs,
+            final List<UserSearchJob> localJobs,
+            final BlockingQueue<UserSearchJob> completedJobs,
+            final int maxResults,
+            final TimeDuration searchTimeout
+    )
+    {
+        this.userSearchEngine = userSearchEngine;
+        this.searchJobs = List.copyOf( searchJobs );
+        this.localJobs = new ArrayDeque<>( localJobs );
+        this.completedJobs = completedJobs;
+        this.maxResults = maxResults;
+        this.searchTimeout = searchTimeout;
+    }
+
+    /**
+     * Check for another result, blocking until a search job completes if none are currently available.
+     *
+     * @return true if another result is available.
+     * @throws PwmUnrecoverableException if a search job failed, or no job completed within the search timeout.
+     */
+    public boolean hasNext()
+            throws PwmUnrecoverableException
+    {
+        while ( pendingResults.isEmpty() && !closed )
+        {
+            if ( deliveredIdentities.size() >= maxResults || finishedJobCount >= searchJobs.size() )
+            {
+                close();
+                break;
+            }
+
+            readJob( nextCompletedJob() );
+        }
+
+        return !pendingResults.isEmpty();
+    }
+
+    public Map.Entry<UserIdentity, Map<String, String>> next()
+            throws PwmUnrecoverableException
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+        return pendingResults.removeFirst();
+    }
+
+    /**
+     * Number of results delivered or ready for delivery.
+     *
+     * @return result count.
+     */
+    public int resultCount()
+    {
+        return deliveredIdentities.size();
+    }
+
+    @Override
+    public void close()
+    {
+        if ( closed )
+        {
+            return;
+        }
+        closed = true;
+        userSearchEngine.cancelJobs( searchJobs );
+
+        if ( !searchJobs.isEmpty() )
+        {
+            final UserSearchJobParameters firstParam = searchJobs.get( 0 ).getUserSearchJobParameters();
+            userSearchEngine.log( PwmLogLevel.DEBUG, firstParam.getSessionLabel(), firstParam.getSearchID(), -1, "completed streaming user search process in "
+                    + TimeDuration.fromCurrent( startTime ).asCompactString()
+                    + ", jobs completed=" + finishedJobCount + "/" + searchJobs.size()
+                    + ", result size=" + deliveredIdentities.size() );
+        }
+    }
+
+    private UserSearchJob nextCompletedJob()
+            throws PwmUnrecoverableException
+    {
+        final UserSearchJob completedJob = completedJobs.poll();
+        if ( completedJob != null )
+        {
+            return completedJob;
+        }
+
+        if ( !localJobs.isEmpty() )
+        {
+            final UserSearchJob localJob = localJobs.removeFirst();
+            userSearchEngine.markForegroundJob();
+            localJob.getFutureTask().run();
+            return completedJobs.remove();
+        }
+
+        try
+        {
+            // a zero timeout means the directory imposes no time limit on the search jobs
+            if ( searchTimeout.asMillis() <= 0 )
+            {
+                return completedJobs.take();
+            }
+
+            final long remainingMs = searchTimeout.asMillis() - TimeDuration.fromCurrent( startTime ).asMillis();
+            final UserSearchJob polledJob = remainingMs > 0
+                    ? completedJobs.poll( remainingMs, TimeUnit.MILLISECONDS )
+                    : null;
+            if ( polledJob != null )
+            {
+                return polledJob;
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            close();
+            throw new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_INTERNAL, "interrupted while waiting for user search results" ) );
+        }
+
+        close();
+        throw new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_DIRECTORY_UNAVAILABLE,
+                "user search jobs did not complete within search timeout of " + searchTimeout.asCompactString()
+                        + ", jobs completed=" + finishedJobCount + "/" + searchJobs.size() ) );
+    }
+
+    private void readJob( final UserSearchJob completedJob )
+            throws PwmUnrecoverableException
+    {
+        finishedJobCount++;
+
+        final Map<UserIdentity, Map<String, String>> jobResults;
+        try
+        {
+            jobResults = userSearchEngine.readJobResults( completedJob );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            close();
+            throw e;
+        }
+
+        for ( final Map.Entry<UserIdentity, Map<String, String>> entry : jobResults.entrySet() )
+        {
+            if ( deliveredIdentities.size() >= maxResults )
+            {
+                break;
+            }
+
+            if ( deliveredIdentities.add( entry.getKey() ) )
+            {
+                final Map<String, String> attributes = entry.getValue() == null
+                        ? Collections.emptyMap()
+                        : Collections.unmodifiableMap( entry.getValue() );
+                pendingResults.addLast( Map.entry( entry.getKey(), attributes ) );
+            }
+        }
+    }
+}
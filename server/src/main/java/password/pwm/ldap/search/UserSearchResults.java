@@ -44,12 +44,29 @@ public class UserSearchResults implements Serializable
 
     public UserSearchResults( final Map<String, String> headerAttributeMap, final Map<UserIdentity, Map<String, String>> results, final boolean sizeExceeded )
     {
-        this.headerAttributeMap = headerAttributeMap;
-        this.results = Collections.unmodifiableMap( defaultSort( results, headerAttributeMap ) );
+        // instances are shared by the cache service without copying, so all contained maps are copied and unmodifiable
+        this.headerAttributeMap = headerAttributeMap == null ? null : Collections.unmodifiableMap( new LinkedHashMap<>( headerAttributeMap ) );
+        this.results = Collections.unmodifiableMap( copyResults( defaultSort( results, headerAttributeMap ) ) );
         this.sizeExceeded = sizeExceeded;
 
     }
 
+    private static Map<UserIdentity, Map<String, String>> copyResults( final Map<UserIdentity, Map<String, String>> results )
+    {
+        if ( results == null )
+        {
+            return Collections.emptyMap();
+        }
+
+        final Map<UserIdentity, Map<String, String>> copiedResults = new LinkedHashMap<>( results.size() );
+        for ( final Map.Entry<UserIdentity, Map<String, String>> entry : results.entrySet() )
+        {
+            final Map<String, String> row = entry.getValue();
+            copiedResults.put( entry.getKey(), row == null ? null : Collections.unmodifiableMap( new LinkedHashMap<>( row ) ) );
+        }
+        return copiedResults;
+    }
+
     private static Map<UserIdentity, Map<String, String>> defaultSort(
             final Map<UserIdentity, Map<String, String>> results,
             final Map<String, String> headerAttributeMap
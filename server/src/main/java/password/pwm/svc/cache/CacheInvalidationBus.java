@@ -0,0 +1,44 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.cache;
+
+import password.pwm.bean.UserIdentity;
+import password.pwm.error.PwmUnrecoverableException;
+
+import java.util.function.Consumer;
+
+/**
+ * Distributes user scoped cache invalidations to the {@link CacheService} of each node.
+ */
+public interface CacheInvalidationBus
+{
+    /**
+     * Publish an invalidation to all other subscribers of the bus.
+     *
+     * @param userIdentity user whose cached values are no longer valid.
+     * @throws PwmUnrecoverableException if the invalidation can not be published.
+     */
+    void publish( UserIdentity userIdentity ) throws PwmUnrecoverableException;
+
+    void subscribe( Consumer<UserIdentity> subscriber );
+
+    void unsubscribe( Consumer<UserIdentity> subscriber );
+}
@@ -23,21 +23,25 @@ package password.pwm.svc.cache;
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.bean.DomainID;
+import password.pwm.bean.UserIdentity;
 import password.pwm.error.PwmException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.health.HealthRecord;
 import password.pwm.svc.AbstractPwmService;
 import password.pwm.svc.PwmService;
+import password.pwm.util.PwmScheduler;
 import password.pwm.util.java.ConditionalTaskExecutor;
 import password.pwm.util.json.JsonFactory;
 import password.pwm.util.java.StatisticCounterBundle;
 import password.pwm.util.java.TimeDuration;
+import password.pwm.util.localdb.LocalDBException;
 import password.pwm.util.logging.PwmLogger;
 
 import java.io.Serializable;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -45,12 +49,20 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 public class CacheService extends AbstractPwmService implements PwmService
 {
     private static final PwmLogger LOGGER = PwmLogger.forClass( CacheService.class );
 
+    private static final TimeDuration OVERFLOW_PURGE_FREQUENCY = TimeDuration.of( 10, TimeDuration.Unit.MINUTES );
+
     private MemoryCacheStore memoryCacheStore;
+    private LocalDBCacheStore localDBCacheStore;
+    private ExecutorService executorService;
+    private final Consumer<UserIdentity> invalidationSubscriber = this::removeUserValues;
+    private CacheInvalidationBus invalidationBus;
 
     private ConditionalTaskExecutor traceDebugOutputter;
 
@@ -72,7 +84,16 @@ public class CacheService extends AbstractPwmService implements PwmService
         }
 
         final int maxMemItems = Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.CACHE_MEMORY_MAX_ITEMS ) );
-        memoryCacheStore = new MemoryCacheStore( maxMemItems );
+        final long maxMemBytes = Long.parseLong( pwmApplication.getConfig().readAppProperty( AppProperty.CACHE_MEMORY_MAX_BYTES ) );
+        final TimeDuration refreshAhead = TimeDuration.of(
+                Long.parseLong( pwmApplication.getConfig().readAppProperty( AppProperty.CACHE_MEMORY_REFRESH_AHEAD_MS ) ),
+                TimeDuration.Unit.MILLISECONDS );
+        final TimeDuration loadWait = TimeDuration.of(
+                Long.parseLong( pwmApplication.getConfig().readAppProperty( AppProperty.CACHE_MEMORY_LOAD_WAIT_MS ) ),
+                TimeDuration.Unit.MILLISECONDS );
+        executorService = PwmScheduler.makeBackgroundExecutor( pwmApplication, this.getClass() );
+        localDBCacheStore = initLocalDBCacheStore( pwmApplication );
+        memoryCacheStore = new MemoryCacheStore( maxMemItems, maxMemBytes, localDBCacheStore, refreshAhead, executorService, loadWait );
         this.traceDebugOutputter = ConditionalTaskExecutor.forPeriodicTask(
                 this::outputTraceInfo,
                 TimeDuration.MINUTE
@@ -81,10 +102,53 @@ public class CacheService extends AbstractPwmService implements PwmService
         return STATUS.OPEN;
     }
 
+    private LocalDBCacheStore initLocalDBCacheStore( final PwmApplication pwmApplication )
+    {
+        final boolean enabled = Boolean.parseBoolean( pwmApplication.getConfig().readAppProperty( AppProperty.CACHE_LOCALDB_ENABLE ) );
+        if ( !enabled || !pwmApplication.checkConditions( EnumSet.of( PwmApplication.Condition.LocalDBOpen ) ) )
+        {
+            return null;
+        }
+
+        try
+        {
+            final long maxItems = Long.parseLong( pwmApplication.getConfig().readAppProperty( AppProperty.CACHE_LOCALDB_MAX_ITEMS ) );
+            final LocalDBCacheStore localDBCacheStore = new LocalDBCacheStore(
+                    pwmApplication.getLocalDB(),
+                    maxItems,
+                    LocalDBCacheStore.PayloadCodec.encrypting( pwmApplication.getSecureService() ) );
+            pwmApplication.getPwmScheduler().scheduleFixedRateJob( this::purgeOverflowStore, executorService, OVERFLOW_PURGE_FREQUENCY, OVERFLOW_PURGE_FREQUENCY );
+            return localDBCacheStore;
+        }
+        catch ( final LocalDBException e )
+        {
+            LOGGER.warn( getSessionLabel(), () -> "unable to initialize localdb cache tier, only memory cache will be used: " + e.getMessage() );
+        }
+        return null;
+    }
+
+    private void purgeOverflowStore()
+    {
+        try
+        {
+            localDBCacheStore.purgeExpiredValues();
+        }
+        catch ( final LocalDBException e )
+        {
+            LOGGER.debug( getSessionLabel(), () -> "error purging expired values from localdb cache tier: " + e.getMessage() );
+        }
+    }
+
     @Override
     public void close( )
     {
         setStatus( STATUS.CLOSED );
+        setInvalidationBus( null );
+        if ( executorService != null )
+        {
+            executorService.shutdown();
+            executorService = null;
+        }
     }
 
     @Override
@@ -105,7 +169,14 @@ public class CacheService extends AbstractPwmService implements PwmService
         debugInfo.put( "itemCount", String.valueOf( memoryCacheStore.itemCount() ) );
         debugInfo.put( "byteCount", String.valueOf( memoryCacheStore.byteCount() ) );
         debugInfo.putAll( JsonFactory.get().deserializeStringMap( JsonFactory.get().serializeMap( memoryCacheStore.getCacheStoreInfo().debugStats() ) ) );
+        debugInfo.putAll( averageTimings( memoryCacheStore.getCacheStoreInfo() ) );
         debugInfo.putAll( JsonFactory.get().deserializeStringMap( JsonFactory.get().serializeMap( memoryCacheStore.storedClassHistogram( "histogram." ) ) ) );
+        if ( localDBCacheStore != null )
+        {
+            debugInfo.put( "localdb.itemCount", String.valueOf( localDBCacheStore.itemCount() ) );
+            debugInfo.put( "localdb.byteCount", String.valueOf( localDBCacheStore.byteCount() ) );
+            localDBCacheStore.getCacheStoreInfo().debugStats().forEach( ( key, value ) -> debugInfo.put( "localdb." + key, value ) );
+        }
         return ServiceInfoBean.builder().debugProperties( debugInfo ).build();
     }
 
@@ -113,8 +184,16 @@ public class CacheService extends AbstractPwmService implements PwmService
     {
         final Map<String, Serializable> debugInfo = new LinkedHashMap<>( );
         debugInfo.put( "memory-statistics", JsonFactory.get().serializeMap( memoryCacheStore.getCacheStoreInfo().debugStats() ) );
+        debugInfo.put( "memory-coalesced-waiters", memoryCacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.coalescedWaitCount ) );
+        debugInfo.put( "memory-inflight-loads", memoryCacheStore.inFlightLoadCount() );
+        debugInfo.put( "memory-timings", JsonFactory.get().serializeMap( averageTimings( memoryCacheStore.getCacheStoreInfo() ) ) );
         debugInfo.put( "memory-items", new ArrayList<Serializable>( memoryCacheStore.getCacheDebugItems() ) );
         debugInfo.put( "memory-histogram", new HashMap<>( memoryCacheStore.storedClassHistogram( "" ) ) );
+        if ( localDBCacheStore != null )
+        {
+            debugInfo.put( "localdb-statistics", JsonFactory.get().serializeMap( localDBCacheStore.getCacheStoreInfo().debugStats() ) );
+            debugInfo.put( "localdb-items", new ArrayList<Serializable>( localDBCacheStore.getCacheDebugItems() ) );
+        }
         return Collections.unmodifiableMap( debugInfo );
     }
 
@@ -136,6 +215,87 @@ public class CacheService extends AbstractPwmService implements PwmService
         traceDebugOutputter.conditionallyExecuteTask();
     }
 
+    /**
+     * Replace the bus used to distribute user invalidations to other nodes.  The service is unsubscribed from the
+     * previous bus.  Without a bus, invalidations are only applied to this node.
+     *
+     * @param invalidationBus bus to publish and receive invalidations on, or null to stop distributing invalidations.
+     */
+    public synchronized void setInvalidationBus( final CacheInvalidationBus invalidationBus )
+    {
+        if ( this.invalidationBus != null )
+        {
+            this.invalidationBus.unsubscribe( invalidationSubscriber );
+        }
+        if ( invalidationBus != null )
+        {
+            invalidationBus.subscribe( invalidationSubscriber );
+        }
+        this.invalidationBus = invalidationBus;
+    }
+
+    /**
+     * Stop using a bus that is being closed.  Has no effect if the bus has already been replaced.
+     *
+     * @param invalidationBus bus that is being closed.
+     */
+    public synchronized void removeInvalidationBus( final CacheInvalidationBus invalidationBus )
+    {
+        if ( invalidationBus != null && invalidationBus == this.invalidationBus )
+        {
+            setInvalidationBus( null );
+        }
+    }
+
+    /**
+     * Remove all values cached for a user on this node and publish the invalidation to other nodes.
+     *
+     * @param userIdentity user whose stored data has been modified.
+     */
+    public void invalidateUser( final UserIdentity userIdentity )
+    {
+        if ( status() != STATUS.OPEN || userIdentity == null )
+        {
+            return;
+        }
+
+        removeUserValues( userIdentity );
+
+        final CacheInvalidationBus invalidationBus;
+        synchronized ( this )
+        {
+            invalidationBus = this.invalidationBus;
+        }
+        if ( invalidationBus == null )
+        {
+            return;
+        }
+
+        try
+        {
+            invalidationBus.publish( userIdentity );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            LOGGER.warn( getSessionLabel(), () -> "unable to publish cache invalidation for user " + userIdentity.toDisplayString() + ": " + e.getMessage() );
+        }
+    }
+
+    private void removeUserValues( final UserIdentity userIdentity )
+    {
+        if ( status() != STATUS.OPEN )
+        {
+            return;
+        }
+
+        memoryCacheStore.invalidateUser( userIdentity );
+        if ( localDBCacheStore != null )
+        {
+            localDBCacheStore.invalidateUser( userIdentity );
+        }
+        LOGGER.trace( getSessionLabel(), () -> "removed cached values for user " + userIdentity.toDisplayString() );
+    }
+
     public <T extends Serializable> T get( final CacheKey cacheKey, final Class<T> classOfT  )
     {
         Objects.requireNonNull( cacheKey );
@@ -176,6 +336,16 @@ public class CacheService extends AbstractPwmService implements PwmService
         return memoryCacheStore.readAndStore( cacheKey, expirationDate, classOfT, cacheLoader );
     }
 
+    private static Map<String, String> averageTimings( final StatisticCounterBundle<CacheStore.DebugKey> info )
+    {
+        final long hitCount = info.get( CacheStore.DebugKey.hitCount );
+        final long missCount = info.get( CacheStore.DebugKey.missCount );
+        final Map<String, String> timings = new TreeMap<>();
+        timings.put( "avgHitNanos", String.valueOf( hitCount == 0 ? 0 : info.get( CacheStore.DebugKey.hitNanos ) / hitCount ) );
+        timings.put( "avgMissNanos", String.valueOf( missCount == 0 ? 0 : info.get( CacheStore.DebugKey.missNanos ) / missCount ) );
+        return Collections.unmodifiableMap( timings );
+    }
+
     private void outputTraceInfo( )
     {
         final StringBuilder traceOutput = new StringBuilder();
@@ -184,6 +354,8 @@ public class CacheService extends AbstractPwmService implements PwmService
             final StatisticCounterBundle<CacheStore.DebugKey> info = memoryCacheStore.getCacheStoreInfo();
             traceOutput.append( "memCache=" );
             traceOutput.append( JsonFactory.get().serializeMap( info.debugStats() ) );
+            traceOutput.append( ", timings=" );
+            traceOutput.append( JsonFactory.get().serializeMap( averageTimings( info ) ) );
             traceOutput.append( ", histogram=" );
             traceOutput.append( JsonFactory.get().serializeMap( memoryCacheStore.storedClassHistogram( "" ) ) );
         }
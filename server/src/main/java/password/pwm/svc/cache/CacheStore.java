@@ -20,6 +20,7 @@
 
 package password.pwm.svc.cache;
 
+import password.pwm.bean.UserIdentity;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.util.java.StatisticCounterBundle;
 
@@ -36,6 +37,8 @@ public interface CacheStore
 
     <T extends Serializable> T read( CacheKey cacheKey, Class<T> classOfT ) throws PwmUnrecoverableException;
 
+    void invalidateUser( UserIdentity userIdentity );
+
     StatisticCounterBundle<DebugKey> getCacheStoreInfo( );
 
     int itemCount( );
@@ -50,5 +53,18 @@ public interface CacheStore
         readCount,
         hitCount,
         missCount,
+        immutableHitCount,
+        copiedHitCount,
+        mutableHitCount,
+        hitNanos,
+        missNanos,
+        promoteCount,
+        demoteCount,
+        overflowSkipCount,
+        invalidationCount,
+        coalescedWaitCount,
+        coalescedWaitTimeoutCount,
+        invalidatedLoadCount,
+        refreshAheadCount,
     }
 }
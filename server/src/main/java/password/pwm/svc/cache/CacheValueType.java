@@ -20,6 +20,190 @@
 
 package password.pwm.svc.cache;
 
+import password.pwm.bean.DomainID;
+import password.pwm.bean.ResponseInfoBean;
+import password.pwm.bean.UserIdentity;
+import password.pwm.http.servlet.peoplesearch.bean.SearchResultBean;
+import password.pwm.ldap.UserAttributeCache;
+import password.pwm.ldap.UserInfoBean;
+import password.pwm.ldap.search.UserSearchResults;
+import password.pwm.svc.otp.OTPUserRecord;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Storage strategy for values held by the {@link CacheService}.
+ */
 public enum CacheValueType
 {
+    /**
+     * Value can not be modified after construction, so the stored instance is returned directly on each read.
+     */
+    immutable,
+
+    /**
+     * Value may be modified by callers but has a registered copy function, so the stored instance is copied
+     * on store and on each read without a json round trip.
+     */
+    copied,
+
+    /**
+     * Value may be modified by callers, so a json copy is stored and each read returns a new instance.
+     */
+    mutable,;
+
+    private static final int UNKNOWN_OBJECT_CHARS = 64;
+
+    private static final Set<Class<?>> IMMUTABLE_CLASSES = Set.of(
+            String.class,
+            Boolean.class,
+            Integer.class,
+            Long.class,
+            Double.class,
+            BigInteger.class,
+            BigDecimal.class,
+            Instant.class,
+            DomainID.class,
+            UserIdentity.class,
+            UserAttributeCache.CachedValues.class,
+            UserSearchResults.class );
+
+    private static final Map<Class<?>, UnaryOperator<Object>> COPY_FUNCTIONS = Map.of(
+            SearchResultBean.class, value -> copySearchResultBean( ( SearchResultBean ) value ),
+            UserInfoBean.class, value -> copyUserInfoBean( ( UserInfoBean ) value ) );
+
+    public static CacheValueType forClass( final Class<?> valueClass )
+    {
+        if ( valueClass != null && ( valueClass.isEnum() || IMMUTABLE_CLASSES.contains( valueClass ) ) )
+        {
+            return immutable;
+        }
+
+        if ( valueClass != null && COPY_FUNCTIONS.containsKey( valueClass ) )
+        {
+            return copied;
+        }
+
+        return mutable;
+    }
+
+    /**
+     * Copy a value of the {@link #copied} type.
+     */
+    @SuppressWarnings( "unchecked" )
+    static <T> T copy( final T value )
+    {
+        final UnaryOperator<Object> copyFunction = COPY_FUNCTIONS.get( value.getClass() );
+        if ( copyFunction == null )
+        {
+            throw new IllegalArgumentException( "no copy function registered for " + value.getClass().getName() );
+        }
+        return ( T ) copyFunction.apply( value );
+    }
+
+    /**
+     * Estimate the serialized size of a value in chars by walking strings, numbers, collections and maps, without
+     * serializing it.  Beans other than the registered value types are counted as a fixed size.
+     */
+    static int estimateChars( final Object value )
+    {
+        if ( value == null )
+        {
+            return 4;
+        }
+        if ( value instanceof CharSequence )
+        {
+            return ( ( CharSequence ) value ).length() + 2;
+        }
+        if ( value instanceof Number || value instanceof Boolean )
+        {
+            return 8;
+        }
+        if ( value instanceof Enum )
+        {
+            return ( ( Enum<?> ) value ).name().length() + 2;
+        }
+        if ( value instanceof Instant )
+        {
+            return 24;
+        }
+        if ( value instanceof UserIdentity )
+        {
+            return ( ( UserIdentity ) value ).toDelimitedKey().length() + 2;
+        }
+        if ( value instanceof Collection )
+        {
+            int chars = 2;
+            for ( final Object item : ( Collection<?> ) value )
+            {
+                chars += estimateChars( item ) + 1;
+            }
+            return chars;
+        }
+        if ( value instanceof Map )
+        {
+            int chars = 2;
+            for ( final Map.Entry<?, ?> entry : ( ( Map<?, ?> ) value ).entrySet() )
+            {
+                chars += estimateChars( entry.getKey() ) + estimateChars( entry.getValue() ) + 2;
+            }
+            return chars;
+        }
+        if ( value instanceof UserSearchResults )
+        {
+            final UserSearchResults userSearchResults = ( UserSearchResults ) value;
+            return estimateChars( userSearchResults.getHeaderAttributeMap() ) + estimateChars( userSearchResults.getResults() ) + 32;
+        }
+        if ( value instanceof SearchResultBean )
+        {
+            final SearchResultBean searchResultBean = ( SearchResultBean ) value;
+            return estimateChars( searchResultBean.getSearchResults() ) + estimateChars( searchResultBean.getAboutResultMessage() ) + 48;
+        }
+        if ( value instanceof UserInfoBean )
+        {
+            final UserInfoBean userInfoBean = ( UserInfoBean ) value;
+            return estimateChars( userInfoBean.getAttributes() )
+                    + estimateChars( userInfoBean.getCachedAttributeValues() )
+                    + estimateChars( userInfoBean.getCachedPasswordRuleAttributes() )
+                    + estimateChars( userInfoBean.getUserIdentity() )
+                    + UNKNOWN_OBJECT_CHARS * 8;
+        }
+        return UNKNOWN_OBJECT_CHARS;
+    }
+
+    private static SearchResultBean copySearchResultBean( final SearchResultBean searchResultBean )
+    {
+        final List<Map<String, Object>> searchResults = searchResultBean.getSearchResults();
+        if ( searchResults == null )
+        {
+            return searchResultBean.toBuilder().build();
+        }
+
+        final List<Map<String, Object>> copiedResults = new ArrayList<>( searchResults.size() );
+        for ( final Map<String, Object> row : searchResults )
+        {
+            copiedResults.add( row == null ? null : new LinkedHashMap<>( row ) );
+        }
+        return searchResultBean.toBuilder().searchResults( copiedResults ).build();
+    }
+
+    private static UserInfoBean copyUserInfoBean( final UserInfoBean userInfoBean )
+    {
+        // the otp record and response info bean are mutable, the builder rebuilds the attribute maps as unmodifiable copies
+        final OTPUserRecord otpUserRecord = userInfoBean.getOtpUserRecord();
+        final ResponseInfoBean responseInfoBean = userInfoBean.getResponseInfoBean();
+        return userInfoBean.toBuilder()
+                .otpUserRecord( otpUserRecord == null ? null : otpUserRecord.copy() )
+                .responseInfoBean( responseInfoBean == null ? null : responseInfoBean.copy() )
+                .build();
+    }
 }
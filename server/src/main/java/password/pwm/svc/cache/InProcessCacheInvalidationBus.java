@@ -0,0 +1,57 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.cache;
+
+import password.pwm.bean.UserIdentity;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation bus that delivers published invalidations synchronously to subscribers in the same JVM.  Used as a
+ * stand-in for a cluster bus during testing.
+ */
+public class InProcessCacheInvalidationBus implements CacheInvalidationBus
+{
+    private final List<Consumer<UserIdentity>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish( final UserIdentity userIdentity )
+    {
+        for ( final Consumer<UserIdentity> subscriber : subscribers )
+        {
+            subscriber.accept( userIdentity );
+        }
+    }
+
+    @Override
+    public void subscribe( final Consumer<UserIdentity> subscriber )
+    {
+        subscribers.add( subscriber );
+    }
+
+    @Override
+    public void unsubscribe( final Consumer<UserIdentity> subscriber )
+    {
+        subscribers.remove( subscriber );
+    }
+}
@@ -0,0 +1,450 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Value;
+import password.pwm.bean.UserIdentity;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.svc.secure.AbstractSecureService;
+import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.json.JsonFactory;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBException;
+import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.secure.PwmHashAlgorithm;
+import password.pwm.util.secure.SecureEngine;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Second level cache tier backed by {@link LocalDB.DB#CACHE}.  Values evicted from the {@link MemoryCacheStore} heap tier
+ * are demoted here and promoted back to the heap tier when next read.
+ *
+ * <p>Cached values may contain user data, so stored records are passed through a {@link PayloadCodec}, which
+ * encrypts them with the application security key when used by the {@link CacheService}.</p>
+ */
+class LocalDBCacheStore implements CacheStore
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( LocalDBCacheStore.class );
+    private static final LocalDB.DB DB = LocalDB.DB.CACHE;
+    private static final int MAX_USER_INVALIDATIONS = 100_000;
+
+    private final LocalDB localDB;
+    private final long maxItems;
+    private final PayloadCodec payloadCodec;
+    private final StatisticCounterBundle<DebugKey> cacheStoreInfo = new StatisticCounterBundle<>( DebugKey.class );
+    private final AtomicLong itemCount = new AtomicLong();
+    private final AtomicLong byteCount = new AtomicLong();
+
+    // invalidations are applied lazily; stored values for a user are discarded when read if they predate the invalidation.
+    private final Cache<String, Instant> userInvalidations = Caffeine.newBuilder()
+            .expireAfterWrite( Duration.ofDays( 1 ) )
+            .maximumSize( MAX_USER_INVALIDATIONS )
+            .build();
+
+    /**
+     * Encoding applied to each stored record.
+     */
+    interface PayloadCodec
+    {
+        PayloadCodec PLAIN = new PayloadCodec()
+        {
+            @Override
+            public String encode( final String value )
+            {
+                return value;
+            }
+
+            @Override
+            public String decode( final String value )
+            {
+                return value;
+            }
+        };
+
+        String encode( String value ) throws PwmUnrecoverableException;
+
+        String decode( String value ) throws PwmUnrecoverableException;
+
+        static PayloadCodec encrypting( final AbstractSecureService secureService )
+        {
+            Objects.requireNonNull( secureService );
+            return new PayloadCodec()
+            {
+                @Override
+                public String encode( final String value )
+                        throws PwmUnrecoverableException
+                {
+                    return secureService.encryptToString( value );
+                }
+
+                @Override
+                public String decode( final String value )
+                        throws PwmUnrecoverableException
+                {
+                    return secureService.decryptStringValue( value );
+                }
+            };
+        }
+    }
+
+    LocalDBCacheStore( final LocalDB localDB, final long maxItems, final PayloadCodec payloadCodec )
+            throws LocalDBException
+    {
+        this.localDB = Objects.requireNonNull( localDB );
+        this.maxItems = maxItems;
+        this.payloadCodec = Objects.requireNonNull( payloadCodec );
+
+        // values are not retained across restarts, they may otherwise outlive a configuration change.
+        localDB.truncate( DB );
+    }
+
+    @Override
+    public void store( final CacheKey cacheKey, final Instant expirationDate, final Serializable data )
+            throws PwmUnrecoverableException
+    {
+        cacheStoreInfo.increment( DebugKey.storeCount );
+        writeValue( cacheKey, expirationDate, JsonFactory.get().serialize( data ) );
+    }
+
+    @Override
+    public <T extends Serializable> T readAndStore( final CacheKey cacheKey, final Instant expirationDate, final Class<T> classOfT, final CacheLoader<T> cacheLoader )
+            throws PwmUnrecoverableException
+    {
+        final T cachedValue = read( cacheKey, classOfT );
+        if ( cachedValue != null )
+        {
+            return cachedValue;
+        }
+
+        final T data = cacheLoader.read();
+        store( cacheKey, expirationDate, data );
+        return data;
+    }
+
+    @Override
+    public <T extends Serializable> T read( final CacheKey cacheKey, final Class<T> classOfT )
+            throws PwmUnrecoverableException
+    {
+        final long startNanos = System.nanoTime();
+        cacheStoreInfo.increment( DebugKey.readCount );
+        final Optional<StoredValue> storedValue = readValue( cacheKey, false );
+        if ( storedValue.isPresent() )
+        {
+            final T value = JsonFactory.get().deserialize( storedValue.get().getPayload(), classOfT );
+            cacheStoreInfo.increment( DebugKey.hitCount );
+            cacheStoreInfo.increment( DebugKey.hitNanos, System.nanoTime() - startNanos );
+            return value;
+        }
+
+        cacheStoreInfo.increment( DebugKey.missCount );
+        cacheStoreInfo.increment( DebugKey.missNanos, System.nanoTime() - startNanos );
+        return null;
+    }
+
+    /**
+     * Write a json payload demoted from the heap tier.
+     *
+     * @return true if the value was written.
+     */
+    boolean writeValue( final CacheKey cacheKey, final Instant expirationDate, final String jsonPayload )
+            throws PwmUnrecoverableException
+    {
+        if ( !expirationDate.isAfter( Instant.now() ) )
+        {
+            return false;
+        }
+
+        if ( itemCount.get() >= maxItems )
+        {
+            cacheStoreInfo.increment( DebugKey.overflowSkipCount );
+            return false;
+        }
+
+        final StoredValue storedValue = StoredValue.create( cacheKey, expirationDate, jsonPayload );
+        final String encodedValue = payloadCodec.encode( JsonFactory.get().serialize( storedValue ) );
+        if ( encodedValue.length() > LocalDB.MAX_VALUE_LENGTH )
+        {
+            cacheStoreInfo.increment( DebugKey.overflowSkipCount );
+            return false;
+        }
+
+        try
+        {
+            final String storageKey = storageKey( cacheKey );
+            final Optional<String> existingValue = localDB.get( DB, storageKey );
+            localDB.put( DB, storageKey, encodedValue );
+            if ( existingValue.isPresent() )
+            {
+                // overwrite of an existing record, only the size difference is added
+                byteCount.addAndGet( encodedValue.length() - existingValue.get().length() );
+            }
+            else
+            {
+                itemCount.incrementAndGet();
+                byteCount.addAndGet( encodedValue.length() );
+            }
+            cacheStoreInfo.increment( DebugKey.demoteCount );
+            return true;
+        }
+        catch ( final LocalDBException e )
+        {
+            LOGGER.debug( () -> "error writing cache value to localdb: " + e.getMessage() );
+        }
+        return false;
+    }
+
+    /**
+     * Read and remove a value so it can be promoted to the heap tier.
+     */
+    Optional<StoredValue> takeValue( final CacheKey cacheKey )
+            throws PwmUnrecoverableException
+    {
+        final Optional<StoredValue> storedValue = readValue( cacheKey, true );
+        if ( storedValue.isPresent() )
+        {
+            cacheStoreInfo.increment( DebugKey.promoteCount );
+        }
+        return storedValue;
+    }
+
+    private Optional<StoredValue> readValue( final CacheKey cacheKey, final boolean remove )
+            throws PwmUnrecoverableException
+    {
+        if ( itemCount.get() == 0 )
+        {
+            return Optional.empty();
+        }
+
+        final String storageKey = storageKey( cacheKey );
+        try
+        {
+            final Optional<String> encodedValue = localDB.get( DB, storageKey );
+            if ( encodedValue.isEmpty() )
+            {
+                return Optional.empty();
+            }
+
+            final Optional<StoredValue> storedValue = decodeStoredValue( encodedValue.get() );
+            final boolean valid = storedValue.isPresent()
+                    && storedValue.get().matches( cacheKey )
+                    && storedValue.get().getExpirationDate().isAfter( Instant.now() )
+                    && !isInvalidated( storedValue.get() );
+            if ( remove || !valid )
+            {
+                removeStoredValue( storageKey, encodedValue.get() );
+            }
+            return valid ? storedValue : Optional.empty();
+        }
+        catch ( final LocalDBException e )
+        {
+            LOGGER.debug( () -> "error reading cache value from localdb: " + e.getMessage() );
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the decoded record, or empty if the record can not be decoded, for example after a security key change.
+     */
+    private Optional<StoredValue> decodeStoredValue( final String encodedValue )
+    {
+        try
+        {
+            return Optional.ofNullable( JsonFactory.get().deserialize( payloadCodec.decode( encodedValue ), StoredValue.class ) );
+        }
+        catch ( final PwmUnrecoverableException | RuntimeException e )
+        {
+            LOGGER.trace( () -> "discarding unreadable localdb cache value: " + e.getMessage() );
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void invalidateUser( final UserIdentity userIdentity )
+    {
+        userInvalidations.put( userIdentity.toDelimitedKey(), Instant.now() );
+        cacheStoreInfo.increment( DebugKey.invalidationCount );
+    }
+
+    private boolean isInvalidated( final StoredValue storedValue )
+    {
+        if ( storedValue.getUserIdentity() == null )
+        {
+            return false;
+        }
+
+        final Instant invalidationDate = userInvalidations.getIfPresent( storedValue.getUserIdentity() );
+        return invalidationDate != null
+                && ( storedValue.getStoreDate() == null || !storedValue.getStoreDate().isAfter( invalidationDate ) );
+    }
+
+    void removeValue( final CacheKey cacheKey )
+            throws PwmUnrecoverableException
+    {
+        readValue( cacheKey, true );
+    }
+
+    private void removeStoredValue( final String storageKey, final String encodedValue )
+            throws LocalDBException
+    {
+        if ( localDB.remove( DB, storageKey ) )
+        {
+            itemCount.decrementAndGet();
+            byteCount.addAndGet( -encodedValue.length() );
+        }
+    }
+
+    void purgeExpiredValues( )
+            throws LocalDBException
+    {
+        final Instant startTime = Instant.now();
+        final List<String> expiredKeys = new ArrayList<>();
+        long remainingItems = 0;
+        long remainingBytes = 0;
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( DB ) )
+        {
+            while ( iterator.hasNext() )
+            {
+                final Map.Entry<String, String> entry = iterator.next();
+                final Optional<StoredValue> storedValue = decodeStoredValue( entry.getValue() );
+                if ( storedValue.isPresent() && storedValue.get().getExpirationDate().isAfter( startTime ) )
+                {
+                    remainingItems++;
+                    remainingBytes += entry.getValue().length();
+                }
+                else
+                {
+                    expiredKeys.add( entry.getKey() );
+                }
+            }
+        }
+
+        localDB.removeAll( DB, expiredKeys );
+        itemCount.set( remainingItems );
+        byteCount.set( remainingBytes );
+        LOGGER.trace( () -> "purged " + expiredKeys.size() + " expired values from localdb cache tier, "
+                + itemCount.get() + " values remain", () -> TimeDuration.fromCurrent( startTime ) );
+    }
+
+    @Override
+    public StatisticCounterBundle<DebugKey> getCacheStoreInfo( )
+    {
+        return cacheStoreInfo;
+    }
+
+    @Override
+    public int itemCount( )
+    {
+        return ( int ) itemCount.get();
+    }
+
+    @Override
+    public List<CacheDebugItem> getCacheDebugItems( )
+    {
+        final List<CacheDebugItem> items = new ArrayList<>();
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( DB ) )
+        {
+            while ( iterator.hasNext() )
+            {
+                final Optional<StoredValue> decodedValue = decodeStoredValue( iterator.next().getValue() );
+                if ( decodedValue.isEmpty() )
+                {
+                    continue;
+                }
+                final StoredValue storedValue = decodedValue.get();
+                items.add( CacheDebugItem.builder()
+                        .srcClass( storedValue.getSrcClass() )
+                        .userIdentity( storedValue.getUserIdentity() == null ? "null" : storedValue.getUserIdentity() )
+                        .valueID( storedValue.getValueID() )
+                        .age( Duration.between( storedValue.getExpirationDate(), Instant.now() ).toString() )
+                        .chars( storedValue.getPayload().length() )
+                        .valueType( CacheValueType.mutable )
+                        .build() );
+            }
+        }
+        catch ( final LocalDBException e )
+        {
+            LOGGER.debug( () -> "error reading cache debug items from localdb: " + e.getMessage() );
+        }
+        return Collections.unmodifiableList( items );
+    }
+
+    @Override
+    public long byteCount()
+    {
+        return byteCount.get();
+    }
+
+    private static String storageKey( final CacheKey cacheKey )
+            throws PwmUnrecoverableException
+    {
+        return SecureEngine.hash( StoredValue.keyString( cacheKey ), PwmHashAlgorithm.SHA256 );
+    }
+
+    @Value
+    static class StoredValue implements Serializable
+    {
+        private final String srcClass;
+        private final String userIdentity;
+        private final String valueID;
+        private final Instant storeDate;
+        private final Instant expirationDate;
+        private final String payload;
+
+        static StoredValue create( final CacheKey cacheKey, final Instant expirationDate, final String payload )
+        {
+            return new StoredValue(
+                    cacheKey.getSrcClass().getName(),
+                    cacheKey.getUserIdentity() == null ? null : cacheKey.getUserIdentity().toDelimitedKey(),
+                    cacheKey.getValueID(),
+                    Instant.now(),
+                    expirationDate,
+                    payload );
+        }
+
+        static String keyString( final CacheKey cacheKey )
+        {
+            return cacheKey.getSrcClass().getName()
+                    + "|" + ( cacheKey.getUserIdentity() == null ? "" : cacheKey.getUserIdentity().toDelimitedKey() )
+                    + "|" + cacheKey.getValueID();
+        }
+
+        boolean matches( final CacheKey cacheKey )
+        {
+            final StoredValue other = create( cacheKey, expirationDate, payload );
+            return Objects.equals( srcClass, other.getSrcClass() )
+                    && Objects.equals( userIdentity, other.getUserIdentity() )
+                    && Objects.equals( valueID, other.getValueID() );
+        }
+    }
+}
@@ -22,11 +22,17 @@ package password.pwm.svc.cache;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.github.benmanes.caffeine.cache.Weigher;
 import lombok.Value;
 import password.pwm.bean.UserIdentity;
+import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.util.json.JsonFactory;
 import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 
 import java.io.Serializable;
@@ -36,18 +42,85 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TreeMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 class MemoryCacheStore implements CacheStore
 {
     private static final PwmLogger LOGGER = PwmLogger.forClass( MemoryCacheStore.class );
+    static final TimeDuration DEFAULT_LOAD_WAIT = TimeDuration.of( 30, TimeDuration.Unit.SECONDS );
     private final Cache<CacheKey, CacheValueWrapper> memoryStore;
     private final StatisticCounterBundle<DebugKey> cacheStoreInfo = new StatisticCounterBundle<>( DebugKey.class );
+    private final boolean weighted;
+    private final LocalDBCacheStore overflowStore;
+    private final TimeDuration refreshAhead;
+    private final Executor refreshExecutor;
+
+    private final TimeDuration loadWait;
+
+    // loads currently executing, concurrent readers of the same key wait on the existing load instead of starting another.
+    private final Map<CacheKey, InFlightLoad> inFlightLoads = new ConcurrentHashMap<>();
+
+    private static class InFlightLoad
+    {
+        private final CompletableFuture<CacheValueWrapper> future = new CompletableFuture<>();
+
+        // set when the key is invalidated while the load is executing, the loaded value may predate the invalidation.
+        private final AtomicBoolean invalidated = new AtomicBoolean();
+    }
 
     MemoryCacheStore( final int maxItems )
     {
-        memoryStore = Caffeine.newBuilder()
-                .maximumSize( maxItems )
+        this( maxItems, 0, null, TimeDuration.ZERO, null, DEFAULT_LOAD_WAIT );
+    }
+
+    /**
+     * Create a heap cache store.
+     *
+     * @param maxItems maximum item count, used when {@code maxBytes} is not a positive value.
+     * @param maxBytes approximate maximum payload size of the store.
+     * @param overflowStore second tier that receives values evicted due to size, may be null.
+     * @param refreshAhead values read within this duration of expiration are reloaded in the background, zero to disable.
+     * @param refreshExecutor executor for background reloads, may be null if {@code refreshAhead} is zero.
+     * @param loadWait maximum time a reader waits on a load of the same key started by another reader.
+     */
+    MemoryCacheStore(
+            final int maxItems,
+            final long maxBytes,
+            final LocalDBCacheStore overflowStore,
+            final TimeDuration refreshAhead,
+            final Executor refreshExecutor,
+            final TimeDuration loadWait
+    )
+    {
+        this.loadWait = Objects.requireNonNull( loadWait );
+        this.weighted = maxBytes > 0;
+        this.overflowStore = overflowStore;
+        this.refreshAhead = refreshExecutor == null ? TimeDuration.ZERO : refreshAhead;
+        this.refreshExecutor = refreshExecutor;
+
+        final Caffeine<Object, Object> builder = Caffeine.newBuilder();
+        if ( weighted )
+        {
+            builder.maximumWeight( maxBytes );
+            builder.weigher( ( Weigher<CacheKey, CacheValueWrapper> ) ( key, value ) -> value.getWeight() );
+        }
+        else
+        {
+            builder.maximumSize( maxItems );
+        }
+
+        memoryStore = builder
+                .removalListener( ( RemovalListener<CacheKey, CacheValueWrapper> ) this::demoteValue )
                 .build();
     }
 
@@ -56,31 +129,197 @@ class MemoryCacheStore implements CacheStore
             throws PwmUnrecoverableException
     {
         cacheStoreInfo.increment( DebugKey.storeCount );
-        final String jsonData = JsonFactory.get().serialize( data );
-        memoryStore.put( cacheKey, new CacheValueWrapper( cacheKey, expirationDate, jsonData ) );
+        memoryStore.put( cacheKey, CacheValueWrapper.create( cacheKey, expirationDate, data ) );
     }
 
     @Override
     public <T extends Serializable> T readAndStore( final CacheKey cacheKey, final Instant expirationDate, final Class<T> classOfT, final CacheLoader<T> cacheLoader )
             throws PwmUnrecoverableException
     {
+        final long startNanos = System.nanoTime();
         cacheStoreInfo.increment( DebugKey.readCount );
         {
             final CacheValueWrapper valueWrapper = memoryStore.getIfPresent( cacheKey );
             final T extractedValue = extractValue( classOfT, valueWrapper, cacheKey );
             if ( extractedValue != null )
             {
+                checkRefreshAhead( cacheKey, valueWrapper, expirationDate, cacheLoader );
+                cacheStoreInfo.increment( DebugKey.hitNanos, System.nanoTime() - startNanos );
                 return extractedValue;
             }
         }
 
-        final T data = cacheLoader.read();
-        final String jsonIfiedData = JsonFactory.get().serialize( data );
+        {
+            final T promotedValue = promoteValue( cacheKey, classOfT );
+            if ( promotedValue != null )
+            {
+                cacheStoreInfo.increment( DebugKey.hitNanos, System.nanoTime() - startNanos );
+                return promotedValue;
+            }
+        }
+
+        final InFlightLoad newLoad = new InFlightLoad();
+        final InFlightLoad existingLoad = inFlightLoads.putIfAbsent( cacheKey, newLoad );
+        if ( existingLoad != null )
+        {
+            cacheStoreInfo.increment( DebugKey.coalescedWaitCount );
+            final Optional<CacheValueWrapper> loadedWrapper = awaitLoad( cacheKey, existingLoad );
+            final T data;
+            if ( loadedWrapper.isPresent() )
+            {
+                data = loadedWrapper.get().extractPayload( classOfT );
+            }
+            else
+            {
+                // the existing load did not complete in time, read directly and leave storing the value to that load
+                cacheStoreInfo.increment( DebugKey.coalescedWaitTimeoutCount );
+                data = cacheLoader.read();
+            }
+            cacheStoreInfo.increment( DebugKey.missNanos, System.nanoTime() - startNanos );
+            cacheStoreInfo.increment( DebugKey.missCount );
+            return data;
+        }
+
+        final T data = executeLoad( cacheKey, expirationDate, cacheLoader, newLoad );
         cacheStoreInfo.increment( DebugKey.missCount );
-        memoryStore.put( cacheKey, new CacheValueWrapper( cacheKey, expirationDate, jsonIfiedData ) );
+        cacheStoreInfo.increment( DebugKey.missNanos, System.nanoTime() - startNanos );
         return data;
     }
 
+    private <T extends Serializable> T executeLoad(
+            final CacheKey cacheKey,
+            final Instant expirationDate,
+            final CacheLoader<T> cacheLoader,
+            final InFlightLoad inFlightLoad
+    )
+            throws PwmUnrecoverableException
+    {
+        final CompletableFuture<CacheValueWrapper> loadFuture = inFlightLoad.future;
+        try
+        {
+            final T firstData = cacheLoader.read();
+
+            final T data;
+            if ( inFlightLoad.invalidated.getAndSet( false ) )
+            {
+                cacheStoreInfo.increment( DebugKey.invalidatedLoadCount );
+                data = cacheLoader.read();
+            }
+            else
+            {
+                data = firstData;
+            }
+
+            final CacheValueWrapper valueWrapper = CacheValueWrapper.create( cacheKey, expirationDate, data );
+
+            // a second invalidation during the reload is not retried again, the value is returned but not stored
+            if ( !inFlightLoad.invalidated.get() )
+            {
+                memoryStore.put( cacheKey, valueWrapper );
+            }
+            loadFuture.complete( valueWrapper );
+            return data;
+        }
+        catch ( final PwmUnrecoverableException | RuntimeException e )
+        {
+            loadFuture.completeExceptionally( e );
+            throw e;
+        }
+        finally
+        {
+            if ( !loadFuture.isDone() )
+            {
+                loadFuture.completeExceptionally( new IllegalStateException( "cache load for key " + cacheKey + " did not complete" ) );
+            }
+            inFlightLoads.remove( cacheKey, inFlightLoad );
+        }
+    }
+
+    /**
+     * @return the loaded value, or empty if the load did not complete within the load wait duration.
+     */
+    private Optional<CacheValueWrapper> awaitLoad( final CacheKey cacheKey, final InFlightLoad inFlightLoad )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            return Optional.of( inFlightLoad.future.get( loadWait.asMillis(), TimeUnit.MILLISECONDS ) );
+        }
+        catch ( final TimeoutException e )
+        {
+            LOGGER.debug( () -> "timed out after " + loadWait.asCompactString() + " waiting for concurrent load of cache key " + cacheKey );
+            return Optional.empty();
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "interrupted waiting for load of cache key " + cacheKey );
+        }
+        catch ( final ExecutionException e )
+        {
+            if ( e.getCause() instanceof PwmUnrecoverableException )
+            {
+                throw ( PwmUnrecoverableException ) e.getCause();
+            }
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw ( RuntimeException ) e.getCause();
+            }
+            throw new IllegalStateException( e.getCause() );
+        }
+    }
+
+    private <T extends Serializable> void checkRefreshAhead(
+            final CacheKey cacheKey,
+            final CacheValueWrapper valueWrapper,
+            final Instant expirationDate,
+            final CacheLoader<T> cacheLoader
+    )
+    {
+        if ( refreshAhead.isZero() )
+        {
+            return;
+        }
+
+        final Instant refreshDate = valueWrapper.getExpirationDate().minusMillis( refreshAhead.asMillis() );
+        if ( Instant.now().isBefore( refreshDate ) )
+        {
+            return;
+        }
+
+        final InFlightLoad newLoad = new InFlightLoad();
+        if ( inFlightLoads.putIfAbsent( cacheKey, newLoad ) != null )
+        {
+            return;
+        }
+
+        cacheStoreInfo.increment( DebugKey.refreshAheadCount );
+        try
+        {
+            refreshExecutor.execute( () ->
+            {
+                try
+                {
+                    executeLoad( cacheKey, expirationDate, cacheLoader, newLoad );
+                }
+                catch ( final PwmUnrecoverableException | RuntimeException e )
+                {
+                    LOGGER.debug( () -> "error during background refresh of cache key " + cacheKey + ": " + e.getMessage() );
+                }
+            } );
+        }
+        catch ( final RejectedExecutionException e )
+        {
+            newLoad.future.completeExceptionally( e );
+            inFlightLoads.remove( cacheKey, newLoad );
+        }
+    }
+
+    int inFlightLoadCount()
+    {
+        return inFlightLoads.size();
+    }
+
     private <T extends Serializable> T extractValue( final Class<T> classOfT, final CacheValueWrapper valueWrapper, final CacheKey cacheKey )
     {
         if ( valueWrapper != null )
@@ -89,9 +328,13 @@ class MemoryCacheStore implements CacheStore
             {
                 if ( valueWrapper.getExpirationDate().isAfter( Instant.now() ) )
                 {
-                    cacheStoreInfo.increment( DebugKey.hitCount );
-                    final String jsonValue  = valueWrapper.getPayload();
-                    return JsonFactory.get().deserialize( jsonValue, classOfT );
+                    final T value = valueWrapper.extractPayload( classOfT );
+                    if ( value != null )
+                    {
+                        cacheStoreInfo.increment( DebugKey.hitCount );
+                        cacheStoreInfo.increment( hitCountKey( valueWrapper.getValueType() ) );
+                    }
+                    return value;
                 }
             }
         }
@@ -99,22 +342,124 @@ class MemoryCacheStore implements CacheStore
         return null;
     }
 
+    private static DebugKey hitCountKey( final CacheValueType valueType )
+    {
+        switch ( valueType )
+        {
+            case immutable:
+                return DebugKey.immutableHitCount;
+
+            case copied:
+                return DebugKey.copiedHitCount;
+
+            default:
+                return DebugKey.mutableHitCount;
+        }
+    }
+
     @Override
     public <T extends Serializable> T read( final CacheKey cacheKey, final Class<T> classOfT )
     {
+        final long startNanos = System.nanoTime();
         cacheStoreInfo.increment( DebugKey.readCount );
         final CacheValueWrapper valueWrapper = memoryStore.getIfPresent( cacheKey );
         final T extractedValue = extractValue( classOfT, valueWrapper, cacheKey );
         if ( extractedValue != null )
         {
+            cacheStoreInfo.increment( DebugKey.hitNanos, System.nanoTime() - startNanos );
             return extractedValue;
         }
 
         memoryStore.invalidate( cacheKey );
+
+        final T promotedValue = promoteValue( cacheKey, classOfT );
+        if ( promotedValue != null )
+        {
+            cacheStoreInfo.increment( DebugKey.hitNanos, System.nanoTime() - startNanos );
+            return promotedValue;
+        }
+
         cacheStoreInfo.increment( DebugKey.missCount );
+        cacheStoreInfo.increment( DebugKey.missNanos, System.nanoTime() - startNanos );
         return null;
     }
 
+    @Override
+    public void invalidateUser( final UserIdentity userIdentity )
+    {
+        final List<CacheKey> userKeys = new ArrayList<>();
+        for ( final CacheKey cacheKey : memoryStore.asMap().keySet() )
+        {
+            if ( userIdentity.equals( cacheKey.getUserIdentity() ) )
+            {
+                userKeys.add( cacheKey );
+            }
+        }
+        memoryStore.invalidateAll( userKeys );
+
+        for ( final Map.Entry<CacheKey, InFlightLoad> entry : inFlightLoads.entrySet() )
+        {
+            if ( userIdentity.equals( entry.getKey().getUserIdentity() ) )
+            {
+                entry.getValue().invalidated.set( true );
+            }
+        }
+        cacheStoreInfo.increment( DebugKey.invalidationCount );
+    }
+
+    private <T extends Serializable> T promoteValue( final CacheKey cacheKey, final Class<T> classOfT )
+    {
+        if ( overflowStore == null )
+        {
+            return null;
+        }
+
+        try
+        {
+            final Optional<LocalDBCacheStore.StoredValue> storedValue = overflowStore.takeValue( cacheKey );
+            if ( storedValue.isPresent() )
+            {
+                final CacheValueWrapper valueWrapper = CacheValueWrapper.fromJson(
+                        cacheKey,
+                        storedValue.get().getExpirationDate(),
+                        storedValue.get().getPayload(),
+                        classOfT );
+                memoryStore.put( cacheKey, valueWrapper );
+                final T value = extractValue( classOfT, valueWrapper, cacheKey );
+                if ( value != null )
+                {
+                    cacheStoreInfo.increment( DebugKey.promoteCount );
+                }
+                return value;
+            }
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            LOGGER.debug( () -> "error reading value from cache overflow store: " + e.getMessage() );
+        }
+        return null;
+    }
+
+    private void demoteValue( final CacheKey cacheKey, final CacheValueWrapper valueWrapper, final RemovalCause removalCause )
+    {
+        if ( overflowStore == null || removalCause != RemovalCause.SIZE || cacheKey == null || valueWrapper == null )
+        {
+            return;
+        }
+
+        try
+        {
+            if ( overflowStore.writeValue( cacheKey, valueWrapper.getExpirationDate(), valueWrapper.jsonPayload() ) )
+            {
+                cacheStoreInfo.increment( DebugKey.demoteCount );
+            }
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            LOGGER.debug( () -> "error writing value to cache overflow store: " + e.getMessage() );
+        }
+    }
+
     @Override
     public StatisticCounterBundle<DebugKey> getCacheStoreInfo( )
     {
@@ -137,7 +482,7 @@ class MemoryCacheStore implements CacheStore
             final CacheValueWrapper cacheValueWrapper = entry.getValue();
             final Instant storeDate = cacheValueWrapper.getExpirationDate();
             final String age = Duration.between( storeDate, Instant.now() ).toString();
-            final int chars = cacheValueWrapper.getPayload().length();
+            final int chars = cacheValueWrapper.getPayloadChars();
             final String keyClass = cacheKey.getSrcClass() == null ? "null" : cacheKey.getSrcClass().getName();
             final String keyUserID = cacheKey.getUserIdentity() == null ? "null" : cacheKey.getUserIdentity().toDisplayString();
             final String keyValue = cacheKey.getValueID() == null ? "null" : cacheKey.getValueID();
@@ -148,6 +493,7 @@ class MemoryCacheStore implements CacheStore
                     .valueID( keyValue )
                     .age( age )
                     .chars( chars )
+                    .valueType( cacheValueWrapper.getValueType() )
                     .build();
 
             items.add( cacheDebugItem );
@@ -160,10 +506,74 @@ class MemoryCacheStore implements CacheStore
     {
         private final CacheKey cacheKey;
         private final Instant expirationDate;
+        private final CacheValueType valueType;
+
+        // immutable values are held as the live instance and handed out directly.  copied values are held as a private
+        // copy and a new copy is handed out on each read.  other mutable values are serialized to json even though stored
+        // in memory, this prevents object-reuse so an effective clone is made for each read.
+        private final Serializable payload;
+        private final int payloadChars;
+        private final int weight;
+
+        static CacheValueWrapper create( final CacheKey cacheKey, final Instant expirationDate, final Serializable data )
+        {
+            final CacheValueType valueType = CacheValueType.forClass( data == null ? null : data.getClass() );
+            if ( valueType == CacheValueType.immutable || valueType == CacheValueType.copied )
+            {
+                final Serializable storedData = valueType == CacheValueType.copied ? CacheValueType.copy( data ) : data;
+                final int payloadChars = CacheValueType.estimateChars( data );
+                return new CacheValueWrapper( cacheKey, expirationDate, valueType, storedData, payloadChars, weigh( cacheKey, payloadChars ) );
+            }
+
+            final String jsonData = JsonFactory.get().serialize( data );
+            return new CacheValueWrapper( cacheKey, expirationDate, valueType, jsonData, jsonData.length(), weigh( cacheKey, jsonData.length() ) );
+        }
+
+        static <T extends Serializable> CacheValueWrapper fromJson(
+                final CacheKey cacheKey,
+                final Instant expirationDate,
+                final String jsonData,
+                final Class<T> classOfT
+        )
+        {
+            if ( CacheValueType.forClass( classOfT ) != CacheValueType.mutable )
+            {
+                return create( cacheKey, expirationDate, JsonFactory.get().deserialize( jsonData, classOfT ) );
+            }
+
+            return new CacheValueWrapper( cacheKey, expirationDate, CacheValueType.mutable, jsonData, jsonData.length(), weigh( cacheKey, jsonData.length() ) );
+        }
+
+        private static int weigh( final CacheKey cacheKey, final int payloadChars )
+        {
+            final UserIdentity userIdentity = cacheKey.getUserIdentity();
+            final String valueID = cacheKey.getValueID();
+            return payloadChars
+                    + ( userIdentity == null ? 0 : userIdentity.toDelimitedKey().length() )
+                    + ( valueID == null ? 0 : valueID.length() );
+        }
+
+        String jsonPayload()
+        {
+            return valueType == CacheValueType.mutable
+                    ? ( String ) payload
+                    : JsonFactory.get().serialize( payload );
+        }
+
+        <T extends Serializable> T extractPayload( final Class<T> classOfT )
+        {
+            if ( valueType == CacheValueType.immutable )
+            {
+                return classOfT.isInstance( payload ) ? classOfT.cast( payload ) : null;
+            }
+
+            if ( valueType == CacheValueType.copied )
+            {
+                return classOfT.isInstance( payload ) ? classOfT.cast( CacheValueType.copy( payload ) ) : null;
+            }
 
-        // serialize to json even though stored in memory, this prevents object-reuse because we don't know
-        // if the object is immutable.  Thus an effective clone is made for each store/read.
-        private final String payload;
+            return JsonFactory.get().deserialize( ( String ) payload, classOfT );
+        }
     }
 
     Map<String, Integer> storedClassHistogram( final String prefix )
@@ -183,16 +593,19 @@ class MemoryCacheStore implements CacheStore
     @Override
     public long byteCount()
     {
+        if ( weighted )
+        {
+            final Optional<Policy.Eviction<CacheKey, CacheValueWrapper>> eviction = memoryStore.policy().eviction();
+            if ( eviction.isPresent() && eviction.get().weightedSize().isPresent() )
+            {
+                return eviction.get().weightedSize().getAsLong();
+            }
+        }
+
         long byteCount = 0;
-        for ( final Map.Entry<CacheKey, CacheValueWrapper> entry : memoryStore.asMap().entrySet() )
+        for ( final CacheValueWrapper cacheValueWrapper : memoryStore.asMap().values() )
         {
-            final CacheKey cacheKey = entry.getKey();
-            final UserIdentity userIdentity = cacheKey.getUserIdentity();
-            byteCount += userIdentity == null ? 0 : cacheKey.getUserIdentity().toDelimitedKey().length();
-            final String valueID = cacheKey.getValueID();
-            byteCount += valueID == null ? 0 : cacheKey.getValueID().length();
-            final CacheValueWrapper cacheValueWrapper = entry.getValue();
-            byteCount += cacheValueWrapper.payload.length();
+            byteCount += cacheValueWrapper.getWeight();
         }
         return byteCount;
     }
@@ -535,6 +535,8 @@ public class CrService extends AbstractPwmService implements PwmService
             }
         }
 
+        pwmDomain.getCacheService().invalidateUser( userIdentity );
+
         if ( attempts == 0 )
         {
             final String errorMsg = "no response save methods are available or configured";
@@ -593,6 +595,8 @@ public class CrService extends AbstractPwmService implements PwmService
             }
         }
 
+        pwmDomain.getCacheService().invalidateUser( userIdentity );
+
         if ( attempts == 0 )
         {
             final String errorMsg = "no response save methods are available or configured";
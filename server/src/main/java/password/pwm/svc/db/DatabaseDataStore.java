@@ -25,6 +25,7 @@ import password.pwm.error.PwmDataStoreException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.util.DataStore;
 import password.pwm.util.java.ClosableIterator;
+import password.pwm.util.localdb.LocalDBBinaryValues;
 
 import java.util.Map;
 import java.util.Optional;
@@ -57,6 +58,12 @@ public class DatabaseDataStore implements DataStore
         return databaseService.getAccessor().get( table, key );
     }
 
+    @Override
+    public Optional<byte[]> getBytes( final String key ) throws PwmDataStoreException, PwmUnrecoverableException
+    {
+        return get( key ).map( LocalDBBinaryValues::fromText );
+    }
+
     @Override
     public ClosableIterator<Map.Entry<String, String>> iterator( ) throws PwmDataStoreException, PwmUnrecoverableException
     {
@@ -80,6 +87,12 @@ public class DatabaseDataStore implements DataStore
         return databaseService.getAccessor().put( table, key, value );
     }
 
+    @Override
+    public boolean putBytes( final String key, final byte[] value ) throws PwmDataStoreException, PwmUnrecoverableException
+    {
+        return put( key, LocalDBBinaryValues.toText( value ) );
+    }
+
     @Override
     public boolean putIfAbsent( final String key, final String value ) throws PwmDataStoreException, PwmUnrecoverableException
     {
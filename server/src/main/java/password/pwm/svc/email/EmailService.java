@@ -25,6 +25,7 @@ import jakarta.mail.MessagingException;
 import jakarta.mail.Transport;
 import password.pwm.PwmApplication;
 import password.pwm.PwmApplicationMode;
+import password.pwm.PwmConstants;
 import password.pwm.bean.DomainID;
 import password.pwm.bean.EmailItemBean;
 import password.pwm.config.AppConfig;
@@ -124,6 +125,7 @@ public class EmailService extends AbstractPwmService implements PwmService
                 .retryDiscardAge( emailServiceSettings.getQueueDiscardAge() )
                 .retryInterval( emailServiceSettings.getQueueRetryTimeout() )
                 .preThreads( emailServiceSettings.getMaxThreads() )
+                .workerThreads( emailServiceSettings.getQueueWorkerThreads() )
                 .build();
         final LocalDBStoredQueue localDBStoredQueue = LocalDBStoredQueue.createLocalDBStoredQueue(
                 this.getPwmApplication(), this.getPwmApplication().getLocalDB(), LocalDB.DB.EMAIL_QUEUE );
@@ -242,6 +244,13 @@ public class EmailService extends AbstractPwmService implements PwmService
         {
             return emailItemBean.toDebugString();
         }
+
+        @Override
+        public String partitionKey( final EmailItemBean emailItemBean )
+        {
+            // messages to the same recipient are sent in the order they were queued
+            return emailItemBean.getTo() == null ? "" : emailItemBean.getTo().toLowerCase( PwmConstants.DEFAULT_LOCALE );
+        }
     }
 
     private void logStats()
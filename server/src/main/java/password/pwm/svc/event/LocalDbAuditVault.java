@@ -79,6 +79,10 @@ public class LocalDbAuditVault implements AuditVault
     public void close( )
     {
         executorService.shutdown();
+        if ( auditDB != null )
+        {
+            auditDB.close();
+        }
         status = PwmService.STATUS.CLOSED;
     }
 
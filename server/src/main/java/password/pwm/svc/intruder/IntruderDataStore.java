@@ -20,6 +20,7 @@
 
 package password.pwm.svc.intruder;
 
+import password.pwm.config.option.DataStorageMethod;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmDataStoreException;
 import password.pwm.error.PwmError;
@@ -75,10 +76,10 @@ class IntruderDataStore implements IntruderRecordStore
         }
 
         stats.increment( DebugKeys.reads );
-        final Optional<String> value;
+        final Optional<byte[]> value;
         try
         {
-            value = dataStore.get( key );
+            value = dataStore.getBytes( key );
         }
         catch ( final PwmDataStoreException e )
         {
@@ -93,7 +94,7 @@ class IntruderDataStore implements IntruderRecordStore
 
         try
         {
-            return Optional.ofNullable( JsonFactory.get().deserialize( value.get(), IntruderRecord.class ) );
+            return Optional.ofNullable( IntruderRecord.fromEncodedBytes( value.get() ) );
         }
         catch ( final Exception e )
         {
@@ -116,10 +117,17 @@ class IntruderDataStore implements IntruderRecordStore
     public void write( final String key, final IntruderRecord record )
             throws PwmOperationalException, PwmUnrecoverableException
     {
-        final String jsonRecord = JsonFactory.get().serialize( record );
         try
         {
-            dataStore.put( key, jsonRecord );
+            // remote database tables may be shared with nodes that only read json records
+            if ( dataStore.getDataStorageMethod() == DataStorageMethod.LOCALDB )
+            {
+                dataStore.putBytes( key, record.toEncodedBytes() );
+            }
+            else
+            {
+                dataStore.put( key, JsonFactory.get().serialize( record ) );
+            }
         }
         catch ( final PwmDataStoreException e )
         {
@@ -21,15 +21,22 @@
 package password.pwm.svc.intruder;
 
 import lombok.Data;
+import password.pwm.PwmConstants;
 import password.pwm.bean.DomainID;
+import password.pwm.util.java.CompactRecordReader;
+import password.pwm.util.java.CompactRecordWriter;
 import password.pwm.util.java.StringUtil;
+import password.pwm.util.json.JsonFactory;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.time.Instant;
 
 @Data
 public class IntruderRecord implements Serializable
 {
+    private static final int BINARY_FORMAT_VERSION = 1;
+
     private IntruderRecordType type;
     private DomainID domainID;
     private String subject;
@@ -53,6 +60,44 @@ public class IntruderRecord implements Serializable
         this.subject = subject;
     }
 
+    static IntruderRecord fromEncodedBytes( final byte[] encodedBytes )
+            throws IOException
+    {
+        if ( encodedBytes.length > 0 && encodedBytes[0] == '{' )
+        {
+            return JsonFactory.get().deserialize( new String( encodedBytes, PwmConstants.DEFAULT_CHARSET ), IntruderRecord.class );
+        }
+
+        final CompactRecordReader reader = new CompactRecordReader( encodedBytes );
+        final int version = reader.readByte();
+        if ( version != BINARY_FORMAT_VERSION )
+        {
+            throw new IOException( "unsupported intruder record format version " + version );
+        }
+
+        final IntruderRecordType type = reader.readEnum( IntruderRecordType.class );
+        final String domainValue = reader.readString();
+        final String subject = reader.readString();
+        final IntruderRecord record = new IntruderRecord( domainValue == null ? null : DomainID.fromStringValue( domainValue ), type, subject );
+        record.setTimeStamp( reader.readInstant() );
+        record.setAttemptCount( reader.readVarInt() );
+        record.setAlerted( reader.readByte() != 0 );
+        return record;
+    }
+
+    byte[] toEncodedBytes( )
+    {
+        return new CompactRecordWriter( 32 + subject.length() )
+                .writeByte( BINARY_FORMAT_VERSION )
+                .writeEnum( type )
+                .writeString( domainID == null ? null : domainID.stringValue() )
+                .writeString( subject )
+                .writeInstant( timeStamp )
+                .writeVarLong( attemptCount )
+                .writeByte( alerted ? 1 : 0 )
+                .toByteArray();
+    }
+
     void incrementAttemptCount( )
     {
         timeStamp = Instant.now();
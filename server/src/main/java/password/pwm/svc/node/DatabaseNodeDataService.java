@@ -43,6 +43,8 @@ class DatabaseNodeDataService implements NodeDataServiceProvider
 
     private static final DatabaseTable TABLE = DatabaseTable.CLUSTER_STATE;
     private static final String KEY_PREFIX_NODE = "node-";
+    private static final String KEY_PREFIX_CACHE_INVALIDATION = "cacheInvalidation-";
+    private static final int CACHE_INVALIDATION_KEY_LENGTH = 32;
 
     private final PwmApplication pwmApplication;
 
@@ -153,4 +155,55 @@ class DatabaseNodeDataService implements NodeDataServiceProvider
 
         return nodesPurged;
     }
+
+    void writeCacheInvalidation( final StoredCacheInvalidation storedCacheInvalidation )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            final String key = KEY_PREFIX_CACHE_INVALIDATION
+                    + pwmApplication.getSecureService().pwmRandom().alphaNumericString( CACHE_INVALIDATION_KEY_LENGTH );
+            final String value = JsonFactory.get().serialize( storedCacheInvalidation );
+            getDatabaseAccessor().put( TABLE, key, value );
+        }
+        catch ( final DatabaseException e )
+        {
+            throw new PwmUnrecoverableException( PwmError.ERROR_DB_UNAVAILABLE, "unexpected database error writing cache invalidation: " + e.getMessage() );
+        }
+    }
+
+    Map<String, StoredCacheInvalidation> readCacheInvalidations( )
+            throws PwmUnrecoverableException
+    {
+        final Map<String, StoredCacheInvalidation> returnMap = new LinkedHashMap<>();
+        try ( ClosableIterator<Map.Entry<String, String>> tableIterator = getDatabaseAccessor().iterator( TABLE ) )
+        {
+            while ( tableIterator.hasNext() )
+            {
+                final Map.Entry<String, String> entry = tableIterator.next();
+                if ( entry.getKey().startsWith( KEY_PREFIX_CACHE_INVALIDATION ) )
+                {
+                    returnMap.put( entry.getKey(), JsonFactory.get().deserialize( entry.getValue(), StoredCacheInvalidation.class ) );
+                }
+            }
+        }
+        catch ( final DatabaseException e )
+        {
+            throw new PwmUnrecoverableException( PwmError.ERROR_DB_UNAVAILABLE, "unexpected database error reading cache invalidations: " + e.getMessage() );
+        }
+        return returnMap;
+    }
+
+    void removeCacheInvalidation( final String key )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            getDatabaseAccessor().remove( TABLE, key );
+        }
+        catch ( final DatabaseException e )
+        {
+            throw new PwmUnrecoverableException( PwmError.ERROR_DB_UNAVAILABLE, "unexpected database error removing cache invalidation: " + e.getMessage() );
+        }
+    }
 }
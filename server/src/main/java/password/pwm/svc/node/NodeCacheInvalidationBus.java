@@ -0,0 +1,148 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.node;
+
+import password.pwm.PwmApplication;
+import password.pwm.bean.SessionLabel;
+import password.pwm.bean.UserIdentity;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.svc.cache.CacheInvalidationBus;
+import password.pwm.util.PwmScheduler;
+import password.pwm.util.java.JavaHelper;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Cache invalidation bus backed by the cluster database table.  Published invalidations are written as records that
+ * peer nodes poll for, so stale values are dropped on peers within one poll interval.
+ */
+class NodeCacheInvalidationBus implements CacheInvalidationBus
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( NodeCacheInvalidationBus.class );
+
+    private final PwmApplication pwmApplication;
+    private final DatabaseNodeDataService dataService;
+    private final SessionLabel sessionLabel;
+    private final TimeDuration maxRecordAge;
+    private final ExecutorService executorService;
+    private final Instant startTime = Instant.now();
+
+    private final List<Consumer<UserIdentity>> subscribers = new CopyOnWriteArrayList<>();
+    private final Map<String, Instant> processedRecords = new ConcurrentHashMap<>();
+    private final NodeServiceStatistics nodeServiceStatistics;
+
+    NodeCacheInvalidationBus(
+            final PwmApplication pwmApplication,
+            final DatabaseNodeDataService dataService,
+            final NodeServiceSettings settings,
+            final NodeServiceStatistics nodeServiceStatistics,
+            final SessionLabel sessionLabel
+    )
+    {
+        this.pwmApplication = pwmApplication;
+        this.dataService = dataService;
+        this.sessionLabel = sessionLabel;
+        this.maxRecordAge = settings.getCacheInvalidationMaxAge();
+        this.nodeServiceStatistics = nodeServiceStatistics;
+
+        this.executorService = PwmScheduler.makeBackgroundExecutor( pwmApplication, NodeCacheInvalidationBus.class );
+        final TimeDuration pollInterval = settings.getCacheInvalidationPollInterval();
+        pwmApplication.getPwmScheduler().scheduleFixedRateJob( this::pollInvalidations, executorService, pollInterval, pollInterval );
+    }
+
+    void close( )
+    {
+        JavaHelper.closeAndWaitExecutor( executorService, TimeDuration.SECOND );
+    }
+
+    @Override
+    public void publish( final UserIdentity userIdentity )
+            throws PwmUnrecoverableException
+    {
+        final StoredCacheInvalidation record = new StoredCacheInvalidation(
+                Instant.now(),
+                pwmApplication.getInstanceID(),
+                userIdentity.toDelimitedKey() );
+        dataService.writeCacheInvalidation( record );
+        nodeServiceStatistics.getCacheInvalidationWrites().incrementAndGet();
+    }
+
+    @Override
+    public void subscribe( final Consumer<UserIdentity> subscriber )
+    {
+        subscribers.add( subscriber );
+    }
+
+    @Override
+    public void unsubscribe( final Consumer<UserIdentity> subscriber )
+    {
+        subscribers.remove( subscriber );
+    }
+
+    private void pollInvalidations( )
+    {
+        try
+        {
+            final Map<String, StoredCacheInvalidation> records = dataService.readCacheInvalidations();
+            for ( final Map.Entry<String, StoredCacheInvalidation> entry : records.entrySet() )
+            {
+                final String key = entry.getKey();
+                final StoredCacheInvalidation record = entry.getValue();
+
+                if ( TimeDuration.fromCurrent( record.getTimestamp() ).isLongerThan( maxRecordAge ) )
+                {
+                    dataService.removeCacheInvalidation( key );
+                }
+                else if ( !processedRecords.containsKey( key ) )
+                {
+                    processedRecords.put( key, record.getTimestamp() );
+                    if ( !pwmApplication.getInstanceID().equals( record.getInstanceID() ) && record.getTimestamp().isAfter( startTime ) )
+                    {
+                        deliver( UserIdentity.fromDelimitedKey( sessionLabel, record.getUserIdentity() ) );
+                    }
+                }
+            }
+
+            processedRecords.values().removeIf( timestamp -> TimeDuration.fromCurrent( timestamp ).isLongerThan( maxRecordAge ) );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            LOGGER.debug( sessionLabel, () -> "error reading cluster cache invalidations: " + e.getMessage() );
+        }
+    }
+
+    private void deliver( final UserIdentity userIdentity )
+    {
+        nodeServiceStatistics.getCacheInvalidationReads().incrementAndGet();
+        for ( final Consumer<UserIdentity> subscriber : subscribers )
+        {
+            subscriber.accept( userIdentity );
+        }
+    }
+}
@@ -49,6 +49,7 @@ public class NodeService extends AbstractPwmService implements PwmService
     private static final PwmLogger LOGGER = PwmLogger.forClass( NodeService.class );
 
     private NodeMachine nodeMachine;
+    private NodeCacheInvalidationBus cacheInvalidationBus;
     private DataStorageMethod dataStore;
 
     @Override
@@ -75,7 +76,16 @@ public class NodeService extends AbstractPwmService implements PwmService
                     {
                         LOGGER.trace( () -> "starting database-backed node service provider" );
                         nodeServiceSettings = NodeServiceSettings.fromConfigForDB( pwmApplication.getConfig() );
-                        clusterDataServiceProvider = new DatabaseNodeDataService( pwmApplication );
+                        final DatabaseNodeDataService databaseNodeDataService = new DatabaseNodeDataService( pwmApplication );
+                        clusterDataServiceProvider = databaseNodeDataService;
+                        nodeMachine = new NodeMachine( pwmApplication, clusterDataServiceProvider, nodeServiceSettings );
+                        cacheInvalidationBus = new NodeCacheInvalidationBus(
+                                pwmApplication,
+                                databaseNodeDataService,
+                                nodeServiceSettings,
+                                nodeMachine.getNodeServiceStatistics(),
+                                getSessionLabel() );
+                        pwmApplication.getCacheService().setInvalidationBus( cacheInvalidationBus );
                     }
                     break;
 
@@ -94,7 +104,10 @@ public class NodeService extends AbstractPwmService implements PwmService
 
                 }
 
-                nodeMachine = new NodeMachine( pwmApplication, clusterDataServiceProvider, nodeServiceSettings );
+                if ( nodeMachine == null )
+                {
+                    nodeMachine = new NodeMachine( pwmApplication, clusterDataServiceProvider, nodeServiceSettings );
+                }
             }
         }
         catch ( final PwmUnrecoverableException e )
@@ -116,6 +129,12 @@ public class NodeService extends AbstractPwmService implements PwmService
     @Override
     public void close( )
     {
+        if ( cacheInvalidationBus != null )
+        {
+            getPwmApplication().getCacheService().removeInvalidationBus( cacheInvalidationBus );
+            cacheInvalidationBus.close();
+            cacheInvalidationBus = null;
+        }
         if ( nodeMachine != null )
         {
             nodeMachine.close();
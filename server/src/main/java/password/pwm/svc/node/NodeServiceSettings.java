@@ -34,13 +34,17 @@ class NodeServiceSettings
     private final TimeDuration heartbeatInterval;
     private final TimeDuration nodeTimeout;
     private final TimeDuration nodePurgeInterval;
+    private final TimeDuration cacheInvalidationPollInterval;
+    private final TimeDuration cacheInvalidationMaxAge;
 
     static NodeServiceSettings fromConfigForDB( final AppConfig appConfig )
     {
         return new NodeServiceSettings(
                 TimeDuration.of( Integer.parseInt( appConfig.readAppProperty( AppProperty.CLUSTER_DB_HEARTBEAT_SECONDS ) ), TimeDuration.Unit.SECONDS ),
                 TimeDuration.of( Integer.parseInt( appConfig.readAppProperty( AppProperty.CLUSTER_DB_NODE_TIMEOUT_SECONDS ) ), TimeDuration.Unit.SECONDS ),
-                TimeDuration.of( Integer.parseInt( appConfig.readAppProperty( AppProperty.CLUSTER_DB_NODE_PURGE_SECONDS ) ), TimeDuration.Unit.SECONDS )
+                TimeDuration.of( Integer.parseInt( appConfig.readAppProperty( AppProperty.CLUSTER_DB_NODE_PURGE_SECONDS ) ), TimeDuration.Unit.SECONDS ),
+                TimeDuration.of( Integer.parseInt( appConfig.readAppProperty( AppProperty.CLUSTER_DB_CACHE_INVALIDATION_POLL_SECONDS ) ), TimeDuration.Unit.SECONDS ),
+                TimeDuration.of( Integer.parseInt( appConfig.readAppProperty( AppProperty.CLUSTER_DB_CACHE_INVALIDATION_MAX_AGE_SECONDS ) ), TimeDuration.Unit.SECONDS )
         );
     }
 
@@ -49,7 +53,9 @@ class NodeServiceSettings
         return new NodeServiceSettings(
                 TimeDuration.of( Integer.parseInt( appConfig.readAppProperty( AppProperty.CLUSTER_LDAP_HEARTBEAT_SECONDS ) ), TimeDuration.Unit.SECONDS ),
                 TimeDuration.of( Integer.parseInt( appConfig.readAppProperty( AppProperty.CLUSTER_LDAP_NODE_TIMEOUT_SECONDS ) ), TimeDuration.Unit.SECONDS ),
-                TimeDuration.of( Integer.parseInt( appConfig.readAppProperty( AppProperty.CLUSTER_LDAP_NODE_PURGE_SECONDS ) ), TimeDuration.Unit.SECONDS )
+                TimeDuration.of( Integer.parseInt( appConfig.readAppProperty( AppProperty.CLUSTER_LDAP_NODE_PURGE_SECONDS ) ), TimeDuration.Unit.SECONDS ),
+                TimeDuration.ZERO,
+                TimeDuration.ZERO
         );
     }
 }
@@ -31,4 +31,6 @@ public class NodeServiceStatistics implements Serializable
     private final AtomicInteger clusterWrites = new AtomicInteger( 0 );
     private final AtomicInteger clusterReads = new AtomicInteger( 0 );
     private final AtomicInteger nodePurges = new AtomicInteger( 0 );
+    private final AtomicInteger cacheInvalidationWrites = new AtomicInteger( 0 );
+    private final AtomicInteger cacheInvalidationReads = new AtomicInteger( 0 );
 }
@@ -110,6 +110,53 @@ public class OTPUserRecord implements Serializable
         }
     }
 
+    /**
+     * @return a deep copy of this record.
+     */
+    public OTPUserRecord copy( )
+    {
+        final OTPUserRecord copy = new OTPUserRecord();
+        copy.timestamp = timestamp;
+        copy.identifier = identifier;
+        copy.secret = secret;
+        copy.attemptCount = attemptCount;
+        copy.type = type;
+        copy.version = version;
+
+        if ( recoveryCodes != null )
+        {
+            copy.recoveryCodes = new ArrayList<>( recoveryCodes.size() );
+            for ( final RecoveryCode recoveryCode : recoveryCodes )
+            {
+                if ( recoveryCode == null )
+                {
+                    copy.recoveryCodes.add( null );
+                }
+                else
+                {
+                    final RecoveryCode copiedCode = new RecoveryCode();
+                    copiedCode.setHashCode( recoveryCode.getHashCode() );
+                    copiedCode.setUsed( recoveryCode.isUsed() );
+                    copy.recoveryCodes.add( copiedCode );
+                }
+            }
+        }
+        else
+        {
+            copy.recoveryCodes = null;
+        }
+
+        if ( recoveryInfo != null )
+        {
+            copy.recoveryInfo = new RecoveryInfo();
+            copy.recoveryInfo.setSalt( recoveryInfo.getSalt() );
+            copy.recoveryInfo.setHashMethod( recoveryInfo.getHashMethod() );
+            copy.recoveryInfo.setHashCount( recoveryInfo.getHashCount() );
+        }
+
+        return copy;
+    }
+
     public String getIdentifier( )
     {
         return identifier;
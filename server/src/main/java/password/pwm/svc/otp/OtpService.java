@@ -403,6 +403,8 @@ public class OtpService extends AbstractPwmService implements PwmService
             }
         }
 
+        pwmDomain.getCacheService().invalidateUser( userIdentity );
+
         if ( attempts == 0 )
         {
             final String errorMsg = "no OTP secret save methods are available or configured";
@@ -463,6 +465,8 @@ public class OtpService extends AbstractPwmService implements PwmService
             }
         }
 
+        pwmDomain.getCacheService().invalidateUser( userIdentity );
+
         if ( attempts == 0 )
         {
             final String errorMsg = "no OTP secret clear methods are available or configured";
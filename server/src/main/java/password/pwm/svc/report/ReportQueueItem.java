@@ -0,0 +1,60 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.report;
+
+import lombok.Value;
+import password.pwm.bean.SessionLabel;
+import password.pwm.bean.UserIdentity;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.json.JsonFactory;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Work queue entry for a user found by the report ldap search, optionally carrying the attribute values read by
+ * that search.  A {@code null} attribute map means no attributes were read and the record is built entirely from
+ * per-user reads.
+ */
+@Value
+class ReportQueueItem implements Serializable
+{
+    private UserIdentity userIdentity;
+    private Map<String, String> attributes;
+
+    String toQueueValue( )
+    {
+        return JsonFactory.get().serialize( this );
+    }
+
+    static ReportQueueItem fromQueueValue( final SessionLabel sessionLabel, final String value )
+            throws PwmUnrecoverableException
+    {
+        final ReportQueueItem queueItem = JsonFactory.get().deserialize( value, ReportQueueItem.class );
+        if ( queueItem != null && queueItem.getUserIdentity() != null )
+        {
+            return queueItem;
+        }
+
+        // queue written by an earlier version holds bare user identity keys
+        return new ReportQueueItem( UserIdentity.fromDelimitedKey( sessionLabel, value ), null );
+    }
+}
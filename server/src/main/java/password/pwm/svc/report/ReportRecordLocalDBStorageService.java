@@ -32,11 +32,11 @@ import password.pwm.ldap.UserInfo;
 import password.pwm.svc.AbstractPwmService;
 import password.pwm.svc.PwmService;
 import password.pwm.util.java.ClosableIterator;
-import password.pwm.util.json.JsonFactory;
 import password.pwm.util.localdb.LocalDB;
 import password.pwm.util.localdb.LocalDBException;
 import password.pwm.util.logging.PwmLogger;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -188,23 +188,22 @@ public class ReportRecordLocalDBStorageService extends AbstractPwmService implem
         private void write( final UserReportRecord cacheBean )
                 throws LocalDBException
         {
-            final String jsonValue = JsonFactory.get().serialize( cacheBean );
             final String jsonKey = UserIdentity.create( cacheBean.getUserDN(), cacheBean.getLdapProfile(), cacheBean.getDomainID() ).toDelimitedKey();
-            localDB.put( DB, jsonKey, jsonValue );
+            localDB.putBytes( DB, jsonKey, cacheBean.toEncodedBytes() );
         }
 
         private Optional<UserReportRecord> read( final UserIdentity key )
                 throws LocalDBException
         {
             final String jsonKey = key.toDelimitedKey();
-            final Optional<String> jsonValue = localDB.get( DB, jsonKey );
-            if ( jsonValue.isPresent() )
+            final Optional<byte[]> storedValue = localDB.getBytes( DB, jsonKey );
+            if ( storedValue.isPresent() )
             {
                 try
                 {
-                    return Optional.of( JsonFactory.get().deserialize( jsonValue.get(), UserReportRecord.class ) );
+                    return Optional.of( UserReportRecord.fromEncodedBytes( storedValue.get() ) );
                 }
-                catch ( final JsonSyntaxException e )
+                catch ( final IOException | JsonSyntaxException e )
                 {
                     LOGGER.error( getSessionLabel(), () -> "error reading record from cache store for key=" + jsonKey + ", error: " + e.getMessage() );
                     localDB.remove( DB, jsonKey );
@@ -20,12 +20,14 @@
 
 package password.pwm.svc.report;
 
+import com.novell.ldapchai.provider.DirectoryVendor;
 import password.pwm.AppAttribute;
 import password.pwm.PwmApplication;
 import password.pwm.PwmDomain;
 import password.pwm.bean.DomainID;
 import password.pwm.bean.UserIdentity;
 import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.LdapProfile;
 import password.pwm.config.option.DataStorageMethod;
 import password.pwm.config.value.data.UserPermission;
 import password.pwm.error.ErrorInformation;
@@ -34,6 +36,7 @@ import password.pwm.error.PwmException;
 import password.pwm.error.PwmOperationalException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.health.HealthRecord;
+import password.pwm.ldap.PwmLdapVendor;
 import password.pwm.ldap.UserInfo;
 import password.pwm.ldap.UserInfoFactory;
 import password.pwm.ldap.permission.UserPermissionUtility;
@@ -55,13 +58,19 @@ import password.pwm.util.logging.PwmLogger;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -73,10 +82,12 @@ public class ReportService extends AbstractPwmService implements PwmService
 {
     private static final PwmLogger LOGGER = PwmLogger.forClass( ReportService.class );
 
+    private static final DateTimeFormatter LDAP_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern( "yyyyMMddHHmmss'Z'" ).withZone( ZoneOffset.UTC );
+
     private final AverageTracker avgTracker = new AverageTracker( 100 );
 
     private final AtomicBoolean cancelFlag = new AtomicBoolean( false );
-    private ReportSummaryData summaryData = ReportSummaryData.newSummaryData( null );
+    private volatile ReportSummaryData summaryData = ReportSummaryData.newSummaryData( null );
     private ExecutorService executorService;
 
     private ReportRecordLocalDBStorageService userCacheService;
@@ -84,6 +95,8 @@ public class ReportService extends AbstractPwmService implements PwmService
 
     private Queue<String> dnQueue;
 
+    private final Map<LdapProfile, Set<String>> bulkAttributeNames = new ConcurrentHashMap<>();
+
     private final AtomicReference<ReportStatusInfo> reportStatus = new AtomicReference<>( ReportStatusInfo.builder().build() );
     private final EventRateMeter processRateMeter = new EventRateMeter( TimeDuration.of( 5, TimeDuration.Unit.MINUTES ) );
 
@@ -136,6 +149,11 @@ public class ReportService extends AbstractPwmService implements PwmService
 
         JavaHelper.closeAndWaitExecutor( executorService, TimeDuration.SECONDS_10 );
 
+        if ( dnQueue instanceof LocalDBStoredQueue )
+        {
+            ( ( LocalDBStoredQueue ) dnQueue ).close();
+        }
+
         if ( userCacheService != null )
         {
             userCacheService.close();
@@ -368,19 +386,31 @@ public class ReportService extends AbstractPwmService implements PwmService
 
                 final List<UserPermission> searchFilters = settings.getSearchFilter().get( pwmDomain.getDomainID() );
 
-                final Iterator<UserIdentity> searchResults = UserPermissionUtility.discoverMatchingUsers(
+                final Set<String> returnAttributes = new HashSet<>();
+                if ( settings.isBulkAttributeRead() )
+                {
+                    for ( final LdapProfile ldapProfile : pwmDomain.getConfig().getLdapProfiles().values() )
+                    {
+                        returnAttributes.addAll( bulkAttributeNames( pwmDomain, ldapProfile ) );
+                    }
+                }
+
+                final Map<UserIdentity, Map<String, String>> searchResults = UserPermissionUtility.discoverMatchingUsers(
                         pwmDomain,
                         searchFilters,
                         getSessionLabel(),
                         settings.getMaxSearchSize(),
-                        settings.getSearchTimeout() );
+                        settings.getSearchTimeout(),
+                        returnAttributes );
 
                 LOGGER.trace(
                         getSessionLabel(),
                         () -> "completed ldap search process with for domain '" + pwmDomain.getDomainID() + "'",
                         () -> TimeDuration.fromCurrent( loopStartTime ) );
 
-                writeUsersToLocalDBQueue( searchResults );
+                writeUsersToLocalDBQueue( searchResults.entrySet().stream()
+                        .map( entry -> makeQueueItem( entry.getKey(), entry.getValue() ) )
+                        .iterator() );
             }
 
             LOGGER.trace(
@@ -388,36 +418,87 @@ public class ReportService extends AbstractPwmService implements PwmService
                     () -> "completed ldap search process with entries for " + getPwmApplication().domains().size() + " domains",
                     () -> TimeDuration.fromCurrent( startTime ) );
 
+            if ( !cancelFlag.get() )
+            {
+                reportStatus.updateAndGet( reportStatusInfo -> reportStatusInfo.toBuilder()
+                        .lastSearchTime( startTime )
+                        .lastFullSearchTime( startTime )
+                        .build() );
+                writeReportStatus();
+            }
         }
+    }
 
-        private void writeUsersToLocalDBQueue( final Iterator<UserIdentity> identityQueue )
+    private ReportQueueItem makeQueueItem( final UserIdentity userIdentity, final Map<String, String> attributes )
+    {
+        return new ReportQueueItem( userIdentity, settings.isBulkAttributeRead() ? attributes : null );
+    }
+
+    /**
+     * Attributes requested by the report ldap searches for users of the profile, so the per-user read can be
+     * answered without a further search.  The names are only cached once the ldap vendor is known, so the search
+     * and the processing of its results use the same set.
+     */
+    private Set<String> bulkAttributeNames( final PwmDomain pwmDomain, final LdapProfile ldapProfile )
+    {
+        final Set<String> cachedNames = bulkAttributeNames.get( ldapProfile );
+        if ( cachedNames != null )
         {
-            final Instant startTime = Instant.now();
-            LOGGER.trace( getSessionLabel(), () -> "transferring search results to work queue" );
-
-            final TransactionSizeCalculator transactionCalculator = new TransactionSizeCalculator(
-                    TransactionSizeCalculator.Settings.builder()
-                            .durationGoal( TimeDuration.SECOND )
-                            .minTransactions( 10 )
-                            .maxTransactions( 100 * 1000 )
-                            .build()
-            );
-
-            while ( !cancelFlag.get() && identityQueue.hasNext() )
-            {
-                final Instant loopStart = Instant.now();
-                final List<String> bufferList = new ArrayList<>();
-                final int loopCount = transactionCalculator.getTransactionSize();
-                while ( !cancelFlag.get() && identityQueue.hasNext() && bufferList.size() < loopCount )
-                {
-                    bufferList.add( identityQueue.next().toDelimitedKey() );
-                }
-                dnQueue.addAll( bufferList );
-                transactionCalculator.recordLastTransactionDuration( TimeDuration.fromCurrent( loopStart ) );
+            return cachedNames;
+        }
+
+        final Optional<PwmLdapVendor> ldapVendor = readLdapVendor( pwmDomain, ldapProfile );
+        final Set<String> attributeNames = UserInfoFactory.offlineUserAttributeNames( ldapProfile, ldapVendor.orElse( PwmLdapVendor.GENERIC ) );
+        if ( ldapVendor.isPresent() )
+        {
+            bulkAttributeNames.put( ldapProfile, attributeNames );
+        }
+        return attributeNames;
+    }
+
+    private Optional<PwmLdapVendor> readLdapVendor( final PwmDomain pwmDomain, final LdapProfile ldapProfile )
+    {
+        try
+        {
+            final DirectoryVendor directoryVendor = ldapProfile.getProxyChaiProvider( getSessionLabel(), pwmDomain ).getDirectoryVendor();
+            final PwmLdapVendor pwmLdapVendor = PwmLdapVendor.fromChaiVendor( directoryVendor );
+            return Optional.of( pwmLdapVendor == null ? PwmLdapVendor.GENERIC : pwmLdapVendor );
+        }
+        catch ( final Exception e )
+        {
+            LOGGER.debug( getSessionLabel(), () -> "unable to read ldap vendor type for profile '" + ldapProfile.getIdentifier()
+                    + "': " + e.getMessage() );
+        }
+        return Optional.empty();
+    }
+
+    private void writeUsersToLocalDBQueue( final Iterator<ReportQueueItem> identityQueue )
+    {
+        final Instant startTime = Instant.now();
+        LOGGER.trace( getSessionLabel(), () -> "transferring search results to work queue" );
+
+        final TransactionSizeCalculator transactionCalculator = new TransactionSizeCalculator(
+                TransactionSizeCalculator.Settings.builder()
+                        .durationGoal( TimeDuration.SECOND )
+                        .minTransactions( 10 )
+                        .maxTransactions( 100 * 1000 )
+                        .build()
+        );
+
+        while ( !cancelFlag.get() && identityQueue.hasNext() )
+        {
+            final Instant loopStart = Instant.now();
+            final List<String> bufferList = new ArrayList<>();
+            final int loopCount = transactionCalculator.getTransactionSize();
+            while ( !cancelFlag.get() && identityQueue.hasNext() && bufferList.size() < loopCount )
+            {
+                bufferList.add( identityQueue.next().toQueueValue() );
             }
-            LOGGER.trace( getSessionLabel(),
-                    () -> "completed transfer of ldap search results to work queue", () -> TimeDuration.fromCurrent( startTime ) );
+            dnQueue.addAll( bufferList );
+            transactionCalculator.recordLastTransactionDuration( TimeDuration.fromCurrent( loopStart ) );
         }
+        LOGGER.trace( getSessionLabel(),
+                () -> "completed transfer of ldap search results to work queue", () -> TimeDuration.fromCurrent( startTime ) );
     }
 
 
@@ -494,7 +575,7 @@ public class ReportService extends AbstractPwmService implements PwmService
                 final BlockingThreadPool threadService = new BlockingThreadPool( threadCount, threadName );
                 while ( status() == STATUS.OPEN && !dnQueue.isEmpty() && !cancelFlag.get() )
                 {
-                    final UserIdentity userIdentity = UserIdentity.fromDelimitedKey( getSessionLabel(), dnQueue.poll() );
+                    final ReportQueueItem queueItem = ReportQueueItem.fromQueueValue( getSessionLabel(), dnQueue.poll() );
                     if ( getPwmApplication().getConfig().isDevDebugMode() )
                     {
                         LOGGER.trace( getSessionLabel(), () -> "submit " + Instant.now().toString()
@@ -505,7 +586,7 @@ public class ReportService extends AbstractPwmService implements PwmService
                         LOGGER.traceDevDebug( getSessionLabel(), () -> "start " + Instant.now().toString()
                                 + " size=" + threadService.getQueue().size() );
 
-                        processRecord( userIdentity, pauseBetweenIterations, threadCount );
+                        processRecord( queueItem, pauseBetweenIterations, threadCount );
 
                         LOGGER.traceDevDebug( getSessionLabel(), () -> "finish " + Instant.now().toString()
                                 + " size=" + threadService.getQueue().size() );
@@ -540,7 +621,7 @@ public class ReportService extends AbstractPwmService implements PwmService
         }
 
 
-        private void updateCachedRecordFromLdap( final UserIdentity userIdentity )
+        private void updateCachedRecordFromLdap( final ReportQueueItem queueItem )
                 throws PwmUnrecoverableException, LocalDBException
         {
             if ( status() != STATUS.OPEN )
@@ -549,17 +630,35 @@ public class ReportService extends AbstractPwmService implements PwmService
             }
 
             final Instant startTime = Instant.now();
+            final UserIdentity userIdentity = queueItem.getUserIdentity();
 
-            final UserInfo userInfo = UserInfoFactory.newUserInfoUsingProxyForOfflineUser(
-                    getPwmApplication(),
-                    getSessionLabel(),
-                    userIdentity
-            );
+            final UserInfo userInfo;
+            if ( queueItem.getAttributes() != null )
+            {
+                final PwmDomain pwmDomain = getPwmApplication().domains().get( userIdentity.getDomainID() );
+                userInfo = UserInfoFactory.newUserInfoUsingProxyForOfflineUser(
+                        getPwmApplication(),
+                        getSessionLabel(),
+                        userIdentity,
+                        bulkAttributeNames( pwmDomain, userIdentity.getLdapProfile( getPwmApplication().getConfig() ) ),
+                        queueItem.getAttributes()
+                );
+            }
+            else
+            {
+                userInfo = UserInfoFactory.newUserInfoUsingProxyForOfflineUser(
+                        getPwmApplication(),
+                        getSessionLabel(),
+                        userIdentity
+                );
+            }
 
+            final Optional<UserReportRecord> previousUserReportRecord = userCacheService.readStorageKey( userInfo.getUserIdentity() );
             final Optional<UserReportRecord> newUserReportRecord = userCacheService.updateUserCache( userInfo );
             if ( newUserReportRecord.isPresent() )
             {
                 userCacheService.store( newUserReportRecord.get() );
+                previousUserReportRecord.ifPresent( summaryData::remove );
                 summaryData.update( newUserReportRecord.get() );
                 processRateMeter.markEvents( 1 );
 
@@ -568,7 +667,7 @@ public class ReportService extends AbstractPwmService implements PwmService
         }
 
         private void processRecord(
-                final UserIdentity userIdentity,
+                final ReportQueueItem queueItem,
                 final boolean pauseBetweenIterations,
                 final int threadCount
         )
@@ -576,7 +675,7 @@ public class ReportService extends AbstractPwmService implements PwmService
             try
             {
                 final Instant startUpdateTime = Instant.now();
-                updateCachedRecordFromLdap( userIdentity );
+                updateCachedRecordFromLdap( queueItem );
                 reportStatus.updateAndGet( reportStatusInfo -> reportStatusInfo.toBuilder()
                         .count( reportStatusInfo.getCount() + 1 )
                         .build() );
@@ -607,7 +706,7 @@ public class ReportService extends AbstractPwmService implements PwmService
             }
             catch ( final Exception e )
             {
-                String errorMsg = "error while updating report cache for " + userIdentity.toString() + ", cause: ";
+                String errorMsg = "error while updating report cache for " + queueItem.getUserIdentity().toString() + ", cause: ";
                 errorMsg += e instanceof PwmException
                         ? ( ( PwmException ) e ).getErrorInformation().toDebugStr()
                         : e.getMessage();
@@ -642,12 +741,197 @@ public class ReportService extends AbstractPwmService implements PwmService
 
             if ( settings.isDailyJobEnabled() )
             {
-                executorService.execute( new ClearTask() );
-                executorService.execute( new ReadLDAPTask() );
+                if ( canRunIncrementalSearch() )
+                {
+                    executorService.execute( new IncrementalReadLDAPTask() );
+                }
+                else
+                {
+                    executorService.execute( new ClearTask() );
+                    executorService.execute( new ReadLDAPTask() );
+                }
             }
         }
     }
 
+    private boolean canRunIncrementalSearch()
+    {
+        if ( !settings.isIncrementalRefresh() )
+        {
+            return false;
+        }
+
+        final ReportStatusInfo localReportStatus = reportStatus.get();
+        if ( localReportStatus.getLastSearchTime() == null || localReportStatus.getLastFullSearchTime() == null )
+        {
+            LOGGER.debug( getSessionLabel(), () -> "no previous ldap search recorded, will perform full report refresh" );
+            return false;
+        }
+
+        if ( TimeDuration.fromCurrent( localReportStatus.getLastFullSearchTime() ).isLongerThan( settings.getFullRefreshInterval() ) )
+        {
+            LOGGER.debug( getSessionLabel(), () -> "last full ldap search is older than "
+                    + settings.getFullRefreshInterval().asCompactString() + ", will perform full report refresh" );
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Searches the report permissions only for entries modified since the previous search and queues them.  Entries
+     * that were deleted or no longer match the permissions are not visible to this search and are only dropped by
+     * the next full refresh.
+     */
+    private class IncrementalReadLDAPTask implements Runnable
+    {
+        @Override
+        public void run( )
+        {
+            reportStatus.updateAndGet( reportStatusInfo -> reportStatusInfo.toBuilder()
+                    .currentProcess( ReportStatusInfo.ReportEngineProcess.SearchLDAP )
+                    .build() );
+            try
+            {
+                if ( readModifiedUsersFromLdap() )
+                {
+                    executorService.execute( new ProcessWorkQueueTask() );
+
+                    // summary day windows are anchored when the summary is built, rebuild so they follow the clock
+                    executorService.execute( ReportService.this::rebuildSummaryData );
+                }
+                else
+                {
+                    executorService.execute( new ClearTask() );
+                    executorService.execute( new ReadLDAPTask() );
+                }
+            }
+            catch ( final PwmException e )
+            {
+                if ( e.getErrorInformation().getError() == PwmError.ERROR_DIRECTORY_UNAVAILABLE && executorService != null )
+                {
+                    LOGGER.error( getSessionLabel(),
+                            () -> "directory unavailable error during background incremental SearchLDAP, will retry; error: " + e.getMessage() );
+                    getPwmApplication().getPwmScheduler().scheduleJob( new IncrementalReadLDAPTask(), executorService, TimeDuration.of( 10, TimeDuration.Unit.MINUTES ) );
+                }
+                else
+                {
+                    LOGGER.error( getSessionLabel(), () -> "error during background incremental SearchLDAP: " + e.getMessage(), e );
+                }
+            }
+            catch ( final Exception e )
+            {
+                LOGGER.error( getSessionLabel(), () -> "error during background incremental SearchLDAP: " + e.getMessage(), e );
+            }
+            finally
+            {
+                resetCurrentProcess();
+            }
+        }
+
+        /**
+         * @return false if the incremental search could not be completed and a full refresh is required.
+         */
+        private boolean readModifiedUsersFromLdap( )
+                throws PwmUnrecoverableException, PwmOperationalException, LocalDBException
+        {
+            final Instant startTime = Instant.now();
+            final Instant modifiedSince = reportStatus.get().getLastSearchTime().minus( settings.getIncrementalOverlap().asDuration() );
+
+            resetJobStatus();
+            clearWorkQueue();
+
+            int modifiedCount = 0;
+            for ( final PwmDomain pwmDomain : getPwmApplication().domains().values() )
+            {
+                final List<UserPermission> searchFilters = settings.getSearchFilter().get( pwmDomain.getDomainID() );
+                if ( searchFilters == null || searchFilters.isEmpty() )
+                {
+                    continue;
+                }
+
+                for ( final LdapProfile ldapProfile : pwmDomain.getConfig().getLdapProfiles().values() )
+                {
+                    final Map<UserIdentity, Map<String, String>> results = UserPermissionUtility.discoverMatchingUsers(
+                            pwmDomain,
+                            searchFilters,
+                            ldapProfile.getIdentifier(),
+                            makeModifiedSinceFilter( pwmDomain, ldapProfile, modifiedSince ),
+                            getSessionLabel(),
+                            settings.getMaxSearchSize(),
+                            settings.getSearchTimeout(),
+                            settings.isBulkAttributeRead() ? bulkAttributeNames( pwmDomain, ldapProfile ) : Collections.emptyList() );
+
+                    if ( results.size() >= settings.getMaxSearchSize() )
+                    {
+                        LOGGER.warn( getSessionLabel(), () -> "incremental ldap search for profile '" + ldapProfile.getIdentifier()
+                                + "' reached max search size of " + settings.getMaxSearchSize() + ", will perform full report refresh" );
+                        return false;
+                    }
+
+                    final List<String> bufferList = new ArrayList<>();
+                    for ( final Map.Entry<UserIdentity, Map<String, String>> entry : results.entrySet() )
+                    {
+                        if ( cancelFlag.get() )
+                        {
+                            return true;
+                        }
+
+                        bufferList.add( makeQueueItem( entry.getKey(), entry.getValue() ).toQueueValue() );
+                    }
+                    dnQueue.addAll( bufferList );
+                    modifiedCount += bufferList.size();
+                }
+            }
+
+            final int finalModifiedCount = modifiedCount;
+            LOGGER.debug(
+                    getSessionLabel(),
+                    () -> "completed incremental ldap search for entries modified since " + JavaHelper.toIsoDate( modifiedSince )
+                            + ", queued " + finalModifiedCount + " records",
+                    () -> TimeDuration.fromCurrent( startTime ) );
+
+            if ( !cancelFlag.get() )
+            {
+                reportStatus.updateAndGet( reportStatusInfo -> reportStatusInfo.toBuilder()
+                        .lastSearchTime( startTime )
+                        .build() );
+                writeReportStatus();
+            }
+
+            return true;
+        }
+
+        private String makeModifiedSinceFilter(
+                final PwmDomain pwmDomain,
+                final LdapProfile ldapProfile,
+                final Instant modifiedSince
+        )
+        {
+            final PwmLdapVendor ldapVendor = readLdapVendor( pwmDomain, ldapProfile ).orElse( PwmLdapVendor.GENERIC );
+            return "(" + ldapVendor.getModifyTimestampAttribute() + ">=" + LDAP_TIMESTAMP_FORMAT.format( modifiedSince ) + ")";
+        }
+    }
+
+    private void rebuildSummaryData( )
+    {
+        final Instant startTime = Instant.now();
+        final ReportSummaryData newSummaryData = ReportSummaryData.newSummaryData( settings.getTrackDays() );
+        try ( ClosableIterator<UserReportRecord> recordIterator = iterator() )
+        {
+            while ( status() == STATUS.OPEN && recordIterator.hasNext() )
+            {
+                final UserReportRecord userReportRecord = recordIterator.next();
+                if ( userReportRecord != null )
+                {
+                    newSummaryData.update( userReportRecord );
+                }
+            }
+        }
+        summaryData = newSummaryData;
+        LOGGER.debug( getSessionLabel(), () -> "rebuilt report summary data from stored records", () -> TimeDuration.fromCurrent( startTime ) );
+    }
+
     private class InitializationTask implements Runnable
     {
         @Override
@@ -712,6 +996,10 @@ public class ReportService extends AbstractPwmService implements PwmService
                 initReportStatus();
                 executeCommand( ReportCommand.Clear );
             }
+            else if ( status() == STATUS.OPEN && userCacheService.size() > 0 )
+            {
+                rebuildSummaryData();
+            }
 
             startNextTask();
         }
@@ -76,6 +76,17 @@ class ReportSettings implements Serializable
     @Builder.Default
     private JobIntensity reportJobIntensity = JobIntensity.LOW;
 
+    @Builder.Default
+    private boolean bulkAttributeRead = true;
+
+    private boolean incrementalRefresh;
+
+    @Builder.Default
+    private TimeDuration fullRefreshInterval = TimeDuration.of( 7, TimeDuration.Unit.DAYS );
+
+    @Builder.Default
+    private TimeDuration incrementalOverlap = TimeDuration.of( 15, TimeDuration.Unit.MINUTES );
+
     public enum JobIntensity
     {
         LOW,
@@ -114,6 +125,14 @@ class ReportSettings implements Serializable
 
         builder.reportJobIntensity( config.readSettingAsEnum( PwmSetting.REPORTING_JOB_INTENSITY, JobIntensity.class ) );
 
+        builder.bulkAttributeRead( Boolean.parseBoolean( config.readAppProperty( AppProperty.REPORTING_LDAP_BULK_ATTRIBUTES_ENABLE ) ) );
+
+        builder.incrementalRefresh( Boolean.parseBoolean( config.readAppProperty( AppProperty.REPORTING_INCREMENTAL_ENABLE ) ) );
+        builder.fullRefreshInterval( TimeDuration.of(
+                Long.parseLong( config.readAppProperty( AppProperty.REPORTING_INCREMENTAL_FULL_REFRESH_SECONDS ) ), TimeDuration.Unit.SECONDS ) );
+        builder.incrementalOverlap( TimeDuration.of(
+                Long.parseLong( config.readAppProperty( AppProperty.REPORTING_INCREMENTAL_OVERLAP_SECONDS ) ), TimeDuration.Unit.SECONDS ) );
+
         return builder.build();
     }
 
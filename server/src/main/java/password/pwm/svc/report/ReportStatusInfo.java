@@ -43,6 +43,17 @@ public class ReportStatusInfo implements Serializable
     private ErrorInformation lastError;
     private String settingsHash;
 
+    /**
+     * Start time of the most recent ldap search whose results have been queued, used as the lower bound of the next
+     * incremental search.
+     */
+    private Instant lastSearchTime;
+
+    /**
+     * Start time of the most recent search that enumerated all matching users.
+     */
+    private Instant lastFullSearchTime;
+
     @Builder.Default
     private ReportEngineProcess currentProcess = ReportEngineProcess.None;
 
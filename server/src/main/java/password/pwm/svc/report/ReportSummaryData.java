@@ -35,6 +35,7 @@ import password.pwm.util.java.Percent;
 import password.pwm.util.java.PwmNumberFormat;
 import password.pwm.util.java.TimeDuration;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -45,7 +46,6 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 @Value
@@ -53,6 +53,8 @@ public class ReportSummaryData
 {
     private static final long MS_DAY = TimeDuration.DAY.asMillis();
 
+    private final Instant referenceTime;
+
     private final LongAdder totalUsers = new LongAdder();
     private final LongAdder hasResponses = new LongAdder();
     private final LongAdder hasResponseSetTime = new LongAdder();
@@ -79,13 +81,19 @@ public class ReportSummaryData
     private final Map<Integer, LongAdder> loginDays = new ConcurrentHashMap<>();
     private final Map<Integer, LongAdder> pwExpireNotificationDays = new ConcurrentHashMap<>();
 
-    private ReportSummaryData( )
+    private ReportSummaryData( final Instant referenceTime )
     {
+        this.referenceTime = referenceTime;
     }
 
     static ReportSummaryData newSummaryData( final List<Integer> trackedDays )
     {
-        final ReportSummaryData reportSummaryData = new ReportSummaryData();
+        return newSummaryData( trackedDays, Instant.now() );
+    }
+
+    static ReportSummaryData newSummaryData( final List<Integer> trackedDays, final Instant referenceTime )
+    {
+        final ReportSummaryData reportSummaryData = new ReportSummaryData( referenceTime );
 
         if ( trackedDays != null )
         {
@@ -122,14 +130,35 @@ public class ReportSummaryData
 
     void update( final UserReportRecord userReportRecord )
     {
-        totalUsers.increment();
+        adjust( userReportRecord, 1 );
+    }
 
-        Updaters.UPDATERS.forEach( updater -> updater.accept( userReportRecord, this ) );
+    /**
+     * Reverse the contribution of a record previously passed to {@link #update(UserReportRecord)}, used when a
+     * stored record is replaced or removed so the summary can be maintained by deltas instead of recomputed.
+     * Day windows stay anchored at the reference time, so the summary should be rebuilt periodically for the
+     * windows to follow the clock.
+     */
+    void remove( final UserReportRecord userReportRecord )
+    {
+        adjust( userReportRecord, -1 );
+    }
+
+    private void adjust( final UserReportRecord userReportRecord, final long delta )
+    {
+        totalUsers.add( delta );
+
+        Updaters.UPDATERS.forEach( updater -> updater.apply( userReportRecord, this, delta ) );
+    }
+
+    private interface SummaryUpdater
+    {
+        void apply( UserReportRecord userReportRecord, ReportSummaryData reportSummaryData, long delta );
     }
 
     private static class Updaters
     {
-        private static final List<BiConsumer<UserReportRecord, ReportSummaryData>> UPDATERS = List.of(
+        private static final List<SummaryUpdater> UPDATERS = List.of(
                 new UpdateHasResponses(),
                 new UpdateHasHelpdeskResponses(),
                 new HasResponseSetTime(),
@@ -146,153 +175,153 @@ public class ReportSummaryData
                 new UpdateOtpSecretSetTime()
         );
 
-        private static class UpdateHasResponses implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdateHasResponses implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.isHasResponses() )
                 {
-                    reportSummaryData.hasResponses.increment();
+                    reportSummaryData.hasResponses.add( delta );
                 }
 
             }
         }
 
-        private static class UpdateHasHelpdeskResponses implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdateHasHelpdeskResponses implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.isHasHelpdeskResponses() )
                 {
-                    reportSummaryData.hasHelpdeskResponses.increment();
+                    reportSummaryData.hasHelpdeskResponses.add( delta );
                 }
 
             }
         }
 
-        private static class HasResponseSetTime implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class HasResponseSetTime implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getResponseSetTime() != null )
                 {
-                    reportSummaryData.hasResponseSetTime.increment();
-                    reportSummaryData.incrementIfWithinTimeWindow( userReportRecord, reportSummaryData.responseSetDays );
+                    reportSummaryData.hasResponseSetTime.add( delta );
+                    reportSummaryData.addIfWithinTimeWindow( userReportRecord.getResponseSetTime(), delta, reportSummaryData.responseSetDays );
                 }
             }
         }
 
-        private static class UpdatePasswordExpirationTime implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdatePasswordExpirationTime implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getPasswordExpirationTime() != null )
                 {
-                    reportSummaryData.hasPasswordExpirationTime.increment();
-                    reportSummaryData.incrementIfWithinTimeWindow( userReportRecord, reportSummaryData.pwExpireDays );
+                    reportSummaryData.hasPasswordExpirationTime.add( delta );
+                    reportSummaryData.addIfWithinTimeWindow( userReportRecord.getPasswordExpirationTime(), delta, reportSummaryData.pwExpireDays );
                 }
             }
         }
 
-        private static class UpdateAccountExpirationTime implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdateAccountExpirationTime implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getAccountExpirationTime() != null )
                 {
-                    reportSummaryData.hasAccountExpirationTime.increment();
-                    reportSummaryData.incrementIfWithinTimeWindow( userReportRecord, reportSummaryData.accountExpireDays );
+                    reportSummaryData.hasAccountExpirationTime.add( delta );
+                    reportSummaryData.addIfWithinTimeWindow( userReportRecord.getAccountExpirationTime(), delta, reportSummaryData.accountExpireDays );
                 }
             }
         }
 
-        private static class UpdateLastLoginTime implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdateLastLoginTime implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getLastLoginTime() != null )
                 {
-                    reportSummaryData.hasLoginTime.increment();
-                    reportSummaryData.incrementIfWithinTimeWindow( userReportRecord, reportSummaryData.loginDays );
+                    reportSummaryData.hasLoginTime.add( delta );
+                    reportSummaryData.addIfWithinTimeWindow( userReportRecord.getLastLoginTime(), delta, reportSummaryData.loginDays );
                 }
             }
         }
 
-        private static class UpdatePwChangeTime implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdatePwChangeTime implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getPasswordChangeTime() != null )
                 {
-                    reportSummaryData.hasChangePwTime.increment();
-                    reportSummaryData.incrementIfWithinTimeWindow( userReportRecord, reportSummaryData.changePwDays );
+                    reportSummaryData.hasChangePwTime.add( delta );
+                    reportSummaryData.addIfWithinTimeWindow( userReportRecord.getPasswordChangeTime(), delta, reportSummaryData.changePwDays );
                 }
             }
         }
 
-        private static class UpdatePwExpiredNotification implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdatePwExpiredNotification implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getPasswordExpirationNoticeSendTime() != null )
                 {
-                    reportSummaryData.hasReceivedPwExpireNotification.increment();
-                    reportSummaryData.incrementIfWithinTimeWindow( userReportRecord, reportSummaryData.pwExpireNotificationDays );
+                    reportSummaryData.hasReceivedPwExpireNotification.add( delta );
+                    reportSummaryData.addIfWithinTimeWindow( userReportRecord.getPasswordExpirationNoticeSendTime(), delta, reportSummaryData.pwExpireNotificationDays );
                 }
             }
         }
 
-        private static class UpdatePasswordStatus implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdatePasswordStatus implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getPasswordStatus() != null )
                 {
                     if ( userReportRecord.getPasswordStatus().isExpired() )
                     {
-                        reportSummaryData.pwExpired.increment();
+                        reportSummaryData.pwExpired.add( delta );
                     }
                     if ( userReportRecord.getPasswordStatus().isPreExpired() )
                     {
-                        reportSummaryData.pwPreExpired.increment();
+                        reportSummaryData.pwPreExpired.add( delta );
                     }
                     if ( userReportRecord.getPasswordStatus().isWarnPeriod() )
                     {
-                        reportSummaryData.pwWarnPeriod.increment();
+                        reportSummaryData.pwWarnPeriod.add( delta );
                     }
                 }
             }
         }
 
-        private static class UpdateResponseStorageMethod implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdateResponseStorageMethod implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getResponseStorageMethod() != null )
                 {
                     final DataStorageMethod method = userReportRecord.getResponseStorageMethod();
                     reportSummaryData.responseStorage
                             .computeIfAbsent( method, dataStorageMethod -> new LongAdder() )
-                            .increment();
+                            .add( delta );
                 }
 
             }
         }
 
-        private static class UpdateLdapProfile implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdateLdapProfile implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getLdapProfile() != null )
                 {
@@ -301,76 +330,77 @@ public class ReportSummaryData
                     reportSummaryData.ldapProfile
                             .computeIfAbsent( domainID, type -> new ConcurrentHashMap<>() )
                             .computeIfAbsent( userProfile, type -> new LongAdder() )
-                            .increment();
+                            .add( delta );
                 }
             }
         }
 
-        private static class UpdateResponseFormatType implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdateResponseFormatType implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getResponseFormatType() != null )
                 {
                     final Answer.FormatType type = userReportRecord.getResponseFormatType();
                     reportSummaryData.responseFormatType
                             .computeIfAbsent( type, formatType -> new LongAdder() )
-                            .increment();
+                            .add( delta );
                 }
             }
         }
 
-        private static class UpdateHasOtpSecret implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdateHasOtpSecret implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.isHasOtpSecret() )
                 {
-                    reportSummaryData.hasOtpSecret.increment();
+                    reportSummaryData.hasOtpSecret.add( delta );
                 }
             }
         }
 
-        private static class UpdateOtpSecretSetTime implements BiConsumer<UserReportRecord, ReportSummaryData>
+        private static class UpdateOtpSecretSetTime implements SummaryUpdater
         {
             @Override
-            public void accept( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData )
+            public void apply( final UserReportRecord userReportRecord, final ReportSummaryData reportSummaryData, final long delta )
             {
                 if ( userReportRecord.getOtpSecretSetTime() != null )
                 {
-                    reportSummaryData.hasOtpSecretSetTime.increment();
-                    reportSummaryData.incrementIfWithinTimeWindow( userReportRecord, reportSummaryData.otpSetDays );
+                    reportSummaryData.hasOtpSecretSetTime.add( delta );
+                    reportSummaryData.addIfWithinTimeWindow( userReportRecord.getOtpSecretSetTime(), delta, reportSummaryData.otpSetDays );
                 }
             }
         }
     }
 
-    private void incrementIfWithinTimeWindow(
-            final UserReportRecord userReportRecord,
+    /**
+     * Day windows are evaluated against the fixed {@link #referenceTime} rather than the current time, so a record
+     * removed later subtracts exactly the buckets it was added to.
+     */
+    private void addIfWithinTimeWindow(
+            final Instant eventDate,
+            final long delta,
             final Map<Integer, LongAdder> map
     )
     {
         for ( final Map.Entry<Integer, LongAdder> entry : map.entrySet() )
         {
             final int day = entry.getKey();
-            final Instant eventDate = userReportRecord.getOtpSecretSetTime();
             final long timeWindow = MS_DAY * day;
             final LongAdder number = entry.getValue();
 
-            if ( eventDate != null )
-            {
-                final TimeDuration timeBoundary = TimeDuration.of( timeWindow, TimeDuration.Unit.MILLISECONDS );
-                final TimeDuration eventDifference = TimeDuration.fromCurrent( eventDate );
+            final long eventDifference = Math.abs( Duration.between( referenceTime, eventDate ).toMillis() );
+            final boolean withinWindow = eventDifference < Math.abs( timeWindow );
 
-                if (
-                        ( timeWindow >= 0 && eventDate.isAfter( Instant.now() ) && eventDifference.isShorterThan( timeBoundary ) )
-                                || ( timeWindow < 0 && eventDate.isBefore( Instant.now() ) && eventDifference.isShorterThan( timeBoundary ) )
-                )
-                {
-                    number.increment();
-                }
+            if (
+                    ( timeWindow >= 0 && eventDate.isAfter( referenceTime ) && withinWindow )
+                            || ( timeWindow < 0 && eventDate.isBefore( referenceTime ) && withinWindow )
+            )
+            {
+                number.add( delta );
             }
         }
     }
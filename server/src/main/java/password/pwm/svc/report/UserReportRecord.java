@@ -23,12 +23,17 @@ package password.pwm.svc.report;
 import com.novell.ldapchai.cr.Answer;
 import lombok.Builder;
 import lombok.Value;
+import password.pwm.PwmConstants;
 import password.pwm.bean.DomainID;
 import password.pwm.bean.PasswordStatus;
 import password.pwm.config.option.DataStorageMethod;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.ldap.UserInfo;
+import password.pwm.util.java.CompactRecordReader;
+import password.pwm.util.java.CompactRecordWriter;
+import password.pwm.util.json.JsonFactory;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.time.Instant;
 
@@ -36,6 +41,20 @@ import java.time.Instant;
 @Builder
 public class UserReportRecord implements Serializable
 {
+    private static final int BINARY_FORMAT_VERSION = 1;
+
+    private static final int FLAG_HAS_RESPONSES = 1;
+    private static final int FLAG_HAS_HELPDESK_RESPONSES = 1 << 1;
+    private static final int FLAG_HAS_OTP_SECRET = 1 << 2;
+    private static final int FLAG_REQUIRES_PASSWORD_UPDATE = 1 << 3;
+    private static final int FLAG_REQUIRES_RESPONSE_UPDATE = 1 << 4;
+    private static final int FLAG_REQUIRES_PROFILE_UPDATE = 1 << 5;
+    private static final int FLAG_HAS_PASSWORD_STATUS = 1 << 6;
+    private static final int FLAG_PASSWORD_EXPIRED = 1 << 7;
+    private static final int FLAG_PASSWORD_PRE_EXPIRED = 1 << 8;
+    private static final int FLAG_PASSWORD_VIOLATES_POLICY = 1 << 9;
+    private static final int FLAG_PASSWORD_WARN_PERIOD = 1 << 10;
+
     private DomainID domainID;
     private String userDN;
     private String ldapProfile;
@@ -66,6 +85,118 @@ public class UserReportRecord implements Serializable
 
     private Instant cacheTimestamp;
 
+    static UserReportRecord fromEncodedBytes( final byte[] encodedBytes )
+            throws IOException
+    {
+        if ( encodedBytes.length > 0 && encodedBytes[0] == '{' )
+        {
+            return JsonFactory.get().deserialize( new String( encodedBytes, PwmConstants.DEFAULT_CHARSET ), UserReportRecord.class );
+        }
+
+        final CompactRecordReader reader = new CompactRecordReader( encodedBytes );
+        final int version = reader.readByte();
+        if ( version != BINARY_FORMAT_VERSION )
+        {
+            throw new IOException( "unsupported report record format version " + version );
+        }
+
+        final UserReportRecordBuilder builder = UserReportRecord.builder();
+        final long flags = reader.readVarLong();
+
+        final String domainValue = reader.readString();
+        builder.domainID( domainValue == null ? null : DomainID.fromStringValue( domainValue ) );
+        builder.userDN( reader.readString() );
+        builder.ldapProfile( reader.readString() );
+        builder.userGUID( reader.readString() );
+        builder.username( reader.readString() );
+        builder.email( reader.readString() );
+
+        if ( ( flags & FLAG_HAS_PASSWORD_STATUS ) != 0 )
+        {
+            builder.passwordStatus( PasswordStatus.builder()
+                    .expired( ( flags & FLAG_PASSWORD_EXPIRED ) != 0 )
+                    .preExpired( ( flags & FLAG_PASSWORD_PRE_EXPIRED ) != 0 )
+                    .violatesPolicy( ( flags & FLAG_PASSWORD_VIOLATES_POLICY ) != 0 )
+                    .warnPeriod( ( flags & FLAG_PASSWORD_WARN_PERIOD ) != 0 )
+                    .build() );
+        }
+
+        builder.passwordExpirationTime( reader.readInstant() );
+        builder.passwordChangeTime( reader.readInstant() );
+        builder.lastLoginTime( reader.readInstant() );
+        builder.accountExpirationTime( reader.readInstant() );
+        builder.passwordExpirationNoticeSendTime( reader.readInstant() );
+
+        builder.hasResponses( ( flags & FLAG_HAS_RESPONSES ) != 0 );
+        builder.hasHelpdeskResponses( ( flags & FLAG_HAS_HELPDESK_RESPONSES ) != 0 );
+        builder.responseSetTime( reader.readInstant() );
+        builder.responseStorageMethod( reader.readEnum( DataStorageMethod.class ) );
+        final String formatTypeValue = reader.readString();
+        builder.responseFormatType( formatTypeValue == null ? null : Answer.FormatType.valueOf( formatTypeValue ) );
+
+        builder.hasOtpSecret( ( flags & FLAG_HAS_OTP_SECRET ) != 0 );
+        builder.otpSecretSetTime( reader.readInstant() );
+
+        builder.requiresPasswordUpdate( ( flags & FLAG_REQUIRES_PASSWORD_UPDATE ) != 0 );
+        builder.requiresResponseUpdate( ( flags & FLAG_REQUIRES_RESPONSE_UPDATE ) != 0 );
+        builder.requiresProfileUpdate( ( flags & FLAG_REQUIRES_PROFILE_UPDATE ) != 0 );
+
+        builder.cacheTimestamp( reader.readInstant() );
+
+        return builder.build();
+    }
+
+    byte[] toEncodedBytes( )
+    {
+        final CompactRecordWriter writer = new CompactRecordWriter( 256 );
+        writer.writeByte( BINARY_FORMAT_VERSION );
+        writer.writeVarLong( encodeFlags() );
+
+        writer.writeString( domainID == null ? null : domainID.stringValue() );
+        writer.writeString( userDN );
+        writer.writeString( ldapProfile );
+        writer.writeString( userGUID );
+        writer.writeString( username );
+        writer.writeString( email );
+
+        writer.writeInstant( passwordExpirationTime );
+        writer.writeInstant( passwordChangeTime );
+        writer.writeInstant( lastLoginTime );
+        writer.writeInstant( accountExpirationTime );
+        writer.writeInstant( passwordExpirationNoticeSendTime );
+
+        writer.writeInstant( responseSetTime );
+        writer.writeEnum( responseStorageMethod );
+        // stored by name because the enum belongs to the ldapchai library and its ordinals may change
+        writer.writeString( responseFormatType == null ? null : responseFormatType.name() );
+
+        writer.writeInstant( otpSecretSetTime );
+
+        writer.writeInstant( cacheTimestamp );
+
+        return writer.toByteArray();
+    }
+
+    private int encodeFlags()
+    {
+        int flags = 0;
+        flags |= hasResponses ? FLAG_HAS_RESPONSES : 0;
+        flags |= hasHelpdeskResponses ? FLAG_HAS_HELPDESK_RESPONSES : 0;
+        flags |= hasOtpSecret ? FLAG_HAS_OTP_SECRET : 0;
+        flags |= requiresPasswordUpdate ? FLAG_REQUIRES_PASSWORD_UPDATE : 0;
+        flags |= requiresResponseUpdate ? FLAG_REQUIRES_RESPONSE_UPDATE : 0;
+        flags |= requiresProfileUpdate ? FLAG_REQUIRES_PROFILE_UPDATE : 0;
+        if ( passwordStatus != null )
+        {
+            flags |= FLAG_HAS_PASSWORD_STATUS;
+            flags |= passwordStatus.isExpired() ? FLAG_PASSWORD_EXPIRED : 0;
+            flags |= passwordStatus.isPreExpired() ? FLAG_PASSWORD_PRE_EXPIRED : 0;
+            flags |= passwordStatus.isViolatesPolicy() ? FLAG_PASSWORD_VIOLATES_POLICY : 0;
+            flags |= passwordStatus.isWarnPeriod() ? FLAG_PASSWORD_WARN_PERIOD : 0;
+        }
+        return flags;
+    }
+
     static UserReportRecord fromUserInfo(
             final UserInfo userInfo
     )
@@ -0,0 +1,73 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import password.pwm.PwmApplication;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+
+import java.util.Optional;
+
+/**
+ * Base for buckets that store each word as a readable key, and for seedlists each seed as a value, so the stored
+ * words can be enumerated and seeds read back.
+ */
+public abstract class AbstractStoredWordlistBucket extends AbstractWordlistBucket implements WordlistBucket.StoredWords
+{
+    public AbstractStoredWordlistBucket( final PwmApplication pwmApplication, final WordlistConfiguration wordlistConfiguration, final WordlistType type )
+    {
+        super( pwmApplication, wordlistConfiguration, type );
+    }
+
+    @Override
+    public Optional<WordlistBucket.StoredWords> storedWords()
+    {
+        return Optional.of( this );
+    }
+
+    @Override
+    public String randomSeed() throws PwmUnrecoverableException
+    {
+        if ( type == WordlistType.WORDLIST )
+        {
+            throw new IllegalStateException( "unable to read randomSeed from WORDLIST wordlist" );
+        }
+
+        try
+        {
+            final long seedCount = size();
+            if ( seedCount > 1000 )
+            {
+                final long randomKey = pwmApplication.getSecureService().pwmRandom().nextLong( seedCount );
+                return getValue( seedlistLongToKey( randomKey ) );
+            }
+        }
+        catch ( final Exception e )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "error while generating random word: " + e.getMessage() );
+        }
+
+        throw new PwmUnrecoverableException( PwmError.ERROR_INTERNAL, "seedlist word not available" );
+    }
+
+    abstract String getValue( String key )
+            throws PwmUnrecoverableException;
+}
@@ -43,16 +43,24 @@ import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BooleanSupplier;
 
@@ -64,6 +72,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
     private WordlistBucket wordlistBucket;
     private ExecutorService executorService;
     private volatile Set<WordType> wordTypesCache = null;
+    private volatile WordlistBloomFilter bloomFilter;
 
     private volatile ErrorInformation lastError;
     private volatile ErrorInformation autoImportError;
@@ -117,7 +126,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
                 return STATUS.CLOSED;
             }
 
-            this.wordlistBucket = new LocalDBWordlistBucket( pwmApplication, wordlistConfiguration, type );
+            this.wordlistBucket = makeBucket( pwmApplication, type );
         }
 
         inhibitBackgroundImportFlag.set( false );
@@ -134,6 +143,24 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
         return STATUS.OPEN;
     }
 
+    private WordlistBucket makeBucket( final PwmApplication pwmApplication, final WordlistType type )
+            throws PwmUnrecoverableException
+    {
+        if ( wordlistConfiguration.getBucketType() == WordlistConfiguration.BucketType.MAPPED && type == WordlistType.WORDLIST )
+        {
+            final File localDBLocation = pwmApplication.getLocalDB().getFileLocation();
+            if ( localDBLocation != null )
+            {
+                final File directory = new File( localDBLocation, wordlistConfiguration.getDb().name().toLowerCase( Locale.ROOT ) + "-mapped" );
+                return new MappedWordlistBucket( pwmApplication, wordlistConfiguration, type, directory );
+            }
+
+            getLogger().warn( getSessionLabel(), () -> "mapped wordlist storage requires a file based LocalDB, will use LocalDB storage" );
+        }
+
+        return new LocalDBWordlistBucket( pwmApplication, wordlistConfiguration, type );
+    }
+
     protected abstract WordlistType getWordlistType();
 
     protected abstract PwmLogger getLogger();
@@ -143,6 +170,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
         this.wordlistBucket = new MemoryWordlistBucket( getPwmApplication(), wordlistConfiguration, wordlistType );
         final WordlistInspector wordlistInspector = new WordlistInspector( getPwmApplication(), AbstractWordlist.this, () -> false );
         wordlistInspector.run();
+        initBloomFilter( () -> false );
     }
 
     boolean containsWord( final Set<WordType> wordTypes, final String word ) throws PwmUnrecoverableException
@@ -191,7 +219,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
             throws PwmUnrecoverableException
     {
         final String hashWord = wordType.convertInputFromUser( getPwmApplication(), wordlistConfiguration, word );
-        return realBucketCheck( hashWord, wordType );
+        return realBucketCheck( Collections.singleton( hashWord ), wordType );
     }
 
     private boolean checkRawWords( final String word )
@@ -202,16 +230,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
 
         getStatistics().getAverageStats().update( WordlistStatistics.AverageStat.chunksPerWordCheck, testWords.size() );
 
-        for ( final String t : testWords )
-        {
-            // stop checking once found
-            if ( realBucketCheck( t, WordType.RAW ) )
-            {
-                return true;
-            }
-        }
-
-        return false;
+        return realBucketCheck( testWords, WordType.RAW );
     }
 
     void outputStats()
@@ -231,16 +250,40 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
         }
     }
 
-    private boolean realBucketCheck( final String word, final WordType wordType )
+    /**
+     * Check if any of the words are present in the bucket.  Words the bloom filter (if loaded) rules out are skipped, and the
+     * remainder are checked with a single bucket operation.
+     */
+    private boolean realBucketCheck( final Collection<String> words, final WordType wordType )
             throws PwmUnrecoverableException
     {
         final Instant startTime = Instant.now();
-        final boolean results = wordlistBucket.containsWord( word );
+        final WordlistBloomFilter localBloomFilter = bloomFilter;
+
+        final Collection<String> candidateWords;
+        if ( localBloomFilter == null )
+        {
+            candidateWords = words;
+        }
+        else
+        {
+            candidateWords = new ArrayList<>( words.size() );
+            for ( final String word : words )
+            {
+                if ( localBloomFilter.mightContain( word ) )
+                {
+                    candidateWords.add( word );
+                }
+            }
+            getStatistics().getCounterStats().increment( WordlistStatistics.CounterStat.bloomFilterMisses, words.size() - candidateWords.size() );
+        }
+
+        final boolean results = !candidateWords.isEmpty() && wordlistBucket.containsAnyWord( candidateWords );
 
         statsOutput.conditionallyExecuteTask();
 
         getStatistics().getAverageStats().update( WordlistStatistics.AverageStat.chunkCheckTimeMS, TimeDuration.fromCurrent( startTime ) );
-        getStatistics().getCounterStats().increment( WordlistStatistics.CounterStat.chunkChecks );
+        getStatistics().getCounterStats().increment( WordlistStatistics.CounterStat.chunkChecks, words.size() );
         if ( results )
         {
             getStatistics().getWordTypeHits().get( wordType ).increment();
@@ -248,7 +291,11 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
         }
         else
         {
-            getStatistics().getCounterStats().increment( WordlistStatistics.CounterStat.chunkMisses );
+            getStatistics().getCounterStats().increment( WordlistStatistics.CounterStat.chunkMisses, words.size() );
+            if ( localBloomFilter != null )
+            {
+                getStatistics().getCounterStats().increment( WordlistStatistics.CounterStat.bloomFilterFalsePositives, candidateWords.size() );
+            }
         }
 
         return results;
@@ -256,7 +303,9 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
 
     String randomSeed() throws PwmUnrecoverableException
     {
-        return getWordlistBucket().randomSeed();
+        final WordlistBucket.StoredWords storedWords = getWordlistBucket().storedWords()
+                .orElseThrow( () -> new PwmUnrecoverableException( PwmError.ERROR_INTERNAL, "seedlist bucket does not store readable words" ) );
+        return storedWords.randomSeed();
     }
 
     @Override
@@ -396,6 +445,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
         final Instant startTime = Instant.now();
         getLogger().trace( getSessionLabel(), () -> "clearing stored wordlist" );
         activity = Wordlist.Activity.Clearing;
+        discardBloomFilter();
         writeWordlistStatus( WordlistStatus.builder().build() );
         getWordlistBucket().clear();
         getLogger().debug( getSessionLabel(), () -> "cleared stored wordlist", () -> TimeDuration.fromCurrent( startTime ) );
@@ -427,6 +477,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
             setAutoImportError( null );
             final WordlistZipReader wordlistZipReader = new WordlistZipReader( inputStream );
             final WordlistImporter wordlistImporter = new WordlistImporter(
+                    getPwmApplication(),
                     null,
                     wordlistZipReader,
                     WordlistSourceType.User,
@@ -478,6 +529,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
                 final BooleanSupplier cancelFlag = makeProcessCancelSupplier( );
                 final WordlistInspector wordlistInspector = new WordlistInspector( getPwmApplication(), AbstractWordlist.this, cancelFlag );
                 wordlistInspector.run();
+                initBloomFilter( cancelFlag );
                 activity = Wordlist.Activity.Idle;
             }
             catch ( final Throwable t )
@@ -521,13 +573,147 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
         {
             return ServiceInfoBean.builder()
                     .storageMethod( DataStorageMethod.LOCALDB )
-                    .debugProperties( getStatistics().asDebugMap() )
+                    .debugProperties( makeDebugProperties() )
                     .build();
         }
 
         return ServiceInfoBean.builder().build();
     }
 
+    private Map<String, String> makeDebugProperties()
+    {
+        final Map<String, String> debugProperties = new TreeMap<>( getStatistics().asDebugMap() );
+        final WordlistBloomFilter localBloomFilter = bloomFilter;
+        if ( localBloomFilter != null )
+        {
+            debugProperties.put( "BloomFilterBytes", StringUtil.formatDiskSize( localBloomFilter.sizeInBytes() ) );
+            debugProperties.put( "BloomFilterHashes", Integer.toString( localBloomFilter.getHashCount() ) );
+            debugProperties.put( "BloomFilterFalsePositiveRate", Double.toString( localBloomFilter.expectedFalsePositiveRate() ) );
+        }
+        return Collections.unmodifiableMap( debugProperties );
+    }
+
+    /**
+     * Load the bloom filter for the current (completed) wordlist, or build and persist it from the bucket contents
+     * if no matching persisted filter exists.  Does nothing if a matching filter is already loaded.
+     */
+    void initBloomFilter( final BooleanSupplier cancelFlag )
+    {
+        if ( !wordlistConfiguration.isBloomFilterEnabled()
+                || getWordlistType() != WordlistType.WORDLIST
+                || wordlistBucket.storedWords().isEmpty() )
+        {
+            return;
+        }
+
+        final WordlistStatus wordlistStatus = readWordlistStatus();
+        if ( !wordlistStatus.isCompleted() )
+        {
+            return;
+        }
+
+        final String statusKey = makeBloomFilterStatusKey( wordlistStatus );
+        if ( bloomFilter != null && statusKey.equals( bloomFilter.getStatusKey() ) )
+        {
+            return;
+        }
+
+        final Instant startTime = Instant.now();
+        final Optional<File> filterFile = wordlistBucket.bloomFilterFile();
+
+        try
+        {
+            if ( filterFile.isPresent() )
+            {
+                final Optional<WordlistBloomFilter> storedFilter = WordlistBloomFilter.read( filterFile.get(), statusKey );
+                if ( storedFilter.isPresent() )
+                {
+                    bloomFilter = storedFilter.get();
+                    getLogger().debug( getSessionLabel(), () -> "loaded stored wordlist bloom filter ("
+                            + StringUtil.formatDiskSize( bloomFilter.sizeInBytes() ) + ")", () -> TimeDuration.fromCurrent( startTime ) );
+                    return;
+                }
+            }
+        }
+        catch ( final IOException e )
+        {
+            getLogger().debug( getSessionLabel(), () -> "unable to read stored wordlist bloom filter, will rebuild: " + e.getMessage() );
+        }
+
+        try
+        {
+            final WordlistBloomFilter newFilter = buildBloomFilter( statusKey, cancelFlag );
+            getLogger().debug( getSessionLabel(), () -> "built wordlist bloom filter for " + newFilter.getExpectedEntries() + " words ("
+                    + StringUtil.formatDiskSize( newFilter.sizeInBytes() ) + ", " + newFilter.getHashCount() + " hashes)", () -> TimeDuration.fromCurrent( startTime ) );
+
+            if ( filterFile.isPresent() )
+            {
+                try
+                {
+                    newFilter.write( filterFile.get() );
+                }
+                catch ( final IOException e )
+                {
+                    getLogger().warn( getSessionLabel(), () -> "unable to store wordlist bloom filter: " + e.getMessage() );
+                }
+            }
+
+            bloomFilter = newFilter;
+        }
+        catch ( final CancellationException e )
+        {
+            getLogger().debug( getSessionLabel(), () -> "bloom filter build cancelled" );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            getLogger().error( getSessionLabel(), () -> "error building wordlist bloom filter: " + e.getMessage() );
+        }
+    }
+
+    private WordlistBloomFilter buildBloomFilter( final String statusKey, final BooleanSupplier cancelFlag )
+            throws PwmUnrecoverableException
+    {
+        final WordlistBloomFilter newFilter = WordlistBloomFilter.create(
+                wordlistBucket.size(),
+                wordlistConfiguration.getBloomFilterFalsePositiveRate(),
+                wordlistConfiguration.getBloomFilterMaxBytes(),
+                statusKey );
+
+        final AtomicLong wordCount = new AtomicLong();
+        final WordlistBucket.StoredWords storedWords = wordlistBucket.storedWords()
+                .orElseThrow( () -> new PwmUnrecoverableException( PwmError.ERROR_INTERNAL, "wordlist bucket does not store readable words" ) );
+        storedWords.forEachWord( word ->
+        {
+            newFilter.put( word );
+            if ( wordCount.incrementAndGet() % 100_000 == 0 && cancelFlag.getAsBoolean() )
+            {
+                throw new CancellationException();
+            }
+        } );
+
+        return newFilter;
+    }
+
+    void discardBloomFilter()
+    {
+        bloomFilter = null;
+        final Optional<File> filterFile = wordlistBucket.bloomFilterFile();
+        if ( filterFile.isPresent() && filterFile.get().exists() )
+        {
+            if ( !filterFile.get().delete() )
+            {
+                getLogger().debug( getSessionLabel(), () -> "unable to delete stored wordlist bloom filter " + filterFile.get().getAbsolutePath() );
+            }
+        }
+    }
+
+    private static String makeBloomFilterStatusKey( final WordlistStatus wordlistStatus )
+    {
+        return wordlistStatus.getConfigHash()
+                + "|" + wordlistStatus.getValueCount()
+                + "|" + ( wordlistStatus.getStoreDate() == null ? "" : wordlistStatus.getStoreDate().toEpochMilli() );
+    }
+
     WordlistStatistics getStatistics()
     {
         return statistics;
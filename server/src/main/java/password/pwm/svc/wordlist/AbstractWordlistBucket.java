@@ -21,7 +21,6 @@
 package password.pwm.svc.wordlist;
 
 import password.pwm.PwmApplication;
-import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.LongIncrementer;
@@ -45,7 +44,7 @@ public abstract class AbstractWordlistBucket implements WordlistBucket
         this.type = type;
     }
 
-    private static String seedlistLongToKey( final long longValue )
+    static String seedlistLongToKey( final long longValue )
     {
         return Long.toString( longValue, 36 );
     }
@@ -109,39 +108,44 @@ public abstract class AbstractWordlistBucket implements WordlistBucket
     }
 
     @Override
-    public String randomSeed() throws PwmUnrecoverableException
+    public boolean containsWord( final String word ) throws PwmUnrecoverableException
     {
-        if ( type == WordlistType.WORDLIST )
-        {
-            throw new IllegalStateException( "unable to read randomSeed from WORDLIST wordlist" );
-        }
-
-        try
-        {
-            final long seedCount = size();
-            if ( seedCount > 1000 )
-            {
-                final long randomKey = pwmApplication.getSecureService().pwmRandom().nextLong( seedCount );
-                return getValue( seedlistLongToKey( randomKey ) );
-            }
-        }
-        catch ( final Exception e )
+        if ( type == WordlistType.SEEDLIST )
         {
-            throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "error while generating random word: " + e.getMessage() );
+            throw new IllegalStateException( "unable to containWord check SEEDLIST wordlist" );
         }
 
-        throw new PwmUnrecoverableException( PwmError.ERROR_INTERNAL, "seedlist word not available" );
+        return containsKey( word );
     }
 
     @Override
-    public boolean containsWord( final String word ) throws PwmUnrecoverableException
+    public boolean containsAnyWord( final Collection<String> words ) throws PwmUnrecoverableException
     {
         if ( type == WordlistType.SEEDLIST )
         {
             throw new IllegalStateException( "unable to containWord check SEEDLIST wordlist" );
         }
 
-        return containsKey( word );
+        return containsAnyKey( words );
+    }
+
+    boolean containsAnyKey( final Collection<String> keys )
+            throws PwmUnrecoverableException
+    {
+        for ( final String key : keys )
+        {
+            if ( containsKey( key ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void finishImport()
+            throws PwmUnrecoverableException
+    {
     }
 
     abstract void putValues( Map<String, String> values )
@@ -149,7 +153,4 @@ public abstract class AbstractWordlistBucket implements WordlistBucket
 
     abstract boolean containsKey( String key )
             throws PwmUnrecoverableException;
-
-    abstract String getValue( String key )
-            throws PwmUnrecoverableException;
 }
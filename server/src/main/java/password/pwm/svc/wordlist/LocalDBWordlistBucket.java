@@ -28,9 +28,14 @@ import password.pwm.util.java.FileSystemUtility;
 import password.pwm.util.localdb.LocalDB;
 import password.pwm.util.localdb.LocalDBException;
 
+import java.io.File;
+import java.util.Collection;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
-class LocalDBWordlistBucket extends AbstractWordlistBucket implements WordlistBucket
+class LocalDBWordlistBucket extends AbstractStoredWordlistBucket implements WordlistBucket
 {
     private final LocalDB.DB db;
     private final LocalDB localDB;
@@ -88,6 +93,20 @@ class LocalDBWordlistBucket extends AbstractWordlistBucket implements WordlistBu
         }
     }
 
+    @Override
+    boolean containsAnyKey( final Collection<String> keys )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            return localDB.containsAny( db, keys );
+        }
+        catch ( final LocalDBException e )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_LOCALDB_UNAVAILABLE, e.getMessage() );
+        }
+    }
+
     @Override
     public long size() throws PwmUnrecoverableException
     {
@@ -135,4 +154,32 @@ class LocalDBWordlistBucket extends AbstractWordlistBucket implements WordlistBu
     {
         return FileSystemUtility.diskSpaceRemaining( localDB.getFileLocation() );
     }
+
+    @Override
+    public void forEachWord( final Consumer<String> consumer )
+            throws PwmUnrecoverableException
+    {
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( db ) )
+        {
+            while ( iterator.hasNext() )
+            {
+                consumer.accept( iterator.next().getKey() );
+            }
+        }
+        catch ( final LocalDBException e )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_LOCALDB_UNAVAILABLE, e.getMessage() );
+        }
+    }
+
+    @Override
+    public Optional<File> bloomFilterFile()
+    {
+        final File localDBLocation = localDB.getFileLocation();
+        if ( localDBLocation == null )
+        {
+            return Optional.empty();
+        }
+        return Optional.of( new File( localDBLocation, db.name().toLowerCase( Locale.ROOT ) + ".bloom" ) );
+    }
 }
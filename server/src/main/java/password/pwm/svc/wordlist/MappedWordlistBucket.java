@@ -0,0 +1,431 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import password.pwm.AppAttribute;
+import password.pwm.PwmApplication;
+import password.pwm.PwmConstants;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.FileSystemUtility;
+import password.pwm.util.logging.PwmLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Wordlist bucket storing a 64-bit key per word in sorted, memory mapped files, one file per {@link WordType}.
+ *
+ * <p>Hashed words are stored as the leading 64 bits of the hash, raw words as a 64-bit hash of the word,
+ * so lookups are a handful of page reads regardless of wordlist size.  Import is an external sort: words are
+ * appended to an unsorted pending file, which is sorted into a run whenever it reaches the configured sort
+ * buffer size, and all runs are merged into the final mapped file by {@link #finishImport()}.  Words are not
+ * visible to lookups until the import is finished.</p>
+ *
+ * <p>Mapped files are never replaced or deleted while in use, since that fails on some platforms.  Each merge
+ * writes a new generation of the data file and then updates a small pointer file naming the current generation.
+ * Data files of other generations are removed once they are no longer mapped, or at the next startup.</p>
+ */
+class MappedWordlistBucket extends AbstractWordlistBucket implements WordlistBucket
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( MappedWordlistBucket.class );
+
+    private static final String PENDING_SUFFIX = ".pending";
+    private static final String RUN_SUFFIX = ".run.";
+    private static final String DATA_SUFFIX = ".data.";
+    private static final String GENERATION_SUFFIX = ".generation";
+
+    private final File directory;
+    private final Object writeLock = new Object();
+    private final Map<WordType, long[]> writeBuffers = new EnumMap<>( WordType.class );
+
+    private volatile Map<WordType, SortedWordlistFile> sortedFiles = Collections.emptyMap();
+
+    MappedWordlistBucket(
+            final PwmApplication pwmApplication,
+            final WordlistConfiguration wordlistConfiguration,
+            final WordlistType type,
+            final File directory
+    )
+            throws PwmUnrecoverableException
+    {
+        super( pwmApplication, wordlistConfiguration, type );
+        this.directory = directory;
+
+        try
+        {
+            Files.createDirectories( directory.toPath() );
+            openSortedFiles();
+            removeStaleDataFiles();
+        }
+        catch ( final IOException e )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_WORDLIST_IMPORT_ERROR, "unable to open mapped wordlist directory: " + e.getMessage() );
+        }
+    }
+
+    @Override
+    void putValues( final Map<String, String> values )
+            throws PwmUnrecoverableException
+    {
+        synchronized ( writeLock )
+        {
+            final Map<WordType, Integer> counts = new EnumMap<>( WordType.class );
+            for ( final String word : values.keySet() )
+            {
+                final WordType wordType = storedWordType( word );
+                final int count = counts.getOrDefault( wordType, 0 );
+                final long[] buffer = writeBuffers.compute( wordType, ( k, v ) -> v == null || v.length < values.size() ? new long[values.size()] : v );
+                buffer[count] = toKey( wordType, word );
+                counts.put( wordType, count + 1 );
+            }
+
+            try
+            {
+                for ( final Map.Entry<WordType, Integer> entry : counts.entrySet() )
+                {
+                    final WordType wordType = entry.getKey();
+                    final File pendingFile = fileFor( wordType, PENDING_SUFFIX );
+                    SortedWordlistFile.appendKeys( pendingFile, writeBuffers.get( wordType ), entry.getValue() );
+
+                    if ( pendingFile.length() / SortedWordlistFile.ENTRY_BYTES >= wordlistConfiguration.getMappedSortBufferEntries() )
+                    {
+                        SortedWordlistFile.sortToRun( pendingFile, fileFor( wordType, RUN_SUFFIX + runFiles( wordType ).size() ) );
+                    }
+                }
+            }
+            catch ( final IOException e )
+            {
+                throw PwmUnrecoverableException.newException( PwmError.ERROR_WORDLIST_IMPORT_ERROR, "error while writing words to mapped wordlist: " + e.getMessage() );
+            }
+        }
+    }
+
+    @Override
+    public void finishImport()
+            throws PwmUnrecoverableException
+    {
+        synchronized ( writeLock )
+        {
+            try
+            {
+                for ( final WordType wordType : WordType.values() )
+                {
+                    final File pendingFile = fileFor( wordType, PENDING_SUFFIX );
+                    if ( pendingFile.exists() )
+                    {
+                        SortedWordlistFile.sortToRun( pendingFile, fileFor( wordType, RUN_SUFFIX + runFiles( wordType ).size() ) );
+                    }
+
+                    final List<File> inputFiles = runFiles( wordType );
+                    if ( !inputFiles.isEmpty() )
+                    {
+                        final long generation = readGeneration( wordType );
+                        final File dataFile = dataFile( wordType, generation );
+                        if ( dataFile.exists() )
+                        {
+                            inputFiles.add( dataFile );
+                        }
+
+                        final int runCount = inputFiles.size();
+                        LOGGER.trace( () -> "merging " + runCount + " sorted runs for " + wordType + " mapped wordlist" );
+                        SortedWordlistFile.mergeRuns( inputFiles, dataFile( wordType, generation + 1 ) );
+                        writeGeneration( wordType, generation + 1 );
+
+                        for ( final File runFile : runFiles( wordType ) )
+                        {
+                            Files.delete( runFile.toPath() );
+                        }
+                    }
+                }
+
+                writeBuffers.clear();
+                openSortedFiles();
+                removeStaleDataFiles();
+            }
+            catch ( final IOException e )
+            {
+                throw PwmUnrecoverableException.newException( PwmError.ERROR_WORDLIST_IMPORT_ERROR, "error while merging mapped wordlist: " + e.getMessage() );
+            }
+        }
+    }
+
+    @Override
+    boolean containsKey( final String key )
+    {
+        final WordType wordType = storedWordType( key );
+        final SortedWordlistFile sortedFile = sortedFiles.get( wordType );
+        return sortedFile != null && sortedFile.contains( toKey( wordType, key ) );
+    }
+
+    @Override
+    public long size()
+    {
+        long size = 0;
+        for ( final SortedWordlistFile sortedFile : sortedFiles.values() )
+        {
+            size += sortedFile.size();
+        }
+
+        for ( final WordType wordType : WordType.values() )
+        {
+            size += fileFor( wordType, PENDING_SUFFIX ).length() / SortedWordlistFile.ENTRY_BYTES;
+            for ( final File runFile : runFiles( wordType ) )
+            {
+                size += runFile.length() / SortedWordlistFile.ENTRY_BYTES;
+            }
+        }
+
+        return size;
+    }
+
+    @Override
+    public void clear()
+            throws PwmUnrecoverableException
+    {
+        synchronized ( writeLock )
+        {
+            // the current data files may still be mapped, so they are retired by advancing the generation and removed later
+            sortedFiles = Collections.emptyMap();
+            writeBuffers.clear();
+
+            try
+            {
+                for ( final WordType wordType : WordType.values() )
+                {
+                    writeGeneration( wordType, readGeneration( wordType ) + 1 );
+                    Files.deleteIfExists( fileFor( wordType, PENDING_SUFFIX ).toPath() );
+                    for ( final File runFile : runFiles( wordType ) )
+                    {
+                        Files.delete( runFile.toPath() );
+                    }
+                }
+            }
+            catch ( final IOException e )
+            {
+                throw PwmUnrecoverableException.newException( PwmError.ERROR_WORDLIST_IMPORT_ERROR, "unable to clear mapped wordlist: " + e.getMessage() );
+            }
+
+            removeStaleDataFiles();
+        }
+    }
+
+    @Override
+    public WordlistStatus readWordlistStatus()
+    {
+        final AppAttribute appAttribute = wordlistConfiguration.getMetaDataAppAttribute();
+        return pwmApplication.readAppAttribute( appAttribute, WordlistStatus.class )
+                .orElseGet( () -> WordlistStatus.builder().build() );
+    }
+
+    @Override
+    public void writeWordlistStatus( final WordlistStatus wordlistStatus )
+    {
+        final AppAttribute appAttribute = wordlistConfiguration.getMetaDataAppAttribute();
+        pwmApplication.writeAppAttribute( appAttribute, wordlistStatus );
+    }
+
+    @Override
+    public long spaceRemaining()
+    {
+        return FileSystemUtility.diskSpaceRemaining( directory );
+    }
+
+    @Override
+    public Optional<File> bloomFilterFile()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<StoredWords> storedWords()
+    {
+        // only a 64-bit key of each word is stored
+        return Optional.empty();
+    }
+
+    private void openSortedFiles()
+            throws IOException
+    {
+        final Map<WordType, SortedWordlistFile> newFiles = new EnumMap<>( WordType.class );
+        for ( final WordType wordType : WordType.values() )
+        {
+            final File dataFile = dataFile( wordType, readGeneration( wordType ) );
+            if ( dataFile.exists() )
+            {
+                newFiles.put( wordType, SortedWordlistFile.open( dataFile ) );
+            }
+        }
+        sortedFiles = Collections.unmodifiableMap( newFiles );
+    }
+
+    /**
+     * Remove data files other than the current generation.  Files that are still mapped by an earlier
+     * {@link SortedWordlistFile} can not be removed on all platforms, so failures are left for a later attempt.
+     */
+    private void removeStaleDataFiles()
+    {
+        final File[] files = directory.listFiles();
+        if ( files == null )
+        {
+            return;
+        }
+
+        for ( final WordType wordType : WordType.values() )
+        {
+            final String dataPrefix = fileFor( wordType, DATA_SUFFIX ).getName();
+            final String currentName;
+            try
+            {
+                currentName = dataFile( wordType, readGeneration( wordType ) ).getName();
+            }
+            catch ( final IOException e )
+            {
+                LOGGER.debug( () -> "unable to read " + wordType + " mapped wordlist generation: " + e.getMessage() );
+                continue;
+            }
+
+            for ( final File file : files )
+            {
+                if ( file.getName().startsWith( dataPrefix ) && !file.getName().equals( currentName ) )
+                {
+                    try
+                    {
+                        Files.deleteIfExists( file.toPath() );
+                    }
+                    catch ( final IOException e )
+                    {
+                        LOGGER.debug( () -> "unable to remove stale mapped wordlist file " + file.getName() + ", will retry later: " + e.getMessage() );
+                    }
+                }
+            }
+        }
+    }
+
+    private long readGeneration( final WordType wordType )
+            throws IOException
+    {
+        final File generationFile = fileFor( wordType, GENERATION_SUFFIX );
+        if ( !generationFile.exists() )
+        {
+            return 0;
+        }
+
+        try
+        {
+            return Long.parseLong( Files.readString( generationFile.toPath(), PwmConstants.DEFAULT_CHARSET ).trim() );
+        }
+        catch ( final NumberFormatException e )
+        {
+            throw new IOException( "invalid generation file " + generationFile.getName() + ": " + e.getMessage() );
+        }
+    }
+
+    private void writeGeneration( final WordType wordType, final long generation )
+            throws IOException
+    {
+        // the generation file is never mapped, so it can be replaced in place
+        final File generationFile = fileFor( wordType, GENERATION_SUFFIX );
+        final File tempFile = new File( generationFile.getPath() + ".tmp" );
+        Files.writeString( tempFile.toPath(), String.valueOf( generation ), PwmConstants.DEFAULT_CHARSET );
+        Files.move( tempFile.toPath(), generationFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    private File dataFile( final WordType wordType, final long generation )
+    {
+        return fileFor( wordType, DATA_SUFFIX + generation );
+    }
+
+    private File fileFor( final WordType wordType, final String suffix )
+    {
+        return new File( directory, wordType.name().toLowerCase( Locale.ROOT ) + suffix );
+    }
+
+    private List<File> runFiles( final WordType wordType )
+    {
+        final List<File> runFiles = new ArrayList<>();
+        for ( int i = 0; fileFor( wordType, RUN_SUFFIX + i ).exists(); i++ )
+        {
+            runFiles.add( fileFor( wordType, RUN_SUFFIX + i ) );
+        }
+        return runFiles;
+    }
+
+    /**
+     * Determine the type of a word in stored form, i.e. {@code <hex hash>:<TYPE>} for hashed words.
+     */
+    static WordType storedWordType( final String word )
+    {
+        final int delimiter = word.lastIndexOf( ':' );
+        if ( delimiter > 0 )
+        {
+            for ( final WordType wordType : WordType.values() )
+            {
+                if ( wordType != WordType.RAW
+                        && word.length() - delimiter - 1 == wordType.name().length()
+                        && word.startsWith( wordType.name(), delimiter + 1 )
+                        && delimiter == wordType.getHashAlgorithm().getHexValueLength()
+                        && isHex( word, delimiter ) )
+                {
+                    return wordType;
+                }
+            }
+        }
+        return WordType.RAW;
+    }
+
+    private static boolean isHex( final String word, final int length )
+    {
+        for ( int i = 0; i < length; i++ )
+        {
+            if ( Character.digit( word.charAt( i ), 16 ) < 0 )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long toKey( final WordType wordType, final String word )
+    {
+        if ( wordType == WordType.RAW )
+        {
+            return WordlistUtil.hash64( word );
+        }
+
+        // leading 64 bits of the hex encoded hash
+        long key = 0;
+        for ( int i = 0; i < 16; i++ )
+        {
+            key = ( key << 4 ) | Character.digit( word.charAt( i ), 16 );
+        }
+        return key;
+    }
+}
@@ -23,10 +23,13 @@ package password.pwm.svc.wordlist;
 import password.pwm.PwmApplication;
 import password.pwm.error.PwmUnrecoverableException;
 
+import java.io.File;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
-public class MemoryWordlistBucket extends AbstractWordlistBucket
+public class MemoryWordlistBucket extends AbstractStoredWordlistBucket
 {
     private final Map<String, String> map = new ConcurrentHashMap<>(  );
     private WordlistStatus wordlistStatus;
@@ -88,4 +91,16 @@ public class MemoryWordlistBucket extends AbstractWordlistBucket
     {
         return Long.MAX_VALUE;
     }
+
+    @Override
+    public void forEachWord( final Consumer<String> consumer )
+    {
+        map.keySet().forEach( consumer );
+    }
+
+    @Override
+    public Optional<File> bloomFilterFile()
+    {
+        return Optional.empty();
+    }
 }
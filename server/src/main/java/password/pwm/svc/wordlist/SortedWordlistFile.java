@@ -0,0 +1,294 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Read-only, memory mapped file of sorted, de-duplicated 64-bit keys.  Keys are stored big-endian with the sign
+ * bit flipped so that unsigned key order matches signed {@code long} order.
+ */
+class SortedWordlistFile
+{
+    static final int ENTRY_BYTES = Long.BYTES;
+
+    // each mapped segment holds 2^27 entries (1GB) so segment offsets always fit in an int
+    private static final int SEGMENT_ENTRY_SHIFT = 27;
+    private static final long SEGMENT_ENTRY_MASK = ( 1L << SEGMENT_ENTRY_SHIFT ) - 1;
+    private static final int INTERPOLATION_STEPS = 8;
+    private static final int IO_BUFFER_SIZE = 1024 * 1024;
+
+    private final MappedByteBuffer[] segments;
+    private final long entryCount;
+
+    private SortedWordlistFile( final MappedByteBuffer[] segments, final long entryCount )
+    {
+        this.segments = segments;
+        this.entryCount = entryCount;
+    }
+
+    static SortedWordlistFile open( final File file )
+            throws IOException
+    {
+        try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) )
+        {
+            final long entryCount = channel.size() / ENTRY_BYTES;
+            final long segmentEntries = 1L << SEGMENT_ENTRY_SHIFT;
+            final int segmentCount = ( int ) ( ( entryCount + segmentEntries - 1 ) / segmentEntries );
+            final MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for ( int i = 0; i < segmentCount; i++ )
+            {
+                final long startEntry = i * segmentEntries;
+                final long length = Math.min( segmentEntries, entryCount - startEntry ) * ENTRY_BYTES;
+                segments[i] = channel.map( FileChannel.MapMode.READ_ONLY, startEntry * ENTRY_BYTES, length );
+            }
+            return new SortedWordlistFile( segments, entryCount );
+        }
+    }
+
+    long size()
+    {
+        return entryCount;
+    }
+
+    boolean contains( final long key )
+    {
+        final long target = key ^ Long.MIN_VALUE;
+
+        long low = 0;
+        long high = entryCount - 1;
+
+        // keys are hash values and therefore uniformly distributed, so interpolation converges in very few probes
+        for ( int step = 0; step < INTERPOLATION_STEPS && low <= high; step++ )
+        {
+            final long lowValue = entryAt( low );
+            final long highValue = entryAt( high );
+            if ( target < lowValue || target > highValue )
+            {
+                return false;
+            }
+            if ( lowValue == highValue )
+            {
+                return lowValue == target;
+            }
+
+            final double fraction = ( ( double ) target - ( double ) lowValue ) / ( ( double ) highValue - ( double ) lowValue );
+            final long probe = Math.min( high, Math.max( low, low + ( long ) ( fraction * ( high - low ) ) ) );
+            final long probeValue = entryAt( probe );
+            if ( probeValue == target )
+            {
+                return true;
+            }
+            else if ( probeValue < target )
+            {
+                low = probe + 1;
+            }
+            else
+            {
+                high = probe - 1;
+            }
+        }
+
+        while ( low <= high )
+        {
+            final long mid = ( low + high ) >>> 1;
+            final long midValue = entryAt( mid );
+            if ( midValue == target )
+            {
+                return true;
+            }
+            else if ( midValue < target )
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+
+        return false;
+    }
+
+    private long entryAt( final long index )
+    {
+        final MappedByteBuffer segment = segments[( int ) ( index >>> SEGMENT_ENTRY_SHIFT )];
+        return segment.getLong( ( int ) ( index & SEGMENT_ENTRY_MASK ) * ENTRY_BYTES );
+    }
+
+    static void appendKeys( final File file, final long[] keys, final int count )
+            throws IOException
+    {
+        try ( OutputStream fileStream = Files.newOutputStream( file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND );
+              DataOutputStream output = new DataOutputStream( new BufferedOutputStream( fileStream, IO_BUFFER_SIZE ) ) )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                output.writeLong( keys[i] ^ Long.MIN_VALUE );
+            }
+        }
+    }
+
+    /**
+     * Sort an unsorted key file in memory and write it as a de-duplicated sorted run.
+     */
+    static void sortToRun( final File unsortedFile, final File runFile )
+            throws IOException
+    {
+        final long entries = unsortedFile.length() / ENTRY_BYTES;
+        if ( entries > Integer.MAX_VALUE - 8 )
+        {
+            throw new IOException( "unsorted wordlist key file " + unsortedFile.getName() + " is too large to sort in memory" );
+        }
+
+        final long[] values = new long[( int ) entries];
+        try ( InputStream fileStream = Files.newInputStream( unsortedFile.toPath() );
+              DataInputStream input = new DataInputStream( new BufferedInputStream( fileStream, IO_BUFFER_SIZE ) ) )
+        {
+            for ( int i = 0; i < values.length; i++ )
+            {
+                values[i] = input.readLong();
+            }
+        }
+
+        Arrays.sort( values );
+
+        final File tempFile = new File( runFile.getPath() + ".tmp" );
+        try ( OutputStream fileStream = Files.newOutputStream( tempFile.toPath() );
+              DataOutputStream output = new DataOutputStream( new BufferedOutputStream( fileStream, IO_BUFFER_SIZE ) ) )
+        {
+            for ( int i = 0; i < values.length; i++ )
+            {
+                if ( i == 0 || values[i] != values[i - 1] )
+                {
+                    output.writeLong( values[i] );
+                }
+            }
+        }
+        Files.move( tempFile.toPath(), runFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        Files.delete( unsortedFile.toPath() );
+    }
+
+    /**
+     * K-way merge of sorted runs into a single sorted, de-duplicated output file.
+     */
+    static void mergeRuns( final List<File> runFiles, final File outputFile )
+            throws IOException
+    {
+        final List<RunReader> readers = new ArrayList<>();
+        final File tempFile = new File( outputFile.getPath() + ".tmp" );
+        try ( OutputStream fileStream = Files.newOutputStream( tempFile.toPath() );
+              DataOutputStream output = new DataOutputStream( new BufferedOutputStream( fileStream, IO_BUFFER_SIZE ) ) )
+        {
+            final PriorityQueue<RunReader> queue = new PriorityQueue<>( Comparator.comparingLong( RunReader::current ) );
+            for ( final File runFile : runFiles )
+            {
+                final RunReader reader = new RunReader( runFile );
+                readers.add( reader );
+                if ( reader.advance() )
+                {
+                    queue.add( reader );
+                }
+            }
+
+            boolean first = true;
+            long lastValue = 0;
+            while ( !queue.isEmpty() )
+            {
+                final RunReader reader = queue.poll();
+                final long value = reader.current();
+                if ( first || value != lastValue )
+                {
+                    output.writeLong( value );
+                    lastValue = value;
+                    first = false;
+                }
+                if ( reader.advance() )
+                {
+                    queue.add( reader );
+                }
+            }
+        }
+        finally
+        {
+            for ( final RunReader reader : readers )
+            {
+                reader.close();
+            }
+        }
+        Files.move( tempFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    private static class RunReader
+    {
+        private final DataInputStream input;
+        private long current;
+
+        RunReader( final File file )
+                throws IOException
+        {
+            this.input = new DataInputStream( new BufferedInputStream( Files.newInputStream( file.toPath() ), IO_BUFFER_SIZE ) );
+        }
+
+        boolean advance()
+                throws IOException
+        {
+            try
+            {
+                current = input.readLong();
+                return true;
+            }
+            catch ( final EOFException e )
+            {
+                return false;
+            }
+        }
+
+        long current()
+        {
+            return current;
+        }
+
+        void close()
+                throws IOException
+        {
+            input.close();
+        }
+    }
+}
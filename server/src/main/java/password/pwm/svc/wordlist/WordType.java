@@ -52,6 +52,11 @@ public enum WordType
         suffix = ( DELIMITER + this.name() ).toLowerCase();
     }
 
+    PwmHashAlgorithm getHashAlgorithm()
+    {
+        return hashAlgorithm;
+    }
+
     public String convertInputFromWordlist(
             final WordlistConfiguration wordlistConfiguration,
             final String input
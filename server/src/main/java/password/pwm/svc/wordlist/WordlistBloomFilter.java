@@ -0,0 +1,209 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Memory resident bloom filter fronting a {@link WordlistBucket}.  A negative result is definitive and
+ * allows a bucket lookup to be skipped entirely, a positive result must still be confirmed against the bucket.
+ */
+class WordlistBloomFilter
+{
+    private static final int FILE_MAGIC = 0x50574246;
+    private static final int FILE_VERSION = 1;
+    private static final int MAX_HASH_FUNCTIONS = 16;
+    private static final double LN2 = Math.log( 2 );
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedEntries;
+    private final String statusKey;
+
+    private WordlistBloomFilter( final long[] bits, final int hashCount, final long expectedEntries, final String statusKey )
+    {
+        this.bits = bits;
+        this.bitCount = ( long ) bits.length * Long.SIZE;
+        this.hashCount = hashCount;
+        this.expectedEntries = expectedEntries;
+        this.statusKey = statusKey;
+    }
+
+    static WordlistBloomFilter create(
+            final long expectedEntries,
+            final double falsePositiveRate,
+            final long maxBytes,
+            final String statusKey
+    )
+    {
+        final long entries = Math.max( 1, expectedEntries );
+        final double fpp = Math.min( 0.5, Math.max( 1e-9, falsePositiveRate ) );
+
+        final long optimalBits = ( long ) Math.ceil( -entries * Math.log( fpp ) / ( LN2 * LN2 ) );
+        final long maxBits = Math.max( Long.SIZE, Math.min( maxBytes, ( long ) Integer.MAX_VALUE * Long.BYTES ) * Byte.SIZE );
+        final long bitCount = Math.max( Long.SIZE, Math.min( optimalBits, maxBits ) );
+        final int words = ( int ) ( ( bitCount + Long.SIZE - 1 ) / Long.SIZE );
+
+        final long hashCount = Math.round( ( double ) words * Long.SIZE / entries * LN2 );
+        return new WordlistBloomFilter(
+                new long[words],
+                ( int ) Math.max( 1, Math.min( MAX_HASH_FUNCTIONS, hashCount ) ),
+                expectedEntries,
+                statusKey );
+    }
+
+    void put( final String word )
+    {
+        final long hash1 = WordlistUtil.hash64( word );
+        final long hash2 = WordlistUtil.mix64( hash1 ^ 0x9E3779B97F4A7C15L ) | 1;
+
+        long combinedHash = hash1;
+        for ( int i = 0; i < hashCount; i++ )
+        {
+            final long index = Long.remainderUnsigned( combinedHash, bitCount );
+            bits[( int ) ( index >>> 6 )] |= 1L << index;
+            combinedHash += hash2;
+        }
+    }
+
+    boolean mightContain( final String word )
+    {
+        final long hash1 = WordlistUtil.hash64( word );
+        final long hash2 = WordlistUtil.mix64( hash1 ^ 0x9E3779B97F4A7C15L ) | 1;
+
+        long combinedHash = hash1;
+        for ( int i = 0; i < hashCount; i++ )
+        {
+            final long index = Long.remainderUnsigned( combinedHash, bitCount );
+            if ( ( bits[( int ) ( index >>> 6 )] & ( 1L << index ) ) == 0 )
+            {
+                return false;
+            }
+            combinedHash += hash2;
+        }
+
+        return true;
+    }
+
+    long sizeInBytes()
+    {
+        return ( long ) bits.length * Long.BYTES;
+    }
+
+    int getHashCount()
+    {
+        return hashCount;
+    }
+
+    long getExpectedEntries()
+    {
+        return expectedEntries;
+    }
+
+    String getStatusKey()
+    {
+        return statusKey;
+    }
+
+    /**
+     * Estimated false positive rate for the configured entry count, which may be higher than requested
+     * if the filter size was capped.
+     */
+    double expectedFalsePositiveRate()
+    {
+        return Math.pow( 1 - Math.exp( -( double ) hashCount * Math.max( 1, expectedEntries ) / bitCount ), hashCount );
+    }
+
+    void write( final File file )
+            throws IOException
+    {
+        final File tempFile = new File( file.getPath() + ".tmp" );
+        try ( OutputStream fileStream = Files.newOutputStream( tempFile.toPath() );
+              DataOutputStream output = new DataOutputStream( new BufferedOutputStream( fileStream, WordlistConfiguration.STREAM_BUFFER_SIZE ) ) )
+        {
+            output.writeInt( FILE_MAGIC );
+            output.writeInt( FILE_VERSION );
+            output.writeUTF( statusKey );
+            output.writeLong( expectedEntries );
+            output.writeInt( hashCount );
+            output.writeInt( bits.length );
+            for ( final long word : bits )
+            {
+                output.writeLong( word );
+            }
+        }
+        Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    /**
+     * Read a previously persisted filter.  Returns empty if the file is missing, unreadable or was written for
+     * a different wordlist status.
+     */
+    static Optional<WordlistBloomFilter> read( final File file, final String expectedStatusKey )
+            throws IOException
+    {
+        if ( !file.exists() )
+        {
+            return Optional.empty();
+        }
+
+        try ( InputStream fileStream = Files.newInputStream( file.toPath() );
+              DataInputStream input = new DataInputStream( new BufferedInputStream( fileStream, WordlistConfiguration.STREAM_BUFFER_SIZE ) ) )
+        {
+            if ( input.readInt() != FILE_MAGIC || input.readInt() != FILE_VERSION )
+            {
+                return Optional.empty();
+            }
+
+            final String statusKey = input.readUTF();
+            if ( !statusKey.equals( expectedStatusKey ) )
+            {
+                return Optional.empty();
+            }
+
+            final long expectedEntries = input.readLong();
+            final int hashCount = input.readInt();
+            final int words = input.readInt();
+            if ( hashCount < 1 || hashCount > MAX_HASH_FUNCTIONS || words < 1 )
+            {
+                return Optional.empty();
+            }
+
+            final long[] bits = new long[words];
+            for ( int i = 0; i < words; i++ )
+            {
+                bits[i] = input.readLong();
+            }
+            return Optional.of( new WordlistBloomFilter( bits, hashCount, expectedEntries, statusKey ) );
+        }
+    }
+}
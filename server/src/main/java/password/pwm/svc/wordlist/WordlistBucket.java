@@ -22,14 +22,18 @@ package password.pwm.svc.wordlist;
 
 import password.pwm.error.PwmUnrecoverableException;
 
+import java.io.File;
 import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface WordlistBucket
 {
     boolean containsWord( String hashWord )
             throws PwmUnrecoverableException;
 
-    String randomSeed() throws PwmUnrecoverableException;
+    boolean containsAnyWord( Collection<String> words )
+            throws PwmUnrecoverableException;
 
     void addWords( Collection<String> words, AbstractWordlist abstractWordlist )
             throws PwmUnrecoverableException;
@@ -43,4 +47,26 @@ public interface WordlistBucket
     void writeWordlistStatus( WordlistStatus wordlistStatus );
 
     long spaceRemaining();
+
+    Optional<File> bloomFilterFile();
+
+    /**
+     * Access to the stored words, for buckets that keep each word in readable form.  Buckets that store only a
+     * digest of each word return an empty value.
+     */
+    Optional<StoredWords> storedWords();
+
+    /**
+     * Called once all words of an import have been added.
+     */
+    void finishImport()
+            throws PwmUnrecoverableException;
+
+    interface StoredWords
+    {
+        String randomSeed() throws PwmUnrecoverableException;
+
+        void forEachWord( Consumer<String> consumer )
+                throws PwmUnrecoverableException;
+    }
 }
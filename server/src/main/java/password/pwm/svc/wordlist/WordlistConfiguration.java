@@ -20,6 +20,7 @@
 
 package password.pwm.svc.wordlist;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
@@ -45,6 +46,7 @@ import java.util.function.Supplier;
 
 @Value
 @Builder( toBuilder = true )
+@SuppressFBWarnings( "SE_TRANSIENT_FIELD_NOT_RESTORED" )
 public class WordlistConfiguration implements Serializable
 {
     private static final long serialVersionUID = 1L;
@@ -81,6 +83,24 @@ public class WordlistConfiguration implements Serializable
 
     private final TimeDuration inspectorFrequency;
 
+    // bloom filter settings do not affect stored wordlist contents so are excluded from the config hash
+    private final transient boolean bloomFilterEnabled;
+    private final transient double bloomFilterFalsePositiveRate;
+    private final transient long bloomFilterMaxBytes;
+
+    // a non-default bucket type is folded into the config hash explicitly, see configHash
+    private final transient BucketType bucketType;
+    private final transient int mappedSortBufferEntries;
+
+    // import parallelism does not affect stored wordlist contents
+    private final transient int importWorkerThreads;
+
+    enum BucketType
+    {
+        LOCALDB,
+        MAPPED,
+    }
+
     static WordlistConfiguration fromConfiguration(
             final AppConfig appConfig,
             final WordlistType type
@@ -139,6 +159,12 @@ public class WordlistConfiguration implements Serializable
                 .importMinFreeSpace( JavaHelper.silentParseLong( appConfig.readAppProperty( AppProperty.WORDLIST_IMPORT_MIN_FREE_SPACE ), 100_000_000 ) )
                 .importPauseDuration( appConfig.readDurationAppProperty( AppProperty.WORDLIST_IMPORT_PAUSE_DURATION_MS ) )
                 .importPauseFrequency( appConfig.readDurationAppProperty( AppProperty.WORDLIST_IMPORT_PAUSE_FREQUENCY_MS ) )
+                .importWorkerThreads( Integer.parseInt( appConfig.readAppProperty( AppProperty.WORDLIST_IMPORT_WORKER_THREADS ) ) )
+                .bloomFilterEnabled( Boolean.parseBoolean( appConfig.readAppProperty( AppProperty.WORDLIST_BLOOM_FILTER_ENABLE ) ) )
+                .bloomFilterFalsePositiveRate( Double.parseDouble( appConfig.readAppProperty( AppProperty.WORDLIST_BLOOM_FILTER_FALSE_POSITIVE_RATE ) ) )
+                .bloomFilterMaxBytes( JavaHelper.silentParseLong( appConfig.readAppProperty( AppProperty.WORDLIST_BLOOM_FILTER_MAX_BYTES ), 268_435_456L ) )
+                .bucketType( JavaHelper.readEnumFromString( BucketType.class, BucketType.LOCALDB, appConfig.readAppProperty( AppProperty.WORDLIST_BUCKET_TYPE ) ) )
+                .mappedSortBufferEntries( Integer.parseInt( appConfig.readAppProperty( AppProperty.WORDLIST_MAPPED_SORT_BUFFER_ENTRIES ) ) )
                 .build();
     }
 
@@ -167,7 +193,10 @@ public class WordlistConfiguration implements Serializable
     {
         try
         {
-            return SecureEngine.hash( JsonFactory.get().serialize( WordlistConfiguration.this ), HASH_ALGORITHM );
+            // changing storage type requires a re-import, but the default is omitted so existing wordlists remain valid
+            final BucketType bucketType = getBucketType();
+            final String bucketTypeSuffix = bucketType == null || bucketType == BucketType.LOCALDB ? "" : bucketType.name();
+            return SecureEngine.hash( JsonFactory.get().serialize( WordlistConfiguration.this ) + bucketTypeSuffix, HASH_ALGORITHM );
         }
         catch ( final PwmUnrecoverableException e )
         {
@@ -20,12 +20,17 @@
 
 package password.pwm.svc.wordlist;
 
+import lombok.Value;
 import org.apache.commons.io.IOUtils;
+import password.pwm.PwmApplication;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.EventRateMeter;
+import password.pwm.util.PwmScheduler;
 import password.pwm.util.TransactionSizeCalculator;
 import password.pwm.util.java.ConditionalTaskExecutor;
+import password.pwm.util.java.JavaHelper;
 import password.pwm.util.json.JsonFactory;
 import password.pwm.util.java.Percent;
 import password.pwm.util.java.PwmNumberFormat;
@@ -35,22 +40,44 @@ import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BooleanSupplier;
 
 /**
+ * Imports a wordlist as a three stage pipeline: a single reader thread decompresses and batches lines, a pool of
+ * worker threads classifies, normalizes and chunks/hashes each batch, and the calling thread writes the results to
+ * the bucket in large transactions.  Bounded queues between the stages provide backpressure.
+ *
+ * <p>Batches may complete out of order, so the byte offset recorded in the wordlist status only advances past a batch
+ * once it and every earlier batch have been written, which keeps resume-from-offset safe.</p>
+ *
  * @author Jason D. Rivard
  */
 class WordlistImporter implements Runnable
 {
+    private static final int LINES_PER_BATCH = 1000;
+    private static final int QUEUE_BATCHES_PER_WORKER = 4;
+    private static final LineBatch END_OF_LINES = new LineBatch( -1, Collections.emptyList(), -1 );
+
+    private final PwmApplication pwmApplication;
     private final WordlistZipReader zipFileReader;
     private final WordlistSourceType sourceType;
     private final AbstractWordlist rootWordlist;
@@ -71,6 +98,18 @@ class WordlistImporter implements Runnable
     private final Map<WordType, LongAdder> seenWordTypes = new EnumMap<>( WordType.class );
     private boolean completed;
 
+    private final int workerThreads;
+    private final AtomicBoolean pipelineStop = new AtomicBoolean();
+    private final AtomicReference<Exception> pipelineError = new AtomicReference<>();
+    private final EventRateMeter readStageRate = new EventRateMeter( TimeDuration.MINUTE );
+    private final EventRateMeter hashStageRate = new EventRateMeter( TimeDuration.MINUTE );
+    private final EventRateMeter writeStageRate = new EventRateMeter( TimeDuration.MINUTE );
+    private final Map<Long, Long> completedBatchOffsets = new TreeMap<>();
+    private BlockingQueue<LineBatch> lineQueue;
+    private BlockingQueue<WordBatch> wordQueue;
+    private long nextCommitSequence;
+    private volatile long committedBytes;
+
     private enum StatKey
     {
         charsPerTransaction( DebugKey.CharsPerTxn ),
@@ -112,9 +151,16 @@ class WordlistImporter implements Runnable
         CharsPerTxn,
         ChunksPerWord,
         AvgWordLength,
+        HashWorkers,
+        ReadStageLinesPerSecond,
+        HashStageWordsPerSecond,
+        WriteStageWordsPerSecond,
+        ReadQueueBatches,
+        WriteQueueBatches,
     }
 
     WordlistImporter(
+            final PwmApplication pwmApplication,
             final WordlistSourceInfo wordlistSourceInfo,
             final WordlistZipReader wordlistZipReader,
             final WordlistSourceType sourceType,
@@ -122,6 +168,7 @@ class WordlistImporter implements Runnable
             final BooleanSupplier cancelFlag
     )
     {
+        this.pwmApplication = pwmApplication;
         this.wordlistSourceInfo = wordlistSourceInfo;
         this.sourceType = sourceType;
         this.zipFileReader = wordlistZipReader;
@@ -130,6 +177,7 @@ class WordlistImporter implements Runnable
         this.wordlistBucket = rootWordlist.getWordlistBucket();
 
         final WordlistConfiguration wordlistConfiguration = rootWordlist.getConfiguration();
+        this.workerThreads = Math.max( 1, Math.min( wordlistConfiguration.getImportWorkerThreads(), Runtime.getRuntime().availableProcessors() ) );
 
         this.transactionCalculator = new TransactionSizeCalculator(
                 TransactionSizeCalculator.Settings.builder()
@@ -196,6 +244,9 @@ class WordlistImporter implements Runnable
 
         checkWordlistSpaceRemaining();
 
+        // any stored filter no longer matches the bucket once words are added
+        rootWordlist.discardBloomFilter();
+
         previousImportDuration = TimeDuration.of( rootWordlist.readWordlistStatus().getImportMs(), TimeDuration.Unit.MILLISECONDS );
 
         final long previousBytesRead = rootWordlist.readWordlistStatus().getBytes();
@@ -215,6 +266,8 @@ class WordlistImporter implements Runnable
         {
             skipForward( previousBytesRead );
         }
+
+        committedBytes = zipFileReader.getByteCount();
     }
 
     private void doImport( )
@@ -230,6 +283,7 @@ class WordlistImporter implements Runnable
                 () -> getLogger().debug( rootWordlist.getSessionLabel(), this::makeStatString ),
                 AbstractWordlist.DEBUG_OUTPUT_FREQUENCY );
 
+        ThreadPoolExecutor executor = null;
         try
         {
             debugOutputter.conditionallyExecuteTask();
@@ -238,50 +292,200 @@ class WordlistImporter implements Runnable
 
             startTime = Instant.now();
 
-            getLogger().debug( rootWordlist.getSessionLabel(), () -> "beginning import: " + JsonFactory.get().serialize( rootWordlist.readWordlistStatus() ) );
+            getLogger().debug( rootWordlist.getSessionLabel(), () -> "beginning import using " + workerThreads + " hash workers: "
+                    + JsonFactory.get().serialize( rootWordlist.readWordlistStatus() ) );
             Instant lastTxnInstant = Instant.now();
 
             final long importMaxChars = rootWordlist.getConfiguration().getImportMaxChars();
 
-            String line;
-            do
+            lineQueue = new ArrayBlockingQueue<>( workerThreads * QUEUE_BATCHES_PER_WORKER );
+            wordQueue = new ArrayBlockingQueue<>( workerThreads * QUEUE_BATCHES_PER_WORKER );
+            executor = new ThreadPoolExecutor(
+                    workerThreads + 1,
+                    workerThreads + 1,
+                    0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    PwmScheduler.makePwmThreadFactory( PwmScheduler.makeThreadName( pwmApplication, WordlistImporter.class ) + "-", true ) );
+            executor.execute( this::readStage );
+            for ( int i = 0; i < workerThreads; i++ )
             {
-                line = zipFileReader.nextLine();
-                if ( line != null )
+                executor.execute( this::hashStage );
+            }
+
+            int finishedWorkers = 0;
+            while ( finishedWorkers < workerThreads )
+            {
+                cancelCheck();
+                checkPipelineError();
+
+                final WordBatch wordBatch = wordQueue.poll( 1, TimeUnit.SECONDS );
+                if ( wordBatch == null )
                 {
-                    addLine( line );
+                    continue;
+                }
 
-                    debugOutputter.conditionallyExecuteTask();
+                if ( wordBatch.isEndMarker() )
+                {
+                    finishedWorkers++;
+                    continue;
+                }
 
-                    if (
-                            bufferedWords.size() > transactionCalculator.getTransactionSize()
-                                    || charsInBuffer > importMaxChars
-                    )
-                    {
-                        flushBuffer();
-                        metaUpdater.conditionallyExecuteTask();
-                        checkWordlistSpaceRemaining();
+                addWordBatch( wordBatch );
+                debugOutputter.conditionallyExecuteTask();
 
-                        importStatistics.update( StatKey.msPerTransaction, TimeDuration.fromCurrent( lastTxnInstant ).asMillis() );
-                        pauseTimer.conditionallyExecuteTask();
-                        lastTxnInstant = Instant.now();
-                    }
+                if (
+                        bufferedWords.size() > transactionCalculator.getTransactionSize()
+                                || charsInBuffer > importMaxChars
+                )
+                {
+                    flushBuffer();
+                    metaUpdater.conditionallyExecuteTask();
+                    checkWordlistSpaceRemaining();
 
-                    cancelCheck();
+                    importStatistics.update( StatKey.msPerTransaction, TimeDuration.fromCurrent( lastTxnInstant ).asMillis() );
+                    pauseTimer.conditionallyExecuteTask();
+                    lastTxnInstant = Instant.now();
                 }
             }
-            while ( line != null );
 
+            checkPipelineError();
             cancelCheck();
             populationComplete();
         }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
         finally
         {
+            pipelineStop.set( true );
+            if ( executor != null )
+            {
+                executor.shutdownNow();
+                JavaHelper.closeAndWaitExecutor( executor, TimeDuration.SECONDS_10 );
+            }
             IOUtils.closeQuietly( zipFileReader );
         }
     }
 
-    private void addLine( final String input )
+    private void checkPipelineError()
+            throws PwmUnrecoverableException
+    {
+        final Exception exception = pipelineError.get();
+        if ( exception instanceof PwmUnrecoverableException )
+        {
+            throw ( PwmUnrecoverableException ) exception;
+        }
+        else if ( exception != null )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_WORDLIST_IMPORT_ERROR, "error during wordlist import pipeline: " + exception.getMessage() );
+        }
+    }
+
+    /**
+     * Reader stage; reads lines from the zip stream and hands them to the hash workers in batches.
+     */
+    private void readStage()
+    {
+        try
+        {
+            long sequence = 0;
+            List<String> lines = new ArrayList<>( LINES_PER_BATCH );
+            String line = zipFileReader.nextLine();
+            while ( line != null && !pipelineStop.get() )
+            {
+                lines.add( line );
+                if ( lines.size() >= LINES_PER_BATCH )
+                {
+                    readStageRate.markEvents( lines.size() );
+                    lineQueue.put( new LineBatch( sequence++, lines, zipFileReader.getByteCount() ) );
+                    lines = new ArrayList<>( LINES_PER_BATCH );
+                }
+                line = zipFileReader.nextLine();
+            }
+
+            if ( !lines.isEmpty() )
+            {
+                readStageRate.markEvents( lines.size() );
+                lineQueue.put( new LineBatch( sequence, lines, zipFileReader.getByteCount() ) );
+            }
+
+            for ( int i = 0; i < workerThreads; i++ )
+            {
+                lineQueue.put( END_OF_LINES );
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( final Exception e )
+        {
+            pipelineError.compareAndSet( null, e );
+        }
+    }
+
+    /**
+     * Hash worker stage; classifies, normalizes and chunks or hashes each line of a batch.
+     */
+    private void hashStage()
+    {
+        try
+        {
+            LineBatch lineBatch = lineQueue.take();
+            while ( lineBatch != END_OF_LINES )
+            {
+                final WordBatch wordBatch = new WordBatch( lineBatch.getSequence(), lineBatch.getByteCount() );
+                for ( final String line : lineBatch.getLines() )
+                {
+                    addLine( line, wordBatch );
+                }
+                hashStageRate.markEvents( wordBatch.words.size() );
+                wordQueue.put( wordBatch );
+                lineBatch = lineQueue.take();
+            }
+            wordQueue.put( WordBatch.endMarker() );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( final Exception e )
+        {
+            pipelineError.compareAndSet( null, e );
+        }
+    }
+
+    private void addWordBatch( final WordBatch wordBatch )
+    {
+        bufferedWords.addAll( wordBatch.words );
+        charsInBuffer += wordBatch.chars;
+        wordBatch.wordTypes.forEach( ( wordType, count ) -> seenWordTypes.computeIfAbsent( wordType, t -> new LongAdder() ).add( count ) );
+        completedBatchOffsets.put( wordBatch.sequence, wordBatch.byteCount );
+
+        if ( wordBatch.rawWords > 0 )
+        {
+            importStatistics.update( StatKey.averageWordLength, wordBatch.rawWordChars / wordBatch.rawWords );
+            importStatistics.update( StatKey.chunksPerWord, wordBatch.rawWordChunks / wordBatch.rawWords );
+        }
+    }
+
+    /**
+     * Advance the committed byte offset past every contiguous batch that has now been written.
+     */
+    private void advanceCommittedBytes()
+    {
+        Long byteCount = completedBatchOffsets.remove( nextCommitSequence );
+        while ( byteCount != null )
+        {
+            committedBytes = byteCount;
+            nextCommitSequence++;
+            byteCount = completedBatchOffsets.remove( nextCommitSequence );
+        }
+    }
+
+    private void addLine( final String input, final WordBatch wordBatch )
     {
         if ( StringUtil.isEmpty( input ) )
         {
@@ -294,7 +498,7 @@ class WordlistImporter implements Runnable
         }
 
         final WordType wordType = WordType.determineWordType( input );
-        seenWordTypes.computeIfAbsent( wordType, t -> new LongAdder() ).increment();
+        wordBatch.wordTypes.merge( wordType, 1, Integer::sum );
 
         if ( wordType == WordType.RAW )
         {
@@ -302,25 +506,25 @@ class WordlistImporter implements Runnable
             {
                 final String normalizedWord = wordType.convertInputFromWordlist( this.rootWordlist.getConfiguration(), word );
                 final Set<String> words = WordlistUtil.chunkWord( normalizedWord, rootWordlist.getConfiguration().getCheckSize() );
-                importStatistics.update( StatKey.averageWordLength, normalizedWord.length() );
-                importStatistics.update( StatKey.chunksPerWord, words.size() );
-                incrementCharBufferCounter( words );
-                bufferedWords.addAll( words );
+                wordBatch.rawWords++;
+                wordBatch.rawWordChars += normalizedWord.length();
+                wordBatch.rawWordChunks += words.size();
+                for ( final String chunk : words )
+                {
+                    if ( wordBatch.words.add( chunk ) )
+                    {
+                        wordBatch.chars += chunk.length();
+                    }
+                }
             } );
         }
         else
         {
             final String normalizedWord = wordType.convertInputFromWordlist( this.rootWordlist.getConfiguration(), input );
-            incrementCharBufferCounter( Collections.singleton( normalizedWord ) );
-            bufferedWords.add( normalizedWord );
-        }
-    }
-
-    private void incrementCharBufferCounter( final Collection<String> words )
-    {
-        for ( final String word : words )
-        {
-            charsInBuffer += word.length();
+            if ( wordBatch.words.add( normalizedWord ) )
+            {
+                wordBatch.chars += normalizedWord.length();
+            }
         }
     }
 
@@ -344,6 +548,8 @@ class WordlistImporter implements Runnable
 
         //add the elements
         wordlistBucket.addWords( bufferedWords, rootWordlist );
+        writeStageRate.markEvents( bufferedWords.size() );
+        advanceCommittedBytes();
 
         cancelCheck();
 
@@ -363,6 +569,7 @@ class WordlistImporter implements Runnable
             throws PwmUnrecoverableException
     {
         flushBuffer();
+        wordlistBucket.finishImport();
         getLogger().info( this::makeStatString );
         final long wordlistSize = wordlistBucket.size();
 
@@ -372,6 +579,8 @@ class WordlistImporter implements Runnable
         completed = true;
         writeCurrentWordlistStatus();
 
+        rootWordlist.initBloomFilter( cancelFlag );
+
         getLogger().debug( rootWordlist.getSessionLabel(), () -> "final post-population status: " + JsonFactory.get().serialize( rootWordlist.readWordlistStatus() ) );
     }
 
@@ -483,6 +692,16 @@ class WordlistImporter implements Runnable
         Arrays.stream( StatKey.values() )
                 .forEach( statKey -> stats.put( statKey.getDebugKey(), importStatistics.getFormattedAverage( statKey ) ) );
 
+        stats.put( DebugKey.HashWorkers, Integer.toString( workerThreads ) );
+        stats.put( DebugKey.ReadStageLinesPerSecond, PwmNumberFormat.forDefaultLocale().format( readStageRate.readEventRate().longValue() ) );
+        stats.put( DebugKey.HashStageWordsPerSecond, PwmNumberFormat.forDefaultLocale().format( hashStageRate.readEventRate().longValue() ) );
+        stats.put( DebugKey.WriteStageWordsPerSecond, PwmNumberFormat.forDefaultLocale().format( writeStageRate.readEventRate().longValue() ) );
+        if ( lineQueue != null )
+        {
+            stats.put( DebugKey.ReadQueueBatches, Integer.toString( lineQueue.size() ) );
+            stats.put( DebugKey.WriteQueueBatches, Integer.toString( wordQueue.size() ) );
+        }
+
         return Collections.unmodifiableMap( stats );
     }
 
@@ -500,7 +719,7 @@ class WordlistImporter implements Runnable
                 .sourceType( sourceType )
                 .completed( completed )
                 .wordTypes( outputWordTypeMap )
-                .bytes( zipFileReader.getByteCount() )
+                .bytes( committedBytes )
                 .importMs( getImportDuration().asMillis() )
                 .build() );
     }
@@ -526,4 +745,43 @@ class WordlistImporter implements Runnable
     {
         return TimeDuration.fromCurrent( startTime ).add( previousImportDuration );
     }
+
+    @Value
+    private static class LineBatch
+    {
+        private final long sequence;
+        private final List<String> lines;
+        private final long byteCount;
+    }
+
+    /**
+     * Output of a hash worker for a single {@link LineBatch}; only accessed by one thread at a time.
+     */
+    private static class WordBatch
+    {
+        private final long sequence;
+        private final long byteCount;
+        private final Set<String> words = new HashSet<>();
+        private final Map<WordType, Integer> wordTypes = new EnumMap<>( WordType.class );
+        private long chars;
+        private long rawWords;
+        private long rawWordChars;
+        private long rawWordChunks;
+
+        WordBatch( final long sequence, final long byteCount )
+        {
+            this.sequence = sequence;
+            this.byteCount = byteCount;
+        }
+
+        static WordBatch endMarker()
+        {
+            return new WordBatch( -1, -1 );
+        }
+
+        boolean isEndMarker()
+        {
+            return sequence < 0;
+        }
+    }
 }
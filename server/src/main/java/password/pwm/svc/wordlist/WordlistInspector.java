@@ -358,6 +358,7 @@ class WordlistInspector implements Runnable
         final WordlistSource wordlistSource = WordlistSource.forBuiltIn( pwmApplication, rootWordlist.getConfiguration() );
         final WordlistSourceInfo wordlistSourceInfo = wordlistSource.readRemoteWordlistInfo( pwmApplication, rootWordlist.getSessionLabel(), cancelFlag, getLogger() );
         final WordlistImporter wordlistImporter = new WordlistImporter(
+                pwmApplication,
                 wordlistSourceInfo,
                 wordlistSource.getZipWordlistReader(),
                 wordlistSourceType,
@@ -373,6 +374,7 @@ class WordlistInspector implements Runnable
         rootWordlist.setAutoImportError( null );
         final WordlistSource wordlistSource = WordlistSource.forAutoImport( pwmApplication, rootWordlist.getConfiguration() );
         final WordlistImporter wordlistImporter = new WordlistImporter(
+                pwmApplication,
                 wordlistSourceInfo,
                 wordlistSource.getZipWordlistReader(),
                 WordlistSourceType.AutoImport,
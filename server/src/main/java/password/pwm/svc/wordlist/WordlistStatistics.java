@@ -46,6 +46,8 @@ class WordlistStatistics
         chunkChecks,
         chunkHits,
         chunkMisses,
+        bloomFilterMisses,
+        bloomFilterFalsePositives,
     }
 
     enum AverageStat
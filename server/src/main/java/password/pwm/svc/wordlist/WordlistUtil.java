@@ -74,5 +74,30 @@ class WordlistUtil
         return word.length() > 0 ? Optional.of( word ) : Optional.empty();
     }
 
+    /**
+     * Non-cryptographic, allocation free 64-bit hash of a stored word.
+     */
+    static long hash64( final String word )
+    {
+        // FNV-1a over the utf-16 chars, finalized with the murmur3 mixer for better bit dispersion
+        long hash = 0xcbf29ce484222325L;
+        for ( int i = 0; i < word.length(); i++ )
+        {
+            hash ^= word.charAt( i );
+            hash *= 0x100000001b3L;
+        }
+        return mix64( hash );
+    }
+
+    static long mix64( final long input )
+    {
+        long value = input;
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
 
 }
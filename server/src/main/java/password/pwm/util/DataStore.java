@@ -44,6 +44,9 @@ public interface DataStore
     Optional<String> get( String key )
             throws PwmDataStoreException, PwmUnrecoverableException;
 
+    Optional<byte[]> getBytes( String key )
+            throws PwmDataStoreException, PwmUnrecoverableException;
+
     ClosableIterator<Map.Entry<String, String>> iterator( )
             throws PwmDataStoreException, PwmUnrecoverableException;
 
@@ -52,6 +55,9 @@ public interface DataStore
     boolean put( String key, String value )
             throws PwmDataStoreException, PwmUnrecoverableException;
 
+    boolean putBytes( String key, byte[] value )
+            throws PwmDataStoreException, PwmUnrecoverableException;
+
     boolean putIfAbsent( String key, String value )
             throws PwmDataStoreException, PwmUnrecoverableException;
 
@@ -23,7 +23,6 @@ package password.pwm.util.cli.commands;
 import password.pwm.PwmConstants;
 import password.pwm.util.cli.CliParameters;
 import password.pwm.util.localdb.LocalDB;
-import password.pwm.util.localdb.LocalDBStoredQueue;
 import password.pwm.util.logging.PwmLogEvent;
 
 import java.io.File;
@@ -31,7 +30,7 @@ import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Map;
 
 public class ExportLogsCommand extends AbstractCliCommand
 {
@@ -41,23 +40,24 @@ public class ExportLogsCommand extends AbstractCliCommand
             throws Exception
     {
         final LocalDB localDB = this.cliEnvironment.getLocalDB();
-        final LocalDBStoredQueue logQueue = LocalDBStoredQueue.createLocalDBStoredQueue( null, localDB,
-                LocalDB.DB.EVENTLOG_EVENTS );
+        final long eventCount = localDB.size( LocalDB.DB.EVENTLOG_EVENTS );
 
-        if ( logQueue.isEmpty() )
+        if ( eventCount == 0 )
         {
             out( "no logs present" );
             return;
         }
 
         final File outputFile = ( File ) cliEnvironment.getOptions().get( CliParameters.REQUIRED_NEW_OUTPUT_FILE.getName() );
-        out( "outputting " + logQueue.size() + " log events to " + outputFile.getAbsolutePath() + "...." );
+        out( "outputting " + eventCount + " log events to " + outputFile.getAbsolutePath() + "...." );
 
-        try ( Writer outputWriter = new OutputStreamWriter( new FileOutputStream( outputFile ), PwmConstants.DEFAULT_CHARSET ) )
+        // events are keyed by sequence, so key order is oldest first
+        try ( Writer outputWriter = new OutputStreamWriter( new FileOutputStream( outputFile ), PwmConstants.DEFAULT_CHARSET );
+              LocalDB.LocalDBIterator<Map.Entry<String, String>> iter = localDB.iterator( LocalDB.DB.EVENTLOG_EVENTS, null, null ) )
         {
-            for ( final Iterator<String> iter = logQueue.descendingIterator(); iter.hasNext(); )
+            while ( iter.hasNext() )
             {
-                final String loopString = iter.next();
+                final String loopString = iter.next().getValue();
                 final PwmLogEvent logEvent = PwmLogEvent.fromEncodedString( loopString );
                 if ( logEvent != null )
                 {
@@ -0,0 +1,135 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.java;
+
+import password.pwm.PwmConstants;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Reads records written by {@link CompactRecordWriter}.  Enum values resolve to the shared enum constants, and malformed
+ * or truncated input is reported as an {@link IOException}.
+ */
+public final class CompactRecordReader
+{
+    private static final ClassValue<Object[]> ENUM_CONSTANTS = new ClassValue<>()
+    {
+        @Override
+        protected Object[] computeValue( final Class<?> type )
+        {
+            return type.getEnumConstants();
+        }
+    };
+
+    private final byte[] buffer;
+    private int position;
+
+    public CompactRecordReader( final byte[] buffer )
+    {
+        this.buffer = buffer;
+    }
+
+    public int readByte() throws IOException
+    {
+        if ( position >= buffer.length )
+        {
+            throw new IOException( "unexpected end of record at position " + position );
+        }
+        return buffer[ position++ ] & 0xFF;
+    }
+
+    public long readVarLong() throws IOException
+    {
+        long value = 0;
+        for ( int shift = 0; shift < 64; shift += 7 )
+        {
+            final int nextByte = readByte();
+            value |= ( long ) ( nextByte & 0x7F ) << shift;
+            if ( ( nextByte & 0x80 ) == 0 )
+            {
+                return value;
+            }
+        }
+        throw new IOException( "malformed varint at position " + position );
+    }
+
+    public int readVarInt() throws IOException
+    {
+        final long value = readVarLong();
+        if ( value < 0 || value > Integer.MAX_VALUE )
+        {
+            throw new IOException( "varint value " + value + " out of range at position " + position );
+        }
+        return ( int ) value;
+    }
+
+    public long readZigZag() throws IOException
+    {
+        final long value = readVarLong();
+        return ( value >>> 1 ) ^ -( value & 1 );
+    }
+
+    public String readString() throws IOException
+    {
+        final int lengthValue = readVarInt();
+        if ( lengthValue == 0 )
+        {
+            return null;
+        }
+
+        final int length = lengthValue - 1;
+        if ( length > buffer.length - position )
+        {
+            throw new IOException( "string length " + length + " exceeds record length at position " + position );
+        }
+
+        final String value = new String( buffer, position, length, PwmConstants.DEFAULT_CHARSET );
+        position += length;
+        return value;
+    }
+
+    public Instant readInstant() throws IOException
+    {
+        final int nanoValue = readVarInt();
+        if ( nanoValue == 0 )
+        {
+            return null;
+        }
+        return Instant.ofEpochSecond( readZigZag(), nanoValue - 1 );
+    }
+
+    public <E extends Enum<E>> E readEnum( final Class<E> enumClass ) throws IOException
+    {
+        final int ordinalValue = readVarInt();
+        if ( ordinalValue == 0 )
+        {
+            return null;
+        }
+
+        final Object[] constants = ENUM_CONSTANTS.get( enumClass );
+        if ( ordinalValue > constants.length )
+        {
+            throw new IOException( "unknown " + enumClass.getSimpleName() + " ordinal " + ( ordinalValue - 1 ) );
+        }
+        return enumClass.cast( constants[ ordinalValue - 1 ] );
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.java;
+
+import password.pwm.PwmConstants;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Writes records in a compact binary form: integers as varints, strings as length-prefixed UTF-8 and enums as ordinals.
+ * Nullable values take a single byte when absent.  Read the output with {@link CompactRecordReader}.
+ *
+ * <p>Enum ordinals are persisted, so new constants of a written enum type must be appended rather than inserted.</p>
+ */
+public final class CompactRecordWriter
+{
+    private byte[] buffer;
+    private int length;
+
+    public CompactRecordWriter( final int initialCapacity )
+    {
+        buffer = new byte[ Math.max( 16, initialCapacity ) ];
+    }
+
+    public CompactRecordWriter writeByte( final int value )
+    {
+        ensureCapacity( 1 );
+        buffer[ length++ ] = ( byte ) value;
+        return this;
+    }
+
+    public CompactRecordWriter writeVarLong( final long value )
+    {
+        ensureCapacity( 10 );
+        long remaining = value;
+        while ( ( remaining & ~0x7FL ) != 0 )
+        {
+            buffer[ length++ ] = ( byte ) ( ( remaining & 0x7F ) | 0x80 );
+            remaining >>>= 7;
+        }
+        buffer[ length++ ] = ( byte ) remaining;
+        return this;
+    }
+
+    public CompactRecordWriter writeZigZag( final long value )
+    {
+        return writeVarLong( ( value << 1 ) ^ ( value >> 63 ) );
+    }
+
+    public CompactRecordWriter writeString( final String value )
+    {
+        if ( value == null )
+        {
+            return writeVarLong( 0 );
+        }
+
+        final byte[] bytes = value.getBytes( PwmConstants.DEFAULT_CHARSET );
+        writeVarLong( bytes.length + 1L );
+        ensureCapacity( bytes.length );
+        System.arraycopy( bytes, 0, buffer, length, bytes.length );
+        length += bytes.length;
+        return this;
+    }
+
+    public CompactRecordWriter writeInstant( final Instant value )
+    {
+        if ( value == null )
+        {
+            return writeVarLong( 0 );
+        }
+
+        writeVarLong( value.getNano() + 1L );
+        return writeZigZag( value.getEpochSecond() );
+    }
+
+    public CompactRecordWriter writeEnum( final Enum<?> value )
+    {
+        return writeVarLong( value == null ? 0 : value.ordinal() + 1L );
+    }
+
+    public byte[] toByteArray()
+    {
+        return Arrays.copyOf( buffer, length );
+    }
+
+    private void ensureCapacity( final int additional )
+    {
+        if ( length + additional > buffer.length )
+        {
+            buffer = Arrays.copyOf( buffer, Math.max( buffer.length * 2, length + additional ) );
+        }
+    }
+}
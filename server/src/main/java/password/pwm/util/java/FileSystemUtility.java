@@ -210,23 +210,25 @@ public class FileSystemUtility
         }
     }
 
-    private static long crc32( final File file )
+    public static long crc32( final File file )
             throws IOException
     {
         final CRC32 crc32 = new CRC32();
-        final FileChannel fileChannel = FileChannel.open( file.toPath() );
-        final int bufferSize = (int) Math.min( file.length(), CRC_BUFFER_SIZE );
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect( bufferSize );
-
-        while ( fileChannel.read( byteBuffer ) > 0 )
+        try ( FileChannel fileChannel = FileChannel.open( file.toPath() ) )
         {
-            // redundant cast to buffer to solve jdk8/9 inter-op issue
-            ( ( Buffer ) byteBuffer ).flip();
+            final int bufferSize = (int) Math.max( 1, Math.min( file.length(), CRC_BUFFER_SIZE ) );
+            final ByteBuffer byteBuffer = ByteBuffer.allocateDirect( bufferSize );
+
+            while ( fileChannel.read( byteBuffer ) > 0 )
+            {
+                // redundant cast to buffer to solve jdk8/9 inter-op issue
+                ( ( Buffer ) byteBuffer ).flip();
 
-            crc32.update( byteBuffer );
+                crc32.update( byteBuffer );
 
-            // redundant cast to buffer to solve jdk8/9 inter-op issue
-            ( ( Buffer ) byteBuffer ).clear();
+                // redundant cast to buffer to solve jdk8/9 inter-op issue
+                ( ( Buffer ) byteBuffer ).clear();
+            }
         }
 
         return crc32.getValue();
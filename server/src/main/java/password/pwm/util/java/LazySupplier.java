@@ -63,7 +63,7 @@ public class LazySupplier<T> implements Supplier<T>
 
     private static class LazyCheckedSupplier<T, E extends Exception> implements CheckedSupplier<T, E>
     {
-        private boolean supplied = false;
+        private volatile boolean supplied = false;
         private T value;
         private final CheckedSupplier<T, E> realCallable;
 
@@ -243,12 +243,7 @@ class GsonJsonAdaptors
         @Override
         public DomainID deserialize( final JsonElement json, final Type typeOfT, final JsonDeserializationContext context ) throws JsonParseException
         {
-            final String sValue = json.getAsString();
-            if ( DomainID.systemId().toString().equals( sValue ) )
-            {
-                return DomainID.systemId();
-            }
-            return DomainID.create( json.getAsString() );
+            return DomainID.fromStringValue( json.getAsString() );
         }
 
         @Override
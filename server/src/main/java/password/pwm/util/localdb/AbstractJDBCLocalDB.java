@@ -37,9 +37,12 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.Instant;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -53,6 +56,7 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
 
     private static final String KEY_COLUMN = "id";
     private static final String VALUE_COLUMN = "value";
+    private static final int MULTI_KEY_BATCH_SIZE = 100;
     private static final int ITERATOR_LIMIT = 100;
 
     private static final String WIDTH_KEY = String.valueOf( LocalDB.MAX_KEY_LENGTH );
@@ -244,6 +248,13 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
         return get( db, key ).isPresent();
     }
 
+    @Override
+    public Optional<byte[]> getBytes( final LocalDB.DB db, final String key )
+            throws LocalDBException
+    {
+        return get( db, key ).map( LocalDBBinaryValues::fromText );
+    }
+
     @Override
     public Optional<String> get( final LocalDB.DB db, final String key )
             throws LocalDBException
@@ -279,6 +290,117 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
         return Optional.empty();
     }
 
+    @Override
+    public Map<String, String> getAll( final LocalDB.DB db, final Collection<String> keys )
+            throws LocalDBException
+    {
+        preCheck( false );
+        final Map<String, String> returnMap = new HashMap<>();
+        try
+        {
+            lock.readLock().lock();
+            for ( final List<String> keyBatch : batchKeys( keys ) )
+            {
+                try ( PreparedStatement statement = dbConnection.prepareStatement( makeMultiKeySelectSql( db, KEY_COLUMN + ", " + VALUE_COLUMN, keyBatch.size() ) ) )
+                {
+                    bindKeys( statement, keyBatch );
+                    try ( ResultSet resultSet = statement.executeQuery() )
+                    {
+                        while ( resultSet.next() )
+                        {
+                            returnMap.put( resultSet.getString( KEY_COLUMN ), resultSet.getString( VALUE_COLUMN ) );
+                        }
+                    }
+                }
+            }
+        }
+        catch ( final SQLException ex )
+        {
+            throw new LocalDBException( new ErrorInformation( PwmError.ERROR_LOCALDB_UNAVAILABLE, ex.getMessage() ) );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+        return Collections.unmodifiableMap( returnMap );
+    }
+
+    @Override
+    public boolean containsAny( final LocalDB.DB db, final Collection<String> keys )
+            throws LocalDBException
+    {
+        preCheck( false );
+        try
+        {
+            lock.readLock().lock();
+            for ( final List<String> keyBatch : batchKeys( keys ) )
+            {
+                try ( PreparedStatement statement = dbConnection.prepareStatement( makeMultiKeySelectSql( db, KEY_COLUMN, keyBatch.size() ) ) )
+                {
+                    bindKeys( statement, keyBatch );
+                    statement.setMaxRows( 1 );
+                    try ( ResultSet resultSet = statement.executeQuery() )
+                    {
+                        if ( resultSet.next() )
+                        {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        catch ( final SQLException ex )
+        {
+            throw new LocalDBException( new ErrorInformation( PwmError.ERROR_LOCALDB_UNAVAILABLE, ex.getMessage() ) );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+        return false;
+    }
+
+    private static List<List<String>> batchKeys( final Collection<String> keys )
+    {
+        final List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        for ( final String key : keys )
+        {
+            batch.add( key );
+            if ( batch.size() >= MULTI_KEY_BATCH_SIZE )
+            {
+                batches.add( batch );
+                batch = new ArrayList<>();
+            }
+        }
+        if ( !batch.isEmpty() )
+        {
+            batches.add( batch );
+        }
+        return batches;
+    }
+
+    private static String makeMultiKeySelectSql( final LocalDB.DB db, final String columns, final int keyCount )
+    {
+        final StringBuilder sb = new StringBuilder();
+        sb.append( "SELECT " ).append( columns ).append( " FROM " ).append( db ).append( " WHERE " + KEY_COLUMN + " IN (" );
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            sb.append( i == 0 ? "?" : ",?" );
+        }
+        sb.append( ')' );
+        return sb.toString();
+    }
+
+    private static void bindKeys( final PreparedStatement statement, final List<String> keys )
+            throws SQLException
+    {
+        for ( int i = 0; i < keys.size(); i++ )
+        {
+            statement.setString( i + 1, keys.get( i ) );
+        }
+    }
+
     @Override
     public void init( final File dbDirectory, final Map<String, String> initParams, final Map<Parameter, String> parameters )
             throws LocalDBException
@@ -299,6 +421,18 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
     @Override
     public LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator( final LocalDB.DB db )
             throws LocalDBException
+    {
+        return iterator( db, null, null, false );
+    }
+
+    @Override
+    public LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator(
+            final LocalDB.DB db,
+            final String fromKey,
+            final String toKey,
+            final boolean reverse
+    )
+            throws LocalDBException
     {
         try
         {
@@ -307,7 +441,7 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
                 throw new LocalDBException( new ErrorInformation( PwmError.ERROR_INTERNAL, "over " + ITERATOR_LIMIT + " iterators are outstanding, maximum limit exceeded" ) );
             }
 
-            final LocalDB.LocalDBIterator iterator = new DbIterator( db );
+            final LocalDB.LocalDBIterator iterator = new DbIterator( db, fromKey, toKey, reverse );
             dbIterators.add( iterator );
             LOGGER.trace( () -> this.getClass().getSimpleName() + " issued iterator for " + db.toString() + ", outstanding iterators: " + dbIterators.size() );
             return iterator;
@@ -321,8 +455,65 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
     @Override
     public void putAll( final LocalDB.DB db, final Map<String, String> keyValueMap )
             throws LocalDBException
+    {
+        writeBatch( db, keyValueMap, Collections.emptyList() );
+    }
+
+    @Override
+    public void writeBatch( final LocalDB.DB db, final Map<String, String> putValues, final Collection<String> removeKeys )
+            throws LocalDBException
     {
         preCheck( true );
+
+        try
+        {
+            lock.writeLock().lock();
+            addBatch( db, putValues, removeKeys );
+            dbConnection.commit();
+        }
+        catch ( final SQLException ex )
+        {
+            rollback();
+            throw new LocalDBException( new ErrorInformation( PwmError.ERROR_LOCALDB_UNAVAILABLE, ex.getMessage() ) );
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void writeBatch( final Map<LocalDB.DB, Map<String, String>> putValues )
+            throws LocalDBException
+    {
+        preCheck( true );
+
+        try
+        {
+            lock.writeLock().lock();
+            for ( final Map.Entry<LocalDB.DB, Map<String, String>> entry : putValues.entrySet() )
+            {
+                addBatch( entry.getKey(), entry.getValue(), Collections.emptyList() );
+            }
+            dbConnection.commit();
+        }
+        catch ( final SQLException ex )
+        {
+            rollback();
+            throw new LocalDBException( new ErrorInformation( PwmError.ERROR_LOCALDB_UNAVAILABLE, ex.getMessage() ) );
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Execute the statements for a batch without committing.  Must be called while holding the write lock.
+     */
+    private void addBatch( final LocalDB.DB db, final Map<String, String> putValues, final Collection<String> removeKeys )
+            throws SQLException
+    {
         PreparedStatement insertStatement = null;
         PreparedStatement removeStatement = null;
 
@@ -331,12 +522,18 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
 
         try
         {
-            lock.writeLock().lock();
             // just in case anyone was unclear: sql does indeed suck.
             removeStatement = dbConnection.prepareStatement( removeSqlString );
             insertStatement = dbConnection.prepareStatement( insertSqlString );
 
-            for ( final Map.Entry<String, String> entry : keyValueMap.entrySet() )
+            for ( final String loopKey : removeKeys )
+            {
+                removeStatement.clearParameters();
+                removeStatement.setString( 1, loopKey );
+                removeStatement.addBatch();
+            }
+
+            for ( final Map.Entry<String, String> entry : putValues.entrySet() )
             {
                 final String loopKey = entry.getKey();
                 removeStatement.clearParameters();
@@ -351,20 +548,33 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
 
             removeStatement.executeBatch();
             insertStatement.executeBatch();
-            dbConnection.commit();
-        }
-        catch ( final SQLException ex )
-        {
-            throw new LocalDBException( new ErrorInformation( PwmError.ERROR_LOCALDB_UNAVAILABLE, ex.getMessage() ) );
         }
         finally
         {
             close( removeStatement );
             close( insertStatement );
-            lock.writeLock().unlock();
+        }
+    }
+
+    private void rollback( )
+    {
+        try
+        {
+            dbConnection.rollback();
+        }
+        catch ( final SQLException e )
+        {
+            LOGGER.warn( () -> "error rolling back batch write: " + e.getMessage() );
         }
     }
 
+    @Override
+    public boolean putBytes( final LocalDB.DB db, final String key, final byte[] value )
+            throws LocalDBException
+    {
+        return put( db, key, LocalDBBinaryValues.toText( value ) );
+    }
+
     @Override
     public boolean put( final LocalDB.DB db, final String key, final String value )
             throws LocalDBException
@@ -613,26 +823,56 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
     {
         private Map.Entry<String, String> nextItem;
 
+        private PreparedStatement statement;
         private ResultSet resultSet;
         private final LocalDB.DB db;
 
-        private DbIterator( final LocalDB.DB db ) throws LocalDBException
+        private DbIterator( final LocalDB.DB db, final String fromKey, final String toKey, final boolean reverse ) throws LocalDBException
         {
             this.db = db;
-            init();
+            init( fromKey, toKey, reverse );
             fetchNext();
         }
 
-        private void init( ) throws LocalDBException
+        private void init( final String fromKey, final String toKey, final boolean reverse ) throws LocalDBException
         {
-            final String sqlText = "SELECT * FROM " + db.toString();
+            final StringBuilder sqlText = new StringBuilder( "SELECT * FROM " + db.toString() );
+            if ( fromKey != null || toKey != null )
+            {
+                sqlText.append( " WHERE " );
+                if ( fromKey != null )
+                {
+                    sqlText.append( KEY_COLUMN ).append( " >= ?" );
+                }
+                if ( fromKey != null && toKey != null )
+                {
+                    sqlText.append( " AND " );
+                }
+                if ( toKey != null )
+                {
+                    sqlText.append( KEY_COLUMN ).append( " < ?" );
+                }
+            }
+            sqlText.append( " ORDER BY " ).append( KEY_COLUMN ).append( reverse ? " DESC" : " ASC" );
 
-            try ( PreparedStatement statement = dbConnection.prepareStatement( sqlText ) )
+            // the statement must stay open for the life of the result set, so it is closed by close() rather than here
+            try
             {
+                statement = dbConnection.prepareStatement( sqlText.toString() );
+                int index = 1;
+                if ( fromKey != null )
+                {
+                    statement.setString( index++, fromKey );
+                }
+                if ( toKey != null )
+                {
+                    statement.setString( index, toKey );
+                }
                 resultSet = statement.executeQuery();
             }
             catch ( final SQLException ex )
             {
+                AbstractJDBCLocalDB.close( statement );
                 throw new LocalDBException( new ErrorInformation( PwmError.ERROR_LOCALDB_UNAVAILABLE, ex.getMessage() ) );
             }
         }
@@ -675,6 +915,7 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
         {
             nextItem = null;
             AbstractJDBCLocalDB.close( resultSet );
+            AbstractJDBCLocalDB.close( statement );
             dbIterators.remove( this );
         }
 
@@ -63,13 +63,110 @@ public interface LocalDB
     Optional<String> get( DB db, String key )
             throws LocalDBException;
 
+    /**
+     * Read a binary value.  Values written through the {@code String} API are returned as their UTF-8 bytes.
+     *
+     * @param db  database to perform the operation on
+     * @param key key value
+     * @return the stored bytes, or empty if the key is not present
+     * @throws LocalDBException if there is an error reading from the store
+     */
+    @ReadOperation
+    Optional<byte[]> getBytes( DB db, String key )
+            throws LocalDBException;
+
+    /**
+     * Read multiple keys within a single read transaction.
+     *
+     * @param db   database to perform the operation on
+     * @param keys keys to read
+     * @return map of the keys that are present to their values, keys that are not present are omitted
+     * @throws LocalDBException if there is an error reading from the store
+     */
+    @ReadOperation
+    Map<String, String> getAll( DB db, Collection<String> keys )
+            throws LocalDBException;
+
+    /**
+     * Test multiple keys within a single read transaction, stopping at the first key found.
+     *
+     * @param db   database to perform the operation on
+     * @param keys keys to test
+     * @return true if at least one of the keys is present
+     * @throws LocalDBException if there is an error reading from the store
+     */
+    @ReadOperation
+    boolean containsAny( DB db, Collection<String> keys )
+            throws LocalDBException;
+
     LocalDBIterator<Map.Entry<String, String>> iterator( DB db )
             throws LocalDBException;
 
+    /**
+     * Iterate over the keys within a range in ascending key order.  The returned iterator holds store resources
+     * (such as a read transaction or cursor) until it is exhausted or {@link LocalDBIterator#close()} is called.
+     *
+     * @param db      database to perform the operation on
+     * @param fromKey lowest key to include (inclusive), or null to start at the first key
+     * @param toKey   key to stop at (exclusive), or null to continue to the last key
+     * @return iterator of the entries within the range
+     * @throws LocalDBException if there is an error reading from the store
+     */
+    LocalDBIterator<Map.Entry<String, String>> iterator( DB db, String fromKey, String toKey )
+            throws LocalDBException;
+
+    /**
+     * Iterate over the keys within a range in descending key order.  The range bounds have the same meaning
+     * as {@link #iterator(DB, String, String)}, so the first entry returned is the highest key less than {@code toKey}.
+     *
+     * @param db      database to perform the operation on
+     * @param fromKey lowest key to include (inclusive), or null to continue to the first key
+     * @param toKey   key to stop at (exclusive), or null to start at the last key
+     * @return iterator of the entries within the range
+     * @throws LocalDBException if there is an error reading from the store
+     */
+    LocalDBIterator<Map.Entry<String, String>> reverseIterator( DB db, String fromKey, String toKey )
+            throws LocalDBException;
+
+    /**
+     * Iterate over the keys starting with {@code prefix} in ascending key order.
+     *
+     * @param db     database to perform the operation on
+     * @param prefix key prefix to match
+     * @return iterator of the matching entries
+     * @throws LocalDBException if there is an error reading from the store
+     */
+    LocalDBIterator<Map.Entry<String, String>> prefixIterator( DB db, String prefix )
+            throws LocalDBException;
+
     @WriteOperation
     void putAll( DB db, Map<String, String> keyValueMap )
             throws LocalDBException;
 
+    /**
+     * Apply a set of puts and removals within a single write transaction.  A key should not appear in both
+     * {@code putValues} and {@code removeKeys}.
+     *
+     * @param db         database to perform the operation on
+     * @param putValues  key/values to put, replacing any existing values
+     * @param removeKeys keys to remove
+     * @throws LocalDBException if there is an error writing to the store
+     */
+    @WriteOperation
+    void writeBatch( DB db, Map<String, String> putValues, Collection<String> removeKeys )
+            throws LocalDBException;
+
+    /**
+     * Put key/values into several databases within a single write transaction, so readers never observe the
+     * values of one database without the others.
+     *
+     * @param putValues key/values to put for each database, replacing any existing values
+     * @throws LocalDBException if there is an error writing to the store
+     */
+    @WriteOperation
+    void writeBatch( Map<DB, Map<String, String>> putValues )
+            throws LocalDBException;
+
     Status status( );
 
     /**
@@ -89,6 +186,22 @@ public interface LocalDB
     boolean put( DB db, String key, String value )
             throws LocalDBException;
 
+    /**
+     * Put a binary value into a database, replacing any existing value.  Binary values read through the
+     * {@code String} API are returned in the text form described by {@link LocalDBBinaryValues}.
+     *
+     * @param db    database to perform the operation on
+     * @param key   key value
+     * @param value binary value
+     * @return true if the key previously existed
+     * @throws LocalDBException         if there is an error writing to the store
+     * @throws NullPointerException     if the db, key or value is null
+     * @throws IllegalArgumentException if the key is zero length, the key is larger than {@link #MAX_KEY_LENGTH} or the value is larger than {@link #MAX_VALUE_LENGTH}
+     */
+    @WriteOperation
+    boolean putBytes( DB db, String key, byte[] value )
+            throws LocalDBException;
+
     @WriteOperation
     boolean putIfAbsent( DB db, String key, String value )
             throws LocalDBException;
@@ -139,7 +252,8 @@ public interface LocalDB
         TEMP(  ),
         SYSLOG_QUEUE( Flag.Backup ),
         CACHE(  ),
-        REPORT_QUEUE( ),;
+        REPORT_QUEUE( ),
+        EVENTLOG_INDEX( Flag.Backup ),;
 
         private final boolean backup;
 
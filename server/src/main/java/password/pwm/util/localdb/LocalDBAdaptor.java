@@ -86,6 +86,55 @@ public class LocalDBAdaptor implements LocalDB
         return value;
     }
 
+    @Override
+    public Optional<byte[]> getBytes( final DB db, final String key ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        ParameterValidator.validateKeyValue( key );
+
+        final Optional<byte[]> value = innerDB.getBytes( db, key );
+        markRead();
+        return value;
+    }
+
+    @Override
+    public Map<String, String> getAll( final DB db, final Collection<String> keys ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        for ( final String key : keys )
+        {
+            ParameterValidator.validateKeyValue( key );
+        }
+
+        if ( keys.isEmpty() )
+        {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, String> values = innerDB.getAll( db, keys );
+        markRead( keys.size() );
+        return values;
+    }
+
+    @Override
+    public boolean containsAny( final DB db, final Collection<String> keys ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        for ( final String key : keys )
+        {
+            ParameterValidator.validateKeyValue( key );
+        }
+
+        if ( keys.isEmpty() )
+        {
+            return false;
+        }
+
+        final boolean value = innerDB.containsAny( db, keys );
+        markRead( keys.size() );
+        return value;
+    }
+
     @WriteOperation
     public void init( final File dbDirectory, final Map<String, String> initParameters, final Map<LocalDBProvider.Parameter, String> parameters ) throws LocalDBException
     {
@@ -98,6 +147,49 @@ public class LocalDBAdaptor implements LocalDB
         return innerDB.iterator( db );
     }
 
+    @Override
+    public LocalDBIterator<Map.Entry<String, String>> iterator( final DB db, final String fromKey, final String toKey ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        ParameterValidator.validateRangeValues( fromKey, toKey );
+        return innerDB.iterator( db, fromKey, toKey, false );
+    }
+
+    @Override
+    public LocalDBIterator<Map.Entry<String, String>> reverseIterator( final DB db, final String fromKey, final String toKey ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        ParameterValidator.validateRangeValues( fromKey, toKey );
+        return innerDB.iterator( db, fromKey, toKey, true );
+    }
+
+    @Override
+    public LocalDBIterator<Map.Entry<String, String>> prefixIterator( final DB db, final String prefix ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        ParameterValidator.validateKeyValue( prefix );
+        return innerDB.iterator( db, prefix, prefixUpperBound( prefix ), false );
+    }
+
+    /**
+     * Returns the smallest key greater than every key starting with {@code prefix}, or null if no such key exists.
+     */
+    static String prefixUpperBound( final String prefix )
+    {
+        int index = prefix.length() - 1;
+        while ( index >= 0 && prefix.charAt( index ) == Character.MAX_VALUE )
+        {
+            index--;
+        }
+
+        if ( index < 0 )
+        {
+            return null;
+        }
+
+        return prefix.substring( 0, index ) + (char) ( prefix.charAt( index ) + 1 );
+    }
+
     @Override
     public Map<String, Serializable> debugInfo( )
     {
@@ -131,6 +223,55 @@ public class LocalDBAdaptor implements LocalDB
         markWrite( keyValueMap.size() );
     }
 
+    @Override
+    @WriteOperation
+    public void writeBatch( final DB db, final Map<String, String> putValues, final Collection<String> removeKeys ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        for ( final Map.Entry<String, String> entry : putValues.entrySet() )
+        {
+            ParameterValidator.validateKeyValue( entry.getKey() );
+            ParameterValidator.validateValueValue( entry.getValue() );
+        }
+        for ( final String loopKey : removeKeys )
+        {
+            ParameterValidator.validateKeyValue( loopKey );
+        }
+
+        if ( putValues.isEmpty() && removeKeys.isEmpty() )
+        {
+            return;
+        }
+
+        innerDB.writeBatch( db, putValues, removeKeys );
+        markWrite( putValues.size() + removeKeys.size() );
+    }
+
+    @Override
+    @WriteOperation
+    public void writeBatch( final Map<DB, Map<String, String>> putValues ) throws LocalDBException
+    {
+        int writeCount = 0;
+        for ( final Map.Entry<DB, Map<String, String>> dbEntry : putValues.entrySet() )
+        {
+            ParameterValidator.validateDBValue( dbEntry.getKey() );
+            for ( final Map.Entry<String, String> entry : dbEntry.getValue().entrySet() )
+            {
+                ParameterValidator.validateKeyValue( entry.getKey() );
+                ParameterValidator.validateValueValue( entry.getValue() );
+            }
+            writeCount += dbEntry.getValue().size();
+        }
+
+        if ( writeCount == 0 )
+        {
+            return;
+        }
+
+        innerDB.writeBatch( putValues );
+        markWrite( writeCount );
+    }
+
     @Override
     @WriteOperation
     public boolean put( final DB db, final String key, final String value ) throws LocalDBException
@@ -145,6 +286,20 @@ public class LocalDBAdaptor implements LocalDB
         return preExisting;
     }
 
+    @Override
+    @WriteOperation
+    public boolean putBytes( final DB db, final String key, final byte[] value ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        ParameterValidator.validateKeyValue( key );
+        ParameterValidator.validateBytesValue( value );
+
+        final boolean preExisting = innerDB.putBytes( db, key, value );
+
+        markWrite( 1 );
+        return preExisting;
+    }
+
     @Override
     @WriteOperation
     public boolean putIfAbsent( final DB db, final String key, final String value ) throws LocalDBException
@@ -251,6 +406,33 @@ public class LocalDBAdaptor implements LocalDB
             }
         }
 
+        private static void validateRangeValues( final String fromKey, final String toKey ) throws LocalDBException
+        {
+            if ( fromKey != null )
+            {
+                validateKeyValue( fromKey );
+            }
+
+            if ( toKey != null )
+            {
+                validateKeyValue( toKey );
+            }
+        }
+
+        private static void validateBytesValue( final byte[] value ) throws LocalDBException
+        {
+            if ( value == null )
+            {
+                throw new NullPointerException( "value cannot be null" );
+            }
+
+            if ( value.length > LocalDB.MAX_VALUE_LENGTH )
+            {
+                final String errorMsg = "value length " + value.length + " is greater than max " + LocalDB.MAX_VALUE_LENGTH;
+                throw new LocalDBException( new ErrorInformation( PwmError.ERROR_INTERNAL, errorMsg ) );
+            }
+        }
+
         private static void validateValueValue( final String value ) throws LocalDBException
         {
             if ( value == null )
@@ -271,6 +453,11 @@ public class LocalDBAdaptor implements LocalDB
         stats.increment( DebugKey.readOperations );
     }
 
+    private void markRead( final int events )
+    {
+        stats.increment( DebugKey.readOperations, events );
+    }
+
     private void markWrite( final int events )
     {
         stats.increment( DebugKey.writeOperations, events );
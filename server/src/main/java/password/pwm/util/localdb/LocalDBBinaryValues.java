@@ -0,0 +1,62 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import password.pwm.PwmConstants;
+
+import java.util.Base64;
+
+/**
+ * Text form of binary LocalDB values.  Binary values read through the {@code String} API (for example by an iterator or a
+ * backup export) are returned in this form, and a value in this form written through the {@code String} API is stored as
+ * binary.  Providers without native binary storage keep binary values in this form.
+ */
+public final class LocalDBBinaryValues
+{
+    private static final String TEXT_PREFIX = "\u0000b64:";
+
+    private LocalDBBinaryValues()
+    {
+    }
+
+    public static String toText( final byte[] value )
+    {
+        return TEXT_PREFIX + Base64.getEncoder().encodeToString( value );
+    }
+
+    public static boolean isText( final String value )
+    {
+        return value != null && value.startsWith( TEXT_PREFIX );
+    }
+
+    /**
+     * Returns the bytes of a stored value.  Values in binary text form are decoded, any other value is returned as its
+     * UTF-8 bytes so that readers can recognize values written before they switched to a binary encoding.
+     */
+    public static byte[] fromText( final String value )
+    {
+        if ( isText( value ) )
+        {
+            return Base64.getDecoder().decode( value.substring( TEXT_PREFIX.length() ) );
+        }
+        return value.getBytes( PwmConstants.DEFAULT_CHARSET );
+    }
+}
@@ -57,6 +57,12 @@ public class LocalDBDataStore implements DataStore
         return localDB.get( db, key );
     }
 
+    @Override
+    public Optional<byte[]> getBytes( final String key ) throws PwmDataStoreException
+    {
+        return localDB.getBytes( db, key );
+    }
+
     @Override
     public ClosableIterator<Map.Entry<String, String>> iterator( ) throws PwmDataStoreException
     {
@@ -98,6 +104,12 @@ public class LocalDBDataStore implements DataStore
         return localDB.put( db, key, value );
     }
 
+    @Override
+    public boolean putBytes( final String key, final byte[] value ) throws PwmDataStoreException
+    {
+        return localDB.putBytes( db, key, value );
+    }
+
     @Override
     public boolean putIfAbsent( final String key, final String value ) throws PwmDataStoreException
     {
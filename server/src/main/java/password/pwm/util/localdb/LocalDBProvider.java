@@ -53,6 +53,18 @@ public interface LocalDBProvider
     Optional<String> get( LocalDB.DB db, String key )
             throws LocalDBException;
 
+    @LocalDB.ReadOperation
+    Optional<byte[]> getBytes( LocalDB.DB db, String key )
+            throws LocalDBException;
+
+    @LocalDB.ReadOperation
+    Map<String, String> getAll( LocalDB.DB db, Collection<String> keys )
+            throws LocalDBException;
+
+    @LocalDB.ReadOperation
+    boolean containsAny( LocalDB.DB db, Collection<String> keys )
+            throws LocalDBException;
+
     @LocalDB.WriteOperation
     void init( File dbDirectory, Map<String, String> initParameters, Map<Parameter, String> parameters )
             throws LocalDBException;
@@ -60,14 +72,29 @@ public interface LocalDBProvider
     LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator( LocalDB.DB db )
             throws LocalDBException;
 
+    LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator( LocalDB.DB db, String fromKey, String toKey, boolean reverse )
+            throws LocalDBException;
+
     @LocalDB.WriteOperation
     void putAll( LocalDB.DB db, Map<String, String> keyValueMap )
             throws LocalDBException;
 
+    @LocalDB.WriteOperation
+    void writeBatch( LocalDB.DB db, Map<String, String> putValues, Collection<String> removeKeys )
+            throws LocalDBException;
+
+    @LocalDB.WriteOperation
+    void writeBatch( Map<LocalDB.DB, Map<String, String>> putValues )
+            throws LocalDBException;
+
     @LocalDB.WriteOperation
     boolean put( LocalDB.DB db, String key, String value )
             throws LocalDBException;
 
+    @LocalDB.WriteOperation
+    boolean putBytes( LocalDB.DB db, String key, byte[] value )
+            throws LocalDBException;
+
     @LocalDB.WriteOperation
     boolean putIfAbsent( LocalDB.DB db, String key, String value )
             throws LocalDBException;
@@ -20,17 +20,28 @@
 
 package password.pwm.util.localdb;
 
+import lombok.Builder;
+import lombok.Value;
+import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
+import password.pwm.PwmConstants;
+import password.pwm.config.AppConfig;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.PwmScheduler;
 import password.pwm.util.java.CollectionUtil;
 import password.pwm.util.java.ConditionalTaskExecutor;
+import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.secure.PwmHashAlgorithm;
+import password.pwm.util.secure.SecureEngine;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +50,11 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -61,17 +77,31 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
     private static final String KEY_TAIL_POSITION = "_TAIL_POSITION";
     private static final String KEY_VERSION = "_KEY_VERSION";
     private static final String VALUE_VERSION = "7a";
+    private static final String KEY_COMPLETION_MARKER_PREFIX = "_COMPLETED_";
 
     private final InternalQueue internalQueue;
 
+    /**
+     * Durability of group committed writes.
+     */
+    public enum Durability
+    {
+        /** Writers return once their write is committed; concurrent writers share a commit. */
+        SYNC,
+
+        /** Writers return immediately and writes are committed by a background flush. */
+        ASYNC,
+    }
+
     private LocalDBStoredQueue(
             final LocalDB localDB,
             final LocalDB.DB db,
-            final boolean developerDebug
+            final boolean developerDebug,
+            final Settings settings
     )
             throws LocalDBException
     {
-        this.internalQueue = new InternalQueue( localDB, db, developerDebug );
+        this.internalQueue = new InternalQueue( localDB, db, developerDebug, settings );
     }
 
     public static LocalDBStoredQueue createLocalDBStoredQueue(
@@ -83,16 +113,18 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
     {
 
         boolean developerDebug = false;
+        Settings settings = Settings.builder().build();
         try
         {
             developerDebug = pwmApplication.getConfig().isDevDebugMode();
+            settings = Settings.fromConfiguration( pwmApplication.getConfig() );
         }
         catch ( final Exception e )
         {
             LOGGER.debug( () -> "can't read app property for developerDebug mode: " + e.getMessage() );
         }
 
-        return new LocalDBStoredQueue( pwmDB, db, developerDebug );
+        return new LocalDBStoredQueue( pwmDB, db, developerDebug, settings );
     }
 
     public static LocalDBStoredQueue createLocalDBStoredQueue(
@@ -103,7 +135,50 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             throws LocalDBException
     {
 
-        return new LocalDBStoredQueue( pwmDB, db, debugEnabled );
+        return new LocalDBStoredQueue( pwmDB, db, debugEnabled, Settings.builder().build() );
+    }
+
+    public static LocalDBStoredQueue createLocalDBStoredQueue(
+            final LocalDB pwmDB,
+            final LocalDB.DB db,
+            final boolean debugEnabled,
+            final Settings settings
+    )
+            throws LocalDBException
+    {
+
+        return new LocalDBStoredQueue( pwmDB, db, debugEnabled, settings );
+    }
+
+    /**
+     * Commit any pending group commit writes.  Does nothing when group commit is disabled.
+     */
+    public void flush( )
+    {
+        try
+        {
+            internalQueue.flush();
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new IllegalStateException( "unexpected localDB error while flushing queue: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Commit any pending group commit writes and stop the background flush.  The queue remains usable, but
+     * {@link Durability#ASYNC} writes made after closing are committed synchronously.
+     */
+    public void close( )
+    {
+        try
+        {
+            internalQueue.close();
+        }
+        catch ( final LocalDBException e )
+        {
+            LOGGER.error( () -> "error flushing queue " + internalQueue.db + " during close: " + e.getMessage() );
+        }
     }
 
     public void removeLast( final int removalCount )
@@ -130,6 +205,59 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
         }
     }
 
+    /**
+     * Durably record that a value has been processed ahead of the head of the queue, for consumers that remove
+     * values only from the head.  Markers are removed along with their values by {@link #removeFirstCompleted(int)},
+     * or by {@link #clear()}.
+     *
+     * @param value a value currently in the queue.
+     */
+    public void addCompletionMarker( final String value )
+    {
+        try
+        {
+            internalQueue.addCompletionMarker( value );
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new IllegalStateException( "unexpected localDB error while modifying queue: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Read the values of all stored completion markers.
+     *
+     * @return values marked by {@link #addCompletionMarker(String)} and not yet removed.
+     */
+    public Set<String> readCompletionMarkers( )
+    {
+        try
+        {
+            return internalQueue.readCompletionMarkers();
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new IllegalStateException( "unexpected localDB error while reading queue: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Remove values from the head of the queue together with any completion markers for them, in a single write.
+     *
+     * @param removalCount number of values to remove.
+     */
+    public void removeFirstCompleted( final int removalCount )
+    {
+        try
+        {
+            internalQueue.removeFirstCompleted( removalCount );
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new IllegalStateException( "unexpected localDB error while modifying queue: " + e.getMessage(), e );
+        }
+    }
+
     @Override
     public boolean isEmpty( )
     {
@@ -597,7 +725,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             itemsRemaining.decrementAndGet();
             try
             {
-                final String nextValue = internalQueue.localDB.get( internalQueue.db, position.get().key() ).orElseThrow();
+                final String nextValue = internalQueue.readValue( position.get().key() ).orElseThrow();
                 if ( headFirst )
                 {
                     position.updateAndGet( position -> Objects.equals( position, internalQueue.tailPosition ) ? null : position.previous() );
@@ -731,7 +859,18 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 
         private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
-        private InternalQueue( final LocalDB localDB, final LocalDB.DB db, final boolean developerDebug )
+        private final Settings settings;
+        private final Lock flushLock = new ReentrantLock();
+        private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+        // group commit writes not yet committed to the LocalDB; an empty value marks a removal
+        private volatile Map<String, Optional<String>> pendingWrites = new ConcurrentHashMap<>();
+        private volatile Map<String, Optional<String>> flushingWrites = Collections.emptyMap();
+        private long pendingSequence;
+        private volatile long committedSequence;
+        private volatile ScheduledExecutorService flushExecutor;
+
+        private InternalQueue( final LocalDB localDB, final LocalDB.DB db, final boolean developerDebug, final Settings settings )
                 throws LocalDBException
         {
             lock.writeLock().lock();
@@ -755,7 +894,16 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
                 this.developerDebug = developerDebug;
                 this.localDB = localDB;
                 this.db = db;
+                this.settings = Objects.requireNonNull( settings );
                 init();
+
+                if ( settings.isGroupCommit() && settings.getDurability() == Durability.ASYNC )
+                {
+                    final long intervalMs = settings.getFlushInterval().asMillis();
+                    flushExecutor = Executors.newSingleThreadScheduledExecutor(
+                            PwmScheduler.makePwmThreadFactory( PwmConstants.PWM_APP_NAME + "-" + LocalDBStoredQueue.class.getSimpleName() + "-" + db + "-", true ) );
+                    flushExecutor.scheduleWithFixedDelay( this::flushQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS );
+                }
             }
             finally
             {
@@ -801,9 +949,13 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
         public void clear( )
                 throws LocalDBException
         {
+            flushLock.lock();
             lock.writeLock().lock();
             try
             {
+                pendingWrites = new ConcurrentHashMap<>();
+                flushingWrites = Collections.emptyMap();
+                committedSequence = pendingSequence;
                 localDB.truncate( db );
 
                 headPosition = new Position( "0" );
@@ -819,6 +971,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             finally
             {
                 lock.writeLock().unlock();
+                flushLock.unlock();
             }
         }
 
@@ -839,7 +992,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
         private long internalSize( )
                 throws LocalDBException
         {
-            if ( headPosition.equals( tailPosition ) && localDB.get( db, headPosition.toString() ).isEmpty() )
+            if ( headPosition.equals( tailPosition ) && readValue( headPosition.toString() ).isEmpty() )
             {
                 return 0;
             }
@@ -848,37 +1001,103 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 
         List<String> removeFirst( final int removalCount, final boolean returnValues ) throws LocalDBException
         {
+            final List<String> removedValues;
+            final long sequence;
             lock.writeLock().lock();
             try
             {
                 debugOutput( "pre removeFirst()" );
-                final List<String> removedValues = removeImpl( removalCount, returnValues, true );
+                removedValues = removeImpl( removalCount, returnValues, true, false );
+                sequence = pendingSequence;
                 debugOutput( "post removeFirst()" );
-                return removedValues;
             }
             finally
             {
                 lock.writeLock().unlock();
             }
+            awaitCommit( sequence );
+            return removedValues;
+        }
+
+        void removeFirstCompleted( final int removalCount ) throws LocalDBException
+        {
+            final long sequence;
+            lock.writeLock().lock();
+            try
+            {
+                debugOutput( "pre removeFirstCompleted()" );
+                removeImpl( removalCount, false, true, true );
+                sequence = pendingSequence;
+                debugOutput( "post removeFirstCompleted()" );
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+            awaitCommit( sequence );
+        }
+
+        void addCompletionMarker( final String value ) throws LocalDBException
+        {
+            final long sequence;
+            lock.writeLock().lock();
+            try
+            {
+                writeValues( Collections.singletonMap( completionMarkerKey( value ), value ), Collections.emptyList() );
+                sequence = pendingSequence;
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+            awaitCommit( sequence );
+        }
+
+        Set<String> readCompletionMarkers() throws LocalDBException
+        {
+            flush();
+
+            final Set<String> values = new HashSet<>();
+            lock.readLock().lock();
+            try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( db ) )
+            {
+                while ( iterator.hasNext() )
+                {
+                    final Map.Entry<String, String> entry = iterator.next();
+                    if ( entry.getKey().startsWith( KEY_COMPLETION_MARKER_PREFIX ) )
+                    {
+                        values.add( entry.getValue() );
+                    }
+                }
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+            return Collections.unmodifiableSet( values );
         }
 
         List<String> removeLast( final int removalCount, final boolean returnValues ) throws LocalDBException
         {
+            final List<String> removedValues;
+            final long sequence;
             lock.writeLock().lock();
             try
             {
                 debugOutput( "pre removeLast()" );
-                final List<String> removedValues = removeImpl( removalCount, returnValues, false );
+                removedValues = removeImpl( removalCount, returnValues, false, false );
+                sequence = pendingSequence;
                 debugOutput( "post removeLast()" );
-                return removedValues;
             }
             finally
             {
                 lock.writeLock().unlock();
             }
+            awaitCommit( sequence );
+            return removedValues;
         }
 
-        private List<String> removeImpl( final int removalCount, final boolean returnValues, final boolean forward )
+        private List<String> removeImpl( final int removalCount, final boolean returnValues, final boolean forward, final boolean removeCompletionMarkers )
                 throws LocalDBException
         {
             if ( removalCount < 1 )
@@ -893,10 +1112,20 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             while ( removedPositions < removalCount )
             {
                 removalKeys.add( loopPosition.key() );
-                if ( returnValues )
+                if ( returnValues || removeCompletionMarkers )
                 {
-                    final Optional<String> loopValue = localDB.get( db, loopPosition.key() );
-                    loopValue.ifPresent( removedValues::add );
+                    final Optional<String> loopValue = readValue( loopPosition.key() );
+                    if ( loopValue.isPresent() )
+                    {
+                        if ( returnValues )
+                        {
+                            removedValues.add( loopValue.get() );
+                        }
+                        if ( removeCompletionMarkers )
+                        {
+                            removalKeys.add( completionMarkerKey( loopValue.get() ) );
+                        }
+                    }
                 }
 
                 if ( forward )
@@ -910,8 +1139,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 
                 removedPositions++;
             }
-            localDB.removeAll( db, removalKeys );
-            localDB.put( db, forward ? KEY_HEAD_POSITION : KEY_TAIL_POSITION, loopPosition.key() );
+            writeValues( Collections.singletonMap( forward ? KEY_HEAD_POSITION : KEY_TAIL_POSITION, loopPosition.key() ), removalKeys );
 
             if ( forward )
             {
@@ -928,17 +1156,20 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
         void addFirst( final Collection<String> values )
                 throws LocalDBException
         {
+            final long sequence;
             lock.writeLock().lock();
             try
             {
                 debugOutput( "pre addFirst()" );
                 addImpl( values, true );
+                sequence = pendingSequence;
                 debugOutput( "post addFirst()" );
             }
             finally
             {
                 lock.writeLock().unlock();
             }
+            awaitCommit( sequence );
         }
 
         String[] toArray()
@@ -966,17 +1197,20 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 
         void addLast( final Collection<String> values ) throws LocalDBException
         {
+            final long sequence;
             lock.writeLock().lock();
             try
             {
                 debugOutput( "pre addLast()" );
                 addImpl( values, false );
+                sequence = pendingSequence;
                 debugOutput( "post addLast()" );
             }
             finally
             {
                 lock.writeLock().unlock();
             }
+            awaitCommit( sequence );
         }
 
         private void addImpl( final Collection<String> values, final boolean forward )
@@ -1009,7 +1243,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
 
             keyValueMap.put( forward ? KEY_HEAD_POSITION : KEY_TAIL_POSITION, loopPosition.key() );
-            localDB.putAll( db, keyValueMap );
+            writeValues( keyValueMap, Collections.emptyList() );
 
             if ( forward )
             {
@@ -1076,13 +1310,218 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             Position nextPosition = forward ? headPosition : tailPosition;
             while ( returnList.size() < getCount )
             {
-                returnList.add( localDB.get( db, nextPosition.key() ).orElseThrow() );
+                returnList.add( readValue( nextPosition.key() ).orElseThrow() );
                 nextPosition = forward ? nextPosition.previous() : nextPosition.next();
             }
 
             return Collections.unmodifiableList( returnList );
         }
 
+        Optional<String> readValue( final String key )
+                throws LocalDBException
+        {
+            if ( settings.isGroupCommit() )
+            {
+                final Optional<String> pendingValue = pendingWrites.get( key );
+                if ( pendingValue != null )
+                {
+                    return pendingValue;
+                }
+
+                final Optional<String> flushingValue = flushingWrites.get( key );
+                if ( flushingValue != null )
+                {
+                    return flushingValue;
+                }
+            }
+
+            return localDB.get( db, key );
+        }
+
+        /**
+         * Must be called while holding the write lock.
+         */
+        private void writeValues( final Map<String, String> putValues, final Collection<String> removeKeys )
+                throws LocalDBException
+        {
+            if ( !settings.isGroupCommit() )
+            {
+                localDB.writeBatch( db, putValues, removeKeys );
+                return;
+            }
+
+            for ( final String key : removeKeys )
+            {
+                pendingWrites.put( key, Optional.empty() );
+            }
+            for ( final Map.Entry<String, String> entry : putValues.entrySet() )
+            {
+                pendingWrites.put( entry.getKey(), Optional.of( entry.getValue() ) );
+            }
+            pendingSequence++;
+        }
+
+        /**
+         * Must be called without holding the write lock.
+         */
+        private void awaitCommit( final long sequence )
+                throws LocalDBException
+        {
+            if ( !settings.isGroupCommit() || committedSequence >= sequence )
+            {
+                return;
+            }
+
+            final ScheduledExecutorService executor = flushExecutor;
+            if ( executor != null )
+            {
+                if ( pendingWrites.size() >= settings.getMaxBatchSize() && flushRequested.compareAndSet( false, true ) )
+                {
+                    executor.execute( () ->
+                    {
+                        flushRequested.set( false );
+                        flushQuietly();
+                    } );
+                }
+                return;
+            }
+
+            // writers that arrive while another writer is committing are committed together by the next flush
+            flushLock.lock();
+            try
+            {
+                if ( committedSequence < sequence )
+                {
+                    flushImpl();
+                }
+            }
+            finally
+            {
+                flushLock.unlock();
+            }
+        }
+
+        void flush( )
+                throws LocalDBException
+        {
+            if ( !settings.isGroupCommit() )
+            {
+                return;
+            }
+
+            flushLock.lock();
+            try
+            {
+                flushImpl();
+            }
+            finally
+            {
+                flushLock.unlock();
+            }
+        }
+
+        void close( )
+                throws LocalDBException
+        {
+            final ScheduledExecutorService executor = flushExecutor;
+            flushExecutor = null;
+            if ( executor != null )
+            {
+                JavaHelper.closeAndWaitExecutor( executor, TimeDuration.SECONDS_10 );
+            }
+            flush();
+        }
+
+        private void flushQuietly( )
+        {
+            try
+            {
+                flush();
+            }
+            catch ( final Exception e )
+            {
+                LOGGER.error( () -> "error committing pending writes for queue " + db + ": " + e.getMessage() );
+            }
+        }
+
+        /**
+         * Must be called while holding the flush lock.
+         */
+        private void flushImpl( )
+                throws LocalDBException
+        {
+            final Map<String, Optional<String>> batch;
+            final long batchSequence;
+            lock.writeLock().lock();
+            try
+            {
+                batch = pendingWrites;
+                batchSequence = pendingSequence;
+                if ( !batch.isEmpty() )
+                {
+                    flushingWrites = batch;
+                    pendingWrites = new ConcurrentHashMap<>();
+                }
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+
+            if ( !batch.isEmpty() )
+            {
+                final Map<String, String> putValues = new HashMap<>( batch.size() );
+                final List<String> removeKeys = new ArrayList<>();
+                for ( final Map.Entry<String, Optional<String>> entry : batch.entrySet() )
+                {
+                    if ( entry.getValue().isPresent() )
+                    {
+                        putValues.put( entry.getKey(), entry.getValue().get() );
+                    }
+                    else
+                    {
+                        removeKeys.add( entry.getKey() );
+                    }
+                }
+
+                try
+                {
+                    localDB.writeBatch( db, putValues, removeKeys );
+                }
+                catch ( final LocalDBException e )
+                {
+                    // keep the failed batch pending, behind any writes made since it was taken
+                    lock.writeLock().lock();
+                    try
+                    {
+                        batch.forEach( pendingWrites::putIfAbsent );
+                        flushingWrites = Collections.emptyMap();
+                    }
+                    finally
+                    {
+                        lock.writeLock().unlock();
+                    }
+                    throw e;
+                }
+
+                flushingWrites = Collections.emptyMap();
+            }
+
+            committedSequence = batchSequence;
+        }
+
+        private static String completionMarkerKey( final String value )
+        {
+            try
+            {
+                return KEY_COMPLETION_MARKER_PREFIX + SecureEngine.hash( value, PwmHashAlgorithm.SHA256 );
+            }
+            catch ( final PwmUnrecoverableException e )
+            {
+                throw new IllegalStateException( "unable to hash queue value: " + e.getMessage(), e );
+            }
+        }
+
         void debugOutput( final String input )
         {
             if ( !developerDebug || DEBUG_IGNORED_DB.contains( db ) )
@@ -1161,7 +1600,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
                         TimeDuration.SECONDS_10 );
 
                 // trim the top.
-                while ( !headPosition.equals( tailPosition ) && localDB.get( db, headPosition.key() ).isPresent() )
+                while ( !headPosition.equals( tailPosition ) && localDB.get( db, headPosition.key() ).isEmpty() )
                 {
                     examinedRecords.incrementAndGet();
                     conditionalTaskExecutor.conditionallyExecuteTask();
@@ -1171,7 +1610,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
                 localDB.put( db, KEY_HEAD_POSITION, headPosition.key() );
 
                 // trim the bottom.
-                while ( !headPosition.equals( tailPosition ) && localDB.get( db, tailPosition.toString() ).isPresent() )
+                while ( !headPosition.equals( tailPosition ) && localDB.get( db, tailPosition.toString() ).isEmpty() )
                 {
                     examinedRecords.incrementAndGet();
                     conditionalTaskExecutor.conditionallyExecuteTask();
@@ -1205,4 +1644,42 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
         }
     }
+
+    @Value
+    @Builder
+    public static class Settings
+    {
+        /**
+         * Coalesce queue writes into shared LocalDB transactions instead of committing each operation.
+         */
+        @Builder.Default
+        private boolean groupCommit = false;
+
+        @Builder.Default
+        private Durability durability = Durability.SYNC;
+
+        /**
+         * Interval between background flushes for {@link Durability#ASYNC}.
+         */
+        @Builder.Default
+        private TimeDuration flushInterval = TimeDuration.of( 50, TimeDuration.Unit.MILLISECONDS );
+
+        /**
+         * Pending write count that triggers an early background flush for {@link Durability#ASYNC}.
+         */
+        @Builder.Default
+        private int maxBatchSize = 500;
+
+        static Settings fromConfiguration( final AppConfig appConfig )
+        {
+            return Settings.builder()
+                    .groupCommit( Boolean.parseBoolean( appConfig.readAppProperty( AppProperty.LOCALDB_STORED_QUEUE_GROUP_COMMIT_ENABLE ) ) )
+                    .durability( Durability.valueOf( appConfig.readAppProperty( AppProperty.LOCALDB_STORED_QUEUE_GROUP_COMMIT_DURABILITY ) ) )
+                    .flushInterval( TimeDuration.of(
+                            Long.parseLong( appConfig.readAppProperty( AppProperty.LOCALDB_STORED_QUEUE_GROUP_COMMIT_FLUSH_INTERVAL_MS ) ),
+                            TimeDuration.Unit.MILLISECONDS ) )
+                    .maxBatchSize( Integer.parseInt( appConfig.readAppProperty( AppProperty.LOCALDB_STORED_QUEUE_GROUP_COMMIT_MAX_BATCH_SIZE ) ) )
+                    .build();
+        }
+    }
 }
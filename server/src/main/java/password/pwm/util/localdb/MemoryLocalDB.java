@@ -26,11 +26,14 @@ import java.io.File;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 
@@ -81,6 +84,13 @@ public class MemoryLocalDB implements LocalDBProvider
         return map.containsKey( key );
     }
 
+    @Override
+    public Optional<byte[]> getBytes( final LocalDB.DB db, final String key )
+            throws LocalDBException
+    {
+        return get( db, key ).map( LocalDBBinaryValues::fromText );
+    }
+
     @Override
     public Optional<String> get( final LocalDB.DB db, final String key )
             throws LocalDBException
@@ -90,6 +100,40 @@ public class MemoryLocalDB implements LocalDBProvider
         return Optional.of( map.get( key ) );
     }
 
+    @Override
+    public Map<String, String> getAll( final LocalDB.DB db, final Collection<String> keys )
+            throws LocalDBException
+    {
+        operationPreCheck();
+        final Map<String, String> map = maps.get( db );
+        final Map<String, String> returnMap = new HashMap<>();
+        for ( final String key : keys )
+        {
+            final String value = map.get( key );
+            if ( value != null )
+            {
+                returnMap.put( key, value );
+            }
+        }
+        return Collections.unmodifiableMap( returnMap );
+    }
+
+    @Override
+    public boolean containsAny( final LocalDB.DB db, final Collection<String> keys )
+            throws LocalDBException
+    {
+        operationPreCheck();
+        final Map<String, String> map = maps.get( db );
+        for ( final String key : keys )
+        {
+            if ( map.containsKey( key ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     @LocalDB.WriteOperation
     public void init(
@@ -118,7 +162,35 @@ public class MemoryLocalDB implements LocalDBProvider
     @Override
     public LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator( final LocalDB.DB db ) throws LocalDBException
     {
-        return new MapIterator( db );
+        return new MapIterator( db, maps.get( db ).entrySet().iterator(), false );
+    }
+
+    @Override
+    public LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator(
+            final LocalDB.DB db,
+            final String fromKey,
+            final String toKey,
+            final boolean reverse
+    )
+            throws LocalDBException
+    {
+        operationPreCheck();
+
+        // the backing maps are unordered, so ranged iteration works against a sorted snapshot
+        NavigableMap<String, String> range = new TreeMap<>( maps.get( db ) );
+        if ( fromKey != null )
+        {
+            range = range.tailMap( fromKey, true );
+        }
+        if ( toKey != null )
+        {
+            range = range.headMap( toKey, false );
+        }
+        if ( reverse )
+        {
+            range = range.descendingMap();
+        }
+        return new MapIterator( db, range.entrySet().iterator(), true );
     }
 
     @Override
@@ -135,6 +207,34 @@ public class MemoryLocalDB implements LocalDBProvider
         }
     }
 
+    @Override
+    @LocalDB.WriteOperation
+    public void writeBatch( final LocalDB.DB db, final Map<String, String> putValues, final Collection<String> removeKeys )
+            throws LocalDBException
+    {
+        removeAll( db, removeKeys );
+        putAll( db, putValues );
+    }
+
+    @Override
+    @LocalDB.WriteOperation
+    public void writeBatch( final Map<LocalDB.DB, Map<String, String>> putValues )
+            throws LocalDBException
+    {
+        for ( final Map.Entry<LocalDB.DB, Map<String, String>> entry : putValues.entrySet() )
+        {
+            putAll( entry.getKey(), entry.getValue() );
+        }
+    }
+
+    @Override
+    @LocalDB.WriteOperation
+    public boolean putBytes( final LocalDB.DB db, final String key, final byte[] value )
+            throws LocalDBException
+    {
+        return put( db, key, LocalDBBinaryValues.toText( value ) );
+    }
+
     @Override
     @LocalDB.WriteOperation
     public boolean put( final LocalDB.DB db, final String key, final String value )
@@ -216,11 +316,16 @@ public class MemoryLocalDB implements LocalDBProvider
 
     private class MapIterator implements LocalDB.LocalDBIterator<Map.Entry<String, String>>
     {
+        private final LocalDB.DB db;
         private final Iterator<Map.Entry<String, String>> iterator;
+        private final boolean snapshot;
+        private String lastKey;
 
-        private MapIterator( final LocalDB.DB db )
+        private MapIterator( final LocalDB.DB db, final Iterator<Map.Entry<String, String>> iterator, final boolean snapshot )
         {
-            iterator = maps.get( db ).entrySet().iterator();
+            this.db = db;
+            this.iterator = iterator;
+            this.snapshot = snapshot;
         }
 
         @Override
@@ -232,13 +337,19 @@ public class MemoryLocalDB implements LocalDBProvider
         @Override
         public Map.Entry<String, String> next( )
         {
-            return iterator.next();
+            final Map.Entry<String, String> entry = iterator.next();
+            lastKey = entry.getKey();
+            return entry;
         }
 
         @Override
         public void remove( )
         {
             iterator.remove();
+            if ( snapshot )
+            {
+                maps.get( db ).remove( lastKey );
+            }
         }
 
         @Override
@@ -41,12 +41,18 @@ import password.pwm.util.logging.PwmLogger;
 import java.io.Serializable;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -66,6 +72,7 @@ public final class WorkQueueProcessor<W extends Serializable>
     private static final TimeDuration CLOSE_RETRY_CYCLE_INTERVAL = TimeDuration.of( 5, TimeDuration.Unit.MILLISECONDS );
 
     private final Deque<String> queue;
+    private final LocalDBStoredQueue storedQueue;
     private final Settings settings;
     private final ItemProcessor<W> itemProcessor;
 
@@ -110,6 +117,7 @@ public final class WorkQueueProcessor<W extends Serializable>
     {
         this.settings = settings;
         this.queue = queue;
+        this.storedQueue = queue instanceof LocalDBStoredQueue ? ( LocalDBStoredQueue ) queue : null;
         this.itemProcessor = itemProcessor;
         this.logger = PwmLogger.getLogger( sourceClass.getName() + "_" + this.getClass().getSimpleName() );
 
@@ -119,7 +127,8 @@ public final class WorkQueueProcessor<W extends Serializable>
         }
         logger.trace( () -> "initializing worker thread with settings " + JsonFactory.get().serialize( settings ) );
 
-        this.workerThread = new WorkerThread();
+        this.workerThread = new WorkerThread( PwmScheduler.makePwmThreadFactory(
+                PwmScheduler.makeThreadName( pwmApplication, sourceClass ) + "-lease-", true ) );
         workerThread.setDaemon( true );
         workerThread.setName( PwmScheduler.makeThreadName( pwmApplication, sourceClass ) + "-worker-" );
         workerThread.start();
@@ -175,6 +184,11 @@ public final class WorkQueueProcessor<W extends Serializable>
         {
             logger.debug( () -> msg );
         }
+
+        if ( storedQueue != null )
+        {
+            storedQueue.close();
+        }
     }
 
     public void submitImmediate( final W workItem )
@@ -328,7 +342,38 @@ public final class WorkQueueProcessor<W extends Serializable>
         private final AtomicBoolean shutdownFlag = new AtomicBoolean( false );
         private final AtomicBoolean notifyWorkFlag = new AtomicBoolean( true );
 
-        private Instant retryWakeupTime;
+        // lease state is shared with the lease executor threads and is guarded by leaseLock.  Items completed ahead
+        // of the queue head are also recorded as completion markers in a stored queue, so they are not processed
+        // again after a restart.
+        private final Lock leaseLock = new ReentrantLock();
+        private final Map<String, Lease<W>> leases = new HashMap<>();
+        private final Set<String> completedItems = new HashSet<>();
+        private final Map<String, ItemInfo<W>> itemInfoCache = new HashMap<>();
+        private final Map<String, Instant> partitionRetryTimes = new HashMap<>();
+
+        private final ThreadPoolExecutor leaseExecutor;
+
+        WorkerThread( final ThreadFactory threadFactory )
+        {
+            this.leaseExecutor = settings.getWorkerThreads() > 1
+                    ? new ThreadPoolExecutor(
+                            settings.getWorkerThreads(),
+                            settings.getWorkerThreads(),
+                            1,
+                            TimeUnit.MINUTES,
+                            new LinkedBlockingQueue<>(),
+                            threadFactory )
+                    : null;
+
+            if ( storedQueue != null )
+            {
+                completedItems.addAll( storedQueue.readCompletionMarkers() );
+                if ( !completedItems.isEmpty() )
+                {
+                    logger.debug( () -> "loaded " + completedItems.size() + " completion markers for items processed ahead of the queue head" );
+                }
+            }
+        }
 
         @Override
         public void run( )
@@ -338,7 +383,7 @@ public final class WorkQueueProcessor<W extends Serializable>
             {
                 while ( !shutdownFlag.get() )
                 {
-                    processNextItem();
+                    dispatchItems();
                     waitForWork();
                 }
             }
@@ -349,22 +394,23 @@ public final class WorkQueueProcessor<W extends Serializable>
 
             logger.trace( () -> "worker thread beginning shutdown..." );
 
-            if ( !queue.isEmpty() )
+            try
             {
-                logger.trace( () -> "processing remaining " + queue.size() + " items" );
-
-                try
+                if ( leaseCount() > 0 )
                 {
-                    final Instant shutdownStartTime = Instant.now();
-                    while ( retryWakeupTime == null && !queue.isEmpty() && TimeDuration.fromCurrent( shutdownStartTime ).isLongerThan( settings.getMaxShutdownWaitTime() ) )
-                    {
-                        processNextItem();
-                    }
-                }
-                catch ( final Throwable t )
-                {
-                    logger.error( () -> "unexpected error processing work item queue: " + JavaHelper.readHostileExceptionMessage( t ), t );
+                    logger.trace( () -> "waiting for " + leaseCount() + " leased items" );
+                    settings.getMaxShutdownWaitTime().pause( CLOSE_RETRY_CYCLE_INTERVAL, () -> leaseCount() == 0 );
                 }
+                removeCompletedItems();
+            }
+            catch ( final Throwable t )
+            {
+                logger.error( () -> "unexpected error processing work item queue: " + JavaHelper.readHostileExceptionMessage( t ), t );
+            }
+
+            if ( leaseExecutor != null )
+            {
+                leaseExecutor.shutdown();
             }
 
             logger.trace( () -> "thread exiting..." );
@@ -397,23 +443,20 @@ public final class WorkQueueProcessor<W extends Serializable>
 
         private void waitForWork( )
         {
-            if ( !shutdownFlag.get() )
+            if ( !shutdownFlag.get() && !notifyWorkFlag.get() )
             {
-                if ( retryWakeupTime != null )
+                final Instant wakeupTime = nextWakeupTime();
+                if ( wakeupTime != null )
                 {
-                    while ( retryWakeupTime.isAfter( Instant.now() ) && !shutdownFlag.get() )
-                    {
-                        LockSupport.parkUntil( this, retryWakeupTime.toEpochMilli() );
-                    }
-                    retryWakeupTime = null;
+                    LockSupport.parkUntil( this, wakeupTime.toEpochMilli() );
                 }
                 else
                 {
-                    if ( queue.isEmpty() && !notifyWorkFlag.get() )
+                    if ( queue.isEmpty() )
                     {
                         eldestItem = null;
-                        LockSupport.park( this );
                     }
+                    LockSupport.park( this );
                 }
             }
 
@@ -425,95 +468,356 @@ public final class WorkQueueProcessor<W extends Serializable>
             return running.get();
         }
 
-        void processNextItem( )
+        int leaseCount( )
         {
-            final Instant processStartTime = Instant.now();
-            final String nextStrValue = queue.peekFirst();
-            if ( nextStrValue == null )
+            leaseLock.lock();
+            try
+            {
+                return leases.size();
+            }
+            finally
             {
-                return;
+                leaseLock.unlock();
             }
+        }
 
-            final ItemWrapper<W> itemWrapper;
-            try
+        private void dispatchItems( )
+        {
+            removeCompletedItems();
+
+            for ( final Lease<W> lease : leaseAvailableItems() )
             {
-                itemWrapper = JsonFactory.get().deserialize( nextStrValue, ItemWrapper.class );
-                if ( TimeDuration.fromCurrent( itemWrapper.getDate() ).isLongerThan( settings.getRetryDiscardAge() ) )
+                if ( leaseExecutor == null )
                 {
-                    removeQueueTop();
-                    logger.warn( () -> "discarding queued item due to age, item=" + makeDebugText( itemWrapper ) );
-                    return;
+                    processLease( lease );
+                }
+                else
+                {
+                    leaseExecutor.execute( () -> processLease( lease ) );
                 }
             }
-            catch ( final Throwable e )
-            {
-                removeQueueTop();
-                logger.warn( () -> "discarding stored record due to parsing error: " + e.getMessage() + ", record=" + nextStrValue );
-                return;
-            }
+        }
 
-            final ProcessResult processResult;
+        /**
+         * Items are only removed from the head of the queue, so items completed out of order remain queued until
+         * every item ahead of them has completed.
+         */
+        private void removeCompletedItems( )
+        {
+            leaseLock.lock();
             try
             {
-                workQueueStats.increment( WorkQueueStat.queueProcessItems );
-                processResult = itemProcessor.process( itemWrapper.getWorkItem() );
-                if ( processResult == null )
+                final List<String> headValues = new ArrayList<>();
+                final Iterator<String> iterator = queue.iterator();
+                while ( headValues.size() < completedItems.size() && iterator.hasNext() )
                 {
-                    removeQueueTop();
-                    logger.warn( () -> "itemProcessor.process() returned null, removing; item=" + makeDebugText( itemWrapper ) );
+                    final String value = iterator.next();
+                    if ( !completedItems.contains( value ) )
+                    {
+                        break;
+                    }
+                    headValues.add( value );
+                }
+
+                if ( headValues.isEmpty() )
+                {
+                    return;
+                }
+
+                if ( storedQueue != null )
+                {
+                    storedQueue.removeFirstCompleted( headValues.size() );
                 }
                 else
                 {
-                    switch ( processResult )
+                    for ( int i = 0; i < headValues.size(); i++ )
                     {
-                        case FAILED:
-                        {
-                            removeQueueTop();
-                            logger.error( () -> "discarding item after process failure, item=" + makeDebugText( itemWrapper ) );
-                        }
-                        break;
+                        queue.removeFirst();
+                    }
+                }
 
-                        case RETRY:
-                        {
-                            retryWakeupTime = Instant.ofEpochMilli( System.currentTimeMillis() + settings.getRetryInterval().asMillis() );
-                            logger.debug( () -> "will retry item after failure, item=" + makeDebugText( itemWrapper ) );
-                        }
-                        break;
+                for ( final String value : headValues )
+                {
+                    completedItems.remove( value );
+                    itemInfoCache.remove( value );
+                }
+            }
+            finally
+            {
+                leaseLock.unlock();
+            }
+        }
+
+        /**
+         * Must be called while holding the lease lock.  Items other than the queue head are durably marked, the head
+         * is removed from the queue by {@link #removeCompletedItems()}.
+         */
+        private void markCompleted( final String value )
+        {
+            if ( completedItems.add( value ) && storedQueue != null && !value.equals( queue.peekFirst() ) )
+            {
+                storedQueue.addCompletionMarker( value );
+            }
+        }
+
+        private List<Lease<W>> leaseAvailableItems( )
+        {
+            final int maxLeases = Math.max( 1, settings.getWorkerThreads() );
+            final Instant now = Instant.now();
+            final List<Lease<W>> newLeases = new ArrayList<>();
 
-                        case SUCCESS:
+            leaseLock.lock();
+            try
+            {
+                reportOverdueLeases( now );
+
+                final Set<String> blockedPartitions = new HashSet<>();
+                final Iterator<String> iterator = queue.iterator();
+                int scannedItems = 0;
+                while ( leases.size() < maxLeases && scannedItems < settings.getLeaseWindow() && iterator.hasNext() )
+                {
+                    final String value = iterator.next();
+                    scannedItems++;
+
+                    if ( completedItems.contains( value ) )
+                    {
+                        continue;
+                    }
+
+                    final Lease<W> existingLease = leases.get( value );
+                    if ( existingLease != null )
+                    {
+                        if ( settings.isPreserveOrder() )
                         {
-                            removeQueueTop();
-                            logAndStatUpdateForSuccess( itemWrapper, () -> TimeDuration.fromCurrent( processStartTime ) );
+                            blockedPartitions.add( existingLease.getItemInfo().getPartition() );
                         }
-                        break;
+                        continue;
+                    }
 
-                        case NOOP:
-                            break;
+                    final ItemInfo<W> itemInfo = readItemInfo( value );
+                    if ( itemInfo == null )
+                    {
+                        continue;
+                    }
 
+                    final String partition = itemInfo.getPartition();
+                    if ( blockedPartitions.contains( partition ) || isPartitionPaused( partition, now ) )
+                    {
+                        continue;
+                    }
 
-                        default:
-                            throw new IllegalStateException( "unexpected processResult type " + processResult );
+                    if ( settings.isPreserveOrder() )
+                    {
+                        blockedPartitions.add( partition );
                     }
+
+                    final Lease<W> lease = new Lease<>( value, itemInfo, now.plus( settings.getLeaseTime().asDuration() ) );
+                    leases.put( value, lease );
+                    newLeases.add( lease );
+                }
+            }
+            finally
+            {
+                leaseLock.unlock();
+            }
+
+            return newLeases;
+        }
+
+        /**
+         * Must be called while holding the lease lock.  Returns null if the item has been discarded.
+         */
+        private ItemInfo<W> readItemInfo( final String value )
+        {
+            ItemInfo<W> itemInfo = itemInfoCache.get( value );
+            if ( itemInfo == null )
+            {
+                try
+                {
+                    final ItemWrapper<W> itemWrapper = JsonFactory.get().deserialize( value, ItemWrapper.class );
+                    final W workItem = itemWrapper.getWorkItem();
+                    final String partition = settings.getWorkerThreads() > 1 ? itemProcessor.partitionKey( workItem ) : "";
+                    itemInfo = new ItemInfo<>( itemWrapper, workItem, partition == null ? "" : partition );
+                    itemInfoCache.put( value, itemInfo );
+                }
+                catch ( final Throwable e )
+                {
+                    markCompleted( value );
+                    logger.warn( () -> "discarding stored record due to parsing error: " + e.getMessage() + ", record=" + value );
+                    return null;
+                }
+            }
+
+            if ( TimeDuration.fromCurrent( itemInfo.getItemWrapper().getDate() ).isLongerThan( settings.getRetryDiscardAge() ) )
+            {
+                markCompleted( value );
+                final ItemWrapper<W> itemWrapper = itemInfo.getItemWrapper();
+                logger.warn( () -> "discarding queued item due to age, item=" + makeDebugText( itemWrapper ) );
+                return null;
+            }
+
+            return itemInfo;
+        }
+
+        /**
+         * Must be called while holding the lease lock.
+         */
+        private boolean isPartitionPaused( final String partition, final Instant now )
+        {
+            final Instant retryTime = partitionRetryTimes.get( partition );
+            if ( retryTime == null )
+            {
+                return false;
+            }
+            if ( retryTime.isAfter( now ) )
+            {
+                return true;
+            }
+            partitionRetryTimes.remove( partition );
+            return false;
+        }
+
+        /**
+         * Must be called while holding the lease lock.  Overdue leases are reported but kept, the item is not
+         * dispatched again while its worker may still be processing it.
+         */
+        private void reportOverdueLeases( final Instant now )
+        {
+            for ( final Lease<W> lease : leases.values() )
+            {
+                if ( lease.getExpiration().isBefore( now ) && lease.getOverdueReported().compareAndSet( false, true ) )
+                {
+                    logger.warn( () -> "leased item has not completed after " + settings.getLeaseTime().asCompactString()
+                            + ", item=" + makeDebugText( lease.getItemInfo().getItemWrapper() ) );
+                }
+            }
+        }
+
+        private Instant nextWakeupTime( )
+        {
+            leaseLock.lock();
+            try
+            {
+                Instant wakeupTime = null;
+                for ( final Instant retryTime : partitionRetryTimes.values() )
+                {
+                    wakeupTime = wakeupTime == null || retryTime.isBefore( wakeupTime ) ? retryTime : wakeupTime;
+                }
+                return wakeupTime;
+            }
+            finally
+            {
+                leaseLock.unlock();
+            }
+        }
+
+        private void processLease( final Lease<W> lease )
+        {
+            final Instant processStartTime = Instant.now();
+            final ItemWrapper<W> itemWrapper = lease.getItemInfo().getItemWrapper();
+
+            ProcessResult processResult;
+            try
+            {
+                workQueueStats.increment( WorkQueueStat.queueProcessItems );
+                processResult = itemProcessor.process( lease.getItemInfo().getWorkItem() );
+                if ( processResult == null )
+                {
+                    logger.warn( () -> "itemProcessor.process() returned null, removing; item=" + makeDebugText( itemWrapper ) );
+                    processResult = ProcessResult.FAILED;
+                }
+                else if ( processResult == ProcessResult.FAILED )
+                {
+                    logger.error( () -> "discarding item after process failure, item=" + makeDebugText( itemWrapper ) );
                 }
             }
             catch ( final Throwable e )
             {
-                if ( !shutdownFlag.get() )
+                if ( shutdownFlag.get() )
+                {
+                    // leave the item in the queue to be processed after restart
+                    processResult = ProcessResult.NOOP;
+                }
+                else
                 {
-                    removeQueueTop();
                     logger.error( () -> "unexpected error while processing work queue: " + e.getMessage() );
+                    processResult = ProcessResult.FAILED;
                 }
             }
 
+            completeLease( lease, processResult );
+
+            if ( processResult == ProcessResult.SUCCESS )
+            {
+                try
+                {
+                    logAndStatUpdateForSuccess( itemWrapper, () -> TimeDuration.fromCurrent( processStartTime ) );
+                }
+                catch ( final Throwable e )
+                {
+                    logger.error( () -> "unexpected error while updating work queue stats: " + e.getMessage() );
+                }
+            }
+            else if ( processResult == ProcessResult.RETRY )
+            {
+                logger.debug( () -> "will retry item after failure, item=" + makeDebugText( itemWrapper ) );
+            }
+
+            notifyWorkPending();
         }
 
-        private void removeQueueTop( )
+        private void completeLease( final Lease<W> lease, final ProcessResult processResult )
         {
-            queue.removeFirst();
-            retryWakeupTime = null;
+            leaseLock.lock();
+            try
+            {
+                leases.remove( lease.getValue() );
+
+                switch ( processResult )
+                {
+                    case SUCCESS:
+                    case FAILED:
+                        markCompleted( lease.getValue() );
+                        removeCompletedItems();
+                        break;
+
+                    case RETRY:
+                        partitionRetryTimes.put(
+                                lease.getItemInfo().getPartition(),
+                                Instant.now().plus( settings.getRetryInterval().asDuration() ) );
+                        break;
+
+                    case NOOP:
+                        break;
+
+                    default:
+                        throw new IllegalStateException( "unexpected processResult type " + processResult );
+                }
+            }
+            finally
+            {
+                leaseLock.unlock();
+            }
         }
     }
 
+    @Value
+    private static class ItemInfo<W extends Serializable>
+    {
+        private final ItemWrapper<W> itemWrapper;
+        private final W workItem;
+        private final String partition;
+    }
+
+    @Value
+    private static class Lease<W extends Serializable>
+    {
+        private final String value;
+        private final ItemInfo<W> itemInfo;
+        private final Instant expiration;
+        private final AtomicBoolean overdueReported = new AtomicBoolean( false );
+    }
+
     private static class ItemWrapper<W extends Serializable> implements Serializable
     {
         @SerializedName( "t" )
@@ -578,6 +882,15 @@ public final class WorkQueueProcessor<W extends Serializable>
         ProcessResult process( W workItem );
 
         String convertToDebugString( W workItem );
+
+        /**
+         * Items with different partition keys are processed independently when {@link Settings#getWorkerThreads()} is
+         * greater than one, so a {@link ProcessResult#RETRY} only pauses items of the same partition.
+         */
+        default String partitionKey( final W workItem )
+        {
+            return "";
+        }
     }
 
     @Value
@@ -601,6 +914,33 @@ public final class WorkQueueProcessor<W extends Serializable>
 
         @Builder.Default
         private TimeDuration maxShutdownWaitTime = TimeDuration.of( 30, TimeDuration.Unit.SECONDS );
+
+        /**
+         * Number of queued items processed concurrently.
+         */
+        @Builder.Default
+        private int workerThreads = 1;
+
+        /**
+         * Process items of the same partition one at a time and in queue order.
+         */
+        @Builder.Default
+        private boolean preserveOrder = true;
+
+        /**
+         * Maximum number of items from the head of the queue examined for leasing.  Items completed out of order
+         * are removed once the items ahead of them complete; a stored queue keeps completion markers for them so
+         * they are not processed again if the application stops before that happens.
+         */
+        @Builder.Default
+        private int leaseWindow = 1000;
+
+        /**
+         * Time after which a leased item that has not completed is reported as overdue.  The item is not dispatched
+         * to another worker while its lease is held.
+         */
+        @Builder.Default
+        private TimeDuration leaseTime = TimeDuration.of( 5, TimeDuration.Unit.MINUTES );
     }
 
     private void logAndStatUpdateForSuccess( final ItemWrapper<W> itemWrapper, final Supplier<TimeDuration> processDuration )
@@ -624,7 +964,8 @@ public final class WorkQueueProcessor<W extends Serializable>
         }
         if ( workerThread != null )
         {
-            output.put( "postQueueThreads", workerThread.isRunning() ? "1" : "0" );
+            output.put( "postQueueThreads", workerThread.isRunning() ? String.valueOf( settings.getWorkerThreads() ) : "0" );
+            output.put( "leasedItems", String.valueOf( workerThread.leaseCount() ) );
         }
         output.putAll( workQueueStats.debugStats() );
         return Collections.unmodifiableMap( output );
@@ -54,6 +54,7 @@ import java.util.AbstractMap;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -268,27 +269,133 @@ public class XodusLocalDB implements LocalDBProvider
         } );
     }
 
+    @Override
+    public Optional<byte[]> getBytes( final LocalDB.DB db, final String key ) throws LocalDBException
+    {
+        checkStatus( false );
+        return environment.computeInReadonlyTransaction( transaction ->
+        {
+            final Store store = getStore( db );
+            final ByteIterable returnValue = store.get( transaction, bindMachine.keyToEntry( key ) );
+            if ( returnValue != null )
+            {
+                return Optional.of( bindMachine.entryToBytes( returnValue ) );
+            }
+            return Optional.empty();
+        } );
+    }
+
+    @Override
+    public Map<String, String> getAll( final LocalDB.DB db, final Collection<String> keys ) throws LocalDBException
+    {
+        checkStatus( false );
+        return environment.computeInReadonlyTransaction( transaction ->
+        {
+            final Store store = getStore( db );
+            final Map<String, String> returnMap = new HashMap<>();
+            for ( final String key : keys )
+            {
+                final ByteIterable returnValue = store.get( transaction, bindMachine.keyToEntry( key ) );
+                if ( returnValue != null )
+                {
+                    returnMap.put( key, bindMachine.entryToValue( returnValue ) );
+                }
+            }
+            return Collections.unmodifiableMap( returnMap );
+        } );
+    }
+
+    @Override
+    public boolean containsAny( final LocalDB.DB db, final Collection<String> keys ) throws LocalDBException
+    {
+        checkStatus( false );
+        return environment.computeInReadonlyTransaction( transaction ->
+        {
+            final Store store = getStore( db );
+            for ( final String key : keys )
+            {
+                // presence check only, avoids decoding the stored value
+                if ( store.get( transaction, bindMachine.keyToEntry( key ) ) != null )
+                {
+                    return true;
+                }
+            }
+            return false;
+        } );
+    }
+
     @Override
     public LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator( final LocalDB.DB db )  throws LocalDBException
     {
-        return new InnerIterator( db );
+        return new InnerIterator( db, null, null, false );
+    }
+
+    @Override
+    public LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator(
+            final LocalDB.DB db,
+            final String fromKey,
+            final String toKey,
+            final boolean reverse
+    )
+            throws LocalDBException
+    {
+        checkStatus( false );
+        return new InnerIterator( db, fromKey, toKey, reverse );
     }
 
     public class InnerIterator implements LocalDB.LocalDBIterator<Map.Entry<String, String>>
     {
         private final Transaction transaction;
         private final Cursor cursor;
+        private final String fromKey;
+        private final String toKey;
+        private final boolean reverse;
 
         private boolean closed;
+        private boolean positioned;
         private Map.Entry<String, String> nextValue = null;
 
-        InnerIterator( final LocalDB.DB db )
+        InnerIterator( final LocalDB.DB db, final String fromKey, final String toKey, final boolean reverse )
         {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+            this.reverse = reverse;
             this.transaction = environment.beginReadonlyTransaction();
             this.cursor = getStore( db ).openCursor( transaction );
             doNext();
         }
 
+        private boolean moveCursor( )
+        {
+            if ( positioned )
+            {
+                return reverse ? cursor.getPrev() : cursor.getNext();
+            }
+
+            positioned = true;
+
+            if ( !reverse )
+            {
+                return fromKey == null
+                        ? cursor.getNext()
+                        : cursor.getSearchKeyRange( bindMachine.keyToEntry( fromKey ) ) != null;
+            }
+
+            // position on the first key >= toKey, then step back to the last key within the range
+            if ( toKey != null && cursor.getSearchKeyRange( bindMachine.keyToEntry( toKey ) ) != null )
+            {
+                return cursor.getPrev();
+            }
+            return cursor.getLast();
+        }
+
+        private boolean outOfRange( final String key )
+        {
+            return reverse
+                    ? fromKey != null && key.compareTo( fromKey ) < 0
+                    : toKey != null && key.compareTo( toKey ) >= 0;
+        }
+
         private void doNext( )
         {
             try
@@ -306,7 +413,7 @@ public class XodusLocalDB implements LocalDBProvider
                     return;
                 }
 
-                if ( !cursor.getNext() )
+                if ( !moveCursor() )
                 {
                     close();
                     return;
@@ -318,7 +425,7 @@ public class XodusLocalDB implements LocalDBProvider
                     return;
                 }
                 final String decodedKey = bindMachine.entryToKey( nextCursor );
-                if ( decodedKey == null )
+                if ( decodedKey == null || outOfRange( decodedKey ) )
                 {
                     close();
                     return;
@@ -390,6 +497,43 @@ public class XodusLocalDB implements LocalDBProvider
     }
 
 
+    @Override
+    public void writeBatch( final LocalDB.DB db, final Map<String, String> putValues, final Collection<String> removeKeys ) throws LocalDBException
+    {
+        checkStatus( true );
+        environment.executeInTransaction( transaction ->
+        {
+            final Store store = getStore( db );
+            for ( final String key : removeKeys )
+            {
+                store.delete( transaction, bindMachine.keyToEntry( key ) );
+            }
+            for ( final Map.Entry<String, String> entry : putValues.entrySet() )
+            {
+                store.put( transaction, bindMachine.keyToEntry( entry.getKey() ), bindMachine.valueToEntry( entry.getValue() ) );
+            }
+        } );
+        outputLogExecutor.conditionallyExecuteTask();
+    }
+
+    @Override
+    public void writeBatch( final Map<LocalDB.DB, Map<String, String>> putValues ) throws LocalDBException
+    {
+        checkStatus( true );
+        environment.executeInTransaction( transaction ->
+        {
+            for ( final Map.Entry<LocalDB.DB, Map<String, String>> dbEntry : putValues.entrySet() )
+            {
+                final Store store = getStore( dbEntry.getKey() );
+                for ( final Map.Entry<String, String> entry : dbEntry.getValue().entrySet() )
+                {
+                    store.put( transaction, bindMachine.keyToEntry( entry.getKey() ), bindMachine.valueToEntry( entry.getValue() ) );
+                }
+            }
+        } );
+        outputLogExecutor.conditionallyExecuteTask();
+    }
+
     @Override
     public boolean put( final LocalDB.DB db, final String key, final String value ) throws LocalDBException
     {
@@ -403,6 +547,19 @@ public class XodusLocalDB implements LocalDBProvider
         } );
     }
 
+    @Override
+    public boolean putBytes( final LocalDB.DB db, final String key, final byte[] value ) throws LocalDBException
+    {
+        checkStatus( true );
+        return environment.computeInTransaction( transaction ->
+        {
+            final ByteIterable k = bindMachine.keyToEntry( key );
+            final ByteIterable v = bindMachine.bytesToEntry( value );
+            final Store store = getStore( db );
+            return store.put( transaction, k, v );
+        } );
+    }
+
     @Override
     @LocalDB.WriteOperation
     public boolean putIfAbsent( final LocalDB.DB db, final String key, final String value ) throws LocalDBException
@@ -550,6 +707,8 @@ public class XodusLocalDB implements LocalDBProvider
 
     private static class BindMachine
     {
+        private static final byte BINARY_PREFIX = 96;
+        private static final byte COMPRESSED_BINARY_PREFIX = 97;
         private static final byte COMPRESSED_PREFIX = 98;
         private static final byte UNCOMPRESSED_PREFIX = 99;
 
@@ -577,6 +736,11 @@ public class XodusLocalDB implements LocalDBProvider
 
         ByteIterable valueToEntry( final String value )
         {
+            if ( LocalDBBinaryValues.isText( value ) )
+            {
+                return bytesToEntry( LocalDBBinaryValues.fromText( value ) );
+            }
+
             if ( !enableCompression || value.length() < minCompressionLength )
             {
                 final ByteIterable byteIterable = StringBinding.stringToEntry( value );
@@ -597,21 +761,60 @@ public class XodusLocalDB implements LocalDBProvider
             }
         }
 
+        ByteIterable bytesToEntry( final byte[] value )
+        {
+            if ( enableCompression && value.length >= minCompressionLength )
+            {
+                final byte[] compressedArray = compressData( value );
+                if ( compressedArray.length < value.length )
+                {
+                    return new ArrayByteIterable( COMPRESSED_BINARY_PREFIX, new ArrayByteIterable( compressedArray ) );
+                }
+            }
+
+            return new ArrayByteIterable( BINARY_PREFIX, new ArrayByteIterable( value ) );
+        }
+
         String entryToValue( final ByteIterable value )
         {
-            final byte[] rawValue = value.getBytesUnsafe();
-            final byte[] strippedArray = new byte[ rawValue.length - 1 ];
-            System.arraycopy( rawValue, 1, strippedArray, 0, rawValue.length - 1 );
-            if ( rawValue[ 0 ] == UNCOMPRESSED_PREFIX )
+            final byte prefix = value.iterator().next();
+            if ( prefix == BINARY_PREFIX || prefix == COMPRESSED_BINARY_PREFIX )
+            {
+                return LocalDBBinaryValues.toText( entryToBytes( value ) );
+            }
+
+            final byte[] strippedArray = stripPrefix( value );
+            if ( prefix == UNCOMPRESSED_PREFIX )
             {
                 return StringBinding.entryToString( new ArrayByteIterable( strippedArray ) );
             }
-            else if ( rawValue[ 0 ] == COMPRESSED_PREFIX )
+            else if ( prefix == COMPRESSED_PREFIX )
             {
                 final byte[] decompressedValue = decompressData( strippedArray );
                 return StringBinding.entryToString( new ArrayByteIterable( decompressedValue ) );
             }
-            throw new IllegalStateException( "unknown value prefix " + Byte.toString( rawValue[ 0 ] ) );
+            throw new IllegalStateException( "unknown value prefix " + Byte.toString( prefix ) );
+        }
+
+        byte[] entryToBytes( final ByteIterable value )
+        {
+            final byte prefix = value.iterator().next();
+            if ( prefix == BINARY_PREFIX )
+            {
+                return stripPrefix( value );
+            }
+            else if ( prefix == COMPRESSED_BINARY_PREFIX )
+            {
+                return decompressData( stripPrefix( value ) );
+            }
+            return entryToValue( value ).getBytes( PwmConstants.DEFAULT_CHARSET );
+        }
+
+        private static byte[] stripPrefix( final ByteIterable value )
+        {
+            final byte[] strippedArray = new byte[ value.getLength() - 1 ];
+            System.arraycopy( value.getBytesUnsafe(), 1, strippedArray, 0, strippedArray.length );
+            return strippedArray;
         }
 
         static byte[] compressData( final byte[] data )
@@ -0,0 +1,148 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.logging;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer for log events with any number of producers and a single consumer.
+ *
+ * <p>Each slot carries a sequence number.  A producer claims a position by advancing the shared tail with a
+ * CAS, writes the event and then publishes the slot by setting its sequence to {@code position + 1}.  The
+ * consumer only reads slots that have been published, and releases a slot for the next lap by setting its
+ * sequence to {@code position + capacity}.  Producers never wait on each other or on the consumer; when the
+ * buffer is full {@link #offer(PwmLogEvent)} returns false and the caller decides what to do.</p>
+ *
+ * <p>{@link #poll()} and {@link #drainTo(List, int)} must only be called by one thread at a time.</p>
+ */
+class LocalDBLogRingBuffer
+{
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<PwmLogEvent> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong( 0 );
+
+    private volatile long head = 0;
+
+    LocalDBLogRingBuffer( final int requestedCapacity )
+    {
+        this.capacity = capacityFor( requestedCapacity );
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>( capacity );
+        this.sequences = new AtomicLongArray( capacity );
+        for ( int i = 0; i < capacity; i++ )
+        {
+            sequences.set( i, i );
+        }
+    }
+
+    private static int capacityFor( final int requestedCapacity )
+    {
+        final int minimum = Math.max( 2, requestedCapacity );
+        final int highestBit = Integer.highestOneBit( minimum );
+        return highestBit == minimum ? minimum : Math.min( highestBit << 1, 1 << 30 );
+    }
+
+    boolean offer( final PwmLogEvent event )
+    {
+        long position = tail.get();
+        while ( true )
+        {
+            final int index = ( int ) ( position & mask );
+            final long difference = sequences.get( index ) - position;
+            if ( difference == 0 )
+            {
+                if ( tail.compareAndSet( position, position + 1 ) )
+                {
+                    slots.set( index, event );
+                    sequences.set( index, position + 1 );
+                    return true;
+                }
+                position = tail.get();
+            }
+            else if ( difference < 0 )
+            {
+                // slot from the previous lap has not been consumed yet, buffer is full
+                return false;
+            }
+            else
+            {
+                // another producer claimed this position
+                position = tail.get();
+            }
+        }
+    }
+
+    PwmLogEvent poll()
+    {
+        final long position = head;
+        final int index = ( int ) ( position & mask );
+        if ( sequences.get( index ) != position + 1 )
+        {
+            return null;
+        }
+
+        final PwmLogEvent event = slots.get( index );
+        slots.set( index, null );
+        sequences.set( index, position + capacity );
+        head = position + 1;
+        return event;
+    }
+
+    int drainTo( final List<PwmLogEvent> destination, final int maxEvents )
+    {
+        int count = 0;
+        while ( count < maxEvents )
+        {
+            final PwmLogEvent event = poll();
+            if ( event == null )
+            {
+                break;
+            }
+            destination.add( event );
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Approximate number of buffered events, including positions claimed by producers that are not yet published.
+     */
+    int size()
+    {
+        final long size = tail.get() - head;
+        return ( int ) Math.max( 0, Math.min( capacity, size ) );
+    }
+
+    boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    int capacity()
+    {
+        return capacity;
+    }
+}
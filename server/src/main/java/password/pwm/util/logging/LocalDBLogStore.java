@@ -0,0 +1,911 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.logging;
+
+import password.pwm.PwmConstants;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBException;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Log event storage for {@link LocalDBLogger}.  Events are stored in {@link LocalDB.DB#EVENTLOG_EVENTS} keyed by an
+ * increasing sequence number, so key order is write order.  Secondary indexes in {@link LocalDB.DB#EVENTLOG_INDEX}
+ * are maintained as events are appended and trimmed:
+ * <ul>
+ *     <li>time bucket: first sequence written in each minute</li>
+ *     <li>level, session id and request id: one key per event</li>
+ *     <li>message and topic tokens: one key per distinct word, when the text index is enabled</li>
+ * </ul>
+ *
+ * <p>The text query matches anywhere within the message or topic, so its first word may be the end of a longer
+ * word and its last word the start of one.  Only query words preceded by a separator are looked up in the token
+ * index: as whole words when a separator follows, otherwise as word prefixes.  A query without such a word is
+ * answered by a scan.</p>
+ *
+ * <p>Index keys end with the event sequence, so a reverse range scan over an index prefix returns the matching
+ * events newest first.  Index entries are only used to find candidate events; every candidate is still checked
+ * against the full search query.  Usernames are not indexed because the username query is a regex matched anywhere
+ * within the event username.</p>
+ */
+class LocalDBLogStore
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( LocalDBLogStore.class );
+
+    private static final LocalDB.DB EVENT_DB = LocalDB.DB.EVENTLOG_EVENTS;
+    private static final LocalDB.DB INDEX_DB = LocalDB.DB.EVENTLOG_INDEX;
+
+    private static final char SEPARATOR = '|';
+    private static final String INDEX_BUCKET = "b" + SEPARATOR;
+    private static final String INDEX_LEVEL = "l" + SEPARATOR;
+    private static final String INDEX_SESSION = "s" + SEPARATOR;
+    private static final String INDEX_REQUEST = "r" + SEPARATOR;
+    private static final String INDEX_TOKEN = "t" + SEPARATOR;
+    private static final String META_TOKEN_INDEX_FROM = "m" + SEPARATOR + "tokenIndexFrom";
+
+    private static final int SEQUENCE_KEY_LENGTH = 16;
+    private static final int MAX_TERM_LENGTH = 200;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final int PAGE_SIZE = 256;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final Pattern TOKEN_PATTERN = Pattern.compile( "[\\p{L}\\p{N}]+" );
+
+    private final LocalDB localDB;
+    private final boolean textIndex;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLong eventCount = new AtomicLong();
+
+    private volatile long tokenIndexFrom = -1;
+    private long lastBucket = -1;
+
+    LocalDBLogStore( final LocalDB localDB, final boolean textIndex )
+            throws LocalDBException
+    {
+        this.localDB = localDB;
+        this.textIndex = textIndex;
+        init();
+    }
+
+    private void init( )
+            throws LocalDBException
+    {
+        final Optional<String> lastKey = readLastKey( EVENT_DB, null, null );
+        if ( lastKey.isPresent() && !isSequenceKey( lastKey.get() ) )
+        {
+            LOGGER.warn( () -> "existing log event records are not in the current storage format, clearing existing records" );
+            clear();
+            return;
+        }
+
+        nextSequence.set( lastKey.map( key -> parseSequence( key ) + 1 ).orElse( 0L ) );
+        eventCount.set( localDB.size( EVENT_DB ) );
+        lastBucket = readLastKey( INDEX_DB, INDEX_BUCKET, INDEX_BUCKET + sequenceKey( Long.MAX_VALUE ) )
+                .map( key -> parseSequence( key.substring( INDEX_BUCKET.length() ) ) )
+                .orElse( -1L );
+
+        final Optional<String> storedTokenIndexFrom = localDB.get( INDEX_DB, META_TOKEN_INDEX_FROM );
+        if ( textIndex )
+        {
+            if ( storedTokenIndexFrom.isPresent() )
+            {
+                tokenIndexFrom = Long.parseLong( storedTokenIndexFrom.get() );
+            }
+            else
+            {
+                tokenIndexFrom = nextSequence.get();
+                localDB.put( INDEX_DB, META_TOKEN_INDEX_FROM, String.valueOf( tokenIndexFrom ) );
+            }
+        }
+        else if ( storedTokenIndexFrom.isPresent() )
+        {
+            removeTokenIndex();
+        }
+    }
+
+    void clear( )
+            throws LocalDBException
+    {
+        localDB.truncate( EVENT_DB );
+        localDB.truncate( INDEX_DB );
+        nextSequence.set( 0 );
+        eventCount.set( 0 );
+        lastBucket = -1;
+        tokenIndexFrom = -1;
+        if ( textIndex )
+        {
+            tokenIndexFrom = 0;
+            localDB.put( INDEX_DB, META_TOKEN_INDEX_FROM, "0" );
+        }
+    }
+
+    int size( )
+    {
+        return ( int ) Math.min( Integer.MAX_VALUE, eventCount.get() );
+    }
+
+    LocalDB getLocalDB( )
+    {
+        return localDB;
+    }
+
+    /**
+     * Append events and their index entries.  Must only be called from a single writer thread.
+     */
+    void append( final List<PwmLogEvent> events )
+            throws LocalDBException
+    {
+        final Map<String, String> eventValues = new HashMap<>( events.size() );
+        final Map<String, String> indexValues = new HashMap<>();
+
+        for ( final PwmLogEvent event : events )
+        {
+            final String encodedEvent;
+            try
+            {
+                encodedEvent = event.toEncodedString();
+            }
+            catch ( final IOException e )
+            {
+                LOGGER.warn( () -> "error encoding log event: " + e.getMessage(), e );
+                continue;
+            }
+
+            final long sequence = nextSequence.getAndIncrement();
+            eventValues.put( sequenceKey( sequence ), encodedEvent );
+
+            final long bucket = timeBucket( event.getTimestamp() );
+            if ( bucket > lastBucket )
+            {
+                lastBucket = bucket;
+                indexValues.put( INDEX_BUCKET + sequenceKey( bucket ), String.valueOf( sequence ) );
+            }
+
+            for ( final String indexKey : indexKeys( event, sequence, textIndex ) )
+            {
+                indexValues.put( indexKey, "" );
+            }
+        }
+
+        final Map<LocalDB.DB, Map<String, String>> batch = new EnumMap<>( LocalDB.DB.class );
+        batch.put( EVENT_DB, eventValues );
+        batch.put( INDEX_DB, indexValues );
+        localDB.writeBatch( batch );
+        eventCount.addAndGet( eventValues.size() );
+    }
+
+    /**
+     * Remove the eldest events and their index entries.
+     *
+     * @return the number of events removed
+     */
+    int removeEldest( final int count )
+            throws LocalDBException
+    {
+        final List<String> eventKeys = new ArrayList<>( Math.min( count, PAGE_SIZE ) );
+        final List<String> indexKeys = new ArrayList<>();
+        final boolean removeTokens = tokenIndexFrom >= 0 || textIndex;
+
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( EVENT_DB, null, null ) )
+        {
+            while ( eventKeys.size() < count && iterator.hasNext() )
+            {
+                final Map.Entry<String, String> entry = iterator.next();
+                eventKeys.add( entry.getKey() );
+
+                final PwmLogEvent event = decodeEvent( entry.getValue() );
+                if ( event != null && isSequenceKey( entry.getKey() ) )
+                {
+                    indexKeys.addAll( indexKeys( event, parseSequence( entry.getKey() ), removeTokens ) );
+                }
+            }
+        }
+
+        if ( eventKeys.isEmpty() )
+        {
+            return 0;
+        }
+
+        localDB.removeAll( EVENT_DB, eventKeys );
+        localDB.removeAll( INDEX_DB, indexKeys );
+        eventCount.addAndGet( -eventKeys.size() );
+        removeStaleBuckets();
+        return eventKeys.size();
+    }
+
+    Optional<PwmLogEvent> readEldestEvent( )
+            throws LocalDBException
+    {
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( EVENT_DB, null, null ) )
+        {
+            if ( iterator.hasNext() )
+            {
+                return Optional.ofNullable( decodeEvent( iterator.next().getValue() ) );
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Find the stored events that may match the query, newest first.  The returned values are encoded events; the
+     * caller must check each event against the query.
+     */
+    Iterator<String> search( final LocalDBSearchQuery searchQuery )
+    {
+        try
+        {
+            // events are buffered before they are written, so the sequence range is widened by one bucket on each
+            // side to include events whose timestamp is slightly out of order with their sequence
+            final long minSequence = searchQuery.getStartTime() == null
+                    ? 0
+                    : readBucketSequence( timeBucket( searchQuery.getStartTime() ) - 1 ).orElse( nextSequence.get() );
+            final long maxSequence = searchQuery.getEndTime() == null
+                    ? nextSequence.get()
+                    : readBucketSequence( timeBucket( searchQuery.getEndTime() ) + 2 ).orElse( nextSequence.get() );
+
+            final SequenceCursor cursor = makeIndexCursor( searchQuery, minSequence, maxSequence );
+            return new EventIterator( cursor, minSequence, maxSequence );
+        }
+        catch ( final LocalDBException e )
+        {
+            LOGGER.error( () -> "error searching log events: " + e.getMessage() );
+            return Collections.emptyIterator();
+        }
+    }
+
+    private SequenceCursor makeIndexCursor( final LocalDBSearchQuery searchQuery, final long minSequence, final long maxSequence )
+            throws LocalDBException
+    {
+        final List<SequenceCursor> cursors = new ArrayList<>();
+
+        if ( searchQuery.getMinimumLevel() != null && searchQuery.getMinimumLevel().ordinal() > 0 )
+        {
+            final List<SequenceCursor> levelCursors = new ArrayList<>();
+            for ( final PwmLogLevel level : PwmLogLevel.values() )
+            {
+                if ( level.compareTo( searchQuery.getMinimumLevel() ) >= 0 )
+                {
+                    levelCursors.add( new IndexCursor( INDEX_LEVEL + level.name() + SEPARATOR, minSequence, maxSequence ) );
+                }
+            }
+            cursors.add( levelCursors.size() == 1 ? levelCursors.get( 0 ) : new UnionCursor( levelCursors ) );
+        }
+
+        if ( !StringUtil.isEmpty( searchQuery.getSessionID() ) )
+        {
+            cursors.add( new IndexCursor( termPrefix( INDEX_SESSION, searchQuery.getSessionID() ), minSequence, maxSequence ) );
+        }
+
+        if ( !StringUtil.isEmpty( searchQuery.getRequestID() ) )
+        {
+            cursors.add( new IndexCursor( termPrefix( INDEX_REQUEST, searchQuery.getRequestID() ), minSequence, maxSequence ) );
+        }
+
+        // the token index is only used once every stored event in the range has been indexed
+        if ( textIndex && !StringUtil.isEmpty( searchQuery.getText() ) && isTokenIndexComplete( minSequence ) )
+        {
+            cursors.addAll( makeTextCursors( searchQuery.getText(), minSequence, maxSequence ) );
+        }
+
+        if ( cursors.isEmpty() )
+        {
+            return null;
+        }
+
+        return cursors.size() == 1 ? cursors.get( 0 ) : new IntersectCursor( cursors );
+    }
+
+    /**
+     * Token index cursors for the words of a text query that are bounded by a separator on the left.  Words
+     * bounded on both sides must match whole indexed words, the last word only has to match the start of one.
+     */
+    private List<SequenceCursor> makeTextCursors( final String text, final long minSequence, final long maxSequence )
+            throws LocalDBException
+    {
+        final List<SequenceCursor> cursors = new ArrayList<>();
+        final String lowerText = text.toLowerCase( PwmConstants.DEFAULT_LOCALE );
+        final Matcher matcher = TOKEN_PATTERN.matcher( lowerText );
+        while ( matcher.find() )
+        {
+            final String token = StringUtil.truncate( matcher.group(), MAX_TOKEN_LENGTH );
+            if ( matcher.start() > 0 && token.length() >= MIN_TOKEN_LENGTH )
+            {
+                if ( matcher.end() < lowerText.length() )
+                {
+                    cursors.add( new IndexCursor( termPrefix( INDEX_TOKEN, token ), minSequence, maxSequence ) );
+                }
+                else
+                {
+                    makePrefixCursor( token, minSequence, maxSequence ).ifPresent( cursors::add );
+                }
+            }
+        }
+        return cursors;
+    }
+
+    /**
+     * Union of the cursors of every indexed word starting with {@code token}, or empty if there are too many such
+     * words for the index to narrow the search.
+     */
+    private Optional<SequenceCursor> makePrefixCursor( final String token, final long minSequence, final long maxSequence )
+            throws LocalDBException
+    {
+        final String tokenPrefix = termPrefix( INDEX_TOKEN, token );
+        final String wordPrefix = tokenPrefix.substring( 0, tokenPrefix.length() - 1 );
+        final List<SequenceCursor> cursors = new ArrayList<>();
+
+        Optional<String> nextKey = readFirstKey( INDEX_DB, wordPrefix, null );
+        while ( nextKey.isPresent() && nextKey.get().startsWith( wordPrefix ) )
+        {
+            if ( cursors.size() >= MAX_PREFIX_TERMS )
+            {
+                return Optional.empty();
+            }
+
+            final String termKeyPrefix = nextKey.get().substring( 0, nextKey.get().lastIndexOf( SEPARATOR ) + 1 );
+            cursors.add( new IndexCursor( termKeyPrefix, minSequence, maxSequence ) );
+
+            // every key of the term sorts before the term followed by the character after the separator
+            final String nextTermKey = termKeyPrefix.substring( 0, termKeyPrefix.length() - 1 ) + ( char ) ( SEPARATOR + 1 );
+            nextKey = readFirstKey( INDEX_DB, nextTermKey, null );
+        }
+
+        return Optional.of( cursors.size() == 1 ? cursors.get( 0 ) : new UnionCursor( cursors ) );
+    }
+
+    private boolean isTokenIndexComplete( final long minSequence )
+            throws LocalDBException
+    {
+        final long localTokenIndexFrom = tokenIndexFrom;
+        if ( localTokenIndexFrom < 0 )
+        {
+            return false;
+        }
+        if ( localTokenIndexFrom <= minSequence )
+        {
+            return true;
+        }
+        final Optional<String> eldestKey = readFirstKey( EVENT_DB, null, null );
+        return eldestKey.isEmpty() || parseSequence( eldestKey.get() ) >= localTokenIndexFrom;
+    }
+
+    private Optional<Long> readBucketSequence( final long bucket )
+            throws LocalDBException
+    {
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator(
+                INDEX_DB, INDEX_BUCKET + sequenceKey( bucket ), INDEX_BUCKET + sequenceKey( Long.MAX_VALUE ) ) )
+        {
+            if ( iterator.hasNext() )
+            {
+                return Optional.of( Long.parseLong( iterator.next().getValue() ) );
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void removeStaleBuckets( )
+            throws LocalDBException
+    {
+        final Optional<String> eldestKey = readFirstKey( EVENT_DB, null, null );
+        if ( eldestKey.isEmpty() || !isSequenceKey( eldestKey.get() ) )
+        {
+            return;
+        }
+
+        // buckets starting at or before the eldest event; the last of these contains the eldest event and is kept
+        final long eldestSequence = parseSequence( eldestKey.get() );
+        final List<String> staleKeys = new ArrayList<>();
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.prefixIterator( INDEX_DB, INDEX_BUCKET ) )
+        {
+            while ( iterator.hasNext() )
+            {
+                final Map.Entry<String, String> entry = iterator.next();
+                if ( Long.parseLong( entry.getValue() ) > eldestSequence )
+                {
+                    break;
+                }
+                staleKeys.add( entry.getKey() );
+            }
+        }
+
+        if ( staleKeys.size() > 1 )
+        {
+            localDB.removeAll( INDEX_DB, staleKeys.subList( 0, staleKeys.size() - 1 ) );
+        }
+    }
+
+    private void removeTokenIndex( )
+            throws LocalDBException
+    {
+        LOGGER.debug( () -> "text index is disabled, removing existing text index records" );
+        while ( true )
+        {
+            final List<String> tokenKeys = new ArrayList<>( PAGE_SIZE );
+            try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.prefixIterator( INDEX_DB, INDEX_TOKEN ) )
+            {
+                while ( tokenKeys.size() < PAGE_SIZE && iterator.hasNext() )
+                {
+                    tokenKeys.add( iterator.next().getKey() );
+                }
+            }
+
+            if ( tokenKeys.isEmpty() )
+            {
+                break;
+            }
+            localDB.removeAll( INDEX_DB, tokenKeys );
+        }
+        localDB.remove( INDEX_DB, META_TOKEN_INDEX_FROM );
+    }
+
+    private Optional<String> readFirstKey( final LocalDB.DB db, final String fromKey, final String toKey )
+            throws LocalDBException
+    {
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( db, fromKey, toKey ) )
+        {
+            return iterator.hasNext() ? Optional.of( iterator.next().getKey() ) : Optional.empty();
+        }
+    }
+
+    private Optional<String> readLastKey( final LocalDB.DB db, final String fromKey, final String toKey )
+            throws LocalDBException
+    {
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.reverseIterator( db, fromKey, toKey ) )
+        {
+            return iterator.hasNext() ? Optional.of( iterator.next().getKey() ) : Optional.empty();
+        }
+    }
+
+    private static Set<String> indexKeys( final PwmLogEvent event, final long sequence, final boolean includeTokens )
+    {
+        final String sequenceKey = sequenceKey( sequence );
+        final Set<String> keys = new LinkedHashSet<>();
+        keys.add( INDEX_LEVEL + event.getLevel().name() + SEPARATOR + sequenceKey );
+
+        if ( !StringUtil.isEmpty( event.getSessionID() ) )
+        {
+            keys.add( termPrefix( INDEX_SESSION, event.getSessionID() ) + sequenceKey );
+        }
+
+        if ( !StringUtil.isEmpty( event.getRequestID() ) )
+        {
+            keys.add( termPrefix( INDEX_REQUEST, event.getRequestID() ) + sequenceKey );
+        }
+
+        if ( includeTokens )
+        {
+            final Set<String> tokens = new LinkedHashSet<>( tokenize( event.getMessage() ) );
+            tokens.addAll( tokenize( event.getTopic() ) );
+            for ( final String token : tokens )
+            {
+                keys.add( termPrefix( INDEX_TOKEN, token ) + sequenceKey );
+            }
+        }
+
+        return keys;
+    }
+
+    static List<String> tokenize( final String text )
+    {
+        if ( StringUtil.isEmpty( text ) )
+        {
+            return Collections.emptyList();
+        }
+
+        // long words are indexed by their leading characters so prefix queries still find them
+        final List<String> tokens = new ArrayList<>();
+        final Matcher matcher = TOKEN_PATTERN.matcher( text.toLowerCase( PwmConstants.DEFAULT_LOCALE ) );
+        while ( matcher.find() )
+        {
+            final String token = matcher.group();
+            if ( token.length() >= MIN_TOKEN_LENGTH )
+            {
+                tokens.add( StringUtil.truncate( token, MAX_TOKEN_LENGTH ) );
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Index key prefix for a term.  The term is lower cased and escaped so it never contains the separator, which
+     * keeps the prefix of one term from matching the keys of another.
+     */
+    private static String termPrefix( final String indexPrefix, final String term )
+    {
+        final String lowerTerm = term.toLowerCase( PwmConstants.DEFAULT_LOCALE );
+        final String escapedTerm = lowerTerm.replace( "%", "%25" ).replace( String.valueOf( SEPARATOR ), "%7C" );
+        return indexPrefix + StringUtil.truncate( escapedTerm, MAX_TERM_LENGTH ) + SEPARATOR;
+    }
+
+    private static long timeBucket( final Instant timestamp )
+    {
+        return ( timestamp == null ? Instant.now() : timestamp ).getEpochSecond() / 60;
+    }
+
+    static String sequenceKey( final long sequence )
+    {
+        final String hex = Long.toHexString( sequence );
+        final StringBuilder sb = new StringBuilder( SEQUENCE_KEY_LENGTH );
+        for ( int i = hex.length(); i < SEQUENCE_KEY_LENGTH; i++ )
+        {
+            sb.append( '0' );
+        }
+        return sb.append( hex ).toString();
+    }
+
+    private static long parseSequence( final String sequenceKey )
+    {
+        return Long.parseUnsignedLong( sequenceKey, 16 );
+    }
+
+    private static boolean isSequenceKey( final String key )
+    {
+        if ( key == null || key.length() != SEQUENCE_KEY_LENGTH )
+        {
+            return false;
+        }
+        for ( int i = 0; i < key.length(); i++ )
+        {
+            if ( Character.digit( key.charAt( i ), 16 ) < 0 )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PwmLogEvent decodeEvent( final String value )
+    {
+        try
+        {
+            return PwmLogEvent.fromEncodedString( value );
+        }
+        catch ( final Exception e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Descending stream of event sequences.
+     */
+    private interface SequenceCursor
+    {
+        /**
+         * @return the current sequence, or -1 if the cursor is exhausted
+         */
+        long peek( ) throws LocalDBException;
+
+        void pop( ) throws LocalDBException;
+
+        /**
+         * Skip all sequences greater than {@code sequence}.
+         */
+        void seek( long sequence ) throws LocalDBException;
+    }
+
+    /**
+     * Reads the sequences of a single index term a page at a time.  Each page uses its own short-lived
+     * iterator, so no store resources are held between calls.
+     */
+    private class IndexCursor implements SequenceCursor
+    {
+        private final String prefix;
+        private final long minSequence;
+        private final Deque<Long> buffer = new ArrayDeque<>();
+
+        private long upperBound;
+        private boolean exhausted;
+
+        IndexCursor( final String prefix, final long minSequence, final long maxSequence )
+        {
+            this.prefix = prefix;
+            this.minSequence = minSequence;
+            this.upperBound = maxSequence;
+        }
+
+        @Override
+        public long peek( ) throws LocalDBException
+        {
+            if ( buffer.isEmpty() && !exhausted )
+            {
+                fill();
+            }
+            return buffer.isEmpty() ? -1 : buffer.peekFirst();
+        }
+
+        @Override
+        public void pop( )
+        {
+            buffer.pollFirst();
+        }
+
+        @Override
+        public void seek( final long sequence )
+        {
+            while ( !buffer.isEmpty() && buffer.peekFirst() > sequence )
+            {
+                buffer.pollFirst();
+            }
+            if ( buffer.isEmpty() )
+            {
+                upperBound = Math.min( upperBound, sequence + 1 );
+            }
+        }
+
+        private void fill( ) throws LocalDBException
+        {
+            if ( upperBound <= minSequence )
+            {
+                exhausted = true;
+                return;
+            }
+
+            try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.reverseIterator(
+                    INDEX_DB, prefix + sequenceKey( minSequence ), prefix + sequenceKey( upperBound ) ) )
+            {
+                while ( buffer.size() < PAGE_SIZE && iterator.hasNext() )
+                {
+                    final long sequence = parseSequence( iterator.next().getKey().substring( prefix.length() ) );
+                    buffer.addLast( sequence );
+                    upperBound = sequence;
+                }
+                exhausted = !iterator.hasNext();
+            }
+        }
+    }
+
+    /**
+     * Sequences present in any of the child cursors.
+     */
+    private static class UnionCursor implements SequenceCursor
+    {
+        private final List<SequenceCursor> cursors;
+
+        UnionCursor( final List<SequenceCursor> cursors )
+        {
+            this.cursors = cursors;
+        }
+
+        @Override
+        public long peek( ) throws LocalDBException
+        {
+            long max = -1;
+            for ( final SequenceCursor cursor : cursors )
+            {
+                max = Math.max( max, cursor.peek() );
+            }
+            return max;
+        }
+
+        @Override
+        public void pop( ) throws LocalDBException
+        {
+            final long current = peek();
+            for ( final SequenceCursor cursor : cursors )
+            {
+                if ( cursor.peek() == current )
+                {
+                    cursor.pop();
+                }
+            }
+        }
+
+        @Override
+        public void seek( final long sequence ) throws LocalDBException
+        {
+            for ( final SequenceCursor cursor : cursors )
+            {
+                cursor.seek( sequence );
+            }
+        }
+    }
+
+    /**
+     * Sequences present in all the child cursors.
+     */
+    private static class IntersectCursor implements SequenceCursor
+    {
+        private final List<SequenceCursor> cursors;
+
+        IntersectCursor( final List<SequenceCursor> cursors )
+        {
+            this.cursors = cursors;
+        }
+
+        @Override
+        public long peek( ) throws LocalDBException
+        {
+            while ( true )
+            {
+                long target = Long.MAX_VALUE;
+                for ( final SequenceCursor cursor : cursors )
+                {
+                    final long current = cursor.peek();
+                    if ( current < 0 )
+                    {
+                        return -1;
+                    }
+                    target = Math.min( target, current );
+                }
+
+                boolean allMatch = true;
+                for ( final SequenceCursor cursor : cursors )
+                {
+                    cursor.seek( target );
+                    allMatch = allMatch && cursor.peek() == target;
+                }
+
+                if ( allMatch )
+                {
+                    return target;
+                }
+            }
+        }
+
+        @Override
+        public void pop( ) throws LocalDBException
+        {
+            for ( final SequenceCursor cursor : cursors )
+            {
+                cursor.pop();
+            }
+        }
+
+        @Override
+        public void seek( final long sequence ) throws LocalDBException
+        {
+            for ( final SequenceCursor cursor : cursors )
+            {
+                cursor.seek( sequence );
+            }
+        }
+    }
+
+    /**
+     * Encoded events, newest first.  Without an index cursor all events in the sequence range are read; with an
+     * index cursor only the candidate sequences are read, a page at a time.
+     */
+    private class EventIterator implements Iterator<String>
+    {
+        private final SequenceCursor cursor;
+        private final long minSequence;
+        private final Deque<String> buffer = new ArrayDeque<>();
+
+        private long upperBound;
+        private boolean exhausted;
+
+        EventIterator( final SequenceCursor cursor, final long minSequence, final long maxSequence )
+        {
+            this.cursor = cursor;
+            this.minSequence = minSequence;
+            this.upperBound = maxSequence;
+        }
+
+        @Override
+        public boolean hasNext( )
+        {
+            while ( buffer.isEmpty() && !exhausted )
+            {
+                try
+                {
+                    if ( cursor == null )
+                    {
+                        fillFromEvents();
+                    }
+                    else
+                    {
+                        fillFromCursor();
+                    }
+                }
+                catch ( final LocalDBException e )
+                {
+                    LOGGER.error( () -> "error reading log events: " + e.getMessage() );
+                    exhausted = true;
+                }
+            }
+            return !buffer.isEmpty();
+        }
+
+        @Override
+        public String next( )
+        {
+            if ( !hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+            return buffer.pollFirst();
+        }
+
+        private void fillFromEvents( ) throws LocalDBException
+        {
+            if ( upperBound <= minSequence )
+            {
+                exhausted = true;
+                return;
+            }
+
+            try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.reverseIterator(
+                    EVENT_DB, sequenceKey( minSequence ), sequenceKey( upperBound ) ) )
+            {
+                int count = 0;
+                while ( count < PAGE_SIZE && iterator.hasNext() )
+                {
+                    final Map.Entry<String, String> entry = iterator.next();
+                    buffer.addLast( entry.getValue() );
+                    upperBound = parseSequence( entry.getKey() );
+                    count++;
+                }
+                exhausted = !iterator.hasNext();
+            }
+        }
+
+        private void fillFromCursor( ) throws LocalDBException
+        {
+            final List<String> keys = new ArrayList<>( PAGE_SIZE );
+            while ( keys.size() < PAGE_SIZE )
+            {
+                final long sequence = cursor.peek();
+                if ( sequence < 0 )
+                {
+                    exhausted = true;
+                    break;
+                }
+                cursor.pop();
+                keys.add( sequenceKey( sequence ) );
+            }
+
+            if ( keys.isEmpty() )
+            {
+                return;
+            }
+
+            // events trimmed since their index entries were read are skipped
+            final Map<String, String> values = localDB.getAll( EVENT_DB, keys );
+            for ( final String key : keys )
+            {
+                final String value = values.get( key );
+                if ( value != null )
+                {
+                    buffer.addLast( value );
+                }
+            }
+        }
+    }
+}
@@ -39,27 +39,23 @@ import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.localdb.LocalDB;
 import password.pwm.util.localdb.LocalDBException;
-import password.pwm.util.localdb.LocalDBStoredQueue;
 
-import java.io.IOException;
 import java.text.NumberFormat;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.TreeMap;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Saves a recent copy of PWM events in the pwmDB.
@@ -71,12 +67,14 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
     private static final PwmLogger LOGGER = PwmLogger.forClass( LocalDBLogger.class );
 
     private final LocalDBLoggerSettings settings;
-    private final LocalDBStoredQueue localDBListQueue;
-    private final Queue<PwmLogEvent> tempMemoryEventQueue;
+    private final LocalDBLogStore logStore;
+    private final LocalDBLogRingBuffer eventBuffer;
+    private final int[] levelDiscardThresholds;
     private final ScheduledExecutorService cleanerService;
     private final ScheduledExecutorService writerService;
     private final AtomicBoolean cleanOnWriteFlag = new AtomicBoolean( false );
-    private final AtomicBoolean flushScheduled = new AtomicBoolean( true );
+    private final AtomicBoolean flushScheduled = new AtomicBoolean( false );
+    private final AtomicBoolean immediateFlushPending = new AtomicBoolean( false );
 
     private final StatisticCounterBundle<CounterStat> stats = new StatisticCounterBundle<>( CounterStat.class );
     private final StatisticAverageBundle<AverageStat> averages = new StatisticAverageBundle<>( AverageStat.class );
@@ -89,6 +87,10 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
         CleanerCycles,
         EventsRemoved,
         EventsWritten,
+        EventsDiscardedByLevel,
+        EventsDiscardedBySample,
+        EventsDiscardedAfterWait,
+        BufferFullWaits,
     }
 
     enum AverageStat
@@ -99,7 +101,7 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
 
     private boolean hasShownReadError = false;
 
-    private static final String STORAGE_FORMAT_VERSION = "4";
+    private static final String STORAGE_FORMAT_VERSION = "5";
 
     public LocalDBLogger(
             final PwmApplication pwmApplication,
@@ -114,35 +116,31 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
                 ? LocalDBLoggerSettings.builder().build().applyValueChecks()
                 : settings.applyValueChecks();
 
-        this.localDBListQueue = LocalDBStoredQueue.createLocalDBStoredQueue(
-                pwmApplication,
-                localDB,
-                LocalDB.DB.EVENTLOG_EVENTS
-        );
+        this.logStore = new LocalDBLogStore( localDB, this.settings.getFlags().contains( LocalDBLoggerSettings.Flag.TextIndex ) );
 
         if ( this.settings.getMaxEvents() == 0 )
         {
             LOGGER.info( () -> "maxEvents set to zero, clearing LocalDBLogger history and LocalDBLogger will remain closed" );
-            localDBListQueue.clear();
+            logStore.clear();
             throw new IllegalArgumentException( "maxEvents=0, will remain closed" );
         }
 
-        tempMemoryEventQueue = new ArrayBlockingQueue<>( this.settings.getMaxBufferSize(), true );
+        eventBuffer = new LocalDBLogRingBuffer( this.settings.getMaxBufferSize() );
+        levelDiscardThresholds = makeLevelDiscardThresholds( eventBuffer.capacity() );
 
         if ( pwmApplication != null )
         {
-            pwmApplication.readAppAttribute( AppAttribute.LOCALDB_LOGGER_STORAGE_FORMAT, String.class )
-                    .ifPresent( ( currentFormat ) ->
-                    {
-                        if ( !STORAGE_FORMAT_VERSION.equals( currentFormat ) )
-                        {
-                            LOGGER.warn( () -> "localdb logger is using outdated format, clearing existing records (existing='"
-                                    + currentFormat + "', current='" + STORAGE_FORMAT_VERSION + "')" );
-
-                            localDBListQueue.clear();
-                            pwmApplication.writeAppAttribute( AppAttribute.LOCALDB_LOGGER_STORAGE_FORMAT, STORAGE_FORMAT_VERSION );
-                        }
-                    } );
+            final String currentFormat = pwmApplication.readAppAttribute( AppAttribute.LOCALDB_LOGGER_STORAGE_FORMAT, String.class ).orElse( null );
+            if ( !STORAGE_FORMAT_VERSION.equals( currentFormat ) )
+            {
+                if ( logStore.size() > 0 )
+                {
+                    LOGGER.warn( () -> "localdb logger is using outdated format, clearing existing records (existing='"
+                            + currentFormat + "', current='" + STORAGE_FORMAT_VERSION + "')" );
+                    logStore.clear();
+                }
+                pwmApplication.writeAppAttribute( AppAttribute.LOCALDB_LOGGER_STORAGE_FORMAT, STORAGE_FORMAT_VERSION );
+            }
         }
 
         setStatus( STATUS.OPEN );
@@ -161,7 +159,7 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
 
         cleanerService.scheduleAtFixedRate( new CleanupTask(), 0, this.settings.cleanerFrequency().asMillis(), TimeUnit.MILLISECONDS );
 
-        cleanOnWriteFlag.set( tempMemoryEventQueue.size() >= this.settings.getMaxEvents() );
+        cleanOnWriteFlag.set( logStore.size() >= this.settings.getMaxEvents() );
 
         setStatus( STATUS.OPEN );
     }
@@ -169,17 +167,16 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
 
     public Optional<Instant> getTailDate( )
     {
-        final PwmLogEvent loopEvent;
-        if ( localDBListQueue.isEmpty() )
+        if ( logStore.size() == 0 )
         {
             return Optional.empty();
         }
         try
         {
-            loopEvent = readEvent( localDBListQueue.getLast() );
-            if ( loopEvent != null )
+            final Optional<PwmLogEvent> loopEvent = logStore.readEldestEvent();
+            if ( loopEvent.isPresent() )
             {
-                final Instant tailDate = loopEvent.getTimestamp();
+                final Instant tailDate = loopEvent.get().getTimestamp();
                 if ( tailDate != null )
                 {
                     return Optional.of( tailDate );
@@ -194,21 +191,31 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
         return Optional.empty();
     }
 
-    private void scheduleNextFlush()
+    private static int[] makeLevelDiscardThresholds( final int capacity )
+    {
+        final int[] thresholds = new int[PwmLogLevel.values().length];
+        Arrays.fill( thresholds, Integer.MAX_VALUE );
+        thresholds[PwmLogLevel.TRACE.ordinal()] = capacity / 2;
+        thresholds[PwmLogLevel.DEBUG.ordinal()] = capacity * 3 / 4;
+        thresholds[PwmLogLevel.INFO.ordinal()] = capacity * 9 / 10;
+        return thresholds;
+    }
+
+    private void scheduleNextFlush( final int bufferedEvents )
     {
-        if ( tempMemoryEventQueue.size() > settings.getMaxBufferSize() / 2 )
+        if ( bufferedEvents > eventBuffer.capacity() / 2 )
         {
-            writerService.schedule( new FlushTask(), 0, TimeUnit.SECONDS );
+            if ( immediateFlushPending.compareAndSet( false, true ) )
+            {
+                writerService.execute( new FlushTask( false ) );
+            }
             return;
         }
 
-        if ( flushScheduled.get() )
+        if ( flushScheduled.compareAndSet( false, true ) )
         {
-            return;
+            writerService.schedule( new FlushTask( true ), 5, TimeUnit.SECONDS );
         }
-
-        flushScheduled.set( true );
-        writerService.schedule( new FlushTask(), 5, TimeUnit.SECONDS );
     }
 
 
@@ -220,14 +227,16 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
             debugData.put( "EventsTailAge", tailAge == null ? "n/a" : TimeDuration.fromCurrent( tailAge ).asCompactString() );
         }
 
-        debugData.put( "EventsStored", String.valueOf( localDBListQueue.size() ) );
+        debugData.put( "EventsStored", String.valueOf( logStore.size() ) );
         debugData.put( "ConfiguredMaxEvents", PwmNumberFormat.forDefaultLocale().format( settings.getMaxEvents() ) );
         debugData.put( "ConfiguredMaxAge", settings.getMaxAge().asCompactString() );
         debugData.put( "BufferAverageLatency", averages.getFormattedAverage( AverageStat.avgFlushLatency ) );
         debugData.put( "BufferAverageSize", averages.getFormattedAverage( AverageStat.avgFlushCount ) );
-        debugData.put( "BufferItemCount", String.valueOf( tempMemoryEventQueue.size() ) );
+        debugData.put( "BufferItemCount", String.valueOf( eventBuffer.size() ) );
+        debugData.put( "BufferOverflowPolicy", settings.getOverflowPolicy().name() );
 
         debugData.putAll( averages.debugStats() );
+        debugData.putAll( stats.debugStats() );
 
         return Collections.unmodifiableMap( debugData );
     }
@@ -245,12 +254,12 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
         if ( status() != STATUS.CLOSED )
         {
             LOGGER.trace( () -> "LocalDBLogger closing" );
-            flushedEvents += tempMemoryEventQueue.size();
+            flushedEvents += eventBuffer.size();
             if ( cleanerService != null )
             {
                 cleanerService.shutdown();
             }
-            writerService.execute( new FlushTask() );
+            writerService.execute( new FlushTask( false ) );
             JavaHelper.closeAndWaitExecutor( writerService, TimeDuration.SECONDS_10 );
         }
         setStatus( STATUS.CLOSED );
@@ -261,14 +270,14 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
 
     public int getStoredEventCount( )
     {
-        return localDBListQueue.size();
+        return logStore.size();
     }
 
     private int determineTailRemovalCount( )
     {
         final int maxTrailSize = settings.getMaxTrimSize();
 
-        final int currentItemCount = localDBListQueue.size();
+        final int currentItemCount = logStore.size();
 
         // must keep at least one position populated
         if ( currentItemCount <= LocalDBLoggerSettings.MINIMUM_MAXIMUM_EVENTS )
@@ -316,7 +325,7 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
             final LocalDBSearchQuery searchParameters
     )
     {
-        return new LocalDBSearchResults( this, localDBListQueue.iterator(), searchParameters );
+        return new LocalDBSearchResults( this, logStore.search( searchParameters ), searchParameters );
     }
 
     PwmLogEvent readEvent( final String value )
@@ -336,154 +345,103 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
         return null;
     }
 
-    boolean checkEventForParams(
-            final PwmLogEvent event,
-            final LocalDBSearchQuery searchParameters
-    )
+    public void writeEvent( final PwmLogEvent event )
     {
-        if ( event == null )
-        {
-            return false;
-        }
-
-        boolean eventMatchesParams = true;
-
-        if ( searchParameters.getMinimumLevel() != null )
-        {
-            if ( event.getLevel().compareTo( searchParameters.getMinimumLevel() ) <= -1 )
-            {
-                eventMatchesParams = false;
-            }
-        }
-
-        Pattern pattern = null;
-        try
-        {
-            if ( searchParameters.getUsername() != null && searchParameters.getUsername().length() > 0 )
-            {
-                pattern = Pattern.compile( searchParameters.getUsername() );
-            }
-        }
-        catch ( final PatternSyntaxException e )
-        {
-            LOGGER.trace( () -> "invalid regex syntax for " + searchParameters.getUsername() + ", reverting to plaintext search" );
-        }
-        if ( pattern != null )
-        {
-            final Matcher matcher = pattern.matcher( event.getUsername() == null ? "" : event.getUsername() );
-            if ( !matcher.find() )
-            {
-                eventMatchesParams = false;
-            }
-        }
-        else if ( eventMatchesParams && ( searchParameters.getUsername() != null && searchParameters.getUsername().length() > 1 ) )
-        {
-            final String eventUsername = event.getUsername();
-            if ( eventUsername == null || !eventUsername.equalsIgnoreCase( searchParameters.getUsername() ) )
-            {
-                eventMatchesParams = false;
-            }
-        }
-
-        if ( eventMatchesParams && ( searchParameters.getText() != null && searchParameters.getText().length() > 0 ) )
+        if ( status() == STATUS.OPEN )
         {
-            final String eventMessage = event.getMessage();
-            final String textLowercase = searchParameters.getText().toLowerCase();
-            boolean isAMatch = false;
-            if ( eventMessage != null && eventMessage.length() > 0 )
+            if ( settings.getMaxEvents() > 0 )
             {
-                if ( eventMessage.toLowerCase().contains( textLowercase ) )
-                {
-                    isAMatch = true;
-                }
-                else if ( event.getTopic() != null && event.getTopic().length() > 0 )
+                final int bufferedEvents = eventBuffer.size();
+                if ( admitEvent( event, bufferedEvents ) )
                 {
-                    if ( event.getTopic().toLowerCase().contains( textLowercase ) )
+                    if ( eventBuffer.offer( event ) || waitAndOffer( event ) )
                     {
-                        isAMatch = true;
+                        scheduleNextFlush( bufferedEvents + 1 );
                     }
                 }
-                if ( !isAMatch )
-                {
-                    eventMatchesParams = false;
-                }
             }
         }
+    }
 
-        if ( searchParameters.getEventType() != null )
+    /**
+     * Applies the configured overflow policy to events below WARN.  Only reads the approximate buffer size, so
+     * admitting or shedding an event never contends with other producers.
+     */
+    private boolean admitEvent( final PwmLogEvent event, final int bufferedEvents )
+    {
+        if ( event.getLevel().compareTo( PwmLogLevel.WARN ) >= 0 )
         {
-            if ( searchParameters.getEventType() == EventType.System )
-            {
-                if ( event.getUsername() != null && event.getUsername().length() > 0 )
+            return true;
+        }
+
+        switch ( settings.getOverflowPolicy() )
+        {
+            case DropLowestLevels:
+                if ( bufferedEvents >= levelDiscardThresholds[event.getLevel().ordinal()] )
                 {
-                    eventMatchesParams = false;
+                    stats.increment( CounterStat.EventsDiscardedByLevel );
+                    return false;
                 }
-            }
-            else if ( searchParameters.getEventType() == EventType.User )
-            {
-                if ( event.getUsername() == null || event.getUsername().length() < 1 )
+                return true;
+
+            case Sample:
+                if ( bufferedEvents >= eventBuffer.capacity() / 2
+                        && ThreadLocalRandom.current().nextInt( settings.getOverflowSampleRate() ) != 0 )
                 {
-                    eventMatchesParams = false;
+                    stats.increment( CounterStat.EventsDiscardedBySample );
+                    return false;
                 }
-            }
+                return true;
+
+            case Block:
+                return true;
+
+            default:
+                JavaHelper.unhandledSwitchStatement( settings.getOverflowPolicy() );
         }
 
-        return eventMatchesParams;
+        return true;
     }
 
-    public void writeEvent( final PwmLogEvent event )
+    private boolean waitAndOffer( final PwmLogEvent event )
     {
-        if ( status() == STATUS.OPEN )
+        stats.increment( CounterStat.BufferFullWaits );
+        scheduleNextFlush( eventBuffer.capacity() );
+
+        final long deadline = System.nanoTime() + settings.getMaxBufferWaitTime().asMillis() * 1_000_000L;
+        long parkNanos = 100_000L;
+        while ( status() == STATUS.OPEN && System.nanoTime() - deadline < 0 )
         {
-            if ( settings.getMaxEvents() > 0 )
+            LockSupport.parkNanos( parkNanos );
+            if ( eventBuffer.offer( event ) )
             {
-                scheduleNextFlush();
-
-                final Instant startTime = Instant.now();
-                while ( !tempMemoryEventQueue.offer( event ) )
-                {
-                    if ( TimeDuration.fromCurrent( startTime ).isLongerThan( settings.getMaxBufferWaitTime() ) )
-                    {
-                        LOGGER.warn( () -> "discarded event after waiting max buffer wait time of " + settings.getMaxBufferWaitTime().asCompactString() );
-                        return;
-                    }
-                    TimeDuration.of( 100, TimeDuration.Unit.MILLISECONDS ).pause();
-                }
+                return true;
             }
+            parkNanos = Math.min( parkNanos * 2, 100_000_000L );
         }
+
+        stats.increment( CounterStat.EventsDiscardedAfterWait );
+        return false;
     }
 
-    private void flushEvents( )
+    private boolean flushEvents( )
     {
-        if ( tempMemoryEventQueue.isEmpty() )
+        final List<PwmLogEvent> localBuffer = new ArrayList<>( Math.min( eventBuffer.size(), settings.getMaxBufferSize() ) );
+        if ( eventBuffer.drainTo( localBuffer, settings.getMaxBufferSize() ) == 0 )
         {
-            return;
+            return false;
         }
 
-        Instant eldestEntry = Instant.now();
-        final List<String> localBuffer = new ArrayList<>( Math.min( tempMemoryEventQueue.size(), settings.getMaxBufferSize() ) );
-        while ( localBuffer.size() < ( settings.getMaxBufferSize() ) - 1 && !tempMemoryEventQueue.isEmpty() )
-        {
-            final PwmLogEvent pwmLogEvent = tempMemoryEventQueue.poll();
-            try
-            {
-                localBuffer.add( pwmLogEvent.toEncodedString() );
-                eldestEntry = pwmLogEvent.getTimestamp();
-            }
-            catch ( final IOException e )
-            {
-                LOGGER.warn( () -> "error flushing events to localDB: " + e.getMessage(), e );
-            }
-        }
+        final Instant eldestEntry = localBuffer.get( 0 ).getTimestamp();
 
         try
         {
             if ( cleanOnWriteFlag.get() )
             {
-                localDBListQueue.removeLast( localBuffer.size() );
-                stats.increment( CounterStat.EventsRemoved, localBuffer.size() );
+                final int removedEvents = logStore.removeEldest( localBuffer.size() );
+                stats.increment( CounterStat.EventsRemoved, removedEvents );
             }
-            localDBListQueue.addAll( localBuffer );
+            logStore.append( localBuffer );
 
             stats.increment( CounterStat.BufferFlushCycles );
             stats.increment( CounterStat.EventsWritten, localBuffer.size() );
@@ -496,18 +454,36 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
         }
 
         debugOutputter.conditionallyExecuteTask();
+        return true;
     }
 
     private class FlushTask implements Runnable
     {
+        private final boolean scheduledFlush;
+
+        FlushTask( final boolean scheduledFlush )
+        {
+            this.scheduledFlush = scheduledFlush;
+        }
+
         @Override
         public void run( )
         {
+            if ( scheduledFlush )
+            {
+                flushScheduled.set( false );
+            }
+            else
+            {
+                immediateFlushPending.set( false );
+            }
+
             try
             {
-                while ( !tempMemoryEventQueue.isEmpty() && status() == STATUS.OPEN )
+                boolean flushed = true;
+                while ( flushed && status() == STATUS.OPEN )
                 {
-                    flushEvents();
+                    flushed = flushEvents();
                 }
             }
             catch ( final Throwable t )
@@ -515,7 +491,10 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
                 LOGGER.fatal( () -> "localDBLogger flush thread has failed: " + t.getMessage(), t );
             }
 
-            flushScheduled.set( false );
+            if ( !eventBuffer.isEmpty() && status() == STATUS.OPEN )
+            {
+                scheduleNextFlush( eventBuffer.size() );
+            }
         }
     }
 
@@ -527,15 +506,16 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
             try
             {
                 int cleanupCount = 1;
-                while ( cleanupCount > 0 && ( status() == STATUS.OPEN && localDBListQueue.getLocalDB().status() == LocalDB.Status.OPEN ) )
+                while ( cleanupCount > 0 && ( status() == STATUS.OPEN && logStore.getLocalDB().status() == LocalDB.Status.OPEN ) )
                 {
                     cleanupCount = determineTailRemovalCount();
                     if ( cleanupCount > 0 )
                     {
                         cleanOnWriteFlag.set( true );
                         final Instant startTime = Instant.now();
-                        localDBListQueue.removeLast( cleanupCount );
-                        stats.increment( CounterStat.EventsRemoved, cleanupCount );
+                        final int removedEvents = logStore.removeEldest( cleanupCount );
+                        stats.increment( CounterStat.EventsRemoved, removedEvents );
+                        cleanupCount = removedEvents;
                         final TimeDuration purgeTime = TimeDuration.fromCurrent( startTime );
                         final TimeDuration pauseTime = TimeDuration.of( JavaHelper.rangeCheck( 20, 2000, ( int ) purgeTime.asMillis() ), TimeDuration.Unit.MILLISECONDS );
                         pauseTime.pause();
@@ -547,7 +527,7 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
             {
                 LOGGER.fatal( () -> "unexpected error during LocalDBLogger log event cleanup: " + e.getMessage(), e );
             }
-            cleanOnWriteFlag.set( localDBListQueue.size() >= settings.getMaxEvents() );
+            cleanOnWriteFlag.set( logStore.size() >= settings.getMaxEvents() );
         }
     }
 
@@ -61,10 +61,45 @@ public class LocalDBLoggerSettings implements Serializable
     @Builder.Default
     private int maxTrimSize = 501;
 
+    @Builder.Default
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DropLowestLevels;
+
+    @Builder.Default
+    private int overflowSampleRate = 10;
+
 
     public enum Flag
     {
         DevDebug,
+
+        /**
+         * Maintain an inverted index of message and topic words.  Text searches then only match events containing
+         * each word of the search text as a whole word.
+         */
+        TextIndex,
+    }
+
+    /**
+     * Behavior of {@link LocalDBLogger#writeEvent(PwmLogEvent)} when the write buffer is filling faster than the
+     * writer can drain it.  Under every policy, events at {@link PwmLogLevel#WARN} and above wait up to
+     * {@code maxBufferWaitTime} for space before being discarded.
+     */
+    public enum OverflowPolicy
+    {
+        /**
+         * Discard TRACE events once the buffer is half full, DEBUG at three quarters and INFO at nine tenths.
+         */
+        DropLowestLevels,
+
+        /**
+         * Once the buffer is half full, keep roughly one in {@code overflowSampleRate} events below WARN.
+         */
+        Sample,
+
+        /**
+         * Wait up to {@code maxBufferWaitTime} for space for any event.
+         */
+        Block,
     }
 
     TimeDuration cleanerFrequency()
@@ -79,6 +114,8 @@ public class LocalDBLoggerSettings implements Serializable
         return toBuilder()
                 .maxEvents( maxEvents < 1 ? 0 : Math.max( MINIMUM_MAXIMUM_EVENTS, maxEvents ) )
                 .maxAge( maxAge == null || maxAge.isShorterThan( MINIMUM_MAX_AGE ) ? MINIMUM_MAX_AGE : maxAge )
+                .overflowPolicy( overflowPolicy == null ? OverflowPolicy.DropLowestLevels : overflowPolicy )
+                .overflowSampleRate( Math.max( 1, overflowSampleRate ) )
                 .build();
     }
 
@@ -89,6 +126,10 @@ public class LocalDBLoggerSettings implements Serializable
         {
             flags.add( Flag.DevDebug );
         }
+        if ( Boolean.parseBoolean( appConfig.readAppProperty( AppProperty.LOCALDB_LOGWRITER_TEXT_INDEX_ENABLE ) ) )
+        {
+            flags.add( Flag.TextIndex );
+        }
         final int maxEvents = ( int ) appConfig.readSettingAsLong( PwmSetting.EVENTS_PWMDB_MAX_EVENTS );
         final long maxAgeMS = 1000 * appConfig.readSettingAsLong( PwmSetting.EVENTS_PWMDB_MAX_AGE );
         final TimeDuration maxAge = TimeDuration.of( maxAgeMS, TimeDuration.Unit.MILLISECONDS );
@@ -98,6 +139,11 @@ public class LocalDBLoggerSettings implements Serializable
                 TimeDuration.Unit.MILLISECONDS
         );
         final int maxTrimSize = Integer.parseInt( appConfig.readAppProperty( AppProperty.LOCALDB_LOGWRITER_MAX_TRIM_SIZE ) );
+        final OverflowPolicy overflowPolicy = JavaHelper.readEnumFromString(
+                OverflowPolicy.class,
+                OverflowPolicy.DropLowestLevels,
+                appConfig.readAppProperty( AppProperty.LOCALDB_LOGWRITER_OVERFLOW_POLICY ) );
+        final int overflowSampleRate = Integer.parseInt( appConfig.readAppProperty( AppProperty.LOCALDB_LOGWRITER_OVERFLOW_SAMPLE_RATE ) );
 
         return LocalDBLoggerSettings.builder()
                 .maxEvents( maxEvents )
@@ -106,6 +152,8 @@ public class LocalDBLoggerSettings implements Serializable
                 .maxBufferSize( maxBufferSize )
                 .maxBufferWaitTime( maxBufferWaitTime )
                 .maxTrimSize( maxTrimSize )
+                .overflowPolicy( overflowPolicy )
+                .overflowSampleRate( overflowSampleRate )
                 .build().applyValueChecks();
     }
 }
@@ -0,0 +1,148 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.logging;
+
+import password.pwm.util.java.StringUtil;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Search query parameters prepared once per search and applied to each candidate event.
+ */
+class LocalDBSearchFilter
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( LocalDBSearchFilter.class );
+
+    private final LocalDBSearchQuery searchParameters;
+    private final Pattern usernamePattern;
+    private final String literalUsername;
+    private final String textLowercase;
+
+    LocalDBSearchFilter( final LocalDBSearchQuery searchParameters )
+    {
+        this.searchParameters = searchParameters;
+        this.textLowercase = StringUtil.isEmpty( searchParameters.getText() ) ? null : searchParameters.getText().toLowerCase();
+
+        final String username = searchParameters.getUsername();
+        Pattern pattern = null;
+        if ( !StringUtil.isEmpty( username ) )
+        {
+            try
+            {
+                pattern = Pattern.compile( username );
+            }
+            catch ( final PatternSyntaxException e )
+            {
+                LOGGER.trace( () -> "invalid regex syntax for " + username + ", reverting to plaintext search" );
+            }
+        }
+        this.usernamePattern = pattern;
+        this.literalUsername = pattern == null && !StringUtil.isEmpty( username ) ? username : null;
+    }
+
+    boolean matches( final PwmLogEvent event )
+    {
+        if ( event == null )
+        {
+            return false;
+        }
+
+        if ( searchParameters.getMinimumLevel() != null )
+        {
+            if ( event.getLevel().compareTo( searchParameters.getMinimumLevel() ) <= -1 )
+            {
+                return false;
+            }
+        }
+
+        if ( searchParameters.getStartTime() != null && event.getTimestamp().isBefore( searchParameters.getStartTime() ) )
+        {
+            return false;
+        }
+
+        if ( searchParameters.getEndTime() != null && event.getTimestamp().isAfter( searchParameters.getEndTime() ) )
+        {
+            return false;
+        }
+
+        if ( usernamePattern != null )
+        {
+            if ( !usernamePattern.matcher( event.getUsername() == null ? "" : event.getUsername() ).find() )
+            {
+                return false;
+            }
+        }
+        else if ( literalUsername != null )
+        {
+            if ( event.getUsername() == null || !event.getUsername().equalsIgnoreCase( literalUsername ) )
+            {
+                return false;
+            }
+        }
+
+        if ( !StringUtil.isEmpty( searchParameters.getSessionID() )
+                && !searchParameters.getSessionID().equalsIgnoreCase( event.getSessionID() ) )
+        {
+            return false;
+        }
+
+        if ( !StringUtil.isEmpty( searchParameters.getRequestID() )
+                && !searchParameters.getRequestID().equalsIgnoreCase( event.getRequestID() ) )
+        {
+            return false;
+        }
+
+        if ( textLowercase != null )
+        {
+            final String eventMessage = event.getMessage();
+            if ( eventMessage != null && eventMessage.length() > 0 )
+            {
+                final boolean isAMatch = eventMessage.toLowerCase().contains( textLowercase )
+                        || ( event.getTopic() != null && event.getTopic().toLowerCase().contains( textLowercase ) );
+                if ( !isAMatch )
+                {
+                    return false;
+                }
+            }
+        }
+
+        if ( searchParameters.getEventType() != null )
+        {
+            if ( searchParameters.getEventType() == LocalDBLogger.EventType.System )
+            {
+                if ( event.getUsername() != null && event.getUsername().length() > 0 )
+                {
+                    return false;
+                }
+            }
+            else if ( searchParameters.getEventType() == LocalDBLogger.EventType.User )
+            {
+                if ( event.getUsername() == null || event.getUsername().length() < 1 )
+                {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+}
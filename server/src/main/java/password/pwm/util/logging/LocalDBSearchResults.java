@@ -31,6 +31,7 @@ public class LocalDBSearchResults implements Iterator<PwmLogEvent>
     private transient LocalDBLogger localDBLogger;
     private final Iterator<String> localDBIterator;
     private final LocalDBSearchQuery searchParameters;
+    private final LocalDBSearchFilter searchFilter;
 
     private final Instant startTime;
 
@@ -47,6 +48,7 @@ public class LocalDBSearchResults implements Iterator<PwmLogEvent>
         startTime = Instant.now();
         this.localDBIterator = localDBIterator;
         this.searchParameters = searchParameters;
+        this.searchFilter = new LocalDBSearchFilter( searchParameters );
         nextEvent = readNextEvent();
     }
 
@@ -105,7 +107,7 @@ public class LocalDBSearchResults implements Iterator<PwmLogEvent>
             }
 
             final PwmLogEvent logEvent = localDBLogger.readEvent( nextDbValue );
-            if ( logEvent != null && localDBLogger.checkEventForParams( logEvent, searchParameters ) )
+            if ( searchFilter.matches( logEvent ) )
             {
                 eventCount++;
                 return logEvent;
@@ -21,10 +21,15 @@
 package password.pwm.util.logging;
 
 import lombok.Value;
+import password.pwm.util.java.CompactRecordReader;
+import password.pwm.util.java.CompactRecordWriter;
 import password.pwm.util.java.JavaHelper;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -59,6 +64,79 @@ public class LoggedThrowable implements Serializable
                         .collect( Collectors.toUnmodifiableList() ) );
     }
 
+    static void writeTo( final LoggedThrowable loggedThrowable, final CompactRecordWriter writer )
+    {
+        if ( loggedThrowable == null )
+        {
+            writer.writeByte( 0 );
+            return;
+        }
+
+        writer.writeByte( 1 );
+        writer.writeString( loggedThrowable.getMessage() );
+
+        final List<LoggedStackTraceElement> stackTrace = loggedThrowable.getStackTrace();
+        writer.writeVarLong( stackTrace == null ? 0 : stackTrace.size() + 1L );
+        if ( stackTrace != null )
+        {
+            for ( final LoggedStackTraceElement element : stackTrace )
+            {
+                writer.writeString( element.getDeclaringClass() );
+                writer.writeString( element.getMethodName() );
+                writer.writeString( element.getFileName() );
+                writer.writeZigZag( element.getLineNumber() );
+            }
+        }
+
+        writeTo( loggedThrowable.getCause(), writer );
+
+        final List<LoggedThrowable> suppressed = loggedThrowable.getSuppressedExceptions();
+        writer.writeVarLong( suppressed == null ? 0 : suppressed.size() + 1L );
+        if ( suppressed != null )
+        {
+            suppressed.forEach( suppressedThrowable -> writeTo( suppressedThrowable, writer ) );
+        }
+    }
+
+    static LoggedThrowable readFrom( final CompactRecordReader reader )
+            throws IOException
+    {
+        if ( reader.readByte() == 0 )
+        {
+            return null;
+        }
+
+        final String message = reader.readString();
+
+        final int stackTraceCount = reader.readVarInt();
+        List<LoggedStackTraceElement> stackTrace = null;
+        if ( stackTraceCount > 0 )
+        {
+            final List<LoggedStackTraceElement> elements = new ArrayList<>( stackTraceCount - 1 );
+            for ( int i = 1; i < stackTraceCount; i++ )
+            {
+                elements.add( new LoggedStackTraceElement( reader.readString(), reader.readString(), reader.readString(), ( int ) reader.readZigZag() ) );
+            }
+            stackTrace = Collections.unmodifiableList( elements );
+        }
+
+        final LoggedThrowable cause = readFrom( reader );
+
+        final int suppressedCount = reader.readVarInt();
+        List<LoggedThrowable> suppressed = null;
+        if ( suppressedCount > 0 )
+        {
+            final List<LoggedThrowable> throwables = new ArrayList<>( suppressedCount - 1 );
+            for ( int i = 1; i < suppressedCount; i++ )
+            {
+                throwables.add( readFrom( reader ) );
+            }
+            suppressed = Collections.unmodifiableList( throwables );
+        }
+
+        return new LoggedThrowable( message, stackTrace, cause, suppressed );
+    }
+
     @Value
     static class LoggedStackTraceElement implements Serializable
     {
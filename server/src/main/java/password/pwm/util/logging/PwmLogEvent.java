@@ -24,9 +24,12 @@ import lombok.Value;
 import org.apache.commons.csv.CSVPrinter;
 import password.pwm.PwmConstants;
 import password.pwm.bean.SessionLabel;
+import password.pwm.util.java.CompactRecordReader;
+import password.pwm.util.java.CompactRecordWriter;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.json.JsonFactory;
 import password.pwm.util.java.StringUtil;
+import password.pwm.util.localdb.LocalDBBinaryValues;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -40,6 +43,7 @@ import java.util.List;
 public class PwmLogEvent implements Serializable, Comparable<PwmLogEvent>
 {
     private static final int MAX_MESSAGE_LENGTH = 50_000;
+    private static final int BINARY_FORMAT_VERSION = 1;
 
     private final Instant timestamp;
     private final String sessionID;
@@ -68,9 +72,44 @@ public class PwmLogEvent implements Serializable, Comparable<PwmLogEvent>
     public static PwmLogEvent fromEncodedString( final String encodedString )
             throws ClassNotFoundException, IOException
     {
+        if ( LocalDBBinaryValues.isText( encodedString ) )
+        {
+            return fromEncodedBytes( LocalDBBinaryValues.fromText( encodedString ) );
+        }
         return JsonFactory.get().deserialize( encodedString, PwmLogEvent.class );
     }
 
+    public static PwmLogEvent fromEncodedBytes( final byte[] encodedBytes )
+            throws IOException
+    {
+        if ( encodedBytes.length > 0 && encodedBytes[0] == '{' )
+        {
+            return JsonFactory.get().deserialize( new String( encodedBytes, PwmConstants.DEFAULT_CHARSET ), PwmLogEvent.class );
+        }
+
+        final CompactRecordReader reader = new CompactRecordReader( encodedBytes );
+        final int version = reader.readByte();
+        if ( version != BINARY_FORMAT_VERSION )
+        {
+            throw new IOException( "unsupported log event format version " + version );
+        }
+
+        final Instant timestamp = reader.readInstant();
+        final PwmLogLevel level = reader.readEnum( PwmLogLevel.class );
+        final String topic = reader.readString();
+        final String message = reader.readString();
+        final SessionLabel sessionLabel = SessionLabel.builder()
+                .sessionID( reader.readString() )
+                .requestID( reader.readString() )
+                .username( reader.readString() )
+                .domain( reader.readString() )
+                .sourceAddress( reader.readString() )
+                .build();
+        final LoggedThrowable loggedThrowable = LoggedThrowable.readFrom( reader );
+
+        return new PwmLogEvent( timestamp, topic, message, sessionLabel, loggedThrowable, level );
+    }
+
 
     private PwmLogEvent(
             final Instant timestamp,
@@ -158,7 +197,24 @@ public class PwmLogEvent implements Serializable, Comparable<PwmLogEvent>
     String toEncodedString( )
             throws IOException
     {
-        return JsonFactory.get().serialize( this, PwmLogEvent.class );
+        return LocalDBBinaryValues.toText( toEncodedBytes() );
+    }
+
+    byte[] toEncodedBytes( )
+    {
+        final CompactRecordWriter writer = new CompactRecordWriter( 64 + ( message == null ? 0 : message.length() ) );
+        writer.writeByte( BINARY_FORMAT_VERSION );
+        writer.writeInstant( timestamp );
+        writer.writeEnum( level );
+        writer.writeString( topic );
+        writer.writeString( message );
+        writer.writeString( sessionID );
+        writer.writeString( requestID );
+        writer.writeString( username );
+        writer.writeString( domain );
+        writer.writeString( sourceAddress );
+        LoggedThrowable.writeTo( loggedThrowable, writer );
+        return writer.toByteArray();
     }
 
     Throwable getThrowable()
@@ -0,0 +1,323 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.macro;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * An ordered set of {@link Macro} implementations along with a dispatch table keyed by macro name.
+ *
+ * <p>Each macro pattern is reduced to the literal text that must follow the leading {@code @} of any match, for
+ * example {@code User:ID@} for {@code @User:ID@} or {@code User:LDAP} and {@code LDAP} for
+ * {@code @(User:LDAP|LDAP)...@}.  {@link #candidates(String)} scans the input once for {@code @} tokens and looks up
+ * the name following each one, so only macros which can possibly match are handed to their regular expression.
+ * Macros whose pattern can not be reduced to a literal are always candidates.</p>
+ */
+class CompiledMacroSet
+{
+    private static final String REGEX_META_CHARS = "\\[](){}.*+?^$|";
+    private static final String OPTIONAL_QUANTIFIERS = "*?{";
+
+    private final List<Macro> macros;
+    private final Map<String, List<MacroPrefix>> prefixesByName;
+    private final List<MacroPrefix> openPrefixes;
+    private final BitSet unconditionalMacros;
+
+    @Value
+    private static class MacroPrefix
+    {
+        private final int index;
+        private final String prefix;
+    }
+
+    private CompiledMacroSet(
+            final List<Macro> macros,
+            final Map<String, List<MacroPrefix>> prefixesByName,
+            final List<MacroPrefix> openPrefixes,
+            final BitSet unconditionalMacros
+    )
+    {
+        this.macros = macros;
+        this.prefixesByName = prefixesByName;
+        this.openPrefixes = openPrefixes;
+        this.unconditionalMacros = unconditionalMacros;
+    }
+
+    static CompiledMacroSet compile( final List<Macro> macros )
+    {
+        final Map<String, List<MacroPrefix>> prefixesByName = new HashMap<>();
+        final List<MacroPrefix> openPrefixes = new ArrayList<>();
+        final BitSet unconditionalMacros = new BitSet( macros.size() );
+
+        for ( int index = 0; index < macros.size(); index++ )
+        {
+            final List<String> prefixes = literalPrefixes( macros.get( index ).getRegExPattern() );
+            if ( prefixes.isEmpty() )
+            {
+                unconditionalMacros.set( index );
+                continue;
+            }
+
+            for ( final String prefix : prefixes )
+            {
+                final String name = leadingName( prefix, 0 );
+                final MacroPrefix macroPrefix = new MacroPrefix( index, prefix );
+                if ( name.length() < prefix.length() )
+                {
+                    prefixesByName.computeIfAbsent( name, k -> new ArrayList<>() ).add( macroPrefix );
+                }
+                else
+                {
+                    // the literal ends inside the name, so the token name may be longer than the prefix
+                    openPrefixes.add( macroPrefix );
+                }
+            }
+        }
+
+        return new CompiledMacroSet(
+                Collections.unmodifiableList( new ArrayList<>( macros ) ),
+                Collections.unmodifiableMap( prefixesByName ),
+                Collections.unmodifiableList( openPrefixes ),
+                unconditionalMacros );
+    }
+
+    List<Macro> getMacros( )
+    {
+        return macros;
+    }
+
+    /**
+     * @param input string to be expanded
+     * @return indexes into {@link #getMacros()} of the macros that may match somewhere in {@code input}.
+     */
+    BitSet candidates( final String input )
+    {
+        final BitSet candidates = ( BitSet ) unconditionalMacros.clone();
+
+        int position = input.indexOf( '@' );
+        while ( position >= 0 )
+        {
+            final String name = leadingName( input, position + 1 );
+            if ( !name.isEmpty() )
+            {
+                final List<MacroPrefix> namedPrefixes = prefixesByName.get( name );
+                if ( namedPrefixes != null )
+                {
+                    markMatchingPrefixes( input, position + 1, namedPrefixes, candidates );
+                }
+                markMatchingPrefixes( input, position + 1, openPrefixes, candidates );
+            }
+            position = input.indexOf( '@', position + 1 );
+        }
+
+        return candidates;
+    }
+
+    private static void markMatchingPrefixes(
+            final String input,
+            final int offset,
+            final List<MacroPrefix> macroPrefixes,
+            final BitSet candidates
+    )
+    {
+        for ( final MacroPrefix macroPrefix : macroPrefixes )
+        {
+            if ( !candidates.get( macroPrefix.getIndex() ) && input.startsWith( macroPrefix.getPrefix(), offset ) )
+            {
+                candidates.set( macroPrefix.getIndex() );
+            }
+        }
+    }
+
+    private static String leadingName( final String input, final int offset )
+    {
+        int end = offset;
+        while ( end < input.length() && Character.isLetterOrDigit( input.charAt( end ) ) )
+        {
+            end++;
+        }
+        return input.substring( offset, end );
+    }
+
+    /**
+     * Reduce a macro pattern to the literal strings which must immediately follow the opening {@code @} of a match.
+     *
+     * @return the literal prefixes, or an empty list if the pattern could not be reduced.
+     */
+    static List<String> literalPrefixes( final Pattern pattern )
+    {
+        if ( pattern.flags() != 0 )
+        {
+            return Collections.emptyList();
+        }
+
+        final List<String> prefixes = new ArrayList<>();
+        for ( final String alternative : splitAlternatives( pattern.pattern() ) )
+        {
+            if ( !alternative.startsWith( "@" ) )
+            {
+                return Collections.emptyList();
+            }
+
+            final String remainder = alternative.substring( 1 );
+            final List<String> literalSources;
+            if ( remainder.startsWith( "(" ) )
+            {
+                final int groupEnd = closingParenthesis( remainder );
+                if ( groupEnd < 0 || remainder.startsWith( "(?" ) || OPTIONAL_QUANTIFIERS.indexOf( charAt( remainder, groupEnd + 1 ) ) >= 0 )
+                {
+                    return Collections.emptyList();
+                }
+                literalSources = splitAlternatives( remainder.substring( 1, groupEnd ) );
+            }
+            else
+            {
+                literalSources = Collections.singletonList( remainder );
+            }
+
+            for ( final String literalSource : literalSources )
+            {
+                final String literal = leadingLiteral( literalSource );
+                if ( leadingName( literal, 0 ).isEmpty() )
+                {
+                    return Collections.emptyList();
+                }
+                prefixes.add( literal );
+            }
+        }
+
+        return Collections.unmodifiableList( prefixes );
+    }
+
+    private static String leadingLiteral( final String regex )
+    {
+        int end = 0;
+        while ( end < regex.length() && REGEX_META_CHARS.indexOf( regex.charAt( end ) ) < 0 )
+        {
+            end++;
+        }
+
+        // a quantifier allowing zero occurrences makes the preceding character optional
+        if ( end > 0 && OPTIONAL_QUANTIFIERS.indexOf( charAt( regex, end ) ) >= 0 )
+        {
+            end--;
+        }
+
+        return regex.substring( 0, end );
+    }
+
+    private static List<String> splitAlternatives( final String regex )
+    {
+        final List<String> alternatives = new ArrayList<>();
+        int depth = 0;
+        boolean inClass = false;
+        int start = 0;
+        boolean escaped = false;
+        for ( int i = 0; i < regex.length(); i++ )
+        {
+            final char c = regex.charAt( i );
+            if ( escaped )
+            {
+                escaped = false;
+            }
+            else if ( c == '\\' )
+            {
+                escaped = true;
+            }
+            else if ( inClass )
+            {
+                inClass = c != ']';
+            }
+            else if ( c == '[' )
+            {
+                inClass = true;
+            }
+            else if ( c == '(' )
+            {
+                depth++;
+            }
+            else if ( c == ')' )
+            {
+                depth--;
+            }
+            else if ( c == '|' && depth == 0 )
+            {
+                alternatives.add( regex.substring( start, i ) );
+                start = i + 1;
+            }
+        }
+        alternatives.add( regex.substring( start ) );
+        return alternatives;
+    }
+
+    private static int closingParenthesis( final String regex )
+    {
+        int depth = 0;
+        boolean inClass = false;
+        boolean escaped = false;
+        for ( int i = 0; i < regex.length(); i++ )
+        {
+            final char c = regex.charAt( i );
+            if ( escaped )
+            {
+                escaped = false;
+            }
+            else if ( c == '\\' )
+            {
+                escaped = true;
+            }
+            else if ( inClass )
+            {
+                inClass = c != ']';
+            }
+            else if ( c == '[' )
+            {
+                inClass = true;
+            }
+            else if ( c == '(' )
+            {
+                depth++;
+            }
+            else if ( c == ')' )
+            {
+                depth--;
+                if ( depth == 0 )
+                {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static char charAt( final String input, final int index )
+    {
+        return index < input.length() ? input.charAt( index ) : '\0';
+    }
+}
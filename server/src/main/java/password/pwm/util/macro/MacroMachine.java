@@ -22,6 +22,7 @@ package password.pwm.util.macro;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Value;
 import password.pwm.PwmApplication;
 import password.pwm.PwmApplicationMode;
 import password.pwm.PwmConstants;
@@ -36,13 +37,14 @@ import password.pwm.util.logging.PwmLogger;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -51,7 +53,11 @@ public class MacroMachine
 {
     private static final PwmLogger LOGGER = PwmLogger.forClass( MacroMachine.class );
 
-    private static final Map<Pattern, Macro> BUILTIN_MACROS = makeImplementations();
+    private static final List<Macro> BUILTIN_MACROS = makeImplementations();
+
+    private static final int MAX_COMPILED_MACRO_SETS = 100;
+
+    private static final Map<MacroSetKey, CompiledMacroSet> COMPILED_MACRO_SETS = new ConcurrentHashMap<>();
 
     private static final StatisticCounterBundle<DebugItem> STATISTIC_COUNTER_BUNDLE = new StatisticCounterBundle<>( DebugItem.class );
 
@@ -60,54 +66,86 @@ public class MacroMachine
         Matches,
         Replacements,
         ExternalInvokes,
+        InputsWithoutMacros,
     }
 
-    private static Map<Pattern, Macro> makeImplementations( )
+    @Value
+    private static class MacroSetKey
     {
-        final List<Macro> implementations;
-        {
-            final List<Macro> list = new ArrayList<>();
-            list.addAll( SystemMacros.SYSTEM_MACROS );
-            list.addAll( StaticMacros.STATIC_MACROS );
-            list.addAll( UserMacros.USER_MACROS );
-            implementations = Collections.unmodifiableList( list );
-        }
+        private final Set<Macro.Scope> scopes;
+        private final List<String> externalMacroUrls;
+    }
+
+    private static List<Macro> makeImplementations( )
+    {
+        final List<Macro> list = new ArrayList<>();
+        list.addAll( SystemMacros.SYSTEM_MACROS );
+        list.addAll( StaticMacros.STATIC_MACROS );
+        list.addAll( UserMacros.USER_MACROS );
 
-        return implementations
+        return list
                 .stream()
                 .sorted( Comparator.comparing( Macro::getSequence ) )
-                .collect(
-                        Collectors.toMap(
-                                Macro::getRegExPattern,
-                                macroImplementation -> macroImplementation,
-                                ( k, v ) ->
-                                {
-                                    throw new IllegalStateException();
-                                },
-                                LinkedHashMap::new
-                        )
-                );
-
+                .collect( Collectors.toUnmodifiableList() );
     }
 
-    private static Map<Pattern, Macro> makeExternalImplementations( final PwmDomain pwmDomain )
+    private static List<Macro> makeExternalImplementations( final List<String> externalMacroUrls )
     {
-        final LinkedHashMap<Pattern, Macro> map = new LinkedHashMap<>();
-        final List<String> externalMethods = ( pwmDomain == null )
-                ? Collections.emptyList()
-                : pwmDomain.getConfig().readSettingAsStringArray( PwmSetting.EXTERNAL_MACROS_REST_URLS );
+        final List<Macro> list = new ArrayList<>();
 
         int iteration = 0;
-        for ( final String url : externalMethods )
+        for ( final String url : externalMacroUrls )
         {
             iteration++;
-            final Macro macroImplementation = new ExternalRestMacro( iteration, url );
-            final Pattern pattern = macroImplementation.getRegExPattern();
-            map.put( pattern, macroImplementation );
+            list.add( new ExternalRestMacro( iteration, url ) );
         }
-        return map;
+        return list;
     }
 
+    private static List<String> externalMacroUrls( final MacroRequest macroRequest, final Set<Macro.Scope> scopes )
+    {
+        if ( scopes.contains( Macro.Scope.User )
+                && macroRequest.getPwmApplication() != null
+                && macroRequest.getUserInfo() != null
+                && macroRequest.getUserInfo().getUserIdentity() != null )
+        {
+            final DomainID domainID = macroRequest.getUserInfo().getUserIdentity().getDomainID();
+            final PwmDomain pwmDomain = macroRequest.getPwmApplication().domains().get( domainID );
+            if ( pwmDomain != null )
+            {
+                return pwmDomain.getConfig().readSettingAsStringArray( PwmSetting.EXTERNAL_MACROS_REST_URLS );
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Macros applicable to the request in execution order, built-in macros sorted by sequence followed by any
+     * external macros.  Sets are compiled once per combination of scopes and external macro urls.
+     */
+    private static CompiledMacroSet compiledMacroSet( final MacroRequest macroRequest )
+    {
+        final Set<Macro.Scope> scopes = effectiveScopesForRequest( macroRequest );
+        final MacroSetKey macroSetKey = new MacroSetKey( scopes, List.copyOf( externalMacroUrls( macroRequest, scopes ) ) );
+
+        final CompiledMacroSet existingSet = COMPILED_MACRO_SETS.get( macroSetKey );
+        if ( existingSet != null )
+        {
+            return existingSet;
+        }
+
+        final List<Macro> macros = new ArrayList<>( BUILTIN_MACROS );
+        macros.addAll( makeExternalImplementations( macroSetKey.getExternalMacroUrls() ) );
+        macros.removeIf( macro -> !scopes.contains( macro.getScope() ) );
+        final CompiledMacroSet compiledMacroSet = CompiledMacroSet.compile( macros );
+
+        if ( COMPILED_MACRO_SETS.size() >= MAX_COMPILED_MACRO_SETS )
+        {
+            COMPILED_MACRO_SETS.clear();
+        }
+        COMPILED_MACRO_SETS.put( macroSetKey, compiledMacroSet );
+        return compiledMacroSet;
+    }
 
     public static String expandMacros(
             final MacroRequest macroRequest,
@@ -119,29 +157,50 @@ public class MacroMachine
             return "";
         }
 
-        final Set<Macro.Scope> scopes = effectiveScopesForRequest( macroRequest );
+        // every macro begins with '@'
+        if ( input.indexOf( '@' ) < 0 )
+        {
+            STATISTIC_COUNTER_BUNDLE.increment( DebugItem.InputsWithoutMacros );
+            return input;
+        }
 
-        final Map<Pattern, Macro> macroImplementations = new LinkedHashMap<>( BUILTIN_MACROS );
+        final CompiledMacroSet macroSet = compiledMacroSet( macroRequest );
+        final List<Macro> macros = macroSet.getMacros();
+        final ReplaceWorkData workData = new ReplaceWorkData( input, input, macroRequest );
 
-        //First the User macros
-        if ( scopes.contains( Macro.Scope.User ) )
+        BitSet candidates = macroSet.candidates( input );
+        for ( int index = candidates.nextSetBit( 0 ); index >= 0; index = candidates.nextSetBit( index + 1 ) )
         {
-            if ( macroRequest.getPwmApplication() != null
-                    && macroRequest.getUserInfo() != null
-                    && macroRequest.getUserInfo().getUserIdentity() != null )
+            final Macro macro = macros.get( index );
+            if ( doRequest( workData, macro.getRegExPattern(), macro ) )
             {
-                final DomainID domainID = macroRequest.getUserInfo().getUserIdentity().getDomainID();
-                final PwmDomain pwmDomain = macroRequest.getPwmApplication().domains().get( domainID );
-                macroImplementations.putAll( makeExternalImplementations( pwmDomain ) );
+                // replaced values may contain tokens for macros later in the sequence
+                candidates = macroSet.candidates( workData.getWorkingString() );
             }
         }
 
-        final ReplaceWorkData workData = new ReplaceWorkData( input, input, macroRequest );
+        return workData.getWorkingString();
+    }
 
-        macroImplementations.entrySet().stream()
-                .filter( entry -> scopes.contains( entry.getValue().getScope() ) )
-                .forEachOrdered( entry -> doRequest( workData,  entry.getKey(), entry.getValue() ) );
+    /**
+     * Expand macros by running every applicable macro pattern over the entire input.  This is the behaviour
+     * {@link #expandMacros(MacroRequest, String)} must reproduce, and is kept for comparison by tests and benchmarks.
+     */
+    static String expandMacrosUsingPatternScan(
+            final MacroRequest macroRequest,
+            final String input
+    )
+    {
+        if ( StringUtil.isEmpty( input ) )
+        {
+            return "";
+        }
 
+        final ReplaceWorkData workData = new ReplaceWorkData( input, input, macroRequest );
+        for ( final Macro macro : compiledMacroSet( macroRequest ).getMacros() )
+        {
+            doRequest( workData, macro.getRegExPattern(), macro );
+        }
         return workData.getWorkingString();
     }
 
@@ -154,12 +213,16 @@ public class MacroMachine
         private MacroRequest macroRequestInfo;
     }
 
-    private static void doRequest(
+    /**
+     * @return true if the working string was modified.
+     */
+    private static boolean doRequest(
             final ReplaceWorkData replaceWorkData,
             final Pattern pattern,
             final Macro pwmMacro
     )
     {
+        final String initialString = replaceWorkData.getWorkingString();
         boolean matched;
         int safetyCounter = 0;
         do
@@ -182,6 +245,8 @@ public class MacroMachine
             }
         }
         while ( matched && safetyCounter < 1000 );
+
+        return !initialString.equals( replaceWorkData.getWorkingString() );
     }
 
     private static String doReplace(
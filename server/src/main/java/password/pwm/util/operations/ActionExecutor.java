@@ -143,6 +143,11 @@ public class ActionExecutor
                     ldapAction.getLdapMethod(),
                     settings.getMacroMachine()
             );
+
+            if ( settings.getUserIdentity() != null )
+            {
+                pwmDomain.getCacheService().invalidateUser( settings.getUserIdentity() );
+            }
         }
         catch ( final ChaiUnavailableException e )
         {
@@ -0,0 +1,292 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.password;
+
+import com.novell.ldapchai.ChaiPasswordRule;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import password.pwm.AppProperty;
+import password.pwm.PwmConstants;
+import password.pwm.PwmDomain;
+import password.pwm.bean.SessionLabel;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.option.ADPolicyComplexity;
+import password.pwm.config.profile.PwmPasswordPolicy;
+import password.pwm.config.profile.PwmPasswordRule;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.ldap.UserInfo;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.macro.MacroRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, pre-parsed form of a {@link PwmPasswordPolicy} for a single user, used by {@link PasswordRuleChecks}.
+ *
+ * <p>Rule values are parsed from the policy map once, and macros in disallowed values and regular expression rules
+ * are expanded and compiled once for the user, instead of on every validation.  Password validation runs for each
+ * keystroke on the change password pages, and expanding user macros may require ldap reads.</p>
+ *
+ * <p>The most recently compiled form is kept with the policy instance, so it lives as long as the policy held by the
+ * user's session.  It is only reused for the same user, and is recompiled after
+ * {@link AppProperty#PASSWORD_RULE_COMPILED_POLICY_MAX_AGE_MS} so that changes to the user's attribute values used
+ * by macros are eventually seen.  A modified policy is always a new policy instance and so is compiled again.</p>
+ */
+public final class CompiledPasswordPolicy
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( CompiledPasswordPolicy.class );
+
+    private final UserIdentity userIdentity;
+    private final Instant compileTime;
+    private final int[] intValues;
+    private final boolean[] booleanValues;
+    private final ADPolicyComplexity adComplexityLevel;
+    private final List<String> disallowedValues;
+    private final List<DisallowedAttribute> disallowedAttributes;
+    private final List<Pattern> regExMatch;
+    private final List<Pattern> regExNoMatch;
+    private final List<Pattern> charGroupValues;
+
+    @Value
+    static class DisallowedAttribute
+    {
+        private final String attributeName;
+        private final int threshold;
+    }
+
+    private CompiledPasswordPolicy(
+            final UserIdentity userIdentity,
+            final PasswordRuleReaderHelper ruleHelper,
+            final MacroRequest macroRequest
+    )
+    {
+        this.userIdentity = userIdentity;
+        this.compileTime = Instant.now();
+
+        final PwmPasswordRule[] rules = PwmPasswordRule.values();
+        this.intValues = new int[rules.length];
+        this.booleanValues = new boolean[rules.length];
+        for ( final PwmPasswordRule rule : rules )
+        {
+            if ( isIntRule( rule ) )
+            {
+                intValues[rule.ordinal()] = ruleHelper.readIntValue( rule );
+            }
+            else if ( rule.getRuleType() == ChaiPasswordRule.RuleType.BOOLEAN )
+            {
+                booleanValues[rule.ordinal()] = ruleHelper.readBooleanValue( rule );
+            }
+        }
+
+        this.adComplexityLevel = ruleHelper.getADComplexityLevel();
+        this.disallowedValues = expandDisallowedValues( ruleHelper.getDisallowedValues(), macroRequest );
+        this.disallowedAttributes = parseDisallowedAttributes( ruleHelper.getDisallowedAttributes( PasswordRuleReaderHelper.Flag.KeepThresholds ) );
+        this.regExMatch = List.copyOf( ruleHelper.getRegExMatch( macroRequest ) );
+        this.regExNoMatch = List.copyOf( ruleHelper.getRegExNoMatch( macroRequest ) );
+        this.charGroupValues = List.copyOf( ruleHelper.getCharGroupValues() );
+    }
+
+    /**
+     * Read the compiled form of {@code policy} for the user of {@code userInfo}, compiling it if the policy has not
+     * yet been compiled for this user or the compiled form has expired.
+     */
+    static CompiledPasswordPolicy forPolicy(
+            final PwmDomain pwmDomain,
+            final SessionLabel sessionLabel,
+            final PwmPasswordPolicy policy,
+            final UserInfo userInfo
+    )
+            throws PwmUnrecoverableException
+    {
+        final UserIdentity userIdentity = userInfo == null ? null : userInfo.getUserIdentity();
+        final TimeDuration maxAge = TimeDuration.of(
+                Long.parseLong( pwmDomain.getConfig().readAppProperty( AppProperty.PASSWORD_RULE_COMPILED_POLICY_MAX_AGE_MS ) ),
+                TimeDuration.Unit.MILLISECONDS );
+
+        if ( !maxAge.isZero() )
+        {
+            final Optional<CompiledPasswordPolicy> existing = policy.readCompiledPolicy();
+            if ( existing.isPresent() && existing.get().isValidFor( userIdentity, maxAge ) )
+            {
+                return existing.get();
+            }
+        }
+
+        final CompiledPasswordPolicy compiledPolicy = compile( pwmDomain, sessionLabel, policy, userIdentity );
+
+        if ( !maxAge.isZero() )
+        {
+            policy.storeCompiledPolicy( compiledPolicy );
+        }
+
+        return compiledPolicy;
+    }
+
+    private static CompiledPasswordPolicy compile(
+            final PwmDomain pwmDomain,
+            final SessionLabel sessionLabel,
+            final PwmPasswordPolicy policy,
+            final UserIdentity userIdentity
+    )
+            throws PwmUnrecoverableException
+    {
+        final PasswordRuleReaderHelper ruleHelper = policy.getRuleHelper();
+
+        // only build a user macro request (which reads the user from ldap) when the policy has a rule that expands macros
+        final boolean macrosUsed = !ruleHelper.getDisallowedValues().isEmpty()
+                || ruleHelper.readBooleanValue( PwmPasswordRule.AllowMacroInRegExSetting );
+
+        final MacroRequest macroRequest;
+        if ( !macrosUsed )
+        {
+            macroRequest = null;
+        }
+        else if ( userIdentity == null )
+        {
+            macroRequest = MacroRequest.forNonUserSpecific( pwmDomain.getPwmApplication(), sessionLabel );
+        }
+        else
+        {
+            macroRequest = MacroRequest.forUser( pwmDomain.getPwmApplication(), PwmConstants.DEFAULT_LOCALE, sessionLabel, userIdentity );
+        }
+
+        final CompiledPasswordPolicy compiledPolicy = new CompiledPasswordPolicy( userIdentity, ruleHelper, macroRequest );
+        LOGGER.trace( sessionLabel, () -> "compiled password policy '" + policy.getIdentifier() + "'"
+                + ( userIdentity == null ? "" : " for user " + userIdentity.toDisplayString() ) );
+        return compiledPolicy;
+    }
+
+    private boolean isValidFor( final UserIdentity userIdentity, final TimeDuration maxAge )
+    {
+        return Objects.equals( this.userIdentity, userIdentity )
+                && TimeDuration.fromCurrent( compileTime ).isShorterThan( maxAge );
+    }
+
+    int readIntValue( final PwmPasswordRule rule )
+    {
+        if ( !isIntRule( rule ) )
+        {
+            throw new IllegalArgumentException( "attempt to read non-numeric rule value as int for rule " + rule );
+        }
+        return intValues[rule.ordinal()];
+    }
+
+    boolean readBooleanValue( final PwmPasswordRule rule )
+    {
+        if ( rule.getRuleType() != ChaiPasswordRule.RuleType.BOOLEAN )
+        {
+            throw new IllegalArgumentException( "attempt to read non-boolean rule value as boolean for rule " + rule );
+        }
+        return booleanValues[rule.ordinal()];
+    }
+
+    ADPolicyComplexity getADComplexityLevel()
+    {
+        return adComplexityLevel;
+    }
+
+    /**
+     * @return disallowed values with macros expanded, in lower case.  Values that expand to a blank value are omitted.
+     */
+    List<String> getDisallowedValues()
+    {
+        return disallowedValues;
+    }
+
+    List<DisallowedAttribute> getDisallowedAttributes()
+    {
+        return disallowedAttributes;
+    }
+
+    List<Pattern> getRegExMatch()
+    {
+        return regExMatch;
+    }
+
+    List<Pattern> getRegExNoMatch()
+    {
+        return regExNoMatch;
+    }
+
+    List<Pattern> getCharGroupValues()
+    {
+        return charGroupValues;
+    }
+
+    private static boolean isIntRule( final PwmPasswordRule rule )
+    {
+        return rule.getRuleType() == ChaiPasswordRule.RuleType.MIN
+                || rule.getRuleType() == ChaiPasswordRule.RuleType.MAX
+                || rule.getRuleType() == ChaiPasswordRule.RuleType.NUMERIC;
+    }
+
+    private static List<String> expandDisallowedValues( final List<String> values, final MacroRequest macroRequest )
+    {
+        if ( values == null || values.isEmpty() )
+        {
+            return Collections.emptyList();
+        }
+
+        final List<String> expandedValues = new ArrayList<>();
+        for ( final String value : new LinkedHashSet<>( values ) )
+        {
+            if ( value != null && value.length() > 0 )
+            {
+                final String expandedValue = macroRequest == null ? value : macroRequest.expandMacros( value );
+                if ( StringUtils.isNotBlank( expandedValue ) )
+                {
+                    expandedValues.add( expandedValue.toLowerCase() );
+                }
+            }
+        }
+        return Collections.unmodifiableList( expandedValues );
+    }
+
+    private static List<DisallowedAttribute> parseDisallowedAttributes( final List<String> values )
+    {
+        if ( values == null || values.isEmpty() )
+        {
+            return Collections.emptyList();
+        }
+
+        // values are specified as "attributeName" or "attributeName:N", where N is a numeric threshold
+        final List<DisallowedAttribute> disallowedAttributes = new ArrayList<>();
+        for ( final String value : values )
+        {
+            if ( value != null )
+            {
+                final String[] parts = value.split( ":" );
+                final int threshold = parts.length > 1 ? NumberUtils.toInt( parts[ 1 ] ) : 0;
+                disallowedAttributes.add( new DisallowedAttribute( parts[ 0 ], threshold ) );
+            }
+        }
+        return Collections.unmodifiableList( disallowedAttributes );
+    }
+}
@@ -25,6 +25,8 @@ public class PasswordCharCounter
     private final String password;
     private final int passwordLength;
 
+    private int[] charTypeCounts;
+
     public PasswordCharCounter( final String password )
     {
         this.password = password;
@@ -33,7 +35,7 @@ public class PasswordCharCounter
 
     public int getNumericCharCount( )
     {
-        return getNumericChars().length();
+        return countCharsOfType( CharType.NUMBER );
     }
 
     public String getNumericChars( )
@@ -43,7 +45,7 @@ public class PasswordCharCounter
 
     public int getUpperCharCount( )
     {
-        return getUpperChars().length();
+        return countCharsOfType( CharType.UPPERCASE );
     }
 
     public String getUpperChars( )
@@ -53,7 +55,7 @@ public class PasswordCharCounter
 
     public int getAlphaCharCount( )
     {
-        return getAlphaChars().length();
+        return countCharsOfType( CharType.LETTER );
     }
 
     public String getAlphaChars( )
@@ -63,7 +65,7 @@ public class PasswordCharCounter
 
     public int getNonAlphaCharCount( )
     {
-        return getNonAlphaChars().length();
+        return countCharsOfType( CharType.NON_LETTER );
     }
 
     public String getNonAlphaChars( )
@@ -73,7 +75,7 @@ public class PasswordCharCounter
 
     public int getLowerCharCount( )
     {
-        return getLowerChars().length();
+        return countCharsOfType( CharType.LOWERCASE );
     }
 
     public String getLowerChars( )
@@ -83,7 +85,7 @@ public class PasswordCharCounter
 
     public int getSpecialCharsCount( )
     {
-        return getSpecialChars().length();
+        return countCharsOfType( CharType.SPECIAL );
     }
 
     public String getSpecialChars( )
@@ -214,7 +216,7 @@ public class PasswordCharCounter
 
     public int getOtherLetterCharCount( )
     {
-        return getOtherLetterChars().length();
+        return countCharsOfType( CharType.OTHER_LETTER );
     }
 
     public String getOtherLetterChars( )
@@ -242,6 +244,29 @@ public class PasswordCharCounter
         return password.length() > 0 && !Character.isLetterOrDigit( password.charAt( password.length() - 1 ) );
     }
 
+    private int countCharsOfType( final CharType charType )
+    {
+        // all char type counts are computed in a single pass the first time any count is read
+        if ( charTypeCounts == null )
+        {
+            final CharType[] charTypes = CharType.values();
+            final int[] counts = new int[charTypes.length];
+            for ( int i = 0; i < passwordLength; i++ )
+            {
+                final char nextChar = password.charAt( i );
+                for ( final CharType loopType : charTypes )
+                {
+                    if ( loopType.getCharTester().isType( nextChar ) )
+                    {
+                        counts[loopType.ordinal()]++;
+                    }
+                }
+            }
+            charTypeCounts = counts;
+        }
+        return charTypeCounts[charType.ordinal()];
+    }
+
     private static String returnCharsOfType( final String input, final CharType charType )
     {
         final int passwordLength = input.length();
@@ -23,9 +23,7 @@ package password.pwm.util.password;
 import lombok.Builder;
 import lombok.Data;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.math.NumberUtils;
 import password.pwm.AppProperty;
-import password.pwm.PwmConstants;
 import password.pwm.PwmDomain;
 import password.pwm.bean.SessionLabel;
 import password.pwm.config.PwmSetting;
@@ -40,7 +38,6 @@ import password.pwm.svc.PwmService;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.logging.PwmLogger;
-import password.pwm.util.macro.MacroRequest;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -66,9 +63,8 @@ public class PasswordRuleChecks
         private PwmDomain pwmDomain;
         private PwmPasswordPolicy policy;
         private UserInfo userInfo;
-        private PasswordRuleReaderHelper ruleHelper;
+        private CompiledPasswordPolicy compiledPolicy;
         private PasswordCharCounter charCounter;
-        private MacroRequest macroRequest;
     }
 
     private interface RuleChecker
@@ -124,21 +120,11 @@ public class PasswordRuleChecks
         }
 
         final List<ErrorInformation> errorList = new ArrayList<>();
-        final MacroRequest macroRequest = userInfo == null || userInfo.getUserIdentity() == null
-                ? MacroRequest.forNonUserSpecific( pwmDomain.getPwmApplication(), sessionLabel )
-                : MacroRequest.forUser(
-                pwmDomain.getPwmApplication(),
-                PwmConstants.DEFAULT_LOCALE,
-                sessionLabel,
-                userInfo.getUserIdentity()
-        );
-
         final RuleCheckData ruleCheckData = RuleCheckData.builder()
                 .pwmDomain( pwmDomain )
                 .policy( policy )
                 .userInfo( userInfo )
-                .ruleHelper( policy.getRuleHelper() )
-                .macroRequest( macroRequest )
+                .compiledPolicy( CompiledPasswordPolicy.forPolicy( pwmDomain, sessionLabel, policy, userInfo ) )
                 .charCounter( new PasswordCharCounter( password ) )
                 .build();
 
@@ -162,10 +148,10 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
 
             //check against old password
-            if ( StringUtil.notEmpty( oldPassword ) && ruleHelper.readBooleanValue( PwmPasswordRule.DisallowCurrent ) )
+            if ( StringUtil.notEmpty( oldPassword ) && compiledPolicy.readBooleanValue( PwmPasswordRule.DisallowCurrent ) )
             {
                 if ( oldPassword.equalsIgnoreCase( password ) )
                 {
@@ -173,7 +159,7 @@ public class PasswordRuleChecks
                 }
 
                 //check chars from old password
-                final int maxOldAllowed = ruleHelper.readIntValue( PwmPasswordRule.MaximumOldChars );
+                final int maxOldAllowed = compiledPolicy.readIntValue( PwmPasswordRule.MaximumOldChars );
                 if ( maxOldAllowed > 0 )
                 {
                     final String lPassword = password.toLowerCase();
@@ -207,7 +193,7 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             //Check minimum length
-            if ( password.length() < ruleCheckData.getRuleHelper().readIntValue( PwmPasswordRule.MinimumLength ) )
+            if ( password.length() < ruleCheckData.getCompiledPolicy().readIntValue( PwmPasswordRule.MinimumLength ) )
             {
                 return Collections.singletonList( new ErrorInformation( PwmError.PASSWORD_TOO_SHORT ) );
             }
@@ -223,7 +209,7 @@ public class PasswordRuleChecks
         {
             //Check maximum length
             {
-                final int passwordMaximumLength = ruleCheckData.getRuleHelper().readIntValue( PwmPasswordRule.MaximumLength );
+                final int passwordMaximumLength = ruleCheckData.getCompiledPolicy().readIntValue( PwmPasswordRule.MaximumLength );
 
                 if ( passwordMaximumLength > 0 && password.length() > passwordMaximumLength )
                 {
@@ -242,30 +228,30 @@ public class PasswordRuleChecks
         {
             //check number of numeric characters
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
             final PasswordCharCounter charCounter = ruleCheckData.getCharCounter();
             {
                 final int numberOfNumericChars = charCounter.getNumericCharCount();
-                if ( ruleHelper.readBooleanValue( PwmPasswordRule.AllowNumeric ) )
+                if ( compiledPolicy.readBooleanValue( PwmPasswordRule.AllowNumeric ) )
                 {
-                    if ( numberOfNumericChars < ruleHelper.readIntValue( PwmPasswordRule.MinimumNumeric ) )
+                    if ( numberOfNumericChars < compiledPolicy.readIntValue( PwmPasswordRule.MinimumNumeric ) )
                     {
                         errorList.add( new ErrorInformation( PwmError.PASSWORD_NOT_ENOUGH_NUM ) );
                     }
 
-                    final int maxNumeric = ruleHelper.readIntValue( PwmPasswordRule.MaximumNumeric );
+                    final int maxNumeric = compiledPolicy.readIntValue( PwmPasswordRule.MaximumNumeric );
                     if ( maxNumeric > 0 && numberOfNumericChars > maxNumeric )
                     {
                         errorList.add( new ErrorInformation( PwmError.PASSWORD_TOO_MANY_NUMERIC ) );
                     }
 
-                    if ( !ruleHelper.readBooleanValue(
+                    if ( !compiledPolicy.readBooleanValue(
                             PwmPasswordRule.AllowFirstCharNumeric ) && charCounter.isFirstNumeric() )
                     {
                         errorList.add( new ErrorInformation( PwmError.PASSWORD_FIRST_IS_NUMERIC ) );
                     }
 
-                    if ( !ruleHelper.readBooleanValue(
+                    if ( !compiledPolicy.readBooleanValue(
                             PwmPasswordRule.AllowLastCharNumeric ) && charCounter.isLastNumeric() )
                     {
                         errorList.add( new ErrorInformation( PwmError.PASSWORD_LAST_IS_NUMERIC ) );
@@ -290,18 +276,18 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
             final PasswordCharCounter charCounter = ruleCheckData.getCharCounter();
 
             //check number of upper characters
             {
                 final int numberOfUpperChars = charCounter.getUpperCharCount();
-                if ( numberOfUpperChars < ruleHelper.readIntValue( PwmPasswordRule.MinimumUpperCase ) )
+                if ( numberOfUpperChars < compiledPolicy.readIntValue( PwmPasswordRule.MinimumUpperCase ) )
                 {
                     errorList.add( new ErrorInformation( PwmError.PASSWORD_NOT_ENOUGH_UPPER ) );
                 }
 
-                final int maxUpper = ruleHelper.readIntValue( PwmPasswordRule.MaximumUpperCase );
+                final int maxUpper = compiledPolicy.readIntValue( PwmPasswordRule.MaximumUpperCase );
                 if ( maxUpper > 0 && numberOfUpperChars > maxUpper )
                 {
                     errorList.add( new ErrorInformation( PwmError.PASSWORD_TOO_MANY_UPPER ) );
@@ -311,12 +297,12 @@ public class PasswordRuleChecks
             //check number of lower characters
             {
                 final int numberOfLowerChars = charCounter.getLowerCharCount();
-                if ( numberOfLowerChars < ruleHelper.readIntValue( PwmPasswordRule.MinimumLowerCase ) )
+                if ( numberOfLowerChars < compiledPolicy.readIntValue( PwmPasswordRule.MinimumLowerCase ) )
                 {
                     errorList.add( new ErrorInformation( PwmError.PASSWORD_NOT_ENOUGH_LOWER ) );
                 }
 
-                final int maxLower = ruleHelper.readIntValue( PwmPasswordRule.MaximumLowerCase );
+                final int maxLower = compiledPolicy.readIntValue( PwmPasswordRule.MaximumLowerCase );
                 if ( maxLower > 0 && numberOfLowerChars > maxLower )
                 {
                     errorList.add( new ErrorInformation( PwmError.PASSWORD_TOO_MANY_LOWER ) );
@@ -333,18 +319,18 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
             final PasswordCharCounter charCounter = ruleCheckData.getCharCounter();
 
             //check number of alpha characters
             {
                 final int numberOfAlphaChars = charCounter.getAlphaCharCount();
-                if ( numberOfAlphaChars < ruleHelper.readIntValue( PwmPasswordRule.MinimumAlpha ) )
+                if ( numberOfAlphaChars < compiledPolicy.readIntValue( PwmPasswordRule.MinimumAlpha ) )
                 {
                     errorList.add( new ErrorInformation( PwmError.PASSWORD_NOT_ENOUGH_ALPHA ) );
                 }
 
-                final int maxAlpha = ruleHelper.readIntValue( PwmPasswordRule.MaximumAlpha );
+                final int maxAlpha = compiledPolicy.readIntValue( PwmPasswordRule.MaximumAlpha );
                 if ( maxAlpha > 0 && numberOfAlphaChars > maxAlpha )
                 {
                     errorList.add( new ErrorInformation( PwmError.PASSWORD_TOO_MANY_ALPHA ) );
@@ -355,14 +341,14 @@ public class PasswordRuleChecks
             {
                 final int numberOfNonAlphaChars = charCounter.getNonAlphaCharCount();
 
-                if ( ruleHelper.readBooleanValue( PwmPasswordRule.AllowNonAlpha ) )
+                if ( compiledPolicy.readBooleanValue( PwmPasswordRule.AllowNonAlpha ) )
                 {
-                    if ( numberOfNonAlphaChars < ruleHelper.readIntValue( PwmPasswordRule.MinimumNonAlpha ) )
+                    if ( numberOfNonAlphaChars < compiledPolicy.readIntValue( PwmPasswordRule.MinimumNonAlpha ) )
                     {
                         errorList.add( new ErrorInformation( PwmError.PASSWORD_NOT_ENOUGH_NONALPHA ) );
                     }
 
-                    final int maxNonAlpha = ruleHelper.readIntValue( PwmPasswordRule.MaximumNonAlpha );
+                    final int maxNonAlpha = compiledPolicy.readIntValue( PwmPasswordRule.MaximumNonAlpha );
                     if ( maxNonAlpha > 0 && numberOfNonAlphaChars > maxNonAlpha )
                     {
                         errorList.add( new ErrorInformation( PwmError.PASSWORD_TOO_MANY_NONALPHA ) );
@@ -387,32 +373,32 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
             final PasswordCharCounter charCounter = ruleCheckData.getCharCounter();
 
             //check number of special characters
             {
                 final int numberOfSpecialChars = charCounter.getSpecialCharsCount();
-                if ( ruleHelper.readBooleanValue( PwmPasswordRule.AllowSpecial ) )
+                if ( compiledPolicy.readBooleanValue( PwmPasswordRule.AllowSpecial ) )
                 {
-                    if ( numberOfSpecialChars < ruleHelper.readIntValue( PwmPasswordRule.MinimumSpecial ) )
+                    if ( numberOfSpecialChars < compiledPolicy.readIntValue( PwmPasswordRule.MinimumSpecial ) )
                     {
                         errorList.add( new ErrorInformation( PwmError.PASSWORD_NOT_ENOUGH_SPECIAL ) );
                     }
 
-                    final int maxSpecial = ruleHelper.readIntValue( PwmPasswordRule.MaximumSpecial );
+                    final int maxSpecial = compiledPolicy.readIntValue( PwmPasswordRule.MaximumSpecial );
                     if ( maxSpecial > 0 && numberOfSpecialChars > maxSpecial )
                     {
                         errorList.add( new ErrorInformation( PwmError.PASSWORD_TOO_MANY_SPECIAL ) );
                     }
 
-                    if ( !ruleHelper.readBooleanValue(
+                    if ( !compiledPolicy.readBooleanValue(
                             PwmPasswordRule.AllowFirstCharSpecial ) && charCounter.isFirstSpecial() )
                     {
                         errorList.add( new ErrorInformation( PwmError.PASSWORD_FIRST_IS_SPECIAL ) );
                     }
 
-                    if ( !ruleHelper.readBooleanValue(
+                    if ( !compiledPolicy.readBooleanValue(
                             PwmPasswordRule.AllowLastCharSpecial ) && charCounter.isLastSpecial() )
                     {
                         errorList.add( new ErrorInformation( PwmError.PASSWORD_LAST_IS_SPECIAL ) );
@@ -438,19 +424,19 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
             final PasswordCharCounter charCounter = ruleCheckData.getCharCounter();
 
             //Check maximum character repeats (sequential)
             {
-                final int maxSequentialRepeat = ruleHelper.readIntValue( PwmPasswordRule.MaximumSequentialRepeat );
+                final int maxSequentialRepeat = compiledPolicy.readIntValue( PwmPasswordRule.MaximumSequentialRepeat );
                 if ( maxSequentialRepeat > 0 && charCounter.getSequentialRepeatedChars() > maxSequentialRepeat )
                 {
                     errorList.add( new ErrorInformation( PwmError.PASSWORD_TOO_MANY_REPEAT ) );
                 }
 
                 //Check maximum character repeats (overall)
-                final int maxRepeat = ruleHelper.readIntValue( PwmPasswordRule.MaximumRepeat );
+                final int maxRepeat = compiledPolicy.readIntValue( PwmPasswordRule.MaximumRepeat );
                 if ( maxRepeat > 0 && charCounter.getRepeatedChars() > maxRepeat )
                 {
                     errorList.add( new ErrorInformation( PwmError.PASSWORD_TOO_MANY_REPEAT ) );
@@ -459,7 +445,7 @@ public class PasswordRuleChecks
 
             // check consecutive characters
             {
-                final int maximumConsecutive = ruleHelper.readIntValue( PwmPasswordRule.MaximumConsecutive );
+                final int maximumConsecutive = compiledPolicy.readIntValue( PwmPasswordRule.MaximumConsecutive );
                 if ( PwmPasswordRuleUtil.tooManyConsecutiveChars( password, maximumConsecutive ) )
                 {
                     errorList.add( new ErrorInformation( PwmError.PASSWORD_TOO_MANY_CONSECUTIVE ) );
@@ -477,12 +463,12 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
             final PasswordCharCounter charCounter = ruleCheckData.getCharCounter();
 
             //Check minimum unique character
             {
-                final int minUnique = ruleHelper.readIntValue( PwmPasswordRule.MinimumUnique );
+                final int minUnique = compiledPolicy.readIntValue( PwmPasswordRule.MinimumUnique );
                 if ( minUnique > 0 && charCounter.getUniqueChars() < minUnique )
                 {
                     errorList.add( new ErrorInformation( PwmError.PASSWORD_NOT_ENOUGH_UNIQUE ) );
@@ -500,15 +486,15 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
             final PasswordCharCounter charCounter = ruleCheckData.getCharCounter();
 
             // check ad-complexity
             {
-                final ADPolicyComplexity complexityLevel = ruleHelper.getADComplexityLevel();
+                final ADPolicyComplexity complexityLevel = compiledPolicy.getADComplexityLevel();
                 if ( complexityLevel == ADPolicyComplexity.AD2003 || complexityLevel == ADPolicyComplexity.AD2008 )
                 {
-                    final int maxGroupViolations = ruleHelper.readIntValue( PwmPasswordRule.ADComplexityMaxViolations );
+                    final int maxGroupViolations = compiledPolicy.readIntValue( PwmPasswordRule.ADComplexityMaxViolations );
                     errorList.addAll( PwmPasswordAdRuleUtil.checkPasswordForADComplexity(
                             complexityLevel,
                             ruleCheckData.getUserInfo(),
@@ -529,28 +515,18 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
 
             // check against disallowed values;
-            if ( !ruleHelper.getDisallowedValues().isEmpty() )
+            if ( !compiledPolicy.getDisallowedValues().isEmpty() )
             {
                 final String lcasePwd = password.toLowerCase();
-                final Set<String> paramValues = new HashSet<>( ruleHelper.getDisallowedValues() );
 
-                for ( final String loopValue : paramValues )
+                for ( final String loweredLoop : compiledPolicy.getDisallowedValues() )
                 {
-                    if ( loopValue != null && loopValue.length() > 0 )
+                    if ( lcasePwd.contains( loweredLoop ) )
                     {
-                        final MacroRequest macroRequest = ruleCheckData.getMacroRequest();
-                        final String expandedValue = macroRequest.expandMacros( loopValue );
-                        if ( StringUtils.isNotBlank( expandedValue ) )
-                        {
-                            final String loweredLoop = expandedValue.toLowerCase();
-                            if ( lcasePwd.contains( loweredLoop ) )
-                            {
-                                errorList.add( new ErrorInformation( PwmError.PASSWORD_USING_DISALLOWED ) );
-                            }
-                        }
+                        errorList.add( new ErrorInformation( PwmError.PASSWORD_USING_DISALLOWED ) );
                     }
                 }
             }
@@ -567,25 +543,21 @@ public class PasswordRuleChecks
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
             final UserInfo userInfo = ruleCheckData.getUserInfo();
-            final PwmPasswordPolicy policy = ruleCheckData.getPolicy();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
 
             // check disallowed attributes.
-            if ( !policy.getRuleHelper().getDisallowedAttributes().isEmpty() )
+            if ( !compiledPolicy.getDisallowedAttributes().isEmpty() )
             {
-                final List<String> paramConfigs = policy.getRuleHelper().getDisallowedAttributes( PasswordRuleReaderHelper.Flag.KeepThresholds );
                 if ( userInfo != null )
                 {
                     final Map<String, String> userValues = userInfo.getCachedPasswordRuleAttributes();
 
-                    for ( final String paramConfig : paramConfigs )
+                    for ( final CompiledPasswordPolicy.DisallowedAttribute disallowedAttribute : compiledPolicy.getDisallowedAttributes() )
                     {
-                        final String[] parts = paramConfig.split( ":" );
-
-                        final String attrName = parts[ 0 ];
+                        final String attrName = disallowedAttribute.getAttributeName();
                         final String disallowedValue = StringUtils.defaultString( userValues.get( attrName ) );
-                        final int threshold = parts.length > 1 ? NumberUtils.toInt( parts[ 1 ] ) : 0;
 
-                        if ( PwmPasswordRuleUtil.containsDisallowedValue( password, disallowedValue, threshold ) )
+                        if ( PwmPasswordRuleUtil.containsDisallowedValue( password, disallowedValue, disallowedAttribute.getThreshold() ) )
                         {
                             LOGGER.trace( () -> "password rejected, same as user attr " + attrName );
                             errorList.add( new ErrorInformation( PwmError.PASSWORD_SAMEASATTR ) );
@@ -608,7 +580,7 @@ public class PasswordRuleChecks
             final PwmDomain pwmDomain = ruleCheckData.getPwmDomain();
 
             // check password strength
-            final int requiredPasswordStrength = ruleCheckData.getRuleHelper().readIntValue( PwmPasswordRule.MinimumStrength );
+            final int requiredPasswordStrength = ruleCheckData.getCompiledPolicy().readIntValue( PwmPasswordRule.MinimumStrength );
             if ( requiredPasswordStrength > 0 )
             {
                 if ( pwmDomain != null )
@@ -641,11 +613,10 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final MacroRequest macroRequest = ruleCheckData.getMacroRequest();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
 
             // check regex matches.
-            for ( final Pattern pattern : ruleHelper.getRegExMatch( macroRequest ) )
+            for ( final Pattern pattern : compiledPolicy.getRegExMatch() )
             {
                 if ( !pattern.matcher( password ).matches() )
                 {
@@ -658,7 +629,7 @@ public class PasswordRuleChecks
             }
 
             // check no-regex matches.
-            for ( final Pattern pattern : ruleHelper.getRegExNoMatch( macroRequest ) )
+            for ( final Pattern pattern : compiledPolicy.getRegExNoMatch() )
             {
                 if ( pattern.matcher( password ).matches() )
                 {
@@ -681,15 +652,15 @@ public class PasswordRuleChecks
                 throws PwmUnrecoverableException
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
 
             // check char group matches
-            if ( ruleHelper.readIntValue( PwmPasswordRule.CharGroupsMinMatch ) > 0 )
+            if ( compiledPolicy.readIntValue( PwmPasswordRule.CharGroupsMinMatch ) > 0 )
             {
-                final List<Pattern> ruleGroups = ruleHelper.getCharGroupValues();
+                final List<Pattern> ruleGroups = compiledPolicy.getCharGroupValues();
                 if ( ruleGroups != null && !ruleGroups.isEmpty() )
                 {
-                    final int requiredMatches = ruleHelper.readIntValue( PwmPasswordRule.CharGroupsMinMatch );
+                    final int requiredMatches = compiledPolicy.readIntValue( PwmPasswordRule.CharGroupsMinMatch );
                     int matches = 0;
                     for ( final Pattern pattern : ruleGroups )
                     {
@@ -717,10 +688,10 @@ public class PasswordRuleChecks
         {
             final List<ErrorInformation> errorList = new ArrayList<>();
             final PwmDomain pwmDomain = ruleCheckData.getPwmDomain();
-            final PasswordRuleReaderHelper ruleHelper = ruleCheckData.getRuleHelper();
+            final CompiledPasswordPolicy compiledPolicy = ruleCheckData.getCompiledPolicy();
 
             // check if the password is in the dictionary.
-            if ( ruleHelper.readBooleanValue( PwmPasswordRule.EnableWordlist ) )
+            if ( compiledPolicy.readBooleanValue( PwmPasswordRule.EnableWordlist ) )
             {
                 if ( pwmDomain != null )
                 {
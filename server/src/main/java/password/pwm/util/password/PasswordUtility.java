@@ -494,6 +494,8 @@ public class PasswordUtility
                 + " (" + TimeDuration.fromCurrent( startTime ).asCompactString() + ")";
 
         LOGGER.info( sessionLabel, () -> msg );
+
+        pwmDomain.getCacheService().invalidateUser( userIdentity );
     }
 
     public static void helpdeskSetUserPassword(
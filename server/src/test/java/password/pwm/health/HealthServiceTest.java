@@ -0,0 +1,124 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.health;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.bean.DomainID;
+import password.pwm.util.java.TimeDuration;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class HealthServiceTest
+{
+    private static final HealthRecord GOOD_RECORD = HealthRecord.forMessage( DomainID.systemId(), HealthMessage.LDAP_OK );
+
+    private final CountDownLatch neverReleased = new CountDownLatch( 1 );
+
+    @Test
+    public void testQueuedChecksGetFullTimeout()
+    {
+        final TimeDuration timeout = TimeDuration.of( 500, TimeDuration.Unit.MILLISECONDS );
+        final List<HealthService.HealthCheckJob> jobs = new ArrayList<>();
+        for ( int i = 0; i < 2; i++ )
+        {
+            jobs.add( new HealthService.HealthCheckJob( "blocking-" + i, DomainID.systemId(), this::blockingSupplier ) );
+        }
+        for ( int i = 0; i < 2; i++ )
+        {
+            jobs.add( new HealthService.HealthCheckJob( "slow-" + i, DomainID.systemId(), () ->
+            {
+                TimeDuration.of( 300, TimeDuration.Unit.MILLISECONDS ).pause();
+                return Collections.singletonList( GOOD_RECORD );
+            } ) );
+        }
+
+        // the slow checks only start once the blocking checks time out, and still get their own full timeout
+        final ExecutorService executorService = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            final Instant startTime = Instant.now();
+            final List<HealthRecord> results = new HealthService().executeJobs( executorService, jobs, timeout, TimeDuration.of( 10, TimeDuration.Unit.SECONDS ) );
+            final TimeDuration cycleDuration = TimeDuration.fromCurrent( startTime );
+
+            Assert.assertTrue( "cycle took " + cycleDuration.asCompactString(), cycleDuration.isShorterThan( TimeDuration.of( 5, TimeDuration.Unit.SECONDS ) ) );
+            Assert.assertEquals( 4, results.size() );
+            Assert.assertEquals( 2, results.stream().filter( GOOD_RECORD::equals ).count() );
+            for ( int i = 0; i < 2; i++ )
+            {
+                Assert.assertTrue( results.contains( HealthRecord.forMessage(
+                        DomainID.systemId(),
+                        HealthMessage.HealthCheck_Timeout,
+                        "blocking-" + i,
+                        timeout.asCompactString() ) ) );
+            }
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCycleTimeoutSkipsQueuedChecks()
+    {
+        final TimeDuration cycleTimeout = TimeDuration.of( 500, TimeDuration.Unit.MILLISECONDS );
+        final List<HealthService.HealthCheckJob> jobs = new ArrayList<>();
+        jobs.add( new HealthService.HealthCheckJob( "blocking", DomainID.systemId(), this::blockingSupplier ) );
+        jobs.add( new HealthService.HealthCheckJob( "queued", DomainID.systemId(), () -> Collections.singletonList( GOOD_RECORD ) ) );
+
+        // the queued check never starts, so it is dropped rather than reported as timed out
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try
+        {
+            final Instant startTime = Instant.now();
+            final List<HealthRecord> results = new HealthService().executeJobs( executorService, jobs, TimeDuration.MINUTE, cycleTimeout );
+            final TimeDuration cycleDuration = TimeDuration.fromCurrent( startTime );
+
+            Assert.assertTrue( "cycle took " + cycleDuration.asCompactString(), cycleDuration.isShorterThan( TimeDuration.of( 5, TimeDuration.Unit.SECONDS ) ) );
+            Assert.assertEquals( 1, results.size() );
+            Assert.assertEquals( HealthMessage.HealthCheck_Timeout.getStatus(), results.get( 0 ).getStatus() );
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    private List<HealthRecord> blockingSupplier()
+    {
+        try
+        {
+            neverReleased.await();
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.servlet.resource;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.PwmApplication;
+import password.pwm.PwmConstants;
+import password.pwm.bean.DomainID;
+import password.pwm.util.localdb.TestHelper;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class ResourceChecksumManifestTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void unchangedFilesAreNotReadTest() throws Exception
+    {
+        final File resourceFile = temporaryFolder.newFile( "main.js" );
+        Files.writeString( resourceFile.toPath(), "var a = 1;", PwmConstants.DEFAULT_CHARSET );
+        final File manifestFile = new File( temporaryFolder.getRoot(), "manifest.json" );
+
+        final ResourceChecksumManifest firstManifest = ResourceChecksumManifest.load( manifestFile );
+        final long firstChecksum = firstManifest.checksum( resourceFile );
+        firstManifest.store( manifestFile );
+        Assert.assertEquals( 1, firstManifest.getCalculatedCount() );
+        Assert.assertTrue( manifestFile.exists() );
+
+        final ResourceChecksumManifest secondManifest = ResourceChecksumManifest.load( manifestFile );
+        Assert.assertEquals( firstChecksum, secondManifest.checksum( resourceFile ) );
+        Assert.assertEquals( 1, secondManifest.getReusedCount() );
+        Assert.assertEquals( 0, secondManifest.getCalculatedCount() );
+    }
+
+    @Test
+    public void changedFilesAreReadTest() throws Exception
+    {
+        final File resourceFile = temporaryFolder.newFile( "main.js" );
+        Files.writeString( resourceFile.toPath(), "var a = 1;", PwmConstants.DEFAULT_CHARSET );
+        final File manifestFile = new File( temporaryFolder.getRoot(), "manifest.json" );
+
+        final ResourceChecksumManifest firstManifest = ResourceChecksumManifest.load( manifestFile );
+        final long firstChecksum = firstManifest.checksum( resourceFile );
+        firstManifest.store( manifestFile );
+
+        Files.writeString( resourceFile.toPath(), "var a = 22;", PwmConstants.DEFAULT_CHARSET );
+
+        final ResourceChecksumManifest secondManifest = ResourceChecksumManifest.load( manifestFile );
+        Assert.assertNotEquals( firstChecksum, secondManifest.checksum( resourceFile ) );
+        Assert.assertEquals( 1, secondManifest.getCalculatedCount() );
+    }
+
+    @Test
+    public void unreadableManifestTest() throws Exception
+    {
+        final File manifestFile = temporaryFolder.newFile( "manifest.json" );
+        Files.writeString( manifestFile.toPath(), "not a manifest", PwmConstants.DEFAULT_CHARSET );
+
+        final File resourceFile = temporaryFolder.newFile( "main.css" );
+        final ResourceChecksumManifest manifest = ResourceChecksumManifest.load( manifestFile );
+        manifest.checksum( resourceFile );
+        Assert.assertEquals( 1, manifest.getCalculatedCount() );
+    }
+
+    @Test
+    public void manifestSurvivesRestartTest() throws Exception
+    {
+        final File applicationPath = temporaryFolder.newFolder( "app" );
+        final File resourceFile = temporaryFolder.newFile( "main.js" );
+        Files.writeString( resourceFile.toPath(), "var a = 1;", PwmConstants.DEFAULT_CHARSET );
+
+        // a domain without a running resource service, so the restarted application does not rewrite the manifest
+        final DomainID domainID = DomainID.create( "restarttest" );
+        final File manifestFile;
+        final File tempMarkerFile;
+        final PwmApplication firstApplication = TestHelper.makeStandalonePwmApplication( applicationPath );
+        try
+        {
+            manifestFile = ResourceServletService.checksumManifestFile( firstApplication, domainID ).orElseThrow();
+            final ResourceChecksumManifest manifest = ResourceChecksumManifest.load( manifestFile );
+            manifest.checksum( resourceFile );
+            manifest.store( manifestFile );
+
+            tempMarkerFile = new File( firstApplication.getTempDirectory(), "marker" );
+            Files.writeString( tempMarkerFile.toPath(), "marker", PwmConstants.DEFAULT_CHARSET );
+        }
+        finally
+        {
+            firstApplication.shutdown();
+        }
+
+        final PwmApplication restartedApplication = TestHelper.makeStandalonePwmApplication( applicationPath );
+        try
+        {
+            // the restart clears the temp directory, the manifest must not be stored there
+            Assert.assertFalse( tempMarkerFile.exists() );
+            Assert.assertEquals( manifestFile, ResourceServletService.checksumManifestFile( restartedApplication, domainID ).orElseThrow() );
+            Assert.assertTrue( manifestFile.exists() );
+
+            final ResourceChecksumManifest manifest = ResourceChecksumManifest.load( manifestFile );
+            manifest.checksum( resourceFile );
+            Assert.assertEquals( 1, manifest.getReusedCount() );
+            Assert.assertEquals( 0, manifest.getCalculatedCount() );
+        }
+        finally
+        {
+            restartedApplication.shutdown();
+        }
+    }
+}
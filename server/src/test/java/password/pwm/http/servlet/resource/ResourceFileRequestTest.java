@@ -0,0 +1,62 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.servlet.resource;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResourceFileRequestTest
+{
+    @Test
+    public void acceptsEncodingTest()
+    {
+        Assert.assertTrue( ResourceFileRequest.acceptsEncoding( "gzip, deflate, br", "br" ) );
+        Assert.assertTrue( ResourceFileRequest.acceptsEncoding( "gzip, deflate, br", "gzip" ) );
+        Assert.assertFalse( ResourceFileRequest.acceptsEncoding( "gzip, deflate", "br" ) );
+        Assert.assertTrue( ResourceFileRequest.acceptsEncoding( "GZIP", "gzip" ) );
+    }
+
+    @Test
+    public void acceptsEncodingQualityTest()
+    {
+        Assert.assertFalse( ResourceFileRequest.acceptsEncoding( "gzip;q=0, br", "gzip" ) );
+        Assert.assertTrue( ResourceFileRequest.acceptsEncoding( "gzip;q=0.5, br;q=1.0", "gzip" ) );
+        Assert.assertFalse( ResourceFileRequest.acceptsEncoding( "gzip; q=0.0", "gzip" ) );
+    }
+
+    @Test
+    public void acceptsEncodingWildcardTest()
+    {
+        Assert.assertTrue( ResourceFileRequest.acceptsEncoding( "*", "br" ) );
+        Assert.assertFalse( ResourceFileRequest.acceptsEncoding( "*;q=0", "br" ) );
+        Assert.assertFalse( ResourceFileRequest.acceptsEncoding( "*, br;q=0", "br" ) );
+        Assert.assertTrue( ResourceFileRequest.acceptsEncoding( "*, br;q=0", "gzip" ) );
+    }
+
+    @Test
+    public void eTagMatchesTest()
+    {
+        Assert.assertTrue( ResourceFileServlet.eTagMatches( "\"abc-gzip\"", "\"abc-gzip\"" ) );
+        Assert.assertTrue( ResourceFileServlet.eTagMatches( "\"xyz-br\", \"abc-gzip\"", "\"abc-gzip\"" ) );
+        Assert.assertTrue( ResourceFileServlet.eTagMatches( "*", "\"abc-gzip\"" ) );
+        Assert.assertFalse( ResourceFileServlet.eTagMatches( "\"abc-br\"", "\"abc-gzip\"" ) );
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.UserIdentity;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemoizedUserInfoTest
+{
+    private final Map<String, AtomicInteger> invocations = new ConcurrentHashMap<>();
+
+    private UserInfo countingUserInfo( final UserInfo inner )
+    {
+        return ( UserInfo ) Proxy.newProxyInstance( UserInfo.class.getClassLoader(), new Class[] {UserInfo.class}, ( proxy, method, args ) ->
+        {
+            invocations.computeIfAbsent( method.getName(), k -> new AtomicInteger() ).incrementAndGet();
+            try
+            {
+                return method.invoke( inner, args );
+            }
+            catch ( final InvocationTargetException e )
+            {
+                throw e.getTargetException();
+            }
+        } );
+    }
+
+    private int invocationCount( final String methodName )
+    {
+        final AtomicInteger count = invocations.get( methodName );
+        return count == null ? 0 : count.get();
+    }
+
+    @Test
+    public void testValuesAreMemoized() throws Exception
+    {
+        final UserInfo userInfo = new MemoizedUserInfo( countingUserInfo( UserInfoBean.builder()
+                .userIdentity( UserIdentity.create( "cn=user1,o=test", "default", DomainID.DOMAIN_ID_DEFAULT ) )
+                .username( "user1" )
+                .build() ) );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            Assert.assertEquals( "user1", userInfo.getUsername() );
+            Assert.assertNull( userInfo.getUserEmailAddress() );
+            Assert.assertFalse( userInfo.isRequiresNewPassword() );
+        }
+
+        Assert.assertEquals( 1, invocationCount( "getUsername" ) );
+        Assert.assertEquals( 1, invocationCount( "getUserEmailAddress" ) );
+        Assert.assertEquals( 1, invocationCount( "isRequiresNewPassword" ) );
+    }
+
+    @Test
+    public void testFailuresAreNotMemoized() throws Exception
+    {
+        final AtomicInteger attempts = new AtomicInteger();
+        final UserInfo failingInfo = ( UserInfo ) Proxy.newProxyInstance( UserInfo.class.getClassLoader(), new Class[] {UserInfo.class}, ( proxy, method, args ) ->
+        {
+            if ( attempts.incrementAndGet() == 1 )
+            {
+                throw PwmUnrecoverableException.newException( PwmError.ERROR_DIRECTORY_UNAVAILABLE, "test" );
+            }
+            return "user1";
+        } );
+
+        final UserInfo userInfo = new MemoizedUserInfo( failingInfo );
+        Assert.assertThrows( PwmUnrecoverableException.class, userInfo::getUsername );
+        Assert.assertEquals( "user1", userInfo.getUsername() );
+        Assert.assertEquals( "user1", userInfo.getUsername() );
+        Assert.assertEquals( 2, attempts.get() );
+    }
+}
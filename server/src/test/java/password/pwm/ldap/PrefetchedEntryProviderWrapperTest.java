@@ -0,0 +1,89 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import com.novell.ldapchai.provider.ChaiProvider;
+import com.novell.ldapchai.provider.SearchScope;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PrefetchedEntryProviderWrapperTest
+{
+    private static final String USER_DN = "cn=user1,o=test";
+
+    private final List<String> delegatedCalls = new ArrayList<>();
+
+    private ChaiProvider recordingProvider( )
+    {
+        return ( ChaiProvider ) Proxy.newProxyInstance( ChaiProvider.class.getClassLoader(), new Class[] {ChaiProvider.class}, ( proxy, method, args ) ->
+        {
+            delegatedCalls.add( method.getName() );
+            if ( "readStringAttribute".equals( method.getName() ) )
+            {
+                return "ldap-" + args[1];
+            }
+            return null;
+        } );
+    }
+
+    private ChaiProvider prefetchedProvider( )
+    {
+        return PrefetchedEntryProviderWrapper.wrap(
+                recordingProvider(),
+                USER_DN,
+                Set.of( "mail", "loginTime", "language" ),
+                Map.of( "mail", "user1@example.com", "loginTime", "20210304050607Z" ) );
+    }
+
+    @Test
+    public void testPrefetchedReads() throws Exception
+    {
+        final ChaiProvider provider = prefetchedProvider();
+
+        Assert.assertEquals( "user1@example.com", provider.readStringAttribute( USER_DN, "mail" ) );
+        Assert.assertEquals( "user1@example.com", provider.readStringAttribute( USER_DN.toUpperCase(), "MAIL" ) );
+        Assert.assertNull( provider.readStringAttribute( USER_DN, "language" ) );
+        Assert.assertEquals( Map.of( "mail", "user1@example.com" ), provider.readStringAttributes( USER_DN, Set.of( "mail", "language" ) ) );
+
+        Assert.assertTrue( delegatedCalls.isEmpty() );
+    }
+
+    @Test
+    public void testOtherReadsAreDelegated() throws Exception
+    {
+        final ChaiProvider provider = prefetchedProvider();
+
+        Assert.assertEquals( "ldap-givenName", provider.readStringAttribute( USER_DN, "givenName" ) );
+        Assert.assertEquals( "ldap-mail", provider.readStringAttribute( "cn=user2,o=test", "mail" ) );
+        provider.readStringAttributes( USER_DN, Set.of( "mail", "givenName" ) );
+
+        // prefetched values are single valued, so multi valued reads always go to the directory
+        provider.searchMultiValues( USER_DN, "(objectClass=*)", Set.of( "mail" ), SearchScope.BASE );
+
+        Assert.assertEquals( List.of( "readStringAttribute", "readStringAttribute", "readStringAttributes", "searchMultiValues" ), delegatedCalls );
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import com.novell.ldapchai.provider.ChaiConfiguration;
+import com.novell.ldapchai.provider.ChaiProvider;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import password.pwm.PwmApplication;
+import password.pwm.PwmDomain;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.UserIdentity;
+import password.pwm.util.localdb.TestHelper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class UserAttributeCacheTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final UserIdentity USER_1 = UserIdentity.create( "cn=user1,o=test", "default", DomainID.DOMAIN_ID_DEFAULT );
+    private static final UserIdentity USER_2 = UserIdentity.create( "cn=user2,o=test", "default", DomainID.DOMAIN_ID_DEFAULT );
+
+    @Test
+    public void testHit()
+            throws Exception
+    {
+        final PwmDomain pwmDomain = makeDomain();
+        final UserAttributeCache cache = UserAttributeCache.forUser( pwmDomain, USER_1, makeProvider( "cn=proxy,o=test" ) ).orElseThrow();
+
+        cache.store( Map.of( "mail", List.of( "user1@example.com" ), "telephoneNumber", List.of() ) );
+
+        final Map<String, List<String>> values = cache.read( Set.of( "mail", "MAIL", "telephoneNumber" ) );
+        Assert.assertEquals( List.of( "user1@example.com" ), values.get( "mail" ) );
+        Assert.assertEquals( List.of( "user1@example.com" ), values.get( "MAIL" ) );
+        Assert.assertEquals( List.of(), values.get( "telephoneNumber" ) );
+    }
+
+    @Test
+    public void testMiss()
+            throws Exception
+    {
+        final PwmDomain pwmDomain = makeDomain();
+        final UserAttributeCache cache = UserAttributeCache.forUser( pwmDomain, USER_1, makeProvider( "cn=proxy,o=test" ) ).orElseThrow();
+        cache.store( Map.of( "mail", List.of( "user1@example.com" ) ) );
+
+        Assert.assertFalse( cache.read( Set.of( "givenName" ) ).containsKey( "givenName" ) );
+
+        final UserAttributeCache otherUserCache = UserAttributeCache.forUser( pwmDomain, USER_2, makeProvider( "cn=proxy,o=test" ) ).orElseThrow();
+        Assert.assertTrue( otherUserCache.read( Set.of( "mail" ) ).isEmpty() );
+
+        final UserAttributeCache otherBindCache = UserAttributeCache.forUser( pwmDomain, USER_1, makeProvider( "cn=user1,o=test" ) ).orElseThrow();
+        Assert.assertTrue( otherBindCache.read( Set.of( "mail" ) ).isEmpty() );
+    }
+
+    @Test
+    public void testInvalidation()
+            throws Exception
+    {
+        final PwmDomain pwmDomain = makeDomain();
+        final UserAttributeCache cache1 = UserAttributeCache.forUser( pwmDomain, USER_1, makeProvider( "cn=proxy,o=test" ) ).orElseThrow();
+        final UserAttributeCache cache2 = UserAttributeCache.forUser( pwmDomain, USER_2, makeProvider( "cn=proxy,o=test" ) ).orElseThrow();
+        cache1.store( Map.of( "mail", List.of( "user1@example.com" ) ) );
+        cache2.store( Map.of( "mail", List.of( "user2@example.com" ) ) );
+
+        pwmDomain.getCacheService().invalidateUser( USER_1 );
+
+        Assert.assertTrue( cache1.read( Set.of( "mail" ) ).isEmpty() );
+        Assert.assertEquals( List.of( "user2@example.com" ), cache2.read( Set.of( "mail" ) ).get( "mail" ) );
+    }
+
+    private PwmDomain makeDomain()
+            throws Exception
+    {
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( temporaryFolder.newFolder() );
+        final PwmDomain pwmDomain = pwmApplication.domains().get( DomainID.DOMAIN_ID_DEFAULT );
+        Assert.assertTrue( UserAttributeCache.isEnabled( pwmDomain ) );
+        return pwmDomain;
+    }
+
+    private static ChaiProvider makeProvider( final String bindDN )
+    {
+        final ChaiProvider chaiProvider = Mockito.mock( ChaiProvider.class );
+        Mockito.when( chaiProvider.getChaiConfiguration() ).thenReturn( ChaiConfiguration.builder( "ldap://localhost", bindDN, "password" ).build() );
+        return chaiProvider;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.profile.ProfileDefinition;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.CachingProxyWrapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the memoizing {@link UserInfo} wrapper with the reflection based {@link CachingProxyWrapper}
+ * for a sequence of calls similar to those made while processing a login.
+ */
+@State( Scope.Benchmark )
+public class UserInfoBenchmarkExtendedTest
+{
+    private final UserInfo userInfoBean = UserInfoBean.builder()
+            .userIdentity( UserIdentity.create( "cn=user1,o=test", "default", DomainID.DOMAIN_ID_DEFAULT ) )
+            .username( "user1" )
+            .userEmailAddress( "user1@example.com" )
+            .language( "en" )
+            .profileID( ProfileDefinition.ChangePassword, "default" )
+            .cachedAttributeValue( "cn", "user1" )
+            .build();
+
+    @Test
+    public void
+    launchBenchmark()
+            throws Exception
+    {
+        final Options opt = new OptionsBuilder()
+                .include( this.getClass().getName() + ".*" )
+                .mode ( Mode.AverageTime )
+                .timeUnit( TimeUnit.NANOSECONDS )
+                .warmupTime( TimeValue.seconds( 10 ) )
+                .measurementIterations( 10 )
+                .threads( 1 )
+                .forks( 1 )
+                .shouldFailOnError( true )
+                .shouldDoGC( true )
+                .build();
+
+        new Runner( opt ).run();
+    }
+
+    @Benchmark
+    public void benchmarkProxy( final Blackhole blackhole )
+            throws Exception
+    {
+        loginPath( CachingProxyWrapper.create( UserInfo.class, userInfoBean ), blackhole );
+    }
+
+    @Benchmark
+    public void benchmarkMemoized( final Blackhole blackhole )
+            throws Exception
+    {
+        loginPath( new MemoizedUserInfo( userInfoBean ), blackhole );
+    }
+
+    private static void loginPath( final UserInfo userInfo, final Blackhole blackhole )
+            throws PwmUnrecoverableException
+    {
+        for ( int i = 0; i < 5; i++ )
+        {
+            blackhole.consume( userInfo.getUserIdentity() );
+            blackhole.consume( userInfo.getUsername() );
+            blackhole.consume( userInfo.getPasswordStatus() );
+            blackhole.consume( userInfo.isRequiresNewPassword() );
+            blackhole.consume( userInfo.getProfileIDs() );
+            blackhole.consume( userInfo.getPasswordPolicy() );
+            blackhole.consume( userInfo.getUserEmailAddress() );
+            blackhole.consume( userInfo.getLanguage() );
+            blackhole.consume( userInfo.getCachedAttributeValues() );
+        }
+    }
+}
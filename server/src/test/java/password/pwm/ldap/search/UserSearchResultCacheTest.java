@@ -0,0 +1,107 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap.search;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.AppConfig;
+import password.pwm.config.DomainConfig;
+import password.pwm.config.stored.StoredConfigurationFactory;
+import password.pwm.util.java.TimeDuration;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+public class UserSearchResultCacheTest
+{
+    private static UserSearchResultCache makeCache() throws Exception
+    {
+        final AppConfig appConfig = new AppConfig( StoredConfigurationFactory.newConfig() );
+        final DomainConfig domainConfig = appConfig.getDomainConfigs().values().iterator().next();
+        return UserSearchResultCache.create( domainConfig ).orElseThrow();
+    }
+
+    @Test
+    public void testPositiveAndNegativeResults() throws Exception
+    {
+        final UserSearchResultCache cache = makeCache();
+        final UserIdentity user1 = UserIdentity.create( "cn=user1,o=test", "default", DomainID.DOMAIN_ID_DEFAULT );
+
+        final UserSearchResultCache.CacheKey foundKey = UserSearchResultCache.makeKey( SearchConfiguration.builder().username( "user1" ).build() ).orElseThrow();
+        final UserSearchResultCache.CacheKey missingKey = UserSearchResultCache.makeKey( SearchConfiguration.builder().username( "missing" ).build() ).orElseThrow();
+
+        Assert.assertFalse( cache.readPositive( foundKey ).isPresent() );
+        cache.storePositive( foundKey, user1 );
+        cache.storeNegative( missingKey );
+
+        Assert.assertEquals( Optional.of( user1 ), cache.readPositive( foundKey ) );
+        Assert.assertTrue( cache.readNegative( missingKey ) );
+        Assert.assertFalse( cache.readNegative( foundKey ) );
+
+        cache.invalidateAll();
+        Assert.assertFalse( cache.readPositive( foundKey ).isPresent() );
+        Assert.assertFalse( cache.readNegative( missingKey ) );
+        Assert.assertEquals( "1", cache.debugStats().get( "invalidations" ) );
+    }
+
+    @Test
+    public void testKeyNormalization()
+    {
+        final Optional<UserSearchResultCache.CacheKey> key1 = UserSearchResultCache.makeKey( SearchConfiguration.builder().username( " user1 " ).build() );
+        final Optional<UserSearchResultCache.CacheKey> key2 = UserSearchResultCache.makeKey( SearchConfiguration.builder().username( "user1" ).build() );
+        Assert.assertEquals( key1, key2 );
+
+        final Optional<UserSearchResultCache.CacheKey> profileKey = UserSearchResultCache.makeKey( SearchConfiguration.builder()
+                .username( "user1" )
+                .ldapProfile( "other" )
+                .build() );
+        Assert.assertNotEquals( key2, profileKey );
+    }
+
+    @Test
+    public void testKeyIncludesSearchOptions()
+    {
+        final SearchConfiguration baseConfig = SearchConfiguration.builder().username( "user1" ).build();
+        final UserSearchResultCache.CacheKey baseKey = UserSearchResultCache.makeKey( baseConfig ).orElseThrow();
+
+        final List<SearchConfiguration> variations = List.of(
+                baseConfig.toBuilder().enableValueEscaping( false ).build(),
+                baseConfig.toBuilder().enableSplitWhitespace( true ).build(),
+                baseConfig.toBuilder().enableContextValidation( false ).build(),
+                baseConfig.toBuilder().ignoreOperationalErrors( true ).build(),
+                baseConfig.toBuilder().searchTimeout( TimeDuration.SECOND ).build() );
+
+        for ( final SearchConfiguration variation : variations )
+        {
+            Assert.assertNotEquals( baseKey, UserSearchResultCache.makeKey( variation ).orElseThrow() );
+        }
+    }
+
+    @Test
+    public void testUncacheableSearches()
+    {
+        Assert.assertFalse( UserSearchResultCache.makeKey( SearchConfiguration.builder().filter( "(cn=user1)" ).build() ).isPresent() );
+        Assert.assertFalse( UserSearchResultCache.makeKey( SearchConfiguration.builder().username( "" ).contexts( Collections.singletonList( "o=test" ) ).build() ).isPresent() );
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap.search;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.UserIdentity;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.TimeDuration;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class UserSearchResultStreamTest
+{
+    private static final UserIdentity USER_1 = UserIdentity.create( "cn=user1,o=test", "default", DomainID.DOMAIN_ID_DEFAULT );
+    private static final UserIdentity USER_2 = UserIdentity.create( "cn=user2,o=test", "default", DomainID.DOMAIN_ID_DEFAULT );
+
+    @Test
+    public void testResultsInCompletionOrder()
+            throws Exception
+    {
+        final UserSearchEngine userSearchEngine = Mockito.mock( UserSearchEngine.class );
+        final UserSearchJob job1 = makeJob( userSearchEngine, 1 );
+        final UserSearchJob job2 = makeJob( userSearchEngine, 2 );
+        Mockito.when( userSearchEngine.readJobResults( job1 ) ).thenReturn( Map.of( USER_1, Collections.emptyMap() ) );
+        Mockito.when( userSearchEngine.readJobResults( job2 ) ).thenReturn( Map.of( USER_2, Collections.emptyMap() ) );
+
+        final BlockingQueue<UserSearchJob> completedJobs = new LinkedBlockingQueue<>( List.of( job2, job1 ) );
+        try ( UserSearchResultStream resultStream = new UserSearchResultStream(
+                userSearchEngine, List.of( job1, job2 ), List.of(), completedJobs, 10, TimeDuration.SECONDS_10 ) )
+        {
+            Assert.assertEquals( USER_2, resultStream.next().getKey() );
+            Assert.assertEquals( USER_1, resultStream.next().getKey() );
+            Assert.assertFalse( resultStream.hasNext() );
+            Assert.assertEquals( 2, resultStream.resultCount() );
+        }
+    }
+
+    @Test
+    public void testWaitForLateJob()
+            throws Exception
+    {
+        final UserSearchEngine userSearchEngine = Mockito.mock( UserSearchEngine.class );
+        final UserSearchJob job1 = makeJob( userSearchEngine, 1 );
+        Mockito.when( userSearchEngine.readJobResults( job1 ) ).thenReturn( Map.of( USER_1, Collections.emptyMap() ) );
+
+        final BlockingQueue<UserSearchJob> completedJobs = new LinkedBlockingQueue<>();
+        final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        try ( UserSearchResultStream resultStream = new UserSearchResultStream(
+                userSearchEngine, List.of( job1 ), List.of(), completedJobs, 10, TimeDuration.SECONDS_10 ) )
+        {
+            executorService.schedule( () -> completedJobs.offer( job1 ), 100, TimeUnit.MILLISECONDS );
+            Assert.assertTrue( resultStream.hasNext() );
+            Assert.assertEquals( USER_1, resultStream.next().getKey() );
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWaitIsBoundedBySearchTimeout()
+            throws Exception
+    {
+        final UserSearchEngine userSearchEngine = Mockito.mock( UserSearchEngine.class );
+        final UserSearchJob job1 = makeJob( userSearchEngine, 1 );
+        final List<UserSearchJob> searchJobs = List.of( job1 );
+        final TimeDuration searchTimeout = TimeDuration.of( 200, TimeDuration.Unit.MILLISECONDS );
+
+        final Instant startTime = Instant.now();
+        try ( UserSearchResultStream resultStream = new UserSearchResultStream(
+                userSearchEngine, searchJobs, List.of(), new LinkedBlockingQueue<>(), 10, searchTimeout ) )
+        {
+            resultStream.hasNext();
+            Assert.fail( "expected search timeout" );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            Assert.assertEquals( PwmError.ERROR_DIRECTORY_UNAVAILABLE, e.getError() );
+        }
+
+        final long elapsedMs = TimeDuration.fromCurrent( startTime ).asMillis();
+        Assert.assertTrue( elapsedMs >= searchTimeout.asMillis() );
+        Assert.assertTrue( elapsedMs < 5_000 );
+        Mockito.verify( userSearchEngine ).cancelJobs( searchJobs );
+    }
+
+    private static UserSearchJob makeJob( final UserSearchEngine userSearchEngine, final int jobId )
+    {
+        final UserSearchJobParameters parameters = UserSearchJobParameters.builder()
+                .jobId( jobId )
+                .timeoutMs( 10_000 )
+                .build();
+        return new UserSearchJob( null, userSearchEngine, parameters, null );
+    }
+}
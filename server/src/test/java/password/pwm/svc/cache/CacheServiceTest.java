@@ -0,0 +1,109 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.cache;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.PwmApplication;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.UserIdentity;
+import password.pwm.util.localdb.TestHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class CacheServiceTest
+{
+    private static final UserIdentity USER1 = UserIdentity.create( "cn=user1,o=test", "default", DomainID.DOMAIN_ID_DEFAULT );
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testInvalidationBusReplacement() throws Exception
+    {
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( temporaryFolder.newFolder() );
+        final CacheService cacheService = pwmApplication.getCacheService();
+        final CacheKey cacheKey = CacheKey.newKey( CacheServiceTest.class, USER1, "value" );
+
+        final RecordingBus firstBus = new RecordingBus();
+        final RecordingBus secondBus = new RecordingBus();
+        cacheService.setInvalidationBus( firstBus );
+        cacheService.setInvalidationBus( secondBus );
+        Assert.assertTrue( firstBus.subscribers.isEmpty() );
+        Assert.assertEquals( 1, secondBus.subscribers.size() );
+
+        cacheService.invalidateUser( USER1 );
+        Assert.assertTrue( firstBus.published.isEmpty() );
+        Assert.assertEquals( List.of( USER1 ), secondBus.published );
+
+        // a closed bus is dropped, so invalidations are applied locally only
+        cacheService.removeInvalidationBus( secondBus );
+        Assert.assertTrue( secondBus.subscribers.isEmpty() );
+        cacheService.put( cacheKey, CachePolicy.makePolicyWithExpirationMS( 60_000 ), "value" );
+        cacheService.invalidateUser( USER1 );
+        Assert.assertEquals( 1, secondBus.published.size() );
+        Assert.assertNull( cacheService.get( cacheKey, String.class ) );
+    }
+
+    @Test
+    public void testPeerInvalidationRemovesValues() throws Exception
+    {
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( temporaryFolder.newFolder() );
+        final CacheService cacheService = pwmApplication.getCacheService();
+        final CacheKey cacheKey = CacheKey.newKey( CacheServiceTest.class, USER1, "value" );
+
+        final RecordingBus bus = new RecordingBus();
+        cacheService.setInvalidationBus( bus );
+        cacheService.put( cacheKey, CachePolicy.makePolicyWithExpirationMS( 60_000 ), "value" );
+        Assert.assertEquals( "value", cacheService.get( cacheKey, String.class ) );
+
+        bus.subscribers.forEach( subscriber -> subscriber.accept( USER1 ) );
+        Assert.assertNull( cacheService.get( cacheKey, String.class ) );
+    }
+
+    private static class RecordingBus implements CacheInvalidationBus
+    {
+        private final List<Consumer<UserIdentity>> subscribers = new ArrayList<>();
+        private final List<UserIdentity> published = new ArrayList<>();
+
+        @Override
+        public void publish( final UserIdentity userIdentity )
+        {
+            published.add( userIdentity );
+        }
+
+        @Override
+        public void subscribe( final Consumer<UserIdentity> subscriber )
+        {
+            subscribers.add( subscriber );
+        }
+
+        @Override
+        public void unsubscribe( final Consumer<UserIdentity> subscriber )
+        {
+            subscribers.remove( subscriber );
+        }
+    }
+}
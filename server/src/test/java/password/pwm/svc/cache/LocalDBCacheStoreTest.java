@@ -0,0 +1,152 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.cache;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.PwmApplication;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBFactory;
+import password.pwm.util.localdb.TestHelper;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+public class LocalDBCacheStoreTest
+{
+    private static final Instant EXPIRATION = Instant.now().plus( 1, ChronoUnit.HOURS );
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private LocalDB localDB;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        final File localDbTestFolder = testFolder.newFolder( "test-cache-store" );
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( localDbTestFolder );
+        localDB = LocalDBFactory.getInstance( localDbTestFolder, false, pwmApplication.getPwmEnvironment(), pwmApplication.getConfig() );
+    }
+
+    @Test
+    public void testStoreAndRead() throws Exception
+    {
+        final LocalDBCacheStore cacheStore = new LocalDBCacheStore( localDB, 100, LocalDBCacheStore.PayloadCodec.PLAIN );
+        final CacheKey cacheKey = CacheKey.newKey( LocalDBCacheStoreTest.class, null, "value1" );
+        cacheStore.store( cacheKey, EXPIRATION, "storedValue" );
+
+        Assert.assertEquals( 1, cacheStore.itemCount() );
+        Assert.assertEquals( "storedValue", cacheStore.read( cacheKey, String.class ) );
+        Assert.assertNull( cacheStore.read( CacheKey.newKey( LocalDBCacheStoreTest.class, null, "value2" ), String.class ) );
+    }
+
+    @Test
+    public void testExpiredValuesArePurged() throws Exception
+    {
+        final LocalDBCacheStore cacheStore = new LocalDBCacheStore( localDB, 100, LocalDBCacheStore.PayloadCodec.PLAIN );
+        final CacheKey cacheKey = CacheKey.newKey( LocalDBCacheStoreTest.class, null, "expiring" );
+        cacheStore.writeValue( cacheKey, Instant.now().plusMillis( 1 ), "\"value\"" );
+        cacheStore.writeValue( CacheKey.newKey( LocalDBCacheStoreTest.class, null, "retained" ), EXPIRATION, "\"value\"" );
+        Thread.sleep( 5 );
+
+        cacheStore.purgeExpiredValues();
+        Assert.assertEquals( 1, cacheStore.itemCount() );
+        Assert.assertEquals( 1, localDB.size( LocalDB.DB.CACHE ) );
+        Assert.assertNull( cacheStore.read( cacheKey, String.class ) );
+    }
+
+    @Test
+    public void testMaxItems() throws Exception
+    {
+        final LocalDBCacheStore cacheStore = new LocalDBCacheStore( localDB, 1, LocalDBCacheStore.PayloadCodec.PLAIN );
+        Assert.assertTrue( cacheStore.writeValue( CacheKey.newKey( LocalDBCacheStoreTest.class, null, "value1" ), EXPIRATION, "\"value\"" ) );
+        Assert.assertFalse( cacheStore.writeValue( CacheKey.newKey( LocalDBCacheStoreTest.class, null, "value2" ), EXPIRATION, "\"value\"" ) );
+        Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.overflowSkipCount ) );
+    }
+
+    @Test
+    public void testPromotionToMemoryStore() throws Exception
+    {
+        final LocalDBCacheStore overflowStore = new LocalDBCacheStore( localDB, 100, LocalDBCacheStore.PayloadCodec.PLAIN );
+        final MemoryCacheStore memoryCacheStore = new MemoryCacheStore( 100, 1024 * 1024, overflowStore, TimeDuration.ZERO, null, MemoryCacheStore.DEFAULT_LOAD_WAIT );
+        final CacheKey cacheKey = CacheKey.newKey( LocalDBCacheStoreTest.class, null, "demoted" );
+        overflowStore.writeValue( cacheKey, EXPIRATION, "\"demotedValue\"" );
+
+        Assert.assertEquals( "demotedValue", memoryCacheStore.read( cacheKey, String.class ) );
+        Assert.assertEquals( 0, overflowStore.itemCount() );
+        Assert.assertEquals( 1, memoryCacheStore.itemCount() );
+        Assert.assertEquals( 1, memoryCacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.promoteCount ) );
+    }
+
+    @Test
+    public void testOverwriteByteCount() throws Exception
+    {
+        final LocalDBCacheStore cacheStore = new LocalDBCacheStore( localDB, 100, LocalDBCacheStore.PayloadCodec.PLAIN );
+        final CacheKey cacheKey = CacheKey.newKey( LocalDBCacheStoreTest.class, null, "overwritten" );
+        cacheStore.writeValue( cacheKey, EXPIRATION, "\"value\"" );
+        final long singleValueBytes = cacheStore.byteCount();
+
+        cacheStore.writeValue( cacheKey, EXPIRATION, "\"value\"" );
+        Assert.assertEquals( 1, cacheStore.itemCount() );
+        Assert.assertEquals( singleValueBytes, cacheStore.byteCount() );
+
+        cacheStore.removeValue( cacheKey );
+        Assert.assertEquals( 0, cacheStore.itemCount() );
+        Assert.assertEquals( 0, cacheStore.byteCount() );
+    }
+
+    @Test
+    public void testStoredValuesAreEncoded() throws Exception
+    {
+        final LocalDBCacheStore.PayloadCodec reversingCodec = new LocalDBCacheStore.PayloadCodec()
+        {
+            @Override
+            public String encode( final String value )
+            {
+                return new StringBuilder( value ).reverse().toString();
+            }
+
+            @Override
+            public String decode( final String value )
+            {
+                return new StringBuilder( value ).reverse().toString();
+            }
+        };
+
+        final LocalDBCacheStore cacheStore = new LocalDBCacheStore( localDB, 100, reversingCodec );
+        final CacheKey cacheKey = CacheKey.newKey( LocalDBCacheStoreTest.class, null, "encoded" );
+        cacheStore.store( cacheKey, EXPIRATION, "secretValue" );
+
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( LocalDB.DB.CACHE ) )
+        {
+            Assert.assertTrue( iterator.hasNext() );
+            Assert.assertFalse( iterator.next().getValue().contains( "secretValue" ) );
+        }
+        Assert.assertEquals( "secretValue", cacheStore.read( cacheKey, String.class ) );
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.ResponseInfoBean;
+import password.pwm.bean.UserIdentity;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.servlet.peoplesearch.bean.SearchResultBean;
+import password.pwm.ldap.UserAttributeCache;
+import password.pwm.ldap.UserInfoBean;
+import password.pwm.ldap.search.UserSearchResults;
+import password.pwm.util.java.TimeDuration;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemoryCacheStoreTest
+{
+    private static final Instant EXPIRATION = Instant.now().plus( 1, ChronoUnit.HOURS );
+
+    @Test
+    public void testImmutableValueIsShared()
+            throws PwmUnrecoverableException
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "immutable" );
+        final String value = new String( "cachedValue" );
+        cacheStore.store( cacheKey, EXPIRATION, value );
+
+        Assert.assertSame( value, cacheStore.read( cacheKey, String.class ) );
+        Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.immutableHitCount ) );
+    }
+
+    @Test
+    public void testMutableValueIsCopied()
+            throws PwmUnrecoverableException
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "mutable" );
+        final ArrayList<String> value = new ArrayList<>( List.of( "one", "two" ) );
+        cacheStore.store( cacheKey, EXPIRATION, value );
+        value.add( "three" );
+
+        final ArrayList<?> readValue = cacheStore.read( cacheKey, ArrayList.class );
+        Assert.assertNotSame( value, readValue );
+        Assert.assertEquals( List.of( "one", "two" ), readValue );
+        Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.mutableHitCount ) );
+    }
+
+    @Test
+    public void testSearchResultsAreShared()
+            throws PwmUnrecoverableException
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "searchResults" );
+        final UserIdentity user1 = UserIdentity.create( "cn=user1,o=test", "default", DomainID.DOMAIN_ID_DEFAULT );
+        final Map<String, String> row = new HashMap<>( Map.of( "cn", "user1" ) );
+        final UserSearchResults value = new UserSearchResults( Map.of( "cn", "Name" ), Map.of( user1, row ), false );
+        row.put( "cn", "modified" );
+        cacheStore.store( cacheKey, EXPIRATION, value );
+
+        final UserSearchResults readValue = cacheStore.read( cacheKey, UserSearchResults.class );
+        Assert.assertSame( value, readValue );
+        Assert.assertEquals( "user1", readValue.getResults().get( user1 ).get( "cn" ) );
+        Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.immutableHitCount ) );
+    }
+
+    @Test
+    public void testCachedAttributeValuesAreShared()
+            throws PwmUnrecoverableException
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "attributeValues" );
+        final UserAttributeCache.CachedValues value = new UserAttributeCache.CachedValues( List.of( "one", "two" ) );
+        cacheStore.store( cacheKey, EXPIRATION, value );
+
+        final UserAttributeCache.CachedValues readValue = cacheStore.read( cacheKey, UserAttributeCache.CachedValues.class );
+        Assert.assertSame( value, readValue );
+        Assert.assertThrows( UnsupportedOperationException.class, () -> readValue.getValues().add( "three" ) );
+        Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.immutableHitCount ) );
+    }
+
+    @Test
+    public void testCopiedValueIsCopiedOnRead()
+            throws PwmUnrecoverableException
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "copied" );
+        final List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add( new HashMap<>( Map.of( "cn", "user1" ) ) );
+        final SearchResultBean value = SearchResultBean.builder().searchResults( rows ).aboutResultMessage( "one result" ).build();
+        cacheStore.store( cacheKey, EXPIRATION, value );
+        rows.get( 0 ).put( "cn", "modified" );
+
+        final SearchResultBean firstRead = cacheStore.read( cacheKey, SearchResultBean.class );
+        Assert.assertNotSame( value, firstRead );
+        Assert.assertEquals( "user1", firstRead.getSearchResults().get( 0 ).get( "cn" ) );
+
+        firstRead.getSearchResults().get( 0 ).put( "cn", "modified" );
+        final SearchResultBean secondRead = cacheStore.read( cacheKey, SearchResultBean.class );
+        Assert.assertEquals( "user1", secondRead.getSearchResults().get( 0 ).get( "cn" ) );
+        Assert.assertEquals( 2, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.copiedHitCount ) );
+        Assert.assertTrue( cacheStore.byteCount() > "one result".length() );
+    }
+
+    @Test
+    public void testUserInfoBeanResponseInfoIsCopied()
+    {
+        final Instant timestamp = Instant.parse( "2020-01-01T00:00:00Z" );
+        final ResponseInfoBean responseInfoBean = new ResponseInfoBean( new LinkedHashMap<>(), new LinkedHashMap<>(), Locale.ENGLISH, 0, "id", null, null );
+        responseInfoBean.setTimestamp( timestamp );
+        final UserInfoBean value = UserInfoBean.builder().username( "user1" ).responseInfoBean( responseInfoBean ).build();
+
+        Assert.assertEquals( CacheValueType.copied, CacheValueType.forClass( UserInfoBean.class ) );
+        final UserInfoBean copy = CacheValueType.copy( value );
+        Assert.assertNotSame( responseInfoBean, copy.getResponseInfoBean() );
+        Assert.assertNotSame( responseInfoBean.getCrMap(), copy.getResponseInfoBean().getCrMap() );
+        Assert.assertNotSame( responseInfoBean.getHelpdeskCrMap(), copy.getResponseInfoBean().getHelpdeskCrMap() );
+
+        copy.getResponseInfoBean().setTimestamp( Instant.now() );
+        Assert.assertEquals( timestamp, value.getResponseInfoBean().getTimestamp() );
+        Assert.assertEquals( "user1", copy.getUsername() );
+    }
+
+    @Test
+    public void testEstimateChars()
+    {
+        Assert.assertEquals( "value".length() + 2, CacheValueType.estimateChars( "value" ) );
+        Assert.assertTrue( CacheValueType.estimateChars( List.of( "one", "two" ) ) > CacheValueType.estimateChars( List.of( "one" ) ) );
+        Assert.assertTrue( CacheValueType.estimateChars( Map.of( "key", "value" ) ) >= "keyvalue".length() );
+    }
+
+    @Test
+    public void testExpiredValueIsMiss()
+            throws PwmUnrecoverableException
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "expired" );
+        cacheStore.store( cacheKey, Instant.now().minus( 1, ChronoUnit.MINUTES ), "value" );
+
+        Assert.assertNull( cacheStore.read( cacheKey, String.class ) );
+        Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.missCount ) );
+    }
+
+    @Test
+    public void testReadAndStoreLoadsOnce()
+            throws PwmUnrecoverableException
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "loader" );
+        final int[] loadCount = new int[1];
+        final CacheLoader<String> loader = () ->
+        {
+            loadCount[0]++;
+            return "loadedValue";
+        };
+
+        Assert.assertEquals( "loadedValue", cacheStore.readAndStore( cacheKey, EXPIRATION, String.class, loader ) );
+        Assert.assertEquals( "loadedValue", cacheStore.readAndStore( cacheKey, EXPIRATION, String.class, loader ) );
+        Assert.assertEquals( 1, loadCount[0] );
+    }
+
+    @Test
+    public void testInvalidationBusRemovesPeerUserValues()
+            throws PwmUnrecoverableException
+    {
+        final UserIdentity user1 = UserIdentity.create( "cn=user1,o=test", "default", DomainID.DOMAIN_ID_DEFAULT );
+        final UserIdentity user2 = UserIdentity.create( "cn=user2,o=test", "default", DomainID.DOMAIN_ID_DEFAULT );
+        final CacheKey user1Key = CacheKey.newKey( MemoryCacheStoreTest.class, user1, "value" );
+        final CacheKey user2Key = CacheKey.newKey( MemoryCacheStoreTest.class, user2, "value" );
+
+        final CacheInvalidationBus bus = new InProcessCacheInvalidationBus();
+        final MemoryCacheStore node1Store = new MemoryCacheStore( 100 );
+        final MemoryCacheStore node2Store = new MemoryCacheStore( 100 );
+        bus.subscribe( node2Store::invalidateUser );
+
+        for ( final MemoryCacheStore cacheStore : List.of( node1Store, node2Store ) )
+        {
+            cacheStore.store( user1Key, EXPIRATION, "user1Value" );
+            cacheStore.store( user2Key, EXPIRATION, "user2Value" );
+        }
+
+        node1Store.invalidateUser( user1 );
+        bus.publish( user1 );
+
+        for ( final MemoryCacheStore cacheStore : List.of( node1Store, node2Store ) )
+        {
+            Assert.assertNull( cacheStore.read( user1Key, String.class ) );
+            Assert.assertEquals( "user2Value", cacheStore.read( user2Key, String.class ) );
+        }
+    }
+
+    @Test
+    public void testConcurrentLoadsAreCoalesced()
+            throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "coalesced" );
+        final AtomicInteger loadCount = new AtomicInteger();
+        final CountDownLatch releaseLoader = new CountDownLatch( 1 );
+        final CacheLoader<String> loader = () ->
+        {
+            loadCount.incrementAndGet();
+            try
+            {
+                releaseLoader.await();
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            return "loadedValue";
+        };
+
+        final int threadCount = 8;
+        final ExecutorService executorService = Executors.newFixedThreadPool( threadCount );
+        try
+        {
+            final List<Future<String>> results = new ArrayList<>();
+            for ( int i = 0; i < threadCount; i++ )
+            {
+                results.add( executorService.submit( () -> cacheStore.readAndStore( cacheKey, EXPIRATION, String.class, loader ) ) );
+            }
+
+            while ( cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.coalescedWaitCount ) < threadCount - 1 )
+            {
+                Thread.sleep( 5 );
+            }
+            releaseLoader.countDown();
+
+            for ( final Future<String> result : results )
+            {
+                Assert.assertEquals( "loadedValue", result.get( 10, TimeUnit.SECONDS ) );
+            }
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+
+        Assert.assertEquals( 1, loadCount.get() );
+        Assert.assertEquals( 0, cacheStore.inFlightLoadCount() );
+    }
+
+    @Test
+    public void testCoalescedWaitIsBounded()
+            throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100, 0, null, TimeDuration.ZERO, null, TimeDuration.of( 50, TimeDuration.Unit.MILLISECONDS ) );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "hungLoad" );
+        final CountDownLatch loaderStarted = new CountDownLatch( 1 );
+        final CountDownLatch releaseLoader = new CountDownLatch( 1 );
+
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try
+        {
+            final Future<String> hungLoad = executorService.submit( () -> cacheStore.readAndStore( cacheKey, EXPIRATION, String.class, () ->
+            {
+                loaderStarted.countDown();
+                try
+                {
+                    releaseLoader.await();
+                }
+                catch ( final InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                return "slowValue";
+            } ) );
+
+            Assert.assertTrue( loaderStarted.await( 10, TimeUnit.SECONDS ) );
+            Assert.assertEquals( "directValue", cacheStore.readAndStore( cacheKey, EXPIRATION, String.class, () -> "directValue" ) );
+            Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.coalescedWaitTimeoutCount ) );
+
+            releaseLoader.countDown();
+            Assert.assertEquals( "slowValue", hungLoad.get( 10, TimeUnit.SECONDS ) );
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInvalidationDuringLoadReloads()
+            throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        final UserIdentity user1 = UserIdentity.create( "cn=user1,o=test", "default", DomainID.DOMAIN_ID_DEFAULT );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, user1, "invalidated" );
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        final String loadedValue = cacheStore.readAndStore( cacheKey, EXPIRATION, String.class, () ->
+        {
+            if ( loadCount.incrementAndGet() == 1 )
+            {
+                // simulates a modification of the user, and the resulting invalidation, while the first load is reading
+                cacheStore.invalidateUser( user1 );
+                return "staleValue";
+            }
+            return "freshValue";
+        } );
+
+        Assert.assertEquals( "freshValue", loadedValue );
+        Assert.assertEquals( 2, loadCount.get() );
+        Assert.assertEquals( "freshValue", cacheStore.read( cacheKey, String.class ) );
+        Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.invalidatedLoadCount ) );
+    }
+
+    @Test
+    public void testRefreshAhead()
+            throws Exception
+    {
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try
+        {
+            final MemoryCacheStore cacheStore = new MemoryCacheStore( 100, 0, null, TimeDuration.HOUR, executorService, MemoryCacheStore.DEFAULT_LOAD_WAIT );
+            final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "refresh" );
+            cacheStore.store( cacheKey, Instant.now().plus( 1, ChronoUnit.MINUTES ), "staleValue" );
+
+            final Instant newExpiration = Instant.now().plus( 1, ChronoUnit.DAYS );
+            Assert.assertEquals( "staleValue", cacheStore.readAndStore( cacheKey, newExpiration, String.class, () -> "freshValue" ) );
+
+            executorService.shutdown();
+            Assert.assertTrue( executorService.awaitTermination( 10, TimeUnit.SECONDS ) );
+            Assert.assertEquals( "freshValue", cacheStore.read( cacheKey, String.class ) );
+            Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.refreshAheadCount ) );
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.report;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.PasswordStatus;
+import password.pwm.config.option.DataStorageMethod;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+public class ReportSummaryDataTest
+{
+    @Test
+    public void testDeltaUpdate()
+    {
+        final UserReportRecord oldRecord = UserReportRecord.builder()
+                .domainID( DomainID.DOMAIN_ID_DEFAULT )
+                .userDN( "cn=jsmith,ou=users,o=acme" )
+                .ldapProfile( "default" )
+                .passwordStatus( PasswordStatus.builder().expired( true ).build() )
+                .build();
+
+        final UserReportRecord newRecord = UserReportRecord.builder()
+                .domainID( DomainID.DOMAIN_ID_DEFAULT )
+                .userDN( "cn=jsmith,ou=users,o=acme" )
+                .ldapProfile( "default" )
+                .passwordStatus( PasswordStatus.builder().build() )
+                .hasResponses( true )
+                .responseStorageMethod( DataStorageMethod.LDAP )
+                .passwordChangeTime( Instant.now() )
+                .build();
+
+        final UserReportRecord otherRecord = UserReportRecord.builder()
+                .domainID( DomainID.DOMAIN_ID_DEFAULT )
+                .userDN( "cn=bjones,ou=users,o=acme" )
+                .ldapProfile( "default" )
+                .hasResponses( true )
+                .responseStorageMethod( DataStorageMethod.LDAP )
+                .build();
+
+        final ReportSummaryData summaryData = ReportSummaryData.newSummaryData( List.of( -30, 30 ) );
+        summaryData.update( oldRecord );
+        summaryData.update( otherRecord );
+        Assert.assertEquals( 1, summaryData.getPwExpired().sum() );
+
+        summaryData.remove( oldRecord );
+        summaryData.update( newRecord );
+
+        Assert.assertEquals( 2, summaryData.getTotalUsers().sum() );
+        Assert.assertEquals( 0, summaryData.getPwExpired().sum() );
+        Assert.assertEquals( 2, summaryData.getHasResponses().sum() );
+        Assert.assertEquals( 1, summaryData.getHasChangePwTime().sum() );
+        Assert.assertEquals( Long.valueOf( 2 ), summaryData.getResponseStorage().get( DataStorageMethod.LDAP ) );
+        Assert.assertEquals( 2, summaryData.getLdapProfile().get( DomainID.DOMAIN_ID_DEFAULT ).get( "default" ).sum() );
+
+        summaryData.remove( otherRecord );
+        summaryData.remove( newRecord );
+        Assert.assertEquals( 0, summaryData.getTotalUsers().sum() );
+        Assert.assertEquals( 0, summaryData.getHasResponses().sum() );
+    }
+
+    @Test
+    public void testRemoveAfterClockAdvance()
+    {
+        // the summary was built an hour ago, the event was within one day of that but is no longer within one day of now
+        final Instant referenceTime = Instant.now().minus( 1, ChronoUnit.HOURS );
+        final Instant changeTime = referenceTime.minus( 23, ChronoUnit.HOURS );
+        final UserReportRecord record = UserReportRecord.builder()
+                .domainID( DomainID.DOMAIN_ID_DEFAULT )
+                .userDN( "cn=jsmith,ou=users,o=acme" )
+                .passwordChangeTime( changeTime )
+                .passwordExpirationTime( referenceTime.plus( 2, ChronoUnit.DAYS ) )
+                .build();
+
+        final ReportSummaryData summaryData = ReportSummaryData.newSummaryData( List.of( -30, -1, 1, 30 ), referenceTime );
+        summaryData.update( record );
+        Assert.assertEquals( 1, summaryData.getChangePwDays().get( -1 ).sum() );
+        Assert.assertEquals( 1, summaryData.getChangePwDays().get( -30 ).sum() );
+        Assert.assertEquals( 0, summaryData.getPwExpireDays().get( 1 ).sum() );
+        Assert.assertEquals( 1, summaryData.getPwExpireDays().get( 30 ).sum() );
+
+        summaryData.remove( record );
+        for ( final int day : List.of( -30, -1, 1, 30 ) )
+        {
+            Assert.assertEquals( 0, summaryData.getChangePwDays().get( day ).sum() );
+            Assert.assertEquals( 0, summaryData.getPwExpireDays().get( day ).sum() );
+        }
+        Assert.assertEquals( 0, summaryData.getTotalUsers().sum() );
+        Assert.assertEquals( 0, summaryData.getHasChangePwTime().sum() );
+
+        // a rebuilt summary evaluates the windows against the current time
+        final ReportSummaryData rebuiltData = ReportSummaryData.newSummaryData( List.of( -30, -1, 1, 30 ) );
+        rebuiltData.update( record );
+        Assert.assertEquals( 0, rebuiltData.getChangePwDays().get( -1 ).sum() );
+        Assert.assertEquals( 1, rebuiltData.getChangePwDays().get( -30 ).sum() );
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.report;
+
+import com.novell.ldapchai.cr.Answer;
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.PwmConstants;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.PasswordStatus;
+import password.pwm.config.option.DataStorageMethod;
+import password.pwm.util.json.JsonFactory;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+public class UserReportRecordTest
+{
+    @Test
+    public void testBinaryEncoding() throws Exception
+    {
+        final UserReportRecord record = UserReportRecord.builder()
+                .domainID( DomainID.DOMAIN_ID_DEFAULT )
+                .userDN( "cn=jsmith,ou=users,o=acme" )
+                .ldapProfile( "default" )
+                .username( "jsmith" )
+                .passwordStatus( PasswordStatus.builder().expired( true ).warnPeriod( true ).build() )
+                .passwordChangeTime( Instant.parse( "2021-03-04T05:06:07.123Z" ) )
+                .hasResponses( true )
+                .responseStorageMethod( DataStorageMethod.LDAP )
+                .responseFormatType( Answer.FormatType.SHA1_SALT )
+                .requiresProfileUpdate( true )
+                .cacheTimestamp( Instant.now() )
+                .build();
+
+        final byte[] encoded = record.toEncodedBytes();
+        final String json = JsonFactory.get().serialize( record );
+        Assert.assertTrue( encoded.length < json.length() );
+        Assert.assertEquals( record, UserReportRecord.fromEncodedBytes( encoded ) );
+
+        // json timestamps are stored with second precision
+        final UserReportRecord jsonRecord = UserReportRecord.builder()
+                .domainID( DomainID.DOMAIN_ID_DEFAULT )
+                .userDN( "cn=jsmith,ou=users,o=acme" )
+                .responseFormatType( Answer.FormatType.SHA1_SALT )
+                .cacheTimestamp( Instant.now().truncatedTo( ChronoUnit.SECONDS ) )
+                .build();
+        final byte[] jsonBytes = JsonFactory.get().serialize( jsonRecord ).getBytes( PwmConstants.DEFAULT_CHARSET );
+        Assert.assertEquals( jsonRecord, UserReportRecord.fromEncodedBytes( jsonBytes ) );
+        Assert.assertEquals( UserReportRecord.builder().build(), UserReportRecord.fromEncodedBytes( UserReportRecord.builder().build().toEncodedBytes() ) );
+    }
+}
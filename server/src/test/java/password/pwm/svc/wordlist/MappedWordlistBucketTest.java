@@ -0,0 +1,161 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.util.secure.PwmHashAlgorithm;
+import password.pwm.util.secure.SecureEngine;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+public class MappedWordlistBucketTest
+{
+    private static final int WORD_COUNT = 5_000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testImportAndLookup()
+            throws Exception
+    {
+        final File directory = temporaryFolder.newFolder();
+        final MappedWordlistBucket bucket = makeBucket( directory );
+
+        // write in several batches, including duplicates, so that multiple sorted runs are merged
+        for ( int batch = 0; batch < 6; batch++ )
+        {
+            final Map<String, String> values = new TreeMap<>();
+            for ( int i = batch * 1000; i < Math.min( WORD_COUNT, batch * 1000 + 1200 ); i++ )
+            {
+                values.put( "word" + i, "" );
+                values.put( sha1Word( "word" + i ), "" );
+            }
+            bucket.putValues( values );
+        }
+
+        Assert.assertFalse( bucket.containsKey( "word1" ) );
+
+        bucket.finishImport();
+
+        Assert.assertEquals( WORD_COUNT * 2, bucket.size() );
+        for ( int i = 0; i < WORD_COUNT; i++ )
+        {
+            Assert.assertTrue( bucket.containsKey( "word" + i ) );
+            Assert.assertTrue( bucket.containsKey( sha1Word( "word" + i ) ) );
+            Assert.assertFalse( bucket.containsKey( "absent" + i ) );
+            Assert.assertFalse( bucket.containsKey( sha1Word( "absent" + i ) ) );
+        }
+
+        final MappedWordlistBucket reopenedBucket = makeBucket( directory );
+        Assert.assertEquals( WORD_COUNT * 2, reopenedBucket.size() );
+        Assert.assertTrue( reopenedBucket.containsKey( "word42" ) );
+        Assert.assertFalse( reopenedBucket.storedWords().isPresent() );
+
+        reopenedBucket.clear();
+        Assert.assertEquals( 0, reopenedBucket.size() );
+        Assert.assertFalse( reopenedBucket.containsKey( "word42" ) );
+    }
+
+    @Test
+    public void testImportWritesNewGeneration()
+            throws Exception
+    {
+        final File directory = temporaryFolder.newFolder();
+        final MappedWordlistBucket bucket = makeBucket( directory );
+
+        bucket.putValues( Map.of( "first", "" ) );
+        bucket.finishImport();
+        Assert.assertEquals( List.of( "raw.data.1" ), dataFileNames( directory ) );
+
+        // the first generation stays mapped by the previous lookup file, so the merge writes a new file instead of replacing it
+        bucket.putValues( Map.of( "second", "" ) );
+        bucket.finishImport();
+        Assert.assertTrue( bucket.containsKey( "first" ) );
+        Assert.assertTrue( bucket.containsKey( "second" ) );
+        Assert.assertEquals( List.of( "raw.data.2" ), dataFileNames( directory ) );
+
+        bucket.clear();
+        Assert.assertFalse( bucket.containsKey( "first" ) );
+        Assert.assertTrue( dataFileNames( directory ).isEmpty() );
+
+        // files left behind by a failed removal are ignored and removed on the next startup
+        Files.write( new File( directory, "raw.data.2" ).toPath(), new byte[SortedWordlistFile.ENTRY_BYTES] );
+        final MappedWordlistBucket reopenedBucket = makeBucket( directory );
+        Assert.assertEquals( 0, reopenedBucket.size() );
+        Assert.assertTrue( dataFileNames( directory ).isEmpty() );
+
+        reopenedBucket.putValues( Map.of( "third", "" ) );
+        reopenedBucket.finishImport();
+        Assert.assertTrue( reopenedBucket.containsKey( "third" ) );
+        Assert.assertFalse( reopenedBucket.containsKey( "first" ) );
+        Assert.assertEquals( List.of( "raw.data.4" ), dataFileNames( directory ) );
+    }
+
+    @Test
+    public void testStoredWordType()
+    {
+        Assert.assertEquals( WordType.SHA1, MappedWordlistBucket.storedWordType( "5baa61e4c9b93f3f0682250b6cf8331b7ee68fd8:SHA1" ) );
+        Assert.assertEquals( WordType.MD5, MappedWordlistBucket.storedWordType( "5f4dcc3b5aa765d61d8327deb882cf99:MD5" ) );
+        Assert.assertEquals( WordType.RAW, MappedWordlistBucket.storedWordType( "5f4dcc3b5aa765d61d8327deb882cf99:SHA1" ) );
+        Assert.assertEquals( WordType.RAW, MappedWordlistBucket.storedWordType( "zzzz61e4c9b93f3f0682250b6cf8331b7ee68fd8:SHA1" ) );
+        Assert.assertEquals( WordType.RAW, MappedWordlistBucket.storedWordType( "password" ) );
+    }
+
+    private static MappedWordlistBucket makeBucket( final File directory )
+            throws Exception
+    {
+        final WordlistConfiguration wordlistConfiguration = WordlistConfiguration.builder()
+                .mappedSortBufferEntries( 1000 )
+                .build();
+        return new MappedWordlistBucket( null, wordlistConfiguration, WordlistType.WORDLIST, directory );
+    }
+
+    private static List<String> dataFileNames( final File directory )
+    {
+        final List<String> names = new ArrayList<>();
+        for ( final File file : Objects.requireNonNull( directory.listFiles() ) )
+        {
+            if ( file.getName().contains( ".data." ) )
+            {
+                names.add( file.getName() );
+            }
+        }
+        Collections.sort( names );
+        return names;
+    }
+
+    private static String sha1Word( final String word )
+            throws Exception
+    {
+        return SecureEngine.hash( word, PwmHashAlgorithm.SHA1 ).toLowerCase() + ":SHA1";
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Optional;
+
+public class WordlistBloomFilterTest
+{
+    private static final int ENTRIES = 100_000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testNoFalseNegatives()
+    {
+        final WordlistBloomFilter filter = makePopulatedFilter( 0.01 );
+
+        for ( int i = 0; i < ENTRIES; i++ )
+        {
+            Assert.assertTrue( filter.mightContain( "word" + i ) );
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate()
+    {
+        final WordlistBloomFilter filter = makePopulatedFilter( 0.01 );
+
+        int falsePositives = 0;
+        for ( int i = 0; i < ENTRIES; i++ )
+        {
+            if ( filter.mightContain( "absent" + i ) )
+            {
+                falsePositives++;
+            }
+        }
+
+        // allow generous margin over the configured 1% rate
+        Assert.assertTrue( "false positive count " + falsePositives, falsePositives < ENTRIES * 0.02 );
+    }
+
+    @Test
+    public void testMaxBytesCap()
+    {
+        final WordlistBloomFilter filter = WordlistBloomFilter.create( 1_000_000_000L, 0.01, 1024, "key" );
+        Assert.assertEquals( 1024, filter.sizeInBytes() );
+        Assert.assertTrue( filter.expectedFalsePositiveRate() > 0.01 );
+    }
+
+    @Test
+    public void testPersistence()
+            throws Exception
+    {
+        final WordlistBloomFilter filter = makePopulatedFilter( 0.01 );
+        final File file = new File( temporaryFolder.getRoot(), "test.bloom" );
+        filter.write( file );
+
+        Assert.assertFalse( WordlistBloomFilter.read( file, "other-key" ).isPresent() );
+        Assert.assertFalse( WordlistBloomFilter.read( new File( temporaryFolder.getRoot(), "missing.bloom" ), "key" ).isPresent() );
+
+        final Optional<WordlistBloomFilter> readFilter = WordlistBloomFilter.read( file, "key" );
+        Assert.assertTrue( readFilter.isPresent() );
+        Assert.assertEquals( filter.sizeInBytes(), readFilter.get().sizeInBytes() );
+        Assert.assertEquals( filter.getHashCount(), readFilter.get().getHashCount() );
+        for ( int i = 0; i < ENTRIES; i++ )
+        {
+            Assert.assertTrue( readFilter.get().mightContain( "word" + i ) );
+            Assert.assertEquals( filter.mightContain( "absent" + i ), readFilter.get().mightContain( "absent" + i ) );
+        }
+    }
+
+    private static WordlistBloomFilter makePopulatedFilter( final double falsePositiveRate )
+    {
+        final WordlistBloomFilter filter = WordlistBloomFilter.create( ENTRIES, falsePositiveRate, Long.MAX_VALUE, "key" );
+        for ( int i = 0; i < ENTRIES; i++ )
+        {
+            filter.put( "word" + i );
+        }
+        return filter;
+    }
+}
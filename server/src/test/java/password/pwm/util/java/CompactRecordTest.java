@@ -0,0 +1,93 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.java;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.util.logging.PwmLogLevel;
+
+import java.io.IOException;
+import java.time.Instant;
+
+public class CompactRecordTest
+{
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        final long[] numbers = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+        final Instant instant = Instant.ofEpochSecond( 1_700_000_000L, 123_456_789 );
+
+        final CompactRecordWriter writer = new CompactRecordWriter( 0 );
+        for ( final long number : numbers )
+        {
+            writer.writeVarLong( number );
+            writer.writeZigZag( number );
+        }
+        writer.writeString( null );
+        writer.writeString( "" );
+        writer.writeString( "café 中文" );
+        writer.writeInstant( null );
+        writer.writeInstant( instant );
+        writer.writeInstant( Instant.EPOCH.minusSeconds( 1 ) );
+        writer.writeEnum( null );
+        writer.writeEnum( PwmLogLevel.ERROR );
+
+        final CompactRecordReader reader = new CompactRecordReader( writer.toByteArray() );
+        for ( final long number : numbers )
+        {
+            Assert.assertEquals( number, reader.readVarLong() );
+            Assert.assertEquals( number, reader.readZigZag() );
+        }
+        Assert.assertNull( reader.readString() );
+        Assert.assertEquals( "", reader.readString() );
+        Assert.assertEquals( "café 中文", reader.readString() );
+        Assert.assertNull( reader.readInstant() );
+        Assert.assertEquals( instant, reader.readInstant() );
+        Assert.assertEquals( Instant.EPOCH.minusSeconds( 1 ), reader.readInstant() );
+        Assert.assertNull( reader.readEnum( PwmLogLevel.class ) );
+        Assert.assertSame( PwmLogLevel.ERROR, reader.readEnum( PwmLogLevel.class ) );
+    }
+
+    @Test
+    public void testSmallValuesUseOneByte()
+    {
+        Assert.assertEquals( 1, new CompactRecordWriter( 0 ).writeVarLong( 127 ).toByteArray().length );
+        Assert.assertEquals( 2, new CompactRecordWriter( 0 ).writeVarLong( 128 ).toByteArray().length );
+        Assert.assertEquals( 1, new CompactRecordWriter( 0 ).writeString( null ).toByteArray().length );
+        Assert.assertEquals( 1, new CompactRecordWriter( 0 ).writeInstant( null ).toByteArray().length );
+    }
+
+    @Test( expected = IOException.class )
+    public void testTruncatedString() throws IOException
+    {
+        final byte[] encoded = new CompactRecordWriter( 0 ).writeString( "truncated" ).toByteArray();
+        final byte[] truncated = new byte[ encoded.length - 2 ];
+        System.arraycopy( encoded, 0, truncated, 0, truncated.length );
+        new CompactRecordReader( truncated ).readString();
+    }
+
+    @Test( expected = IOException.class )
+    public void testUnknownEnumOrdinal() throws IOException
+    {
+        final byte[] encoded = new CompactRecordWriter( 0 ).writeVarLong( PwmLogLevel.values().length + 1 ).toByteArray();
+        new CompactRecordReader( encoded ).readEnum( PwmLogLevel.class );
+    }
+}
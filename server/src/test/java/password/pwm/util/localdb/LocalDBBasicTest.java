@@ -28,7 +28,10 @@ import org.junit.rules.TemporaryFolder;
 import password.pwm.PwmApplication;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 public class LocalDBBasicTest
 {
@@ -74,4 +77,57 @@ public class LocalDBBasicTest
         Assert.assertEquals( 0, localDB.size( LocalDB.DB.TEMP ) );
 
     }
+
+    @Test
+    public void testMultiKeyRead() throws LocalDBException
+    {
+        localDB.put( LocalDB.DB.TEMP, "key1", "value1" );
+        localDB.put( LocalDB.DB.TEMP, "key2", "value2" );
+
+        final Map<String, String> values = localDB.getAll( LocalDB.DB.TEMP, List.of( "key1", "key2", "key3" ) );
+        Assert.assertEquals( Map.of( "key1", "value1", "key2", "value2" ), values );
+        Assert.assertTrue( localDB.getAll( LocalDB.DB.TEMP, List.of( "key3", "key4" ) ).isEmpty() );
+        Assert.assertTrue( localDB.getAll( LocalDB.DB.TEMP, List.of() ).isEmpty() );
+
+        Assert.assertTrue( localDB.containsAny( LocalDB.DB.TEMP, List.of( "key3", "key2" ) ) );
+        Assert.assertFalse( localDB.containsAny( LocalDB.DB.TEMP, List.of( "key3", "key4" ) ) );
+        Assert.assertFalse( localDB.containsAny( LocalDB.DB.TEMP, List.of() ) );
+
+        localDB.removeAll( LocalDB.DB.TEMP, List.of( "key1", "key2" ) );
+    }
+
+    @Test
+    public void testBinaryValues() throws LocalDBException
+    {
+        final byte[] binaryValue = new byte[] {0, 1, 2, ( byte ) 0xFF, '{'};
+        localDB.putBytes( LocalDB.DB.TEMP, "key1", binaryValue );
+        Assert.assertArrayEquals( binaryValue, localDB.getBytes( LocalDB.DB.TEMP, "key1" ).orElseThrow() );
+
+        // string reads see the text form, which writes back as the same binary value
+        final String textValue = localDB.get( LocalDB.DB.TEMP, "key1" ).orElseThrow();
+        Assert.assertTrue( LocalDBBinaryValues.isText( textValue ) );
+        localDB.put( LocalDB.DB.TEMP, "key2", textValue );
+        Assert.assertArrayEquals( binaryValue, localDB.getBytes( LocalDB.DB.TEMP, "key2" ).orElseThrow() );
+
+        localDB.put( LocalDB.DB.TEMP, "key3", "value3" );
+        Assert.assertArrayEquals( "value3".getBytes( StandardCharsets.UTF_8 ), localDB.getBytes( LocalDB.DB.TEMP, "key3" ).orElseThrow() );
+        Assert.assertTrue( localDB.getBytes( LocalDB.DB.TEMP, "key4" ).isEmpty() );
+
+        localDB.removeAll( LocalDB.DB.TEMP, List.of( "key1", "key2", "key3" ) );
+    }
+
+    @Test
+    public void testMultiDatabaseBatch() throws LocalDBException
+    {
+        final Map<LocalDB.DB, Map<String, String>> batch = new EnumMap<>( LocalDB.DB.class );
+        batch.put( LocalDB.DB.TEMP, Map.of( "key1", "value1", "key2", "value2" ) );
+        batch.put( LocalDB.DB.EVENTLOG_INDEX, Map.of( "key1", "index1" ) );
+        localDB.writeBatch( batch );
+
+        Assert.assertEquals( Map.of( "key1", "value1", "key2", "value2" ), localDB.getAll( LocalDB.DB.TEMP, List.of( "key1", "key2" ) ) );
+        Assert.assertEquals( "index1", localDB.get( LocalDB.DB.EVENTLOG_INDEX, "key1" ).orElseThrow() );
+
+        localDB.removeAll( LocalDB.DB.TEMP, List.of( "key1", "key2" ) );
+        localDB.remove( LocalDB.DB.EVENTLOG_INDEX, "key1" );
+    }
 }
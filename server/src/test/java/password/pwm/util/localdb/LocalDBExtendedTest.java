@@ -28,6 +28,10 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 public class LocalDBExtendedTest
 {
@@ -36,6 +40,8 @@ public class LocalDBExtendedTest
     public static TemporaryFolder testFolder = new TemporaryFolder();
 
     private static final LocalDB.DB TEST_DB = LocalDB.DB.TEMP;
+    private static final LocalDB.DB RANGE_DB = LocalDB.DB.CACHE;
+    private static final List<String> RANGE_KEYS = List.of( "a1", "a2", "b1", "b2", "b3", "c1", "c2" );
     private static LocalDB localDB;
 
     @BeforeClass
@@ -51,9 +57,97 @@ public class LocalDBExtendedTest
     @Test
     public void testPut() throws LocalDBException
     {
-        Assert.assertNull( localDB.get( TEST_DB, "testKey1" ) );
+        Assert.assertTrue( localDB.get( TEST_DB, "testKey1" ).isEmpty() );
         localDB.put( TEST_DB, "testKey1", "testValue1" );
-        Assert.assertEquals( "testValue1", localDB.get( TEST_DB, "testKey1" ) );
+        Assert.assertEquals( "testValue1", localDB.get( TEST_DB, "testKey1" ).orElseThrow() );
+    }
+
+    @Test
+    public void testRangeIterator() throws LocalDBException
+    {
+        populateRangeKeys();
+
+        Assert.assertEquals( List.of( "b1", "b2", "b3", "c1" ), readKeys( localDB.iterator( RANGE_DB, "b1", "c2" ) ) );
+        Assert.assertEquals( List.of( "b2", "b3" ), readKeys( localDB.iterator( RANGE_DB, "b1x", "c" ) ) );
+        Assert.assertEquals( List.of( "a1", "a2", "b1" ), readKeys( localDB.iterator( RANGE_DB, null, "b2" ) ) );
+        Assert.assertEquals( List.of( "c1", "c2" ), readKeys( localDB.iterator( RANGE_DB, "c1", null ) ) );
+        Assert.assertEquals( RANGE_KEYS, readKeys( localDB.iterator( RANGE_DB, null, null ) ) );
+        Assert.assertEquals( List.of(), readKeys( localDB.iterator( RANGE_DB, "b2", "b2" ) ) );
+        Assert.assertEquals( List.of(), readKeys( localDB.iterator( RANGE_DB, "c2", "b1" ) ) );
+        Assert.assertEquals( List.of(), readKeys( localDB.iterator( RANGE_DB, "d", null ) ) );
+        Assert.assertEquals( List.of(), readKeys( localDB.iterator( RANGE_DB, null, "a" ) ) );
+    }
+
+    @Test
+    public void testReverseIterator() throws LocalDBException
+    {
+        populateRangeKeys();
+
+        Assert.assertEquals( List.of( "c1", "b3", "b2", "b1" ), readKeys( localDB.reverseIterator( RANGE_DB, "b1", "c2" ) ) );
+        Assert.assertEquals( List.of( "b3", "b2" ), readKeys( localDB.reverseIterator( RANGE_DB, "b1x", "c" ) ) );
+        Assert.assertEquals( List.of( "c2", "c1" ), readKeys( localDB.reverseIterator( RANGE_DB, "c1", null ) ) );
+        Assert.assertEquals( List.of( "c2", "c1" ), readKeys( localDB.reverseIterator( RANGE_DB, "c", "zz" ) ) );
+        Assert.assertEquals( List.of( "a2", "a1" ), readKeys( localDB.reverseIterator( RANGE_DB, null, "b" ) ) );
+        Assert.assertEquals( List.of(), readKeys( localDB.reverseIterator( RANGE_DB, "b2", "b2" ) ) );
+        Assert.assertEquals( List.of(), readKeys( localDB.reverseIterator( RANGE_DB, null, "a1" ) ) );
+
+        final List<String> expected = new ArrayList<>( RANGE_KEYS );
+        Collections.reverse( expected );
+        Assert.assertEquals( expected, readKeys( localDB.reverseIterator( RANGE_DB, null, null ) ) );
+    }
+
+    @Test
+    public void testPrefixIterator() throws LocalDBException
+    {
+        populateRangeKeys();
+        localDB.put( RANGE_DB, "b\uffff", "value-b\uffff" );
+        localDB.put( RANGE_DB, "b\uffff1", "value-b\uffff1" );
+
+        Assert.assertEquals( List.of( "b1", "b2", "b3", "b\uffff", "b\uffff1" ), readKeys( localDB.prefixIterator( RANGE_DB, "b" ) ) );
+        Assert.assertEquals( List.of( "b\uffff", "b\uffff1" ), readKeys( localDB.prefixIterator( RANGE_DB, "b\uffff" ) ) );
+        Assert.assertEquals( List.of( "c2" ), readKeys( localDB.prefixIterator( RANGE_DB, "c2" ) ) );
+        Assert.assertEquals( List.of(), readKeys( localDB.prefixIterator( RANGE_DB, "c3" ) ) );
+        Assert.assertEquals( List.of(), readKeys( localDB.prefixIterator( RANGE_DB, "z" ) ) );
+    }
+
+    @Test
+    public void testRangeIteratorClose() throws LocalDBException
+    {
+        populateRangeKeys();
+
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( RANGE_DB, "a", "c" ) )
+        {
+            Assert.assertTrue( iterator.hasNext() );
+            Assert.assertEquals( "a1", iterator.next().getKey() );
+        }
+
+        // an abandoned read must not block writes once the iterator is closed
+        localDB.put( RANGE_DB, "a3", "value-a3" );
+        Assert.assertEquals( List.of( "a1", "a2", "a3" ), readKeys( localDB.prefixIterator( RANGE_DB, "a" ) ) );
+    }
+
+    private static void populateRangeKeys() throws LocalDBException
+    {
+        localDB.truncate( RANGE_DB );
+        for ( final String key : RANGE_KEYS )
+        {
+            localDB.put( RANGE_DB, key, "value-" + key );
+        }
+    }
+
+    private static List<String> readKeys( final LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator )
+    {
+        final List<String> keys = new ArrayList<>();
+        try ( iterator )
+        {
+            while ( iterator.hasNext() )
+            {
+                final Map.Entry<String, String> entry = iterator.next();
+                Assert.assertEquals( "value-" + entry.getKey(), entry.getValue() );
+                keys.add( entry.getKey() );
+            }
+        }
+        return keys;
     }
 
     @Test
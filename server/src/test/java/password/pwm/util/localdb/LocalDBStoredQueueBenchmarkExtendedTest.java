@@ -0,0 +1,113 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import password.pwm.util.java.FileSystemUtility;
+import password.pwm.util.java.TimeDuration;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares per-operation commits of the stored queue with group commit, for concurrent producers and consumers.
+ */
+@State( Scope.Benchmark )
+public class LocalDBStoredQueueBenchmarkExtendedTest
+{
+    @Param( { "IMMEDIATE", "SYNC", "ASYNC" } )
+    private String commitMode;
+
+    private File localDBDirectory;
+    private LocalDB localDB;
+    private LocalDBStoredQueue storedQueue;
+    private final AtomicLong counter = new AtomicLong();
+
+    @Test
+    public void
+    launchBenchmark()
+            throws Exception
+    {
+        final Options opt = new OptionsBuilder()
+                .include( this.getClass().getName() + ".*" )
+                .mode ( Mode.Throughput )
+                .timeUnit( TimeUnit.SECONDS )
+                .warmupTime( TimeValue.seconds( 10 ) )
+                .measurementIterations( 10 )
+                .threads( 4 )
+                .forks( 1 )
+                .shouldFailOnError( true )
+                .shouldDoGC( true )
+                .build();
+
+        new Runner( opt ).run();
+    }
+
+    @Setup( Level.Trial )
+    public void setup()
+            throws Exception
+    {
+        localDBDirectory = Files.createTempDirectory( "localdb-storedqueue-benchmark" ).toFile();
+        localDB = LocalDBFactory.getInstance( localDBDirectory, false, null, null );
+
+        final LocalDBStoredQueue.Settings settings = "IMMEDIATE".equals( commitMode )
+                ? LocalDBStoredQueue.Settings.builder().build()
+                : LocalDBStoredQueue.Settings.builder()
+                        .groupCommit( true )
+                        .durability( LocalDBStoredQueue.Durability.valueOf( commitMode ) )
+                        .flushInterval( TimeDuration.of( 20, TimeDuration.Unit.MILLISECONDS ) )
+                        .build();
+        storedQueue = LocalDBStoredQueue.createLocalDBStoredQueue( localDB, LocalDB.DB.TEMP, false, settings );
+        storedQueue.clear();
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+            throws Exception
+    {
+        storedQueue.close();
+        localDB.close();
+        FileSystemUtility.deleteDirectoryContents( localDBDirectory );
+        Files.delete( localDBDirectory.toPath() );
+    }
+
+    @Benchmark
+    public void benchmarkAddAndPoll( final Blackhole blackhole )
+    {
+        storedQueue.addLast( Long.toString( counter.incrementAndGet() ) );
+        blackhole.consume( storedQueue.pollFirst() );
+    }
+}
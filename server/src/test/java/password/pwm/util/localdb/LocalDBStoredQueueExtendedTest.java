@@ -29,8 +29,18 @@ import org.junit.rules.TemporaryFolder;
 import password.pwm.util.java.TimeDuration;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class LocalDBStoredQueueExtendedTest
 {
@@ -249,6 +259,156 @@ public class LocalDBStoredQueueExtendedTest
         Assert.assertEquals( initialSize, storedQueue.size() );
     }
 
+    @Test
+    public void testGroupCommit() throws Exception
+    {
+        for ( final LocalDBStoredQueue.Durability durability : LocalDBStoredQueue.Durability.values() )
+        {
+            final LocalDBStoredQueue groupQueue = makeGroupCommitQueue( durability );
+            try
+            {
+                groupQueue.clear();
+                groupQueue.addLast( "value1" );
+                groupQueue.addLast( "value2" );
+                groupQueue.addFirst( "value0" );
+                Assert.assertEquals( 3, groupQueue.size() );
+                Assert.assertEquals( "value0", groupQueue.peekFirst() );
+                Assert.assertEquals( "value2", groupQueue.peekLast() );
+                Assert.assertEquals( "value0", groupQueue.removeFirst() );
+                Assert.assertEquals( List.of( "value1", "value2" ), new ArrayList<>( groupQueue ) );
+
+                groupQueue.flush();
+
+                final Set<String> storedValues = new HashSet<>();
+                try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( LocalDB.DB.TEMP ) )
+                {
+                    while ( iterator.hasNext() )
+                    {
+                        storedValues.add( iterator.next().getValue() );
+                    }
+                }
+                Assert.assertTrue( storedValues.containsAll( List.of( "value1", "value2" ) ) );
+                Assert.assertFalse( storedValues.contains( "value0" ) );
+            }
+            finally
+            {
+                groupQueue.close();
+            }
+        }
+    }
+
+    /**
+     * Concurrent producers and consumers see every item exactly once, for both group commit durabilities.  Relative
+     * throughput is measured by {@link LocalDBStoredQueueBenchmarkExtendedTest}.
+     */
+    @Test
+    public void testGroupCommitProducerConsumer() throws Exception
+    {
+        final int producers = 4;
+        final int itemsPerProducer = 2000;
+
+        runProducerConsumer( storedQueue, producers, itemsPerProducer );
+        for ( final LocalDBStoredQueue.Durability durability : LocalDBStoredQueue.Durability.values() )
+        {
+            final LocalDBStoredQueue groupQueue = makeGroupCommitQueue( durability );
+            try
+            {
+                runProducerConsumer( groupQueue, producers, itemsPerProducer );
+                Assert.assertEquals( 0, countStoredItems() );
+            }
+            finally
+            {
+                groupQueue.close();
+            }
+        }
+    }
+
+    /**
+     * Count of stored queue items, excluding the queue's own position and version records.
+     */
+    private static int countStoredItems() throws LocalDBException
+    {
+        int count = 0;
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( LocalDB.DB.TEMP ) )
+        {
+            while ( iterator.hasNext() )
+            {
+                if ( !iterator.next().getKey().startsWith( "_" ) )
+                {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static LocalDBStoredQueue makeGroupCommitQueue( final LocalDBStoredQueue.Durability durability )
+            throws LocalDBException
+    {
+        final LocalDBStoredQueue.Settings settings = LocalDBStoredQueue.Settings.builder()
+                .groupCommit( true )
+                .durability( durability )
+                .flushInterval( TimeDuration.of( 20, TimeDuration.Unit.MILLISECONDS ) )
+                .build();
+        return LocalDBStoredQueue.createLocalDBStoredQueue( localDB, LocalDB.DB.TEMP, ENABLE_DEBUG_OUTPUT, settings );
+    }
+
+    private static void runProducerConsumer( final LocalDBStoredQueue queue, final int producers, final int itemsPerProducer )
+            throws Exception
+    {
+        queue.clear();
+        final int totalItems = producers * itemsPerProducer;
+        final Set<String> consumed = Collections.synchronizedSet( new HashSet<>() );
+        final AtomicInteger producedCount = new AtomicInteger();
+        final ExecutorService executorService = Executors.newFixedThreadPool( producers + 2 );
+        try
+        {
+            final List<Future<?>> futures = new ArrayList<>();
+            for ( int p = 0; p < producers; p++ )
+            {
+                final int producer = p;
+                futures.add( executorService.submit( () ->
+                {
+                    for ( int i = 0; i < itemsPerProducer; i++ )
+                    {
+                        queue.addLast( producer + "-" + i );
+                        producedCount.incrementAndGet();
+                    }
+                } ) );
+            }
+            for ( int c = 0; c < 2; c++ )
+            {
+                futures.add( executorService.submit( () ->
+                {
+                    while ( consumed.size() < totalItems )
+                    {
+                        final String value = queue.pollFirst();
+                        if ( value != null )
+                        {
+                            Assert.assertTrue( consumed.add( value ) );
+                        }
+                        else if ( producedCount.get() >= totalItems && queue.isEmpty() )
+                        {
+                            return;
+                        }
+                    }
+                } ) );
+            }
+            for ( final Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+
+        queue.flush();
+        Assert.assertEquals( totalItems, consumed.size() );
+        Assert.assertTrue( queue.isEmpty() );
+    }
+
     @AfterClass
     public static void tearDown() throws Exception
     {
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class LocalDBStoredQueueTest
@@ -41,6 +42,7 @@ public class LocalDBStoredQueueTest
     @Rule
     public TemporaryFolder testFolder = new TemporaryFolder();
 
+    private LocalDB localDB;
     private LocalDBStoredQueue localDBStoredQueue;
 
     @Before
@@ -48,7 +50,7 @@ public class LocalDBStoredQueueTest
     {
         final File localDbTestFolder = testFolder.newFolder( "test-stored-queue-test" );
         final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( localDbTestFolder );
-        final LocalDB localDB = LocalDBFactory.getInstance( localDbTestFolder, false, pwmApplication.getPwmEnvironment(), pwmApplication.getConfig() );
+        localDB = LocalDBFactory.getInstance( localDbTestFolder, false, pwmApplication.getPwmEnvironment(), pwmApplication.getConfig() );
         localDBStoredQueue = LocalDBStoredQueue.createLocalDBStoredQueue( localDB, LocalDB.DB.TEMP, true );
     }
 
@@ -570,6 +572,23 @@ public class LocalDBStoredQueueTest
         }
     }
 
+    @Test
+    public void testReopenPreservesContents() throws LocalDBException
+    {
+        localDBStoredQueue.addAll( List.of( "one", "two", "three", "four" ) );
+        localDBStoredQueue.removeFirst();
+        localDBStoredQueue.addCompletionMarker( "three" );
+        localDBStoredQueue.close();
+
+        final LocalDBStoredQueue reopenedQueue = LocalDBStoredQueue.createLocalDBStoredQueue( localDB, LocalDB.DB.TEMP, true );
+        Assert.assertEquals( List.of( "three", "two", "one" ), new ArrayList<>( reopenedQueue ) );
+        Assert.assertEquals( Set.of( "three" ), reopenedQueue.readCompletionMarkers() );
+
+        reopenedQueue.removeFirstCompleted( 1 );
+        Assert.assertEquals( 2, reopenedQueue.size() );
+        Assert.assertTrue( reopenedQueue.readCompletionMarkers().isEmpty() );
+    }
+
     private static void addValues( final LocalDBStoredQueue localDBStoredQueue, final int count )
     {
         final List<String> addValues = new ArrayList<>();
@@ -63,25 +63,50 @@ public class TestHelper
     public static PwmApplication makeTestPwmApplication( final File tempFolder )
             throws PwmUnrecoverableException
     {
-        final StoredConfiguration storedConfiguration = StoredConfigurationFactory.newConfig();
-        final StoredConfigurationModifier modifier = StoredConfigurationModifier.newModifier( storedConfiguration );
-        final StoredConfigKey key = StoredConfigKey.forSetting( PwmSetting.EVENTS_JAVA_STDOUT_LEVEL, null, DomainID.systemId() );
-        modifier.writeSetting( key, new StringValue( PwmLogLevel.FATAL.toString() ), null );
-        final AppConfig appConfig = new AppConfig( modifier.newStoredConfiguration() );
-        return makeTestPwmApplication( tempFolder, appConfig );
+        return makeTestPwmApplication( tempFolder, makeTestAppConfig() );
     }
 
     public static PwmApplication makeTestPwmApplication( final File tempFolder, final AppConfig appConfig )
             throws PwmUnrecoverableException
+    {
+        return makeTestPwmApplication( tempFolder, appConfig, true );
+    }
+
+    /**
+     * Make an application that runs the full startup sequence, such as clearing the temp directory, as it would
+     * when the server restarts.  Callers must shut the application down to release the application path file lock.
+     */
+    public static PwmApplication makeStandalonePwmApplication( final File tempFolder )
+            throws PwmUnrecoverableException
+    {
+        return makeTestPwmApplication( tempFolder, makeTestAppConfig(), false );
+    }
+
+    private static PwmApplication makeTestPwmApplication(
+            final File tempFolder,
+            final AppConfig appConfig,
+            final boolean internalRuntimeInstance
+    )
+            throws PwmUnrecoverableException
     {
         Logger.getRootLogger().setLevel( Level.OFF );
         final PwmEnvironment pwmEnvironment = PwmEnvironment.builder()
                 .config( appConfig )
                 .applicationPath( tempFolder )
                 .applicationMode( PwmApplicationMode.READ_ONLY )
-                .internalRuntimeInstance( true )
+                .internalRuntimeInstance( internalRuntimeInstance )
                 .build();
 
         return PwmApplication.createPwmApplication( pwmEnvironment );
     }
+
+    private static AppConfig makeTestAppConfig()
+            throws PwmUnrecoverableException
+    {
+        final StoredConfiguration storedConfiguration = StoredConfigurationFactory.newConfig();
+        final StoredConfigurationModifier modifier = StoredConfigurationModifier.newModifier( storedConfiguration );
+        final StoredConfigKey key = StoredConfigKey.forSetting( PwmSetting.EVENTS_JAVA_STDOUT_LEVEL, null, DomainID.systemId() );
+        modifier.writeSetting( key, new StringValue( PwmLogLevel.FATAL.toString() ), null );
+        return new AppConfig( modifier.newStoredConfiguration() );
+    }
 }
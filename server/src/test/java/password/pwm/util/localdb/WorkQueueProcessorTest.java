@@ -0,0 +1,289 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.util.java.TimeDuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class WorkQueueProcessorTest
+{
+    private static final TimeDuration WAIT_TIME = TimeDuration.SECONDS_10;
+    private static final TimeDuration WAIT_INTERVAL = TimeDuration.of( 10, TimeDuration.Unit.MILLISECONDS );
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testLeasedItemsAreProcessedConcurrentlyAndOnce()
+            throws Exception
+    {
+        final int itemCount = 4;
+        final CountDownLatch allStarted = new CountDownLatch( itemCount );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final Map<String, AtomicInteger> processCounts = new ConcurrentHashMap<>();
+
+        final WorkQueueProcessor.Settings settings = WorkQueueProcessor.Settings.builder()
+                .workerThreads( itemCount )
+                .leaseTime( TimeDuration.of( 20, TimeDuration.Unit.MILLISECONDS ) )
+                .build();
+        final WorkQueueProcessor<String> processor = makeProcessor( new LinkedBlockingDeque<>(), settings, item ->
+        {
+            processCounts.computeIfAbsent( item, k -> new AtomicInteger() ).incrementAndGet();
+            allStarted.countDown();
+            awaitQuietly( release );
+            return WorkQueueProcessor.ProcessResult.SUCCESS;
+        } );
+
+        try
+        {
+            for ( int i = 0; i < itemCount; i++ )
+            {
+                processor.submit( "partition" + i + ":item" );
+            }
+
+            Assert.assertTrue( allStarted.await( WAIT_TIME.asMillis(), TimeUnit.MILLISECONDS ) );
+
+            // hold the leases well past the lease time, items must not be dispatched again while in flight
+            TimeDuration.of( 200, TimeDuration.Unit.MILLISECONDS ).pause();
+            release.countDown();
+
+            WAIT_TIME.pause( WAIT_INTERVAL, () -> processor.queueSize() == 0 );
+            Assert.assertEquals( 0, processor.queueSize() );
+            Assert.assertEquals( itemCount, processCounts.size() );
+            for ( final AtomicInteger count : processCounts.values() )
+            {
+                Assert.assertEquals( 1, count.get() );
+            }
+        }
+        finally
+        {
+            release.countDown();
+            processor.close();
+        }
+    }
+
+    @Test
+    public void testRetryBlocksOnlyItsPartition()
+            throws Exception
+    {
+        final TimeDuration retryInterval = TimeDuration.of( 300, TimeDuration.Unit.MILLISECONDS );
+        final List<String> processed = Collections.synchronizedList( new ArrayList<>() );
+        final AtomicInteger retries = new AtomicInteger();
+
+        final WorkQueueProcessor.Settings settings = WorkQueueProcessor.Settings.builder()
+                .workerThreads( 2 )
+                .retryInterval( retryInterval )
+                .build();
+        final WorkQueueProcessor<String> processor = makeProcessor( new LinkedBlockingDeque<>(), settings, item ->
+        {
+            if ( "a:1".equals( item ) && retries.getAndIncrement() == 0 )
+            {
+                return WorkQueueProcessor.ProcessResult.RETRY;
+            }
+            processed.add( item );
+            return WorkQueueProcessor.ProcessResult.SUCCESS;
+        } );
+
+        try
+        {
+            processor.submit( "a:1" );
+            processor.submit( "a:2" );
+            processor.submit( "b:1" );
+
+            WAIT_TIME.pause( WAIT_INTERVAL, () -> processed.contains( "b:1" ) );
+            Assert.assertEquals( List.of( "b:1" ), new ArrayList<>( processed ) );
+
+            WAIT_TIME.pause( WAIT_INTERVAL, () -> processor.queueSize() == 0 );
+            Assert.assertEquals( List.of( "b:1", "a:1", "a:2" ), new ArrayList<>( processed ) );
+            Assert.assertEquals( 2, retries.get() );
+        }
+        finally
+        {
+            processor.close();
+        }
+    }
+
+    @Test
+    public void testPartitionOrderIsPreserved()
+            throws Exception
+    {
+        final int partitions = 3;
+        final int itemsPerPartition = 25;
+        final Map<String, List<Integer>> processed = new HashMap<>();
+
+        final WorkQueueProcessor.Settings settings = WorkQueueProcessor.Settings.builder()
+                .workerThreads( 4 )
+                .build();
+        final WorkQueueProcessor<String> processor = makeProcessor( new LinkedBlockingDeque<>(), settings, item ->
+        {
+            final String[] parts = item.split( ":" );
+            synchronized ( processed )
+            {
+                processed.computeIfAbsent( parts[0], k -> new ArrayList<>() ).add( Integer.parseInt( parts[1] ) );
+            }
+            return WorkQueueProcessor.ProcessResult.SUCCESS;
+        } );
+
+        try
+        {
+            for ( int i = 0; i < itemsPerPartition; i++ )
+            {
+                for ( int p = 0; p < partitions; p++ )
+                {
+                    processor.submit( "p" + p + ":" + i );
+                }
+            }
+
+            WAIT_TIME.pause( WAIT_INTERVAL, () -> processor.queueSize() == 0 );
+            Assert.assertEquals( 0, processor.queueSize() );
+
+            synchronized ( processed )
+            {
+                Assert.assertEquals( partitions, processed.size() );
+                for ( final List<Integer> partitionItems : processed.values() )
+                {
+                    Assert.assertEquals( itemsPerPartition, partitionItems.size() );
+                    for ( int i = 0; i < itemsPerPartition; i++ )
+                    {
+                        Assert.assertEquals( Integer.valueOf( i ), partitionItems.get( i ) );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            processor.close();
+        }
+    }
+
+    @Test
+    public void testOutOfOrderCompletionSurvivesRestart()
+            throws Exception
+    {
+        final LocalDB localDB = LocalDBFactory.getInstance( temporaryFolder.newFolder(), false, null, null );
+        try
+        {
+            final WorkQueueProcessor.Settings settings = WorkQueueProcessor.Settings.builder()
+                    .workerThreads( 2 )
+                    .retryInterval( TimeDuration.HOUR )
+                    .build();
+
+            // the head item is retried, so the second item completes ahead of it
+            final List<String> firstRun = Collections.synchronizedList( new ArrayList<>() );
+            final LocalDBStoredQueue queue = LocalDBStoredQueue.createLocalDBStoredQueue( localDB, LocalDB.DB.TEMP, false );
+            final WorkQueueProcessor<String> processor1 = makeProcessor( queue, settings, item ->
+            {
+                if ( item.startsWith( "a:" ) )
+                {
+                    return WorkQueueProcessor.ProcessResult.RETRY;
+                }
+                firstRun.add( item );
+                return WorkQueueProcessor.ProcessResult.SUCCESS;
+            } );
+            processor1.submit( "a:1" );
+            processor1.submit( "b:1" );
+            WAIT_TIME.pause( WAIT_INTERVAL, () -> !queue.readCompletionMarkers().isEmpty() );
+            Assert.assertEquals( List.of( "b:1" ), new ArrayList<>( firstRun ) );
+            processor1.close();
+
+            final LocalDBStoredQueue reopenedQueue = LocalDBStoredQueue.createLocalDBStoredQueue( localDB, LocalDB.DB.TEMP, false );
+            Assert.assertEquals( 2, reopenedQueue.size() );
+            Assert.assertEquals( 1, reopenedQueue.readCompletionMarkers().size() );
+
+            final List<String> secondRun = Collections.synchronizedList( new ArrayList<>() );
+            final WorkQueueProcessor<String> processor2 = makeProcessor( reopenedQueue, settings, item ->
+            {
+                secondRun.add( item );
+                return WorkQueueProcessor.ProcessResult.SUCCESS;
+            } );
+            try
+            {
+                WAIT_TIME.pause( WAIT_INTERVAL, () -> processor2.queueSize() == 0 );
+                Assert.assertEquals( List.of( "a:1" ), new ArrayList<>( secondRun ) );
+                Assert.assertTrue( reopenedQueue.readCompletionMarkers().isEmpty() );
+            }
+            finally
+            {
+                processor2.close();
+            }
+        }
+        finally
+        {
+            localDB.close();
+        }
+    }
+
+    private static WorkQueueProcessor<String> makeProcessor(
+            final Deque<String> queue,
+            final WorkQueueProcessor.Settings settings,
+            final Function<String, WorkQueueProcessor.ProcessResult> function
+    )
+    {
+        return new WorkQueueProcessor<>( null, queue, settings, new WorkQueueProcessor.ItemProcessor<String>()
+        {
+            @Override
+            public WorkQueueProcessor.ProcessResult process( final String workItem )
+            {
+                return function.apply( workItem );
+            }
+
+            @Override
+            public String convertToDebugString( final String workItem )
+            {
+                return workItem;
+            }
+
+            @Override
+            public String partitionKey( final String workItem )
+            {
+                return workItem.substring( 0, workItem.indexOf( ':' ) );
+            }
+        }, WorkQueueProcessorTest.class );
+    }
+
+    private static void awaitQuietly( final CountDownLatch latch )
+    {
+        try
+        {
+            latch.await( WAIT_TIME.asMillis(), TimeUnit.MILLISECONDS );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
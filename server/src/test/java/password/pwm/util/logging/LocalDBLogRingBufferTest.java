@@ -0,0 +1,115 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.logging;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+public class LocalDBLogRingBufferTest
+{
+    @Test
+    public void testCapacityAndFull()
+    {
+        final LocalDBLogRingBuffer ringBuffer = new LocalDBLogRingBuffer( 5 );
+        Assert.assertEquals( 8, ringBuffer.capacity() );
+
+        for ( int i = 0; i < 8; i++ )
+        {
+            Assert.assertTrue( ringBuffer.offer( makeEvent( "event" + i ) ) );
+        }
+        Assert.assertFalse( ringBuffer.offer( makeEvent( "overflow" ) ) );
+        Assert.assertEquals( 8, ringBuffer.size() );
+
+        Assert.assertEquals( "event0", ringBuffer.poll().getMessage() );
+        Assert.assertTrue( ringBuffer.offer( makeEvent( "event8" ) ) );
+
+        final List<PwmLogEvent> drained = new ArrayList<>();
+        Assert.assertEquals( 8, ringBuffer.drainTo( drained, 100 ) );
+        Assert.assertEquals( "event1", drained.get( 0 ).getMessage() );
+        Assert.assertEquals( "event8", drained.get( 7 ).getMessage() );
+        Assert.assertTrue( ringBuffer.isEmpty() );
+        Assert.assertNull( ringBuffer.poll() );
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception
+    {
+        final int producerCount = 8;
+        final int eventsPerProducer = 20_000;
+        final LocalDBLogRingBuffer ringBuffer = new LocalDBLogRingBuffer( 64 );
+        final CountDownLatch producersDone = new CountDownLatch( producerCount );
+
+        for ( int p = 0; p < producerCount; p++ )
+        {
+            final int producerId = p;
+            final Thread producer = new Thread( () ->
+            {
+                for ( int i = 0; i < eventsPerProducer; i++ )
+                {
+                    final PwmLogEvent event = makeEvent( producerId + "-" + i );
+                    while ( !ringBuffer.offer( event ) )
+                    {
+                        Thread.yield();
+                    }
+                }
+                producersDone.countDown();
+            } );
+            producer.setDaemon( true );
+            producer.start();
+        }
+
+        final Set<String> received = new HashSet<>();
+        final List<PwmLogEvent> batch = new ArrayList<>();
+        while ( received.size() < producerCount * eventsPerProducer )
+        {
+            batch.clear();
+            if ( ringBuffer.drainTo( batch, 32 ) == 0 )
+            {
+                Thread.yield();
+            }
+            for ( final PwmLogEvent event : batch )
+            {
+                Assert.assertTrue( received.add( event.getMessage() ) );
+            }
+        }
+
+        producersDone.await();
+        Assert.assertTrue( ringBuffer.isEmpty() );
+    }
+
+    private static PwmLogEvent makeEvent( final String message )
+    {
+        return PwmLogEvent.createPwmLogEvent(
+                Instant.now(),
+                LocalDBLogRingBufferTest.class.getName(),
+                message,
+                null,
+                null,
+                PwmLogLevel.TRACE );
+    }
+}
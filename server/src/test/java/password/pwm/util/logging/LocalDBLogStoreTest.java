@@ -0,0 +1,249 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.logging;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.bean.SessionLabel;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBFactory;
+import password.pwm.util.localdb.TestHelper;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class LocalDBLogStoreTest
+{
+    @ClassRule
+    public static TemporaryFolder testFolder = new TemporaryFolder();
+
+    private static LocalDB localDB;
+
+    private final Instant startTime = Instant.now().minus( 1, ChronoUnit.HOURS );
+
+    @BeforeClass
+    public static void setUp() throws Exception
+    {
+        TestHelper.setupLogging();
+        final File fileLocation = testFolder.newFolder( "localdb-logstore-test" );
+        localDB = LocalDBFactory.getInstance( fileLocation, false, null, null );
+    }
+
+    @Before
+    public void truncate() throws Exception
+    {
+        localDB.truncate( LocalDB.DB.EVENTLOG_EVENTS );
+        localDB.truncate( LocalDB.DB.EVENTLOG_INDEX );
+    }
+
+    @Test
+    public void testIndexedSearch() throws Exception
+    {
+        final LocalDBLogStore logStore = new LocalDBLogStore( localDB, false );
+        logStore.append( makeEvents() );
+        Assert.assertEquals( 100, logStore.size() );
+
+        final List<PwmLogEvent> userEvents = search( logStore, LocalDBSearchQuery.builder().username( "user3" ).build() );
+        Assert.assertEquals( 10, userEvents.size() );
+        Assert.assertTrue( userEvents.stream().allMatch( event -> "user3".equals( event.getUsername() ) ) );
+        Assert.assertEquals( "message 93 for user3", userEvents.get( 0 ).getMessage() );
+
+        final List<PwmLogEvent> errorEvents = search( logStore, LocalDBSearchQuery.builder().minimumLevel( PwmLogLevel.ERROR ).build() );
+        Assert.assertEquals( 20, errorEvents.size() );
+
+        final List<PwmLogEvent> sessionEvents = search( logStore, LocalDBSearchQuery.builder()
+                .sessionID( "session10" )
+                .minimumLevel( PwmLogLevel.ERROR )
+                .build() );
+        Assert.assertEquals( 5, sessionEvents.size() );
+        Assert.assertTrue( sessionEvents.stream().allMatch( event -> event.getLevel() == PwmLogLevel.ERROR ) );
+
+        final List<PwmLogEvent> timeEvents = search( logStore, LocalDBSearchQuery.builder()
+                .startTime( startTime.plus( 10, ChronoUnit.MINUTES ) )
+                .endTime( startTime.plus( 19, ChronoUnit.MINUTES ) )
+                .build() );
+        Assert.assertEquals( 10, timeEvents.size() );
+
+        final List<PwmLogEvent> regexEvents = search( logStore, LocalDBSearchQuery.builder().username( "user[12]" ).build() );
+        Assert.assertEquals( 20, regexEvents.size() );
+    }
+
+    @Test
+    public void testUsernameMatchesRegexWithinUsername() throws Exception
+    {
+        final LocalDBLogStore logStore = new LocalDBLogStore( localDB, false );
+        logStore.append( makeEvents() );
+
+        final List<PwmLogEvent> partialEvents = search( logStore, LocalDBSearchQuery.builder().username( "ser3" ).build() );
+        Assert.assertEquals( 10, partialEvents.size() );
+        Assert.assertTrue( partialEvents.stream().allMatch( event -> "user3".equals( event.getUsername() ) ) );
+
+        Assert.assertEquals( 100, search( logStore, LocalDBSearchQuery.builder().username( "user" ).build() ).size() );
+        Assert.assertEquals( 0, search( logStore, LocalDBSearchQuery.builder().username( "USER3" ).build() ).size() );
+    }
+
+    @Test
+    public void testTextIndex() throws Exception
+    {
+        final LocalDBLogStore logStore = new LocalDBLogStore( localDB, true );
+        logStore.append( makeEvents() );
+
+        final List<PwmLogEvent> textEvents = search( logStore, LocalDBSearchQuery.builder().text( "USER5" ).build() );
+        Assert.assertEquals( 10, textEvents.size() );
+
+        final List<PwmLogEvent> phraseEvents = search( logStore, LocalDBSearchQuery.builder().text( "message 42" ).build() );
+        Assert.assertEquals( 1, phraseEvents.size() );
+    }
+
+    @Test
+    public void testTextIndexMatchesUnindexedSearch() throws Exception
+    {
+        final String longWord = "x".repeat( 80 ) + "suffix";
+        final String accentedWord = "caf" + Character.toString( 0xe9 );
+        final List<String> messages = List.of(
+                "password reset for user1",
+                "passwordless login for user2",
+                "bad password entered",
+                "reset of pass phrase",
+                "user compass updated",
+                "long word " + longWord + " logged",
+                accentedWord + " opened" );
+        final List<String> queries = List.of(
+                "pass", "password", "Pass", "ssword re", " reset", "word reset", "reset fo", "d reset for u",
+                "for user", " pass ", "pass phrase", "compass", " compass", "x".repeat( 70 ), " " + "x".repeat( 70 ),
+                longWord, " " + longWord + " ", " caf", accentedWord.substring( 3 ) + " op", "user" );
+
+        final List<List<String>> indexedResults = searchMessages( true, messages, queries );
+        final List<List<String>> unindexedResults = searchMessages( false, messages, queries );
+        for ( int i = 0; i < queries.size(); i++ )
+        {
+            Assert.assertEquals( "results for '" + queries.get( i ) + "'", unindexedResults.get( i ), indexedResults.get( i ) );
+        }
+
+        // "pass" is found within longer words, as it is without the index
+        Assert.assertEquals( 5, indexedResults.get( 0 ).size() );
+    }
+
+    @Test
+    public void testRemoveEldest() throws Exception
+    {
+        final LocalDBLogStore logStore = new LocalDBLogStore( localDB, true );
+        logStore.append( makeEvents() );
+
+        Assert.assertEquals( 50, logStore.removeEldest( 50 ) );
+        Assert.assertEquals( 50, logStore.size() );
+        Assert.assertEquals( "message 50 for user0", logStore.readEldestEvent().orElseThrow().getMessage() );
+        Assert.assertEquals( 5, search( logStore, LocalDBSearchQuery.builder().username( "user3" ).build() ).size() );
+        Assert.assertEquals( 5, search( logStore, LocalDBSearchQuery.builder().text( "user3" ).build() ).size() );
+
+        final LocalDBLogStore reopenedStore = new LocalDBLogStore( localDB, true );
+        Assert.assertEquals( 50, reopenedStore.size() );
+        reopenedStore.append( makeEvents() );
+        Assert.assertEquals( 15, search( reopenedStore, LocalDBSearchQuery.builder().username( "user3" ).build() ).size() );
+    }
+
+    private List<PwmLogEvent> makeEvents()
+    {
+        final List<PwmLogEvent> events = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            final String username = "user" + ( i % 10 );
+            final SessionLabel sessionLabel = SessionLabel.builder()
+                    .sessionID( "session" + ( i % 20 ) )
+                    .username( username )
+                    .build();
+            final PwmLogLevel level = i % 5 == 0 ? PwmLogLevel.ERROR : PwmLogLevel.DEBUG;
+            events.add( PwmLogEvent.createPwmLogEvent(
+                    startTime.plus( i, ChronoUnit.MINUTES ),
+                    LocalDBLogStoreTest.class.getName(),
+                    "message " + i + " for " + username,
+                    sessionLabel,
+                    null,
+                    level ) );
+        }
+        return events;
+    }
+
+    private List<List<String>> searchMessages( final boolean textIndex, final List<String> messages, final List<String> queries )
+            throws Exception
+    {
+        truncate();
+        final List<PwmLogEvent> events = new ArrayList<>();
+        for ( int i = 0; i < messages.size(); i++ )
+        {
+            events.add( PwmLogEvent.createPwmLogEvent(
+                    startTime.plus( i, ChronoUnit.MINUTES ),
+                    "logstore",
+                    messages.get( i ),
+                    SessionLabel.builder().build(),
+                    null,
+                    PwmLogLevel.DEBUG ) );
+        }
+
+        final LocalDBLogStore logStore = new LocalDBLogStore( localDB, textIndex );
+        logStore.append( events );
+
+        final List<List<String>> results = new ArrayList<>();
+        for ( final String query : queries )
+        {
+            final List<String> queryResults = new ArrayList<>();
+            search( logStore, LocalDBSearchQuery.builder().text( query ).build() ).forEach( event -> queryResults.add( event.getMessage() ) );
+            results.add( queryResults );
+        }
+        return results;
+    }
+
+    private static List<PwmLogEvent> search( final LocalDBLogStore logStore, final LocalDBSearchQuery searchQuery )
+            throws Exception
+    {
+        final LocalDBSearchFilter searchFilter = new LocalDBSearchFilter( searchQuery );
+        final List<PwmLogEvent> results = new ArrayList<>();
+        for ( final Iterator<String> iterator = logStore.search( searchQuery ); iterator.hasNext(); )
+        {
+            final PwmLogEvent event = PwmLogEvent.fromEncodedString( iterator.next() );
+            if ( searchFilter.matches( event ) )
+            {
+                results.add( event );
+            }
+        }
+        return results;
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception
+    {
+        if ( localDB != null )
+        {
+            localDB.close();
+            localDB = null;
+        }
+        testFolder.delete();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.logging;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.PwmConstants;
+import password.pwm.bean.SessionLabel;
+import password.pwm.util.json.JsonFactory;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+public class PwmLogEventTest
+{
+    @Test
+    public void testBinaryEncoding() throws Exception
+    {
+        final SessionLabel sessionLabel = SessionLabel.builder()
+                .sessionID( "abc123" )
+                .requestID( "r1" )
+                .username( "jsmith" )
+                .domain( "acme" )
+                .sourceAddress( "10.0.0.1" )
+                .build();
+        final Exception cause = new IllegalStateException( "inner" );
+        final Exception exception = new RuntimeException( "outer", cause );
+        exception.addSuppressed( new IllegalArgumentException( "suppressed" ) );
+
+        final PwmLogEvent event = PwmLogEvent.createPwmLogEvent( Instant.now(), "password.pwm.Test", "a log message", sessionLabel, exception, PwmLogLevel.WARN );
+
+        final byte[] encoded = event.toEncodedBytes();
+        Assert.assertTrue( encoded.length < JsonFactory.get().serialize( event, PwmLogEvent.class ).length() );
+
+        final PwmLogEvent decoded = PwmLogEvent.fromEncodedBytes( encoded );
+        Assert.assertEquals( event, decoded );
+        Assert.assertEquals( event.toLogString(), decoded.toLogString() );
+        Assert.assertEquals( event, PwmLogEvent.fromEncodedString( event.toEncodedString() ) );
+    }
+
+    @Test
+    public void testJsonEncodingStillReadable() throws Exception
+    {
+        // json timestamps are stored with second precision
+        final Instant timestamp = Instant.now().truncatedTo( ChronoUnit.SECONDS );
+        final PwmLogEvent event = PwmLogEvent.createPwmLogEvent( timestamp, "password.pwm.Test", "legacy message", null, null, PwmLogLevel.INFO );
+        final String json = JsonFactory.get().serialize( event, PwmLogEvent.class );
+
+        Assert.assertEquals( event, PwmLogEvent.fromEncodedString( json ) );
+        Assert.assertEquals( event, PwmLogEvent.fromEncodedBytes( json.getBytes( PwmConstants.DEFAULT_CHARSET ) ) );
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.macro;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import password.pwm.bean.EmailItemBean;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.PwmSettingSyntax;
+import password.pwm.config.PwmSettingTemplateSet;
+import password.pwm.util.SampleDataGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled macro expansion with the pattern scan it replaced, using the default email templates.
+ */
+@State( Scope.Benchmark )
+public class MacroMachineBenchmarkExtendedTest
+{
+    private MacroRequest macroRequest;
+    private List<String> templateStrings;
+
+    @Test
+    public void
+    launchBenchmark()
+            throws Exception
+    {
+        final Options opt = new OptionsBuilder()
+                .include( this.getClass().getName() + ".*" )
+                .mode ( Mode.AverageTime )
+                .timeUnit( TimeUnit.MICROSECONDS )
+                .warmupTime( TimeValue.seconds( 10 ) )
+                .measurementIterations( 10 )
+                .threads( 1 )
+                .forks( 1 )
+                .shouldFailOnError( true )
+                .shouldDoGC( true )
+                .build();
+
+        new Runner( opt ).run();
+    }
+
+    @Setup
+    @SuppressWarnings( "unchecked" )
+    public void setup()
+            throws Exception
+    {
+        macroRequest = SampleDataGenerator.sampleMacroRequest( null );
+        templateStrings = new ArrayList<>();
+        for ( final PwmSetting pwmSetting : PwmSetting.values() )
+        {
+            if ( pwmSetting.getSyntax() == PwmSettingSyntax.EMAIL )
+            {
+                final Map<String, EmailItemBean> emailItems = ( Map<String, EmailItemBean> ) pwmSetting.getDefaultValue( PwmSettingTemplateSet.getDefault() ).toNativeObject();
+                for ( final EmailItemBean emailItem : emailItems.values() )
+                {
+                    templateStrings.add( emailItem.getTo() );
+                    templateStrings.add( emailItem.getFrom() );
+                    templateStrings.add( emailItem.getSubject() );
+                    templateStrings.add( emailItem.getBodyPlain() );
+                    templateStrings.add( emailItem.getBodyHtml() );
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void benchmarkCompiled( final Blackhole blackhole )
+    {
+        for ( final String templateString : templateStrings )
+        {
+            blackhole.consume( MacroMachine.expandMacros( macroRequest, templateString ) );
+        }
+    }
+
+    @Benchmark
+    public void benchmarkPatternScan( final Blackhole blackhole )
+    {
+        for ( final String templateString : templateStrings )
+        {
+            blackhole.consume( MacroMachine.expandMacrosUsingPatternScan( macroRequest, templateString ) );
+        }
+    }
+}
@@ -32,7 +32,9 @@ import password.pwm.util.SampleDataGenerator;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 public class MacroTest
 {
@@ -426,4 +428,38 @@ public class MacroTest
             Assert.assertEquals( goal, expanded );
         }
     }
+
+    @Test
+    public void testLiteralPrefixes()
+    {
+        Assert.assertEquals( List.of( "UUID@" ), CompiledMacroSet.literalPrefixes( Pattern.compile( "@UUID@" ) ) );
+        Assert.assertEquals( List.of( "SiteURL@", "Site:URL@" ), CompiledMacroSet.literalPrefixes( Pattern.compile( "@SiteURL@|@Site:URL@" ) ) );
+        Assert.assertEquals( List.of( "User:LDAP", "LDAP" ), CompiledMacroSet.literalPrefixes( new UserMacros.UserLdapMacro().getRegExPattern() ) );
+        Assert.assertEquals( List.of( "Encode:" ), CompiledMacroSet.literalPrefixes( Pattern.compile( "@Encode:[^:]+:\\[\\[.*\\]\\]@" ) ) );
+        Assert.assertEquals( List.of( "Random" ), CompiledMacroSet.literalPrefixes( Pattern.compile( "@RandomX?@" ) ) );
+        Assert.assertTrue( CompiledMacroSet.literalPrefixes( Pattern.compile( "@(User)?ID@" ) ).isEmpty() );
+        Assert.assertTrue( CompiledMacroSet.literalPrefixes( Pattern.compile( "@.*@" ) ).isEmpty() );
+        Assert.assertTrue( CompiledMacroSet.literalPrefixes( Pattern.compile( "@uuid@", Pattern.CASE_INSENSITIVE ) ).isEmpty() );
+    }
+
+    @Test
+    public void testCompiledExpansionMatchesPatternScan()
+    {
+        final List<String> inputs = List.of(
+                "no macros here",
+                "user@example.com",
+                "@@",
+                "@UnknownMacro@ and @User:ID@",
+                "test @User:ID@ and @TargetUser:ID@ and @User:ID@",
+                "@User:LDAP:givenName@ @LDAP:sn@ @User:LDAP:givenName:4@",
+                "@Encode:base64:[[@User:ID@]]@",
+                "@Case:upper:[[@User:LDAP:givenName@]]@ @Hash:md5:[[@User:Email@]]@",
+                "@PwmAppName@/@PwmVendorName@ @User:LdapProfile@ @User:Email@ @TargetUser:Email@",
+                "@User:PwExpireTime:yyyy-MM-dd:UTC@ @User:DaysUntilPwExpire@ @OtpSetupTime@ @ResponseSetupTime@" );
+
+        for ( final String input : inputs )
+        {
+            Assert.assertEquals( input, MacroMachine.expandMacrosUsingPatternScan( macroRequest, input ), macroRequest.expandMacros( input ) );
+        }
+    }
 }
@@ -24,6 +24,7 @@ import org.hamcrest.CoreMatchers;
 import org.hamcrest.Matcher;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsCollectionContaining;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -445,6 +446,50 @@ public class PasswordRuleChecksTest
         }
     }
 
+    @Test
+    public void regExPatternsTest()
+            throws Exception
+    {
+        final Map<String, String> policyMap = new HashMap<>();
+        policyMap.put( PwmPasswordRule.RegExMatch.getKey(), "^[a-z0-9]+$" );
+        policyMap.put( PwmPasswordRule.RegExNoMatch.getKey(), "^[0-9]+$;;;.*xyz.*" );
+
+        // violations
+        MatcherAssert.assertThat( doCheck( policyMap, "abc^" ), hasItems( PwmError.PASSWORD_INVALID_CHAR ) );
+        MatcherAssert.assertThat( doCheck( policyMap, "123" ), hasItems( PwmError.PASSWORD_INVALID_CHAR ) );
+        MatcherAssert.assertThat( doCheck( policyMap, "abxyzc" ), hasItems( PwmError.PASSWORD_INVALID_CHAR ) );
+
+        // not violations
+        MatcherAssert.assertThat( doCheck( policyMap, "abc123" ), not( hasItems( PwmError.PASSWORD_INVALID_CHAR ) ) );
+    }
+
+    @Test
+    public void compiledPolicyReuseTest()
+            throws Exception
+    {
+        final PwmDomain pwmDomain = pwmApplication.domains().get( DomainID.create( "default" ) );
+        final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
+        policyMap.put( PwmPasswordRule.MinimumLength.getKey(), "5" );
+        policyMap.put( PwmPasswordRule.RegExNoMatch.getKey(), ".*secret.*" );
+        final PwmPasswordPolicy pwmPasswordPolicy = PwmPasswordPolicy.createPwmPasswordPolicy( PwmPasswordPolicy.defaultPolicy().getDomainID(), policyMap );
+
+        final CompiledPasswordPolicy compiledPolicy = CompiledPasswordPolicy.forPolicy( pwmDomain, SessionLabel.TEST_SESSION_LABEL, pwmPasswordPolicy, null );
+        Assert.assertEquals( 5, compiledPolicy.readIntValue( PwmPasswordRule.MinimumLength ) );
+        Assert.assertEquals( 1, compiledPolicy.getRegExNoMatch().size() );
+
+        // the policy instance keeps its compiled form, so repeated checks do not re-parse the policy
+        Assert.assertSame( compiledPolicy, CompiledPasswordPolicy.forPolicy( pwmDomain, SessionLabel.TEST_SESSION_LABEL, pwmPasswordPolicy, null ) );
+
+        final List<ErrorInformation> errorResults = PasswordRuleChecks.extendedPolicyRuleChecker(
+                SessionLabel.TEST_SESSION_LABEL, pwmDomain, pwmPasswordPolicy, "mysecretword", null, null );
+        MatcherAssert.assertThat( errorResults.stream().map( ErrorInformation::getError ).collect( Collectors.toSet() ), hasItems( PwmError.PASSWORD_INVALID_CHAR ) );
+        Assert.assertSame( compiledPolicy, pwmPasswordPolicy.readCompiledPolicy().orElseThrow() );
+
+        // a different policy instance is compiled separately
+        final PwmPasswordPolicy otherPolicy = PwmPasswordPolicy.createPwmPasswordPolicy( PwmPasswordPolicy.defaultPolicy().getDomainID(), policyMap );
+        Assert.assertNotSame( compiledPolicy, CompiledPasswordPolicy.forPolicy( pwmDomain, SessionLabel.TEST_SESSION_LABEL, otherPolicy, null ) );
+    }
+
     private Set<PwmError> doCheck(
             final Map<String, String> policy,
             final String password